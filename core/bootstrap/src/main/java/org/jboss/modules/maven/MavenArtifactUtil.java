@@ -42,6 +42,7 @@ import org.jboss.modules.Module;
 import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.ResourceLoaders;
 import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+import org.wildfly.swarm.bootstrap.modules.MultiMavenResolver;
 import org.wildfly.swarm.bootstrap.util.JarFileManager;
 import org.xml.sax.InputSource;
 
@@ -268,7 +269,14 @@ public final class MavenArtifactUtil {
      * @throws IOException if the artifact could not be resolved
      */
     public static ResourceLoader createMavenArtifactLoader(final MavenResolver mavenResolver, final String name) throws IOException {
-        File fp = mavenResolver.resolveJarArtifact(ArtifactCoordinates.fromString(name));
+        ArtifactCoordinates coordinates = ArtifactCoordinates.fromString(name);
+        if (mavenResolver instanceof MultiMavenResolver) {
+            ResourceLoader direct = ((MultiMavenResolver) mavenResolver).createResourceLoader(coordinates, name);
+            if (direct != null) {
+                return direct;
+            }
+        }
+        File fp = mavenResolver.resolveJarArtifact(coordinates);
         if (fp == null) return null;
         Matcher matcher = tempFilePattern.matcher(fp.getName());
         JarFile jarFile = null;
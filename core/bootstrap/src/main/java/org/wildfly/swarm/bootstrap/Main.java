@@ -130,6 +130,13 @@ public class Main {
         __JAXPRedirected.changeAll("swarm.container", Module.getBootModuleLoader());
         mainInvoker = new MainInvoker(ApplicationEnvironment.get().getMainClassName(), this.args);
         mainInvoker.invoke();
+
+        if (BootstrapProperties.flagIsSet(BootstrapProperties.CDS_TRAINING)
+                || System.getProperty(BootstrapProperties.BOOTSTRAP_MODEL_EXPORT) != null) {
+            // a training or export boot stops once started; the JVM dumps the classes it loaded on exit
+            mainInvoker.stop();
+            System.exit(0);
+        }
     }
 
     public void setupBootModuleLoader() {
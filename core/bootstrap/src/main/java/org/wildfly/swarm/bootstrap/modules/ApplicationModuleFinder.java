@@ -18,8 +18,14 @@ package org.wildfly.swarm.bootstrap.modules;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.jar.JarFile;
 
 import org.jboss.modules.DependencySpec;
@@ -34,8 +40,9 @@ import org.jboss.modules.filter.PathFilters;
 import org.jboss.modules.maven.ArtifactCoordinates;
 import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
 import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
 import org.wildfly.swarm.bootstrap.util.BootstrapUtil;
-import org.wildfly.swarm.bootstrap.util.JarFileManager;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -129,6 +136,10 @@ public class ApplicationModuleFinder extends AbstractSingleModuleFinder {
             name = name.substring(0, dotLoc);
         }
 
+        if (BootstrapProperties.flagIsSet(BootstrapProperties.APP_IN_PLACE) && addAssetInPlace(builder, path, name, ext)) {
+            return;
+        }
+
         File tmp = TempFileManager.INSTANCE.newTempFile(name, ext);
 
         try (InputStream artifactIn = getClass().getClassLoader().getResourceAsStream(path)) {
@@ -160,7 +171,69 @@ public class ApplicationModuleFinder extends AbstractSingleModuleFinder {
         }
     }
 
+    /**
+     * Add resource roots reading the application archive in place, rather than exploding it.
+     *
+     * <p>Only an archive mapped from disk, either stored uncompressed in the uberjar or as a file of its own,
+     * is read in place; a compressed one would have to be inflated onto the heap for the lifetime of the JVM,
+     * so it is exploded instead. Nothing is written to disk: the deployment imports the archive from the same
+     * view, and the exploded directory is only created if something still asks for one.</p>
+     *
+     * @return <code>true</code> if the resource roots were added, <code>false</code> if the archive must be exploded.
+     */
+    private boolean addAssetInPlace(ModuleSpec.Builder builder, String path, String name, String ext) throws IOException {
+        URL url = getClass().getClassLoader().getResource(path);
+        if (url == null) {
+            return false;
+        }
+
+        MappedZipFile archive = null;
+        try {
+            String urlString = url.toExternalForm();
+            int separatorLoc = urlString.indexOf(JAR_SEPARATOR);
+            if (urlString.startsWith(JAR_FILE_PREFIX) && separatorLoc > 0) {
+                String outerPath = URLDecoder.decode(urlString.substring(JAR_FILE_PREFIX.length(), separatorLoc), StandardCharsets.UTF_8.name());
+                MappedZipFile outer = MappedZipFile.map(new File(outerPath));
+                MappedZipFile.Entry entry = (outer == null ? null : outer.getEntry(urlString.substring(separatorLoc + JAR_SEPARATOR.length())));
+                if (entry != null) {
+                    // null unless the entry is STORED
+                    archive = outer.nested(entry);
+                }
+            } else if ("file".equals(url.getProtocol())) {
+                archive = MappedZipFile.map(new File(url.toURI()));
+            }
+
+            if (archive == null) {
+                return false;
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOG.debug("Unable to read " + path + " in place, exploding it: " + e.getMessage());
+            return false;
+        }
+
+        final MappedZipFile app = archive;
+        final String jarName = name + ext;
+
+        builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(new MappedJarResourceLoader(jarName, app, url)));
+
+        if (".war".equalsIgnoreCase(ext)) {
+            builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(new MappedJarResourceLoader(jarName + "WEBINF", app, url, "WEB-INF/classes/")));
+        }
+
+        // SWARM-1473: the deployment's ShrinkWrap archive is imported from the same view; only a caller asking
+        // for the exploded directory itself makes us write one
+        TempFileManager.INSTANCE.setApplicationArtifactInPlace(app);
+        TempFileManager.INSTANCE.deferExplodedApplicationArtifact(() -> {
+            File tmpDir = TempFileManager.INSTANCE.newTempDirectory(name, ext);
+            app.explodeTo(tmpDir);
+            return tmpDir;
+        });
+
+        return true;
+    }
+
     protected void addDependencies(ModuleSpec.Builder builder, ApplicationEnvironment env) {
+        List<ArtifactCoordinates> coordinates = new ArrayList<>();
         env.getDependencies()
                 .forEach((dep) -> {
                     String[] parts = dep.split(":");
@@ -175,23 +248,26 @@ public class ApplicationModuleFinder extends AbstractSingleModuleFinder {
                     } else if (parts.length == 5) {
                         coords = new ArtifactCoordinates(parts[0], parts[1], parts[4], parts[3]);
                     }
-                    try {
-                        File artifact = MavenResolvers.get().resolveJarArtifact(coords);
-                        if (artifact == null) {
-                            LOG.error("Unable to find artifact for " + coords);
-                            return;
-                        }
-                        JarFile jar = JarFileManager.INSTANCE.addJarFile(artifact);
-
-                        builder.addResourceRoot(
-                                ResourceLoaderSpec.createResourceLoaderSpec(
-                                        ResourceLoaders.createJarResourceLoader(artifact.getName(), jar)
-                                )
-                        );
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
+                    coordinates.add(coords);
                 });
+
+        List<ResourceLoader> loaders;
+        try {
+            loaders = ParallelArtifactResolver.resolve(coordinates);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (int i = 0; i < loaders.size(); ++i) {
+            ResourceLoader loader = loaders.get(i);
+            if (loader == null) {
+                LOG.error("Unable to find artifact for " + coordinates.get(i));
+                continue;
+            }
+            builder.addResourceRoot(
+                    ResourceLoaderSpec.createResourceLoaderSpec(loader)
+            );
+        }
     }
 
     private void addClasspathJars(ModuleSpec.Builder builder) throws IOException {
@@ -214,5 +290,9 @@ public class ApplicationModuleFinder extends AbstractSingleModuleFinder {
         }
     }
 
+    private static final String JAR_FILE_PREFIX = "jar:file:";
+
+    private static final String JAR_SEPARATOR = "!/";
+
     private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.modules.application");
 }
@@ -15,10 +15,8 @@
  */
 package org.wildfly.swarm.bootstrap.modules;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.HashSet;
-import java.util.jar.JarFile;
+import java.util.List;
 
 import org.jboss.modules.DependencySpec;
 import org.jboss.modules.ModuleLoadException;
@@ -28,10 +26,10 @@ import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.ResourceLoaderSpec;
 import org.jboss.modules.ResourceLoaders;
 import org.jboss.modules.filter.PathFilter;
+import org.jboss.modules.maven.ArtifactCoordinates;
 import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
 import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
 import org.wildfly.swarm.bootstrap.performance.Performance;
-import org.wildfly.swarm.bootstrap.util.JarFileManager;
 
 /**
  * Module-finder used only for loading the first set of jars when run in an fat-jar scenario.
@@ -63,25 +61,21 @@ public class BootstrapModuleFinder extends AbstractSingleModuleFinder {
                 }
             };
 
-            env.bootstrapArtifactsAsCoordinates()
-                    .forEach((coords) -> {
-                        try {
-                            File artifact = MavenResolvers.get().resolveJarArtifact(coords);
-                            if (artifact == null) {
-                                throw new RuntimeException("Unable to resolve artifact from coordinates: " + coords);
-                            }
-                            JarFile jar = JarFileManager.INSTANCE.addJarFile(artifact);
-                            ResourceLoader originaloader = ResourceLoaders.createJarResourceLoader(artifact.getName(), jar);
-
-                            builder.addResourceRoot(
-                                    ResourceLoaderSpec.createResourceLoaderSpec(
-                                            ResourceLoaders.createFilteredResourceLoader(filter, originaloader)
-                                    )
-                            );
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+            List<ArtifactCoordinates> coordinates = env.bootstrapArtifactsAsCoordinates();
+            List<ResourceLoader> loaders = ParallelArtifactResolver.resolve(coordinates);
+
+            for (int i = 0; i < loaders.size(); ++i) {
+                ResourceLoader originaloader = loaders.get(i);
+                if (originaloader == null) {
+                    throw new RuntimeException("Unable to resolve artifact from coordinates: " + coordinates.get(i));
+                }
+
+                builder.addResourceRoot(
+                        ResourceLoaderSpec.createResourceLoaderSpec(
+                                ResourceLoaders.createFilteredResourceLoader(filter, originaloader)
+                        )
+                );
+            }
 
             builder.addDependency(DependencySpec.createLocalDependencySpec());
             builder.addDependency(DependencySpec.createModuleDependencySpec("org.jboss.modules"));
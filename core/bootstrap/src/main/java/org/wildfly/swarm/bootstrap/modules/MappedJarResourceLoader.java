@@ -0,0 +1,248 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.jboss.modules.AbstractResourceLoader;
+import org.jboss.modules.ClassSpec;
+import org.jboss.modules.IterableResourceLoader;
+import org.jboss.modules.PackageSpec;
+import org.jboss.modules.PathUtils;
+import org.jboss.modules.Resource;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
+
+/**
+ * Resource-loader serving classes and resources directly from a jar which is stored (uncompressed)
+ * inside another jar, such as the <code>m2repo/</code> entries of an uberjar.
+ *
+ * <p>Nothing is copied to disk; entries are read from a memory-mapped view of the outer file.</p>
+ */
+public class MappedJarResourceLoader extends AbstractResourceLoader implements IterableResourceLoader {
+
+    public MappedJarResourceLoader(String rootName, MappedZipFile zip, URL rootUrl) {
+        this(rootName, zip, rootUrl, "");
+    }
+
+    /**
+     * Construct a loader over part of a jar only, such as the <code>WEB-INF/classes/</code> of a war.
+     *
+     * @param rootName The name of the loader.
+     * @param zip      The jar.
+     * @param rootUrl  The URL of the jar.
+     * @param prefix   The path within the jar to serve from, ending in a slash, or empty for the whole jar.
+     */
+    public MappedJarResourceLoader(String rootName, MappedZipFile zip, URL rootUrl, String prefix) {
+        this.rootName = rootName;
+        this.zip = zip;
+        this.rootUrl = rootUrl;
+        this.prefix = prefix;
+        this.codeSource = new CodeSource(rootUrl, (CodeSigner[]) null);
+        this.handler = new MappedURLStreamHandler();
+
+        Set<String> paths = new HashSet<>();
+        for (MappedZipFile.Entry each : zip.entries()) {
+            String name = relativeName(each);
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            if (each.isDirectory()) {
+                paths.add(name.substring(0, name.length() - 1));
+            } else {
+                int slashLoc = name.lastIndexOf('/');
+                paths.add(slashLoc == -1 ? "" : name.substring(0, slashLoc));
+            }
+        }
+        this.paths = Collections.unmodifiableSet(paths);
+    }
+
+    @Override
+    public String getRootName() {
+        return this.rootName;
+    }
+
+    @Override
+    public ClassSpec getClassSpec(String fileName) throws IOException {
+        MappedZipFile.Entry entry = this.zip.getEntry(this.prefix + fileName);
+        if (entry == null) {
+            return null;
+        }
+        ClassSpec spec = new ClassSpec();
+        spec.setCodeSource(this.codeSource);
+        spec.setBytes(this.zip.getBytes(entry));
+        return spec;
+    }
+
+    @Override
+    public PackageSpec getPackageSpec(String name) throws IOException {
+        return getPackageSpec(name, getManifest(), this.rootUrl);
+    }
+
+    @Override
+    public Resource getResource(String name) {
+        MappedZipFile.Entry entry = this.zip.getEntry(this.prefix + PathUtils.canonicalize(PathUtils.relativize(name)));
+        if (entry == null) {
+            return null;
+        }
+        return new MappedResource(entry);
+    }
+
+    @Override
+    public Collection<String> getPaths() {
+        return this.paths;
+    }
+
+    @Override
+    public Iterator<Resource> iterateResources(String startPath, boolean recursive) {
+        String start = PathUtils.canonicalize(PathUtils.relativize(startPath));
+        if (start.endsWith("/")) {
+            start = start.substring(0, start.length() - 1);
+        }
+
+        List<Resource> resources = new ArrayList<>();
+        for (MappedZipFile.Entry each : this.zip.entries()) {
+            String name = relativeName(each);
+            if (name == null || each.isDirectory()) {
+                continue;
+            }
+            int slashLoc = name.lastIndexOf('/');
+            String parent = slashLoc == -1 ? "" : name.substring(0, slashLoc);
+            if (parent.equals(start) || (recursive && (start.isEmpty() || parent.startsWith(start + "/")))) {
+                resources.add(new MappedResource(each));
+            }
+        }
+        return resources.iterator();
+    }
+
+    private String relativeName(MappedZipFile.Entry entry) {
+        String name = entry.getName();
+        if (!name.startsWith(this.prefix)) {
+            return null;
+        }
+        return name.substring(this.prefix.length());
+    }
+
+    private Manifest getManifest() throws IOException {
+        if (this.manifest == null) {
+            MappedZipFile.Entry entry = this.zip.getEntry(JarFile.MANIFEST_NAME);
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = this.zip.getInputStream(entry)) {
+                this.manifest = new Manifest(in);
+            }
+        }
+        return this.manifest;
+    }
+
+    public String toString() {
+        return "MappedJarResourceLoader: " + this.rootUrl;
+    }
+
+    private final String rootName;
+
+    private final MappedZipFile zip;
+
+    private final URL rootUrl;
+
+    private final String prefix;
+
+    private final CodeSource codeSource;
+
+    private final URLStreamHandler handler;
+
+    private final Collection<String> paths;
+
+    private volatile Manifest manifest;
+
+    private class MappedResource implements Resource {
+
+        MappedResource(MappedZipFile.Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getName() {
+            return relativeName(this.entry);
+        }
+
+        @Override
+        public URL getURL() {
+            try {
+                return new URL(null, rootUrl.toExternalForm() + "!/" + this.entry.getName(), handler);
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return zip.getInputStream(this.entry);
+        }
+
+        @Override
+        public long getSize() {
+            return this.entry.getSize();
+        }
+
+        private final MappedZipFile.Entry entry;
+    }
+
+    private class MappedURLStreamHandler extends URLStreamHandler {
+
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            String spec = url.toExternalForm();
+            String name = spec.substring(spec.lastIndexOf("!/") + 2);
+            MappedZipFile.Entry entry = zip.getEntry(name);
+            if (entry == null) {
+                throw new IOException("Not found: " + url);
+            }
+            return new URLConnection(url) {
+                @Override
+                public void connect() {
+                    this.connected = true;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return zip.getInputStream(entry);
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    return entry.getSize();
+                }
+            };
+        }
+    }
+}
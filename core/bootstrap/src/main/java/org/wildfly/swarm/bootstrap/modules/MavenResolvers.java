@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Optional;
 
+import org.jboss.modules.ResourceLoader;
+import org.jboss.modules.maven.ArtifactCoordinates;
 import org.jboss.modules.maven.MavenResolver;
 import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
 import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
@@ -31,10 +33,21 @@ public class MavenResolvers {
 
     private static BootstrapLogger LOGGER = BootstrapLogger.logger("org.wildfly.swarm.bootstrap");
 
-    public static synchronized MavenResolver get() {
+    public static MavenResolver get() {
         return INSTANCE;
     }
 
+    /**
+     * Create a resource-loader for a jar artifact bundled uncompressed in the uberjar, reading it in place.
+     *
+     * @param coordinates The coordinates of the artifact.
+     * @param name        The name of the resource-loader.
+     * @return The resource-loader, or <code>null</code> if the artifact must be resolved through {@link #get()}.
+     */
+    public static ResourceLoader createResourceLoader(ArtifactCoordinates coordinates, String name) {
+        return INSTANCE.createResourceLoader(coordinates, name);
+    }
+
     public static synchronized void close() throws IOException {
         INSTANCE.close();
     }
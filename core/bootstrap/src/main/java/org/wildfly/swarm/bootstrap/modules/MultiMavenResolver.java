@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.maven.ArtifactCoordinates;
 import org.jboss.modules.maven.MavenResolver;
 import org.wildfly.swarm.bootstrap.performance.Performance;
@@ -56,6 +57,22 @@ public class MultiMavenResolver implements MavenResolver, Closeable {
         }
     }
 
+    /**
+     * Create a resource-loader for a jar artifact which can be read in place, without resolving it to a file.
+     *
+     * @param coordinates The coordinates of the artifact.
+     * @param name        The name of the resource-loader.
+     * @return The resource-loader, or <code>null</code> if the artifact must be resolved to a file.
+     */
+    public ResourceLoader createResourceLoader(ArtifactCoordinates coordinates, String name) {
+        for (MavenResolver resolver : this.resolvers) {
+            if (resolver instanceof UberJarMavenResolver) {
+                return ((UberJarMavenResolver) resolver).createResourceLoader(coordinates, name);
+            }
+        }
+        return null;
+    }
+
     public void close() throws IOException {
         for (MavenResolver resolver : this.resolvers) {
             if (resolver instanceof Closeable) {
@@ -37,6 +37,7 @@ import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.ResourceLoaders;
 import org.wildfly.swarm.bootstrap.performance.Performance;
 import org.wildfly.swarm.bootstrap.util.BootstrapUtil;
+import org.wildfly.swarm.bootstrap.util.ExplodedJarCache;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -103,17 +104,21 @@ public class NestedJarResourceLoader {
                     File exp = exploded.get(jarPath);
                     if (exp == null) {
                         try (AutoCloseable explodingHandle = Performance.accumulate("Exploding JAR")) {
-                            exp = TempFileManager.INSTANCE.newTempDirectory("module-jar", ".jar_d");
-                            try (JarFile jarFile = new JarFile(jarPath)) {
-                                Enumeration<JarEntry> entries = jarFile.entries();
-                                while (entries.hasMoreElements()) {
-                                    JarEntry each = entries.nextElement();
-                                    if (!each.isDirectory()) {
-                                        File out = new File(exp, each.getName());
-                                        out.getParentFile().mkdirs();
-                                        InputStream in = jarFile.getInputStream(each);
-                                        Files.copy(in, out.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                                        in.close();
+                            if (ExplodedJarCache.isEnabled()) {
+                                exp = ExplodedJarCache.get().explode(new File(jarPath));
+                            } else {
+                                exp = TempFileManager.INSTANCE.newTempDirectory("module-jar", ".jar_d");
+                                try (JarFile jarFile = new JarFile(jarPath)) {
+                                    Enumeration<JarEntry> entries = jarFile.entries();
+                                    while (entries.hasMoreElements()) {
+                                        JarEntry each = entries.nextElement();
+                                        if (!each.isDirectory()) {
+                                            File out = new File(exp, each.getName());
+                                            out.getParentFile().mkdirs();
+                                            InputStream in = jarFile.getInputStream(each);
+                                            Files.copy(in, out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                                            in.close();
+                                        }
                                     }
                                 }
                             }
@@ -146,16 +151,7 @@ public class NestedJarResourceLoader {
             if (endLoc > 0) {
                 Path resourceRoot = exp.resolve(loaderPath);
                 if (!Files.isDirectory(resourceRoot) && (resourceRoot.getFileName().toString().endsWith(".jar") || resourceRoot.getFileName().toString().endsWith(".war"))) {
-                    final File file = resourceRoot.toFile();
-                    final JarFile jarFile = new JarFile(file);
-
-                    File tmpDir = TempFileManager.INSTANCE.newTempDirectory("nestedjarloader", null);
-                    //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
-                    BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
-
-                    jarFile.close();
-
-                    return ResourceLoaders.createFileResourceLoader(loaderName, tmpDir);
+                    return ResourceLoaders.createFileResourceLoader(loaderName, explodeNested(resourceRoot.toFile()));
                 } else {
                     return ResourceLoaders.createFileResourceLoader(loaderName, resourceRoot.toFile());
                 }
@@ -163,15 +159,7 @@ public class NestedJarResourceLoader {
         } else if (urlString.startsWith("file:")) {
             if (loaderName.endsWith(".jar") || loaderName.endsWith(".war")) {
                 final File file = new File(urlString.substring(5), loaderPath);
-                final JarFile jarFile = new JarFile(file);
-
-                File tmpDir = TempFileManager.INSTANCE.newTempDirectory("nestedjarloader", null);
-                //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
-                BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
-
-                jarFile.close();
-
-                return ResourceLoaders.createFileResourceLoader(loaderName, tmpDir);
+                return ResourceLoaders.createFileResourceLoader(loaderName, explodeNested(file));
             }
 
             return ResourceLoaders.createFileResourceLoader(
@@ -186,6 +174,19 @@ public class NestedJarResourceLoader {
         throw new IllegalArgumentException("Illegal module loader base: " + base + " // " + loaderPath + " // " + loaderName);
     }
 
+    private static File explodeNested(File file) throws IOException {
+        if (ExplodedJarCache.isEnabled()) {
+            return ExplodedJarCache.get().explode(file);
+        }
+
+        File tmpDir = TempFileManager.INSTANCE.newTempDirectory("nestedjarloader", null);
+        //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
+        try (JarFile jarFile = new JarFile(file)) {
+            BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
+        }
+        return tmpDir;
+    }
+
     private static Map<String, File> exploded = new HashMap<>();
 
     private static Set<String> explosionNotRequired = new HashSet<>();
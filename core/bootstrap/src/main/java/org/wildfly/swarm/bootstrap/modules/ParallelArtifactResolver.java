@@ -0,0 +1,121 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import org.jboss.modules.ResourceLoader;
+import org.jboss.modules.ResourceLoaders;
+import org.jboss.modules.maven.ArtifactCoordinates;
+import org.jboss.modules.maven.MavenResolver;
+import org.wildfly.swarm.bootstrap.performance.Performance;
+import org.wildfly.swarm.bootstrap.util.JarFileManager;
+
+/**
+ * Resolves jar artifacts and opens them as resource-loaders, fanning the work out over a bounded pool.
+ *
+ * <p>Results are always returned in the order of the requested coordinates, so the resource roots of
+ * a module are identical whether resolution ran in parallel or not.</p>
+ */
+public class ParallelArtifactResolver {
+
+    /**
+     * Maximum number of threads used to resolve artifacts. <code>1</code> resolves on the calling thread.
+     */
+    public static final String THREADS_PROPERTY = "swarm.bootstrap.resolution.threads";
+
+    private static final int MAX_DEFAULT_THREADS = 8;
+
+    private ParallelArtifactResolver() {
+    }
+
+    /**
+     * Resolve and open a list of jar artifacts.
+     *
+     * @param coordinates The artifacts to resolve.
+     * @return A resource-loader per artifact, in the same order, with <code>null</code> for artifacts which could not be resolved.
+     * @throws IOException If an artifact cannot be read.
+     */
+    public static List<ResourceLoader> resolve(List<ArtifactCoordinates> coordinates) throws IOException {
+        return resolve(coordinates, MavenResolvers.get());
+    }
+
+    static List<ResourceLoader> resolve(List<ArtifactCoordinates> coordinates, MavenResolver resolver) throws IOException {
+        try (AutoCloseable handle = Performance.accumulate("artifact-resolver: parallel")) {
+            ForkJoinPool pool = pool();
+            if (pool == null || coordinates.size() < 2) {
+                return coordinates.stream()
+                        .map(e -> resolve(e, resolver))
+                        .collect(Collectors.toList());
+            }
+            return pool.submit(() -> coordinates.parallelStream()
+                    .map(e -> resolve(e, resolver))
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static ResourceLoader resolve(ArtifactCoordinates coords, MavenResolver resolver) {
+        try {
+            if (resolver instanceof MultiMavenResolver) {
+                ResourceLoader loader = ((MultiMavenResolver) resolver).createResourceLoader(coords, coords.toString());
+                if (loader != null) {
+                    return loader;
+                }
+            }
+            File artifact = resolver.resolveJarArtifact(coords);
+            if (artifact == null) {
+                return null;
+            }
+            JarFile jar = JarFileManager.INSTANCE.addJarFile(artifact);
+            return ResourceLoaders.createJarResourceLoader(artifact.getName(), jar);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = Integer.getInteger(THREADS_PROPERTY, Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_THREADS));
+            if (threads <= 1) {
+                return null;
+            }
+            // worker threads are daemons, so an idle pool never holds up shutdown
+            pool = new ForkJoinPool(threads);
+        }
+        return pool;
+    }
+
+    private static ForkJoinPool pool;
+}
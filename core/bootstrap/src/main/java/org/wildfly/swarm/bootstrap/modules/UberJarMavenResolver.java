@@ -19,6 +19,9 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 
@@ -30,7 +33,11 @@ import java.util.regex.Pattern;
 
 import org.jboss.modules.maven.ArtifactCoordinates;
 
+import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.maven.MavenResolver;
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -38,6 +45,15 @@ import org.wildfly.swarm.bootstrap.util.TempFileManager;
  */
 public class UberJarMavenResolver implements MavenResolver, Closeable {
 
+    /**
+     * Set to <code>false</code> to always copy bundled artifacts out of the uberjar, even when they are stored uncompressed.
+     */
+    public static final String DIRECT_LOADING_PROPERTY = "swarm.m2repo.direct";
+
+    private static final String JAR_FILE_PREFIX = "jar:file:";
+
+    private static final String JAR_SEPARATOR = "!/";
+
     private static final String HYPHEN = "-";
 
     private static final String DOT = ".";
@@ -56,20 +72,19 @@ public class UberJarMavenResolver implements MavenResolver, Closeable {
         File resolved = this.resolutionCache.get(coordinates);
         if (resolved == null) {
 
-            String artifactRelativePath = "m2repo/" + relativeArtifactPath('/', coordinates.getGroupId(), coordinates.getArtifactId(), coordinates.getVersion());
-            String classifier = "";
-            if (coordinates.getClassifier() != null && !coordinates.getClassifier().trim().isEmpty()) {
-                classifier = HYPHEN + coordinates.getClassifier();
-            }
-
-            String jarPath = artifactRelativePath + classifier + DOT + packaging;
+            String jarPath = bundledPath(coordinates, packaging);
 
             InputStream stream = UberJarMavenResolver.class.getClassLoader().getResourceAsStream(jarPath);
 
             if (stream != null) {
                 try {
                     resolved = copyTempJar(coordinates.getArtifactId() + HYPHEN + coordinates.getVersion(), stream, packaging);
-                    this.resolutionCache.put(coordinates, resolved);
+                    // artifacts may be resolved concurrently; keep whichever copy landed first
+                    File existing = this.resolutionCache.putIfAbsent(coordinates, resolved);
+                    if (existing != null) {
+                        resolved.delete();
+                        resolved = existing;
+                    }
                 } finally {
                     stream.close();
                 }
@@ -79,6 +94,64 @@ public class UberJarMavenResolver implements MavenResolver, Closeable {
         return resolved;
     }
 
+    /**
+     * Create a resource-loader reading a bundled jar in place, without copying it out of the uberjar.
+     *
+     * <p>This is only possible when the uberjar is a regular file and the artifact has been stored
+     * uncompressed, as done by <code>BuildTool</code> when building with an uncompressed repository.</p>
+     *
+     * @param coordinates The coordinates of the artifact.
+     * @param name        The name of the resource-loader.
+     * @return The resource-loader, or <code>null</code> if the artifact cannot be read in place.
+     */
+    public ResourceLoader createResourceLoader(ArtifactCoordinates coordinates, String name) {
+        if (!BootstrapProperties.flagIsSet(DIRECT_LOADING_PROPERTY, true)) {
+            return null;
+        }
+
+        String jarPath = bundledPath(coordinates, "jar");
+        URL url = UberJarMavenResolver.class.getClassLoader().getResource(jarPath);
+        if (url == null) {
+            return null;
+        }
+
+        String urlString = url.toExternalForm();
+        int separatorLoc = urlString.indexOf(JAR_SEPARATOR);
+        if (!urlString.startsWith(JAR_FILE_PREFIX) || separatorLoc < 0) {
+            return null;
+        }
+
+        try {
+            String outerPath = URLDecoder.decode(urlString.substring(JAR_FILE_PREFIX.length(), separatorLoc), StandardCharsets.UTF_8.name());
+            MappedZipFile outer = MappedZipFile.map(new File(outerPath));
+            if (outer == null) {
+                return null;
+            }
+            MappedZipFile.Entry entry = outer.getEntry(urlString.substring(separatorLoc + JAR_SEPARATOR.length()));
+            if (entry == null) {
+                return null;
+            }
+            MappedZipFile nested = outer.nested(entry);
+            if (nested == null) {
+                return null;
+            }
+            return new MappedJarResourceLoader(name, nested, url);
+        } catch (IOException e) {
+            LOG.debug("Unable to read " + jarPath + " in place, falling back to copying: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String bundledPath(ArtifactCoordinates coordinates, String packaging) {
+        String artifactRelativePath = "m2repo/" + relativeArtifactPath('/', coordinates.getGroupId(), coordinates.getArtifactId(), coordinates.getVersion());
+        String classifier = "";
+        if (coordinates.getClassifier() != null && !coordinates.getClassifier().trim().isEmpty()) {
+            classifier = HYPHEN + coordinates.getClassifier();
+        }
+
+        return artifactRelativePath + classifier + DOT + packaging;
+    }
+
     @Override
     public void close() throws IOException {
         resolutionCache.forEach((a, f) -> {
@@ -103,4 +176,6 @@ public class UberJarMavenResolver implements MavenResolver, Closeable {
 
     private static final Pattern snapshotPattern = Pattern.compile("-\\d{8}\\.\\d{6}-\\d+$");
 
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.bootstrap");
+
 }
@@ -15,8 +15,8 @@
  */
 package org.wildfly.swarm.bootstrap.performance;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +26,7 @@ public class Accumulator {
 
     private final String description;
 
-    private List<TimedEvent> children = new ArrayList<>();
+    private Queue<TimedEvent> children = new ConcurrentLinkedQueue<>();
 
     Accumulator(String description) {
         this.description = description;
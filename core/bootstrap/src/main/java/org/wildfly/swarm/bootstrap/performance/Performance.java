@@ -16,10 +16,10 @@
 package org.wildfly.swarm.bootstrap.performance;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -29,7 +29,7 @@ public class Performance {
 
     private static long START_TIME = -1;
 
-    static Map<String, Accumulator> ACCUMULATORS = new HashMap<>();
+    static Map<String, Accumulator> ACCUMULATORS = new ConcurrentHashMap<>();
 
     static Stack<ContextualizedEvent> CONTEXT_STACK = new Stack<>();
 
@@ -72,14 +72,8 @@ public class Performance {
         return event;
     }
 
-    public static synchronized AutoCloseable accumulate(String description) {
-        Accumulator accumulator = ACCUMULATORS.get(description);
-        if (accumulator == null) {
-            accumulator = new Accumulator(description);
-            ACCUMULATORS.put(description, accumulator);
-        }
-
-        return accumulator.newChild();
+    public static AutoCloseable accumulate(String description) {
+        return ACCUMULATORS.computeIfAbsent(description, Accumulator::new).newChild();
     }
 
     public static String dump() {
@@ -25,10 +25,26 @@ public class BootstrapProperties {
 
     public static final String APP_ARTIFACT = "swarm.app.artifact";
 
+    /**
+     * Read the application archive in place instead of exploding it at boot, if it is stored uncompressed.
+     */
+    public static final String APP_IN_PLACE = "swarm.app.in-place";
+
     public static final String DEFAULT_DEPLOYMENT_TYPE = "swarm.default.deployment.type";
 
     public static final String IS_UBERJAR = "swarm.isuberjar";
 
+    /**
+     * Exit as soon as the application has booted, so the JVM can write a class-data sharing archive.
+     */
+    public static final String CDS_TRAINING = "swarm.cds.training";
+
+    /**
+     * Write the bootstrap model computed at boot to the given file and exit as soon as the application has booted,
+     * so the model can be packaged into the uberjar.
+     */
+    public static final String BOOTSTRAP_MODEL_EXPORT = "swarm.bootstrap.model.export";
+
     private BootstrapProperties() {
     }
 
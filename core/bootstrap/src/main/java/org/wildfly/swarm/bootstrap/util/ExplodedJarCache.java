@@ -0,0 +1,370 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+
+/**
+ * Persistent cache of exploded jars.
+ *
+ * <p>Enabled by setting {@link #CACHE_DIR_PROPERTY}. Each jar is exploded at most once into
+ * <code>&lt;cache-dir&gt;/&lt;key&gt;</code>, keyed by the path, size and modification time of the jar, and
+ * later boots reuse that directory as-is. Population happens in a private staging directory which is atomically
+ * renamed into place, and is serialized across JVMs through an exclusive lock on a sibling <code>.lock</code>
+ * file. While a JVM uses an entry it holds a shared lock on it, so eviction never removes a directory another
+ * boot relies on.</p>
+ *
+ * <p>Entries not used within {@link #MAX_AGE_PROPERTY} days, or beyond the {@link #MAX_ENTRIES_PROPERTY}
+ * most recently used, are evicted whenever a new entry is populated, along with the lock files of entries which
+ * no longer exist. Entry lock files are only opened under a shared lock on the cache-wide {@link #CACHE_LOCK}
+ * file and eviction holds it exclusively, so no JVM can be left holding a lock on a deleted lock file. Eviction
+ * is skipped while another boot holds the cache lock.</p>
+ */
+public class ExplodedJarCache {
+
+    public static final String CACHE_DIR_PROPERTY = "swarm.bootstrap.cache.dir";
+
+    public static final String MAX_ENTRIES_PROPERTY = "swarm.bootstrap.cache.max-entries";
+
+    public static final String MAX_AGE_PROPERTY = "swarm.bootstrap.cache.max-age-days";
+
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    public static final int DEFAULT_MAX_AGE_DAYS = 30;
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final String STAGING_SUFFIX = ".staging";
+
+    private static final String COMPLETE_MARKER = ".swarm-complete";
+
+    private static final String CACHE_LOCK = ".swarm-cache.lock";
+
+    private static final String READ_WRITE = "rw";
+
+    public static final ExplodedJarCache INSTANCE = create();
+
+    private static ExplodedJarCache create() {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new ExplodedJarCache(new File(dir.trim()),
+                                        Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES),
+                                        Integer.getInteger(MAX_AGE_PROPERTY, DEFAULT_MAX_AGE_DAYS));
+        } catch (IOException e) {
+            LOG.error("Unable to use exploded-jar cache directory " + dir + ", falling back to temporary directories", e);
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the process-wide cache.
+     *
+     * @return The cache, or <code>null</code> if persistent caching has not been enabled.
+     */
+    public static ExplodedJarCache get() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return INSTANCE != null;
+    }
+
+    ExplodedJarCache(File cacheDir, int maxEntries, int maxAgeDays) throws IOException {
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+        this.maxAgeMillis = TimeUnit.DAYS.toMillis(maxAgeDays);
+        this.cacheLockFile = new File(cacheDir, CACHE_LOCK);
+        Files.createDirectories(cacheDir.toPath());
+    }
+
+    public File getCacheDir() {
+        return this.cacheDir;
+    }
+
+    /**
+     * Locate (exploding if required) the cached directory holding the contents of a jar.
+     *
+     * @param jar The jar to explode.
+     * @return The directory holding the exploded contents.
+     * @throws IOException If the jar cannot be read or the cache cannot be populated.
+     */
+    public File explode(File jar) throws IOException {
+        String key = key(jar);
+
+        File cached = this.inUse.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        synchronized (this) {
+            cached = this.inUse.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            File entry = new File(this.cacheDir, key);
+            File lockFile = new File(this.cacheDir, key + LOCK_SUFFIX);
+
+            boolean populated = false;
+            while (true) {
+                try (RandomAccessFile cacheRaf = new RandomAccessFile(this.cacheLockFile, READ_WRITE);
+                     FileLock cacheLock = cacheRaf.getChannel().lock(0, Long.MAX_VALUE, true)) {
+                    if (!isComplete(entry)) {
+                        try (RandomAccessFile raf = new RandomAccessFile(lockFile, READ_WRITE);
+                             FileLock ignored = raf.getChannel().lock()) {
+                            // another boot may have populated it while we waited for the lock
+                            if (!isComplete(entry)) {
+                                populate(jar, entry);
+                                populated = true;
+                            }
+                        }
+                    }
+                    acquireShared(key, lockFile);
+                }
+
+                if (isComplete(entry)) {
+                    break;
+                }
+                // evicted by another boot between population and locking; try again
+                releaseShared(key);
+            }
+
+            if (populated) {
+                evict(key);
+            }
+
+            entry.setLastModified(System.currentTimeMillis());
+            this.inUse.put(key, entry);
+            return entry;
+        }
+    }
+
+    /**
+     * Release the shared locks held on entries used by this JVM. The entries themselves are retained.
+     */
+    public synchronized void close() {
+        new ArrayList<>(this.sharedLocks.keySet()).forEach(this::releaseShared);
+        this.inUse.clear();
+    }
+
+    private void populate(File jar, File entry) throws IOException {
+        Path staging = Files.createTempDirectory(this.cacheDir.toPath(), entry.getName() + STAGING_SUFFIX);
+        try {
+            try (JarFile jarFile = new JarFile(jar)) {
+                BootstrapUtil.explodeJar(jarFile, staging.toString());
+            }
+            Files.createFile(staging.resolve(COMPLETE_MARKER));
+
+            if (entry.exists()) {
+                // incomplete entry left behind by an interrupted non-atomic move
+                TempFileManager.deleteRecursively(entry);
+            }
+            try {
+                Files.move(staging, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, entry.toPath());
+            }
+        } catch (FileAlreadyExistsException e) {
+            if (!isComplete(entry)) {
+                throw e;
+            }
+        } finally {
+            if (Files.exists(staging)) {
+                TempFileManager.deleteRecursively(staging.toFile());
+            }
+        }
+    }
+
+    private void acquireShared(String key, File lockFile) throws IOException {
+        if (this.sharedLocks.containsKey(key)) {
+            return;
+        }
+        FileChannel channel = new RandomAccessFile(lockFile, READ_WRITE).getChannel();
+        try {
+            this.sharedLocks.put(key, channel.lock(0, Long.MAX_VALUE, true));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void releaseShared(String key) {
+        FileLock lock = this.sharedLocks.remove(key);
+        if (lock != null) {
+            try {
+                lock.release();
+                lock.channel().close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    void evict(String retain) {
+        try (RandomAccessFile raf = new RandomAccessFile(this.cacheLockFile, READ_WRITE);
+             FileLock lock = raf.getChannel().tryLock()) {
+            if (lock == null) {
+                // another boot is using the cache, and evicts when it populates an entry
+                return;
+            }
+            evictEntries(retain);
+            deleteOrphanedLockFiles();
+        } catch (IOException | OverlappingFileLockException e) {
+            // evicted by a later boot
+        }
+    }
+
+    private void evictEntries(String retain) {
+        File[] children = this.cacheDir.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        List<File> entries = new ArrayList<>();
+        for (File each : children) {
+            String name = each.getName();
+            if (each.isDirectory() && !name.contains(STAGING_SUFFIX) && !name.equals(retain) && !this.inUse.containsKey(name)) {
+                entries.add(each);
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(File::lastModified).reversed());
+
+        long cutoff = System.currentTimeMillis() - this.maxAgeMillis;
+        int retained = this.inUse.size() + 1;
+
+        for (File each : entries) {
+            if (retained < this.maxEntries && each.lastModified() >= cutoff) {
+                ++retained;
+                continue;
+            }
+            if (!tryDelete(each)) {
+                ++retained;
+            }
+        }
+    }
+
+    private boolean tryDelete(File entry) {
+        File lockFile = new File(this.cacheDir, entry.getName() + LOCK_SUFFIX);
+        try (RandomAccessFile raf = new RandomAccessFile(lockFile, READ_WRITE);
+             FileLock lock = raf.getChannel().tryLock()) {
+            if (lock == null) {
+                // in use by another boot
+                return false;
+            }
+            TempFileManager.deleteRecursively(entry);
+        } catch (IOException | OverlappingFileLockException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Delete the lock files of entries which no longer exist. Must be called holding the exclusive cache lock.
+     */
+    private void deleteOrphanedLockFiles() {
+        File[] children = this.cacheDir.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File each : children) {
+            String name = each.getName();
+            if (!name.endsWith(LOCK_SUFFIX) || name.equals(CACHE_LOCK)) {
+                continue;
+            }
+            String key = name.substring(0, name.length() - LOCK_SUFFIX.length());
+            if (this.sharedLocks.containsKey(key) || new File(this.cacheDir, key).exists()) {
+                continue;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(each, READ_WRITE);
+                 FileLock lock = raf.getChannel().tryLock()) {
+                if (lock == null) {
+                    continue;
+                }
+            } catch (IOException | OverlappingFileLockException e) {
+                continue;
+            }
+            // nobody else can open it without the cache lock we hold
+            each.delete();
+        }
+    }
+
+    private static boolean isComplete(File entry) {
+        return new File(entry, COMPLETE_MARKER).exists();
+    }
+
+    /**
+     * Key a jar by its canonical path, size and modification time, which is cheap to compute on every boot
+     * and changes whenever the jar is rebuilt.
+     */
+    static String key(File file) throws IOException {
+        String identity = file.getCanonicalPath() + ":" + file.length() + ":" + file.lastModified();
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(identity.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.bootstrap");
+
+    private final File cacheDir;
+
+    private final int maxEntries;
+
+    private final long maxAgeMillis;
+
+    private final File cacheLockFile;
+
+    private final Map<String, File> inUse = new ConcurrentHashMap<>();
+
+    private final Map<String, FileLock> sharedLocks = new ConcurrentHashMap<>();
+}
@@ -17,11 +17,19 @@ package org.wildfly.swarm.bootstrap.util;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.jar.JarFile;
 
 /**
+ * Opens each jar file once and keeps it open until {@link #close()}.
+ *
+ * <p>Jars are opened concurrently; only callers asking for the same file wait for each other.</p>
+ *
  * @author Juan Gonzalez
  */
 public class JarFileManager {
@@ -32,21 +40,41 @@ public class JarFileManager {
     }
 
     public JarFile addJarFile(File file) throws IOException {
-
-        JarFile jarFile = jarFileToClose.get(file);
+        Future<JarFile> jarFile = jarFileToClose.get(file);
         if (jarFile == null) {
-             jarFile = new JarFile(file);
-             jarFileToClose.put(file, jarFile);
+            FutureTask<JarFile> open = new FutureTask<>(() -> new JarFile(file));
+            jarFile = jarFileToClose.putIfAbsent(file, open);
+            if (jarFile == null) {
+                jarFile = open;
+                open.run();
+            }
         }
 
-        return jarFile;
+        try {
+            return jarFile.get();
+        } catch (ExecutionException e) {
+            // don't remember the failure, a later call may succeed
+            jarFileToClose.remove(file, jarFile);
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while opening " + file);
+        }
     }
 
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         IOException ex = null;
-        for (JarFile jarFile : jarFileToClose.values()) {
+        for (Future<JarFile> jarFile : jarFileToClose.values()) {
             try {
-                jarFile.close();
+                jarFile.get().close();
+            } catch (ExecutionException e) {
+                // never opened
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ex = new InterruptedIOException();
             } catch (IOException e) {
                 ex = e;
             }
@@ -57,5 +85,5 @@ public class JarFileManager {
         }
     }
 
-    private Map<File, JarFile> jarFileToClose = new LinkedHashMap<>();
+    private ConcurrentMap<File, Future<JarFile>> jarFileToClose = new ConcurrentHashMap<>();
 }
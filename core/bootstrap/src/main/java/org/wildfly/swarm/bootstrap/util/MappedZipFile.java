@@ -0,0 +1,374 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Read-only view of a zip archive backed by a (memory-mapped) {@link ByteBuffer}.
+ *
+ * <p>Entries which are {@link ZipEntry#STORED STORED} can be served without copying, and a stored
+ * entry which is itself an archive can be opened in place through {@link #nested(Entry)}. This allows
+ * the jars bundled in an uberjar's <code>m2repo/</code> to be read directly from the outer file.</p>
+ *
+ * <p>ZIP64 archives are not supported; opening one fails with an {@link IOException} so callers can
+ * fall back to other means of access.</p>
+ */
+public class MappedZipFile {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+
+    private static final int END_HEADER_SIG = 0x06054b50;
+
+    private static final int LOCAL_HEADER_LEN = 30;
+
+    private static final int CENTRAL_HEADER_LEN = 46;
+
+    private static final int END_HEADER_LEN = 22;
+
+    private static final int MAX_COMMENT_LEN = 0xFFFF;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    /**
+     * Map a file, re-using an existing mapping if the same file has been mapped before.
+     *
+     * @param file The zip file.
+     * @return The mapped zip, or <code>null</code> if the file is too large to be mapped as a single buffer.
+     * @throws IOException If the file cannot be read or is not a supported zip.
+     */
+    public static MappedZipFile map(File file) throws IOException {
+        File key = file.getCanonicalFile();
+        MappedZipFile mapped = MAPPED.get(key);
+        if (mapped != null) {
+            return mapped;
+        }
+
+        synchronized (MAPPED) {
+            mapped = MAPPED.get(key);
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(key.toPath(), StandardOpenOption.READ)) {
+                    if (channel.size() > Integer.MAX_VALUE) {
+                        return null;
+                    }
+                    mapped = new MappedZipFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+                MAPPED.put(key, mapped);
+            }
+            return mapped;
+        }
+    }
+
+    public MappedZipFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = Collections.unmodifiableMap(readCentralDirectory());
+    }
+
+    public Entry getEntry(String name) {
+        return this.entries.get(name);
+    }
+
+    public Collection<Entry> entries() {
+        return this.entries.values();
+    }
+
+    /**
+     * Open a stored entry as a zip of its own, without copying.
+     *
+     * @param entry The entry holding the nested archive.
+     * @return The nested zip, or <code>null</code> if the entry is compressed.
+     * @throws IOException If the entry is not a supported zip.
+     */
+    public MappedZipFile nested(Entry entry) throws IOException {
+        if (!entry.isStored()) {
+            return null;
+        }
+        return new MappedZipFile(data(entry));
+    }
+
+    /**
+     * Retrieve the uncompressed contents of an entry.
+     *
+     * @param entry The entry.
+     * @return The contents.
+     * @throws IOException If a compressed entry cannot be inflated.
+     */
+    public byte[] getBytes(Entry entry) throws IOException {
+        ByteBuffer data = data(entry);
+        if (entry.isStored()) {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            return bytes;
+        }
+
+        if (entry.method != ZipEntry.DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method + " for " + entry.name);
+        }
+
+        // nowrap inflaters need one trailing dummy byte
+        byte[] compressed = new byte[data.remaining() + 1];
+        data.get(compressed, 0, compressed.length - 1);
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] bytes = new byte[(int) entry.size];
+            int len = 0;
+            while (len < bytes.length && !inflater.finished()) {
+                int n = inflater.inflate(bytes, len, bytes.length - len);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                len += n;
+            }
+            if (len != bytes.length) {
+                throw new IOException("Truncated entry " + entry.name);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public InputStream getInputStream(Entry entry) throws IOException {
+        if (entry.isStored()) {
+            return new ByteBufferInputStream(data(entry));
+        }
+        return new ByteArrayInputStream(getBytes(entry));
+    }
+
+    /**
+     * Extract every entry into a directory.
+     *
+     * @param destDir The directory to extract into.
+     * @throws IOException If an entry cannot be written.
+     */
+    public void explodeTo(File destDir) throws IOException {
+        Path dest = destDir.toPath().toAbsolutePath().normalize();
+        for (Entry each : this.entries.values()) {
+            Path out = dest.resolve(each.name).normalize();
+            if (!out.startsWith(dest)) {
+                throw new IOException("Entry outside of target directory: " + each.name);
+            }
+            if (each.isDirectory()) {
+                Files.createDirectories(out);
+                continue;
+            }
+            Files.createDirectories(out.getParent());
+            try (InputStream in = getInputStream(each)) {
+                Files.copy(in, out, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private ByteBuffer data(Entry entry) throws IOException {
+        int local = this.base + entry.localHeaderOffset;
+        if (local < 0 || local + LOCAL_HEADER_LEN > this.buffer.limit() || this.buffer.getInt(local) != LOCAL_HEADER_SIG) {
+            throw new IOException("Invalid local header for " + entry.name);
+        }
+        int start = local + LOCAL_HEADER_LEN + u16(local + 26) + u16(local + 28);
+        return slice(start, entry.compressedSize);
+    }
+
+    private ByteBuffer slice(int start, long len) throws IOException {
+        if (start + len > this.buffer.limit()) {
+            throw new IOException("Entry data exceeds archive bounds");
+        }
+        ByteBuffer dup = this.buffer.duplicate();
+        dup.position(start);
+        dup.limit((int) (start + len));
+        return dup.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        int end = findEndHeader();
+
+        long cenSize = u32(end + 12);
+        long cenOffset = u32(end + 16);
+        if (cenSize == ZIP64_MAGIC || cenOffset == ZIP64_MAGIC || u16(end + 10) == 0xFFFF) {
+            throw new IOException("ZIP64 archives are not supported");
+        }
+
+        // anything prepended to the archive (such as a launch script) shifts all offsets
+        this.base = (int) (end - cenSize - cenOffset);
+        if (this.base < 0) {
+            throw new IOException("Invalid central directory");
+        }
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        int pos = this.base + (int) cenOffset;
+        int limit = pos + (int) cenSize;
+        while (pos < limit) {
+            if (this.buffer.getInt(pos) != CENTRAL_HEADER_SIG) {
+                throw new IOException("Invalid central directory header");
+            }
+            int method = u16(pos + 10);
+            long compressedSize = u32(pos + 20);
+            long size = u32(pos + 24);
+            int nameLen = u16(pos + 28);
+            int extraLen = u16(pos + 30);
+            int commentLen = u16(pos + 32);
+            long localHeaderOffset = u32(pos + 42);
+            if (compressedSize == ZIP64_MAGIC || size == ZIP64_MAGIC || localHeaderOffset == ZIP64_MAGIC) {
+                throw new IOException("ZIP64 archives are not supported");
+            }
+
+            byte[] name = new byte[nameLen];
+            ByteBuffer dup = this.buffer.duplicate();
+            dup.position(pos + CENTRAL_HEADER_LEN);
+            dup.get(name);
+
+            Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), method, compressedSize, size, (int) localHeaderOffset);
+            entries.put(entry.name, entry);
+
+            pos += CENTRAL_HEADER_LEN + nameLen + extraLen + commentLen;
+        }
+        return entries;
+    }
+
+    private int findEndHeader() throws IOException {
+        int limit = this.buffer.limit();
+        int min = Math.max(0, limit - END_HEADER_LEN - MAX_COMMENT_LEN);
+        for (int pos = limit - END_HEADER_LEN; pos >= min; --pos) {
+            if (this.buffer.getInt(pos) == END_HEADER_SIG && pos + END_HEADER_LEN + u16(pos + 20) == limit) {
+                return pos;
+            }
+        }
+        throw new IOException("Not a zip archive");
+    }
+
+    private int u16(int pos) {
+        return this.buffer.getShort(pos) & 0xFFFF;
+    }
+
+    private long u32(int pos) {
+        return this.buffer.getInt(pos) & 0xFFFFFFFFL;
+    }
+
+    private static final Map<File, MappedZipFile> MAPPED = new ConcurrentHashMap<>();
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, Entry> entries;
+
+    private int base;
+
+    public static class Entry {
+
+        Entry(String name, int method, long compressedSize, long size, int localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        public boolean isStored() {
+            return this.method == ZipEntry.STORED;
+        }
+
+        public boolean isDirectory() {
+            return this.name.endsWith("/");
+        }
+
+        public String toString() {
+            return this.name;
+        }
+
+        private final String name;
+
+        private final int method;
+
+        private final long compressedSize;
+
+        private final long size;
+
+        private final int localHeaderOffset;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        private final ByteBuffer buffer;
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -68,13 +69,49 @@ public class TempFileManager {
     }
 
     public File getExplodedApplicationArtifact() {
-        return explodedApplicationArtifact.get();
+        File exploded = this.explodedApplicationArtifact.get();
+        if (exploded != null || this.explodedApplicationArtifactSupplier.get() == null) {
+            return exploded;
+        }
+        synchronized (this.explodedApplicationArtifactSupplier) {
+            Callable<File> explosion = this.explodedApplicationArtifactSupplier.getAndSet(null);
+            if (explosion != null) {
+                try {
+                    this.explodedApplicationArtifact.set(explosion.call());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return this.explodedApplicationArtifact.get();
+        }
     }
 
     public void setExplodedApplicationArtifact(File explodedApplicationArtifact) {
+        this.explodedApplicationArtifactSupplier.set(null);
         this.explodedApplicationArtifact.set(explodedApplicationArtifact);
     }
 
+    /**
+     * Defer exploding the application artifact until something actually asks for the directory.
+     *
+     * @param explosion Explodes the artifact and returns the directory.
+     */
+    public void deferExplodedApplicationArtifact(Callable<File> explosion) {
+        this.explodedApplicationArtifact.set(null);
+        this.explodedApplicationArtifactSupplier.set(explosion);
+    }
+
+    /**
+     * @return The application artifact read in place from the uberjar, or <code>null</code> if it was exploded.
+     */
+    public MappedZipFile getApplicationArtifactInPlace() {
+        return this.applicationArtifactInPlace.get();
+    }
+
+    public void setApplicationArtifactInPlace(MappedZipFile applicationArtifactInPlace) {
+        this.applicationArtifactInPlace.set(applicationArtifactInPlace);
+    }
+
     private void register(File file) {
         this.registered.add(file);
     }
@@ -82,6 +119,10 @@ public class TempFileManager {
     public synchronized void close() {
         registered.forEach(TempFileManager::deleteRecursively);
         registered.clear();
+        if (ExplodedJarCache.isEnabled()) {
+            // cached entries outlive this process; only our claim on them is dropped
+            ExplodedJarCache.get().close();
+        }
     }
 
     public static boolean deleteRecursively(File f) {
@@ -122,6 +163,10 @@ public class TempFileManager {
 
     private final AtomicReference<File> explodedApplicationArtifact = new AtomicReference<>();
 
+    private final AtomicReference<Callable<File>> explodedApplicationArtifactSupplier = new AtomicReference<>();
+
+    private final AtomicReference<MappedZipFile> applicationArtifactInPlace = new AtomicReference<>();
+
     private File tmpDir;
 
 }
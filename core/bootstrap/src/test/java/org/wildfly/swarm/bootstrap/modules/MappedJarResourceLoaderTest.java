@@ -0,0 +1,104 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.modules.Resource;
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
+import org.wildfly.swarm.bootstrap.util.TempFileManager;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MappedJarResourceLoaderTest {
+
+    @Test
+    public void testServesWholeArchive() throws Exception {
+        MappedZipFile war = createWar();
+        MappedJarResourceLoader loader = new MappedJarResourceLoader("app.war", war, new URL("file:/app.war"));
+
+        assertThat(read(loader.getResource("index.html"))).isEqualTo("<html/>");
+        assertThat(read(loader.getResource("WEB-INF/classes/app.properties"))).isEqualTo("a=b");
+        assertThat(loader.getPaths()).contains("", "WEB-INF/classes");
+        assertThat(loader.getResource("missing.txt")).isNull();
+    }
+
+    @Test
+    public void testServesWebInfClasses() throws Exception {
+        MappedZipFile war = createWar();
+        MappedJarResourceLoader loader = new MappedJarResourceLoader("app.warWEBINF", war, new URL("file:/app.war"), "WEB-INF/classes/");
+
+        Resource resource = loader.getResource("app.properties");
+        assertThat(resource.getName()).isEqualTo("app.properties");
+        assertThat(read(resource)).isEqualTo("a=b");
+        try (InputStream in = resource.getURL().openStream()) {
+            assertThat(in.read()).isEqualTo('a');
+        }
+        assertThat(loader.getResource("index.html")).isNull();
+        assertThat(loader.getPaths()).containsOnly("", "org/example");
+    }
+
+    @Test
+    public void testExplodesOnDemand() throws Exception {
+        MappedZipFile war = createWar();
+        File dir = Files.createTempDirectory("mapped-war").toFile();
+        try {
+            war.explodeTo(dir);
+            assertThat(new File(dir, "index.html").exists()).isTrue();
+            assertThat(new File(dir, "WEB-INF/classes/org/example/Thing.class").exists()).isTrue();
+        } finally {
+            TempFileManager.deleteRecursively(dir);
+        }
+    }
+
+    private static MappedZipFile createWar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            add(out, "index.html", "<html/>");
+            add(out, "WEB-INF/classes/app.properties", "a=b");
+            add(out, "WEB-INF/classes/org/example/Thing.class", "not really a class");
+        }
+        return new MappedZipFile(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private static void add(ZipOutputStream out, String name, String content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream in = resource.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int len;
+            while ((len = in.read(buf)) >= 0) {
+                out.write(buf, 0, len);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.fest.assertions.Assertions;
+import org.jboss.modules.ResourceLoader;
+import org.jboss.modules.maven.ArtifactCoordinates;
+import org.jboss.modules.maven.MavenResolver;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ParallelArtifactResolverTest {
+
+    private static final int THREADS = 4;
+
+    @BeforeClass
+    public static void setUpResolution() {
+        if (System.getProperty(ParallelArtifactResolver.THREADS_PROPERTY) == null) {
+            System.setProperty(ParallelArtifactResolver.THREADS_PROPERTY, String.valueOf(THREADS));
+        }
+    }
+
+    @Test
+    public void testResolvesInRequestedOrder() throws Exception {
+        List<ArtifactCoordinates> coordinates = coordinates();
+
+        List<ResourceLoader> loaders = ParallelArtifactResolver.resolve(coordinates, RESOLVER);
+
+        assertThat(rootNames(loaders)).isEqualTo(expectedRootNames());
+    }
+
+    @Test
+    public void testConcurrentResolution() throws Exception {
+        List<ArtifactCoordinates> coordinates = coordinates();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<ResourceLoader>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; ++i) {
+                futures.add(executor.submit((Callable<List<ResourceLoader>>) () -> {
+                    start.await();
+                    return ParallelArtifactResolver.resolve(coordinates, RESOLVER);
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<ResourceLoader>> each : futures) {
+                List<ResourceLoader> loaders = each.get();
+                assertThat(rootNames(loaders)).isEqualTo(expectedRootNames());
+                for (ResourceLoader loader : loaders) {
+                    assertThat(loader.getPaths()).isNotEmpty();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnresolvableArtifact() throws Exception {
+        List<ArtifactCoordinates> coordinates = new ArrayList<>(coordinates());
+        coordinates.add(1, new ArtifactCoordinates("org.wildfly.swarm.test", "does-not-exist", "1.0"));
+
+        List<ResourceLoader> loaders = ParallelArtifactResolver.resolve(coordinates, RESOLVER);
+
+        assertThat(loaders).hasSize(coordinates.size());
+        assertThat(loaders.get(1)).isNull();
+        assertThat(loaders.get(0).getRootName()).isEqualTo(jarOf(Test.class).getName());
+    }
+
+    /**
+     * Resolves the test's own dependencies from the class path, and nothing else.
+     */
+    private static final MavenResolver RESOLVER = (coordinates, packaging) -> {
+        for (Class<?> each : Arrays.asList(Test.class, org.hamcrest.Matcher.class, Assertions.class)) {
+            File jar = jarOf(each);
+            if (jar.getName().equals(coordinates.getArtifactId() + "-" + coordinates.getVersion() + "." + packaging)) {
+                return jar;
+            }
+        }
+        return null;
+    };
+
+    private static List<ArtifactCoordinates> coordinates() {
+        return Arrays.asList(
+                coordinates("junit", "junit", Test.class),
+                coordinates("org.hamcrest", "hamcrest-core", org.hamcrest.Matcher.class),
+                coordinates("org.easytesting", "fest-assert", Assertions.class)
+        );
+    }
+
+    private static List<String> expectedRootNames() {
+        return Arrays.asList(
+                jarOf(Test.class).getName(),
+                jarOf(org.hamcrest.Matcher.class).getName(),
+                jarOf(Assertions.class).getName()
+        );
+    }
+
+    private static ArtifactCoordinates coordinates(String groupId, String artifactId, Class<?> type) {
+        return new ArtifactCoordinates(groupId, artifactId, jarOf(type).getParentFile().getName());
+    }
+
+    private static File jarOf(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> rootNames(List<ResourceLoader> loaders) {
+        List<String> names = new ArrayList<>();
+        for (ResourceLoader each : loaders) {
+            names.add(each.getRootName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExplodedJarCacheTest {
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws IOException {
+        this.workDir = Files.createTempDirectory("exploded-jar-cache").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        TempFileManager.deleteRecursively(this.workDir);
+    }
+
+    @Test
+    public void testExplodesOnceAndReusesAcrossBoots() throws Exception {
+        File cacheDir = new File(this.workDir, "cache");
+        File jar = createJar("one.jar", "modules/foo/main/thing.txt", "hello");
+
+        ExplodedJarCache first = new ExplodedJarCache(cacheDir, 10, 30);
+        File exploded = first.explode(jar);
+        assertThat(new String(Files.readAllBytes(new File(exploded, "modules/foo/main/thing.txt").toPath()), StandardCharsets.UTF_8))
+                .isEqualTo("hello");
+        assertThat(first.explode(jar)).isEqualTo(exploded);
+        first.close();
+
+        // mark the entry so we can tell a later boot did not re-explode it
+        File marker = new File(exploded, "untouched");
+        assertThat(marker.createNewFile()).isTrue();
+
+        ExplodedJarCache second = new ExplodedJarCache(cacheDir, 10, 30);
+        assertThat(second.explode(jar)).isEqualTo(exploded);
+        assertThat(marker.exists()).isTrue();
+        second.close();
+    }
+
+    @Test
+    public void testKeyedByPathSizeAndModificationTime() throws Exception {
+        File cacheDir = new File(this.workDir, "cache");
+        File one = createJar("one.jar", "a.txt", "same");
+        File two = createJar("two.jar", "a.txt", "same");
+
+        ExplodedJarCache cache = new ExplodedJarCache(cacheDir, 10, 30);
+        File exploded = cache.explode(one);
+        assertThat(cache.explode(two)).isNotEqualTo(exploded);
+        cache.close();
+
+        // a rebuilt jar gets a new entry
+        createJar("one.jar", "a.txt", "rebuilt");
+        assertThat(one.setLastModified(one.lastModified() + 2000)).isTrue();
+        cache = new ExplodedJarCache(cacheDir, 10, 30);
+        File rebuilt = cache.explode(one);
+        assertThat(rebuilt).isNotEqualTo(exploded);
+        assertThat(new String(Files.readAllBytes(new File(rebuilt, "a.txt").toPath()), StandardCharsets.UTF_8)).isEqualTo("rebuilt");
+        cache.close();
+    }
+
+    @Test
+    public void testEvictsUnusedEntries() throws Exception {
+        File cacheDir = new File(this.workDir, "cache");
+        File one = createJar("one.jar", "a.txt", "one");
+        File two = createJar("two.jar", "a.txt", "two");
+
+        ExplodedJarCache first = new ExplodedJarCache(cacheDir, 1, 30);
+        File explodedOne = first.explode(one);
+        first.close();
+
+        ExplodedJarCache second = new ExplodedJarCache(cacheDir, 1, 30);
+        File explodedTwo = second.explode(two);
+
+        assertThat(explodedOne.exists()).isFalse();
+        assertThat(explodedTwo.exists()).isTrue();
+        assertThat(new File(cacheDir, explodedOne.getName() + ".lock").exists()).isFalse();
+        assertThat(new File(cacheDir, explodedTwo.getName() + ".lock").exists()).isTrue();
+        second.close();
+    }
+
+    @Test
+    public void testDeletesOrphanedLockFiles() throws Exception {
+        File cacheDir = new File(this.workDir, "cache");
+        File one = createJar("one.jar", "a.txt", "one");
+        File orphan = new File(cacheDir, "0123456789abcdef.lock");
+
+        ExplodedJarCache cache = new ExplodedJarCache(cacheDir, 10, 30);
+        assertThat(orphan.createNewFile()).isTrue();
+        File exploded = cache.explode(one);
+
+        assertThat(orphan.exists()).isFalse();
+        assertThat(new File(cacheDir, exploded.getName() + ".lock").exists()).isTrue();
+        cache.close();
+
+        // rebuilding the jar repeatedly leaves no lock file behind for its previous entries
+        for (int i = 1; i <= 3; ++i) {
+            assertThat(one.setLastModified(one.lastModified() + 2000)).isTrue();
+            cache = new ExplodedJarCache(cacheDir, 1, 30);
+            cache.explode(one);
+            cache.close();
+        }
+        File[] lockFiles = cacheDir.listFiles((dir, name) -> name.endsWith(".lock") && !name.startsWith("."));
+        assertThat(lockFiles).hasSize(1);
+    }
+
+    private File createJar(String name, String entry, String content) throws IOException {
+        File jar = new File(this.workDir, name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry(entry));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class JarFileManagerTest {
+
+    private static final int THREADS = 8;
+
+    private File workDir;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        this.workDir = Files.createTempDirectory("jar-file-manager").toFile();
+        this.executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+        TempFileManager.deleteRecursively(this.workDir);
+    }
+
+    @Test
+    public void testConcurrentOpensOfTheSameFileShareOneJarFile() throws Exception {
+        File jar = createJar("shared.jar");
+
+        List<JarFile> opened = openConcurrently(jar, jar, jar, jar, jar, jar, jar, jar);
+
+        for (JarFile each : opened) {
+            assertThat(each).isSameAs(opened.get(0));
+        }
+        assertThat(opened.get(0).getEntry("a.txt")).isNotNull();
+    }
+
+    @Test
+    public void testConcurrentOpensOfDifferentFiles() throws Exception {
+        File[] jars = new File[THREADS];
+        for (int i = 0; i < jars.length; ++i) {
+            jars[i] = createJar("jar-" + i + ".jar");
+        }
+
+        List<JarFile> opened = openConcurrently(jars);
+
+        for (int i = 0; i < jars.length; ++i) {
+            assertThat(opened.get(i).getName()).isEqualTo(jars[i].getPath());
+            assertThat(JarFileManager.INSTANCE.addJarFile(jars[i])).isSameAs(opened.get(i));
+        }
+    }
+
+    @Test
+    public void testFailedOpenIsNotRemembered() throws Exception {
+        File jar = new File(this.workDir, "later.jar");
+        try {
+            JarFileManager.INSTANCE.addJarFile(jar);
+            fail("opening a missing jar should fail");
+        } catch (IOException e) {
+            // expected
+        }
+
+        createJar("later.jar");
+        assertThat(JarFileManager.INSTANCE.addJarFile(jar).getEntry("a.txt")).isNotNull();
+    }
+
+    private List<JarFile> openConcurrently(File... jars) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<JarFile>> futures = new ArrayList<>();
+        for (File each : jars) {
+            futures.add(this.executor.submit((Callable<JarFile>) () -> {
+                start.await();
+                return JarFileManager.INSTANCE.addJarFile(each);
+            }));
+        }
+        start.countDown();
+
+        List<JarFile> opened = new ArrayList<>();
+        for (Future<JarFile> each : futures) {
+            opened.add(each.get());
+        }
+        return opened;
+    }
+
+    private File createJar(String name) throws IOException {
+        File jar = new File(this.workDir, name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("a.txt"));
+            out.write(name.getBytes());
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
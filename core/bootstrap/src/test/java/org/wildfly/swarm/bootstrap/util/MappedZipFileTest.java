@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MappedZipFileTest {
+
+    private static final String CONTENT = "Hello from a nested jar";
+
+    @Test
+    public void testReadsStoredNestedJarInPlace() throws Exception {
+        File outer = createOuterJar(true);
+
+        MappedZipFile zip = MappedZipFile.map(outer);
+        MappedZipFile.Entry entry = zip.getEntry("m2repo/org/test/inner/1.0/inner-1.0.jar");
+        assertThat(entry.isStored()).isTrue();
+
+        MappedZipFile nested = zip.nested(entry);
+        assertThat(nested).isNotNull();
+
+        MappedZipFile.Entry resource = nested.getEntry("org/test/hello.txt");
+        assertThat(new String(nested.getBytes(resource), StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+
+        try (InputStream in = nested.getInputStream(resource)) {
+            byte[] bytes = new byte[(int) resource.getSize()];
+            assertThat(in.read(bytes)).isEqualTo(bytes.length);
+            assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+        }
+    }
+
+    @Test
+    public void testCompressedNestedJarIsNotOpenedInPlace() throws Exception {
+        File outer = createOuterJar(false);
+
+        MappedZipFile zip = MappedZipFile.map(outer);
+        MappedZipFile.Entry entry = zip.getEntry("m2repo/org/test/inner/1.0/inner-1.0.jar");
+        assertThat(entry.isStored()).isFalse();
+        assertThat(zip.nested(entry)).isNull();
+    }
+
+    @Test
+    public void testToleratesPrependedLaunchScript() throws Exception {
+        File outer = createOuterJar(true);
+
+        MappedZipFile zip = MappedZipFile.map(outer);
+        MappedZipFile.Entry script = zip.getEntry("README.txt");
+        assertThat(new String(zip.getBytes(script), StandardCharsets.UTF_8)).isEqualTo("readme");
+    }
+
+    private static File createOuterJar(boolean storeNested) throws IOException {
+        ByteArrayOutputStream innerBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream inner = new ZipOutputStream(innerBytes)) {
+            inner.putNextEntry(new ZipEntry("org/test/hello.txt"));
+            inner.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            inner.closeEntry();
+        }
+        byte[] nested = innerBytes.toByteArray();
+
+        File outer = File.createTempFile("mapped-zip", ".jar");
+        outer.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(outer)) {
+            fos.write("#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8));
+            ZipOutputStream out = new ZipOutputStream(fos);
+
+            ZipEntry entry = new ZipEntry("m2repo/org/test/inner/1.0/inner-1.0.jar");
+            if (storeNested) {
+                CRC32 crc = new CRC32();
+                crc.update(nested);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(nested.length);
+                entry.setCompressedSize(nested.length);
+                entry.setCrc(crc.getValue());
+            }
+            out.putNextEntry(entry);
+            out.write(nested);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("README.txt"));
+            out.write("readme".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.finish();
+        }
+        return outer;
+    }
+}
@@ -16,11 +16,16 @@
 package org.wildfly.swarm.container.config;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -68,16 +73,19 @@ class ConfigResolutionStrategy {
 
     public void withFilter(ConfigurationFilter filter) {
         this.filters.add(filter);
+        this.index = null;
     }
 
     void withProperties(Properties properties) {
         this.propertiesNode = PropertiesConfigNodeFactory.load(properties);
         this.nodes.add(this.propertiesNode);
         this.properties = PropertiesManipulator.forProperties(properties);
+        this.index = null;
     }
 
     void withEnvironment(Map<String, String> environment) {
         this.nodes.add(EnvironmentConfigNodeFactory.load(environment));
+        this.index = null;
     }
 
     /**
@@ -87,25 +95,29 @@ class ConfigResolutionStrategy {
      */
     void add(ConfigNode node) {
         this.nodes.add(node);
+        this.index = null;
     }
 
     void defaults(ConfigNode defaults) {
         this.defaults = defaults;
+        this.index = null;
     }
 
     void withProperty(String name, String value) {
         this.propertiesNode.recursiveChild(name, value);
+        this.index = null;
     }
 
     /**
      * Activate the strategy.
+     *
+     * <p>This (re)builds the index of all keys, which is used to answer all queries
+     * until the strategy is next changed.</p>
      */
     void activate() {
-        nodes().flatMap(e -> e.allKeysRecursively())
-                .distinct()
-                .forEach(key -> {
-                    activate(key);
-                });
+        Index index = new Index(nodes().collect(Collectors.toList()));
+        this.index = index;
+        index.keys.forEach(this::activate);
     }
 
     Stream<ConfigNode> nodes() {
@@ -144,6 +156,10 @@ class ConfigResolutionStrategy {
     }
 
     Optional<Object> optionalValueOf(ConfigKey key) {
+        return index().values.computeIfAbsent(Index.normalize(key), k -> resolveValueOf(key));
+    }
+
+    private Optional<Object> resolveValueOf(ConfigKey key) {
         return nodes()
                 .map(e -> e.valueOf(key))
                 .filter(Objects::nonNull)
@@ -165,24 +181,30 @@ class ConfigResolutionStrategy {
     }
 
     List<SimpleKey> simpleSubkeysOf(ConfigKey prefix) {
-        return nodes()
-                .map(e -> e.descendant(prefix))
-                .filter(Objects::nonNull)
-                .flatMap(e -> e.childrenKeys().stream())
-                .distinct()
-                .collect(Collectors.toList());
+        Set<SimpleKey> subkeys = index().subkeys.get(Index.normalize(prefix));
+        if (subkeys == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(subkeys);
     }
 
     boolean hasKeyOrSubkeys(ConfigKey prefix) {
-        return nodes()
-                .map(e -> e.descendant(prefix))
-                .anyMatch(Objects::nonNull);
+        return index().subkeys.containsKey(Index.normalize(prefix));
     }
 
     Properties asProperties() {
         return this.properties.getProperties();
     }
 
+    private Index index() {
+        Index index = this.index;
+        if (index == null) {
+            index = new Index(nodes().collect(Collectors.toList()));
+            this.index = index;
+        }
+        return index;
+    }
+
     private PropertiesManipulator properties;
 
     private List<ConfigNode> nodes = new ArrayList<>();
@@ -193,4 +215,45 @@ class ConfigResolutionStrategy {
 
     private List<ConfigurationFilter> filters = new ArrayList<>();
 
+    private volatile Index index;
+
+    /**
+     * Every key of every node, merged and flattened, along with the immediate subkeys of
+     * each path and the memoized filtered values.
+     *
+     * <p>Keys are mutable and compare case-insensitively, so the index goes by their
+     * lower-cased property names instead.</p>
+     */
+    private static final class Index {
+
+        Index(List<ConfigNode> nodes) {
+            this.keys = nodes.stream()
+                    .flatMap(e -> e.allKeysRecursively())
+                    .distinct()
+                    .collect(Collectors.toList());
+            nodes.forEach(node -> index(node, ""));
+        }
+
+        private void index(ConfigNode node, String name) {
+            Set<SimpleKey> children = this.subkeys.computeIfAbsent(name, k -> new LinkedHashSet<>());
+            children.addAll(node.childrenKeys());
+            for (SimpleKey child : node.childrenKeys()) {
+                index(node.child(child), name.isEmpty() ? normalize(child) : name + "." + normalize(child));
+            }
+        }
+
+        static String normalize(ConfigKey key) {
+            if (key.head() == ConfigKey.EMPTY) {
+                return "";
+            }
+            return key.propertyName().toLowerCase(Locale.ROOT);
+        }
+
+        private final List<ConfigKey> keys;
+
+        private final Map<String, Set<SimpleKey>> subkeys = new HashMap<>();
+
+        private final Map<String, Optional<Object>> values = new ConcurrentHashMap<>();
+    }
+
 }
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.wildfly.swarm.bootstrap.env.FractionManifest;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
+
+/**
+ * The bootstrap operations and configurable values computed by a boot, so that a later boot with the
+ * same configuration can use them instead of running the customizers, rescanning and marshalling.
+ * The model is only written and used while every installed customizer is {@link Precomputable}.
+ *
+ * <p>The system properties of the config view are not part of the model, since they depend on the
+ * environment the server boots in; they are marshalled on each boot, between the leading and the
+ * trailing operations.</p>
+ */
+final class BootstrapModel {
+
+    static final String CLASSPATH_LOCATION = "META-INF/wildfly-swarm-bootstrap-model.dmr";
+
+    private static final int VERSION = 1;
+
+    private static final String VERSION_KEY = "version";
+
+    private static final String HASH_KEY = "hash";
+
+    private static final String LEADING_KEY = "leading";
+
+    private static final String TRAILING_KEY = "trailing";
+
+    private static final String CONFIGURABLES_KEY = "configurables";
+
+    private static final String[] IGNORED_PROPERTIES = {
+            BootstrapProperties.BOOTSTRAP_MODEL_EXPORT,
+            BootstrapProperties.CDS_TRAINING,
+    };
+
+    BootstrapModel(String hash, List<ModelNode> leading, List<ModelNode> trailing, Map<String, String> configurables) {
+        this.hash = hash;
+        this.leading = leading;
+        this.trailing = trailing;
+        this.configurables = configurables;
+    }
+
+    /**
+     * Hash the inputs of the bootstrap model: the <code>swarm.*</code> configuration, whether it comes from
+     * system properties, environment variables or project stages, the XML configuration and the installed fractions.
+     *
+     * <p>Nothing else of the environment is covered, so that a model computed by the build still applies
+     * where the application is deployed.</p>
+     */
+    static String hash(ConfigView configView, Iterable<URL> xmlConfigs, List<FractionManifest> fractions) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        update(digest, "version=" + VERSION);
+
+        SortedMap<String, String> config = new TreeMap<>();
+        configView.allKeysRecursively()
+                .filter(e -> e.head().name().equals("swarm"))
+                .forEach(e -> {
+                    Object value = configView.valueOf(e);
+                    if (value != null) {
+                        config.put(e.propertyName(), value.toString());
+                    }
+                });
+        for (String each : IGNORED_PROPERTIES) {
+            config.remove(each);
+        }
+        for (Map.Entry<String, String> each : config.entrySet()) {
+            update(digest, each.getKey() + "=" + each.getValue());
+        }
+
+        for (URL each : xmlConfigs) {
+            if (each == null) {
+                continue;
+            }
+            try (InputStream in = each.openStream()) {
+                byte[] buffer = new byte[8192];
+                int len;
+                while ((len = in.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, len);
+                }
+            }
+        }
+
+        List<String> gavs = new ArrayList<>();
+        for (FractionManifest each : fractions) {
+            gavs.add(each.getGroupId() + ":" + each.getArtifactId() + ":" + each.getVersion());
+        }
+        Collections.sort(gavs);
+        for (String each : gavs) {
+            update(digest, each);
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * @return The customizers whose effect the model does not capture.
+     */
+    static List<Customizer> notPrecomputable(Iterable<Customizer> customizers) {
+        List<Customizer> result = new ArrayList<>();
+        for (Customizer each : customizers) {
+            if (!each.getClass().isAnnotationPresent(Precomputable.class)) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * @return The model packaged on the class path, or <code>null</code> if there is none.
+     */
+    static BootstrapModel load() throws IOException {
+        URL url = ClassLoader.getSystemClassLoader().getResource(CLASSPATH_LOCATION);
+        if (url == null) {
+            return null;
+        }
+        try (InputStream in = url.openStream()) {
+            return read(in);
+        }
+    }
+
+    static BootstrapModel read(InputStream in) throws IOException {
+        ModelNode node = new ModelNode();
+        node.readExternal(in);
+
+        if (node.get(VERSION_KEY).asInt(0) != VERSION) {
+            throw new IOException("Unsupported bootstrap model version: " + node.get(VERSION_KEY));
+        }
+
+        Map<String, String> configurables = new LinkedHashMap<>();
+        if (node.get(CONFIGURABLES_KEY).getType() == ModelType.OBJECT) {
+            for (Property each : node.get(CONFIGURABLES_KEY).asPropertyList()) {
+                configurables.put(each.getName(), each.getValue().asString());
+            }
+        }
+
+        return new BootstrapModel(node.get(HASH_KEY).asString(),
+                                  operations(node.get(LEADING_KEY)),
+                                  operations(node.get(TRAILING_KEY)),
+                                  configurables);
+    }
+
+    private static List<ModelNode> operations(ModelNode node) {
+        if (node.getType() != ModelType.LIST) {
+            return Collections.emptyList();
+        }
+        return node.asList();
+    }
+
+    void write(OutputStream out) throws IOException {
+        ModelNode node = new ModelNode();
+        node.get(VERSION_KEY).set(VERSION);
+        node.get(HASH_KEY).set(this.hash);
+        node.get(LEADING_KEY).setEmptyList();
+        this.leading.forEach(e -> node.get(LEADING_KEY).add(e));
+        node.get(TRAILING_KEY).setEmptyList();
+        this.trailing.forEach(e -> node.get(TRAILING_KEY).add(e));
+        node.get(CONFIGURABLES_KEY).setEmptyObject();
+        this.configurables.forEach((k, v) -> node.get(CONFIGURABLES_KEY, k).set(v));
+        node.writeExternal(out);
+    }
+
+    String hash() {
+        return this.hash;
+    }
+
+    List<ModelNode> leading() {
+        return this.leading;
+    }
+
+    List<ModelNode> trailing() {
+        return this.trailing;
+    }
+
+    Map<String, String> configurables() {
+        return this.configurables;
+    }
+
+    private final String hash;
+
+    private final List<ModelNode> leading;
+
+    private final List<ModelNode> trailing;
+
+    private final Map<String, String> configurables;
+}
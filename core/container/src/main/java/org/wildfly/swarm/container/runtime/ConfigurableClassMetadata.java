@@ -0,0 +1,150 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wildfly.swarm.spi.api.annotations.Configurable;
+
+/**
+ * The reflective view of a class needed by the {@link ConfigurableManager}.
+ *
+ * <p>It is computed once per class, so that scanning many instances of the same fraction
+ * or resource class does not repeat the reflection each time.</p>
+ */
+final class ConfigurableClassMetadata {
+
+    private static final ClassValue<ConfigurableClassMetadata> METADATA = new ClassValue<ConfigurableClassMetadata>() {
+        @Override
+        protected ConfigurableClassMetadata computeValue(Class<?> type) {
+            return new ConfigurableClassMetadata(type);
+        }
+    };
+
+    static ConfigurableClassMetadata of(Class<?> cls) {
+        return METADATA.get(cls);
+    }
+
+    private ConfigurableClassMetadata(Class<?> cls) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : cls.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        this.fields = Collections.unmodifiableList(fields);
+
+        List<Method> configurableMethods = new ArrayList<>();
+        for (Method method : cls.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Configurable.class)) {
+                configurableMethods.add(method);
+            }
+        }
+        this.configurableMethods = Collections.unmodifiableList(configurableMethods);
+
+        Map<String, List<Method>> publicMethods = new HashMap<>();
+        for (Method method : cls.getMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                publicMethods.computeIfAbsent(method.getName(), k -> new ArrayList<>()).add(method);
+            }
+        }
+        this.publicMethods = publicMethods;
+
+        this.getKey = handleFor(noArgMethod("getKey"));
+        this.subresources = handleFor(noArgMethod("subresources"));
+    }
+
+    /**
+     * @return The non-static fields declared by the class, made accessible.
+     */
+    List<Field> fields() {
+        return this.fields;
+    }
+
+    /**
+     * @return The methods declared by the class which are annotated with {@link Configurable}.
+     */
+    List<Method> configurableMethods() {
+        return this.configurableMethods;
+    }
+
+    /**
+     * @param name The method name.
+     * @return The public, non-static methods of the class with the given name, including inherited ones.
+     */
+    List<Method> publicMethods(String name) {
+        return this.publicMethods.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * @return The public, non-static, no-arg method with the given name, or <code>null</code> if there is none.
+     */
+    Method noArgMethod(String name) {
+        for (Method method : publicMethods(name)) {
+            if (method.getParameterCount() == 0) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The handle to the no-arg <code>getKey()</code> method, or <code>null</code> if there is none.
+     */
+    MethodHandle getKey() {
+        return this.getKey;
+    }
+
+    /**
+     * @return The handle to the no-arg <code>subresources()</code> method, or <code>null</code> if there is none.
+     */
+    MethodHandle subresources() {
+        return this.subresources;
+    }
+
+    private static MethodHandle handleFor(Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            // the method is public, but its class may not be
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final List<Field> fields;
+
+    private final List<Method> configurableMethods;
+
+    private final Map<String, List<Method>> publicMethods;
+
+    private final MethodHandle getKey;
+
+    private final MethodHandle subresources;
+}
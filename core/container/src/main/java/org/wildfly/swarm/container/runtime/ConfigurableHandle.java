@@ -28,4 +28,9 @@ public interface ConfigurableHandle {
     <T> void set(T value) throws Exception;
 
     <T> T currentValue() throws Exception;
+
+    /**
+     * @return Whether the value was set, rather than left to its default.
+     */
+    boolean isSet() throws Exception;
 }
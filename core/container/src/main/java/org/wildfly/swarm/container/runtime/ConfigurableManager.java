@@ -21,12 +21,12 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -90,10 +90,34 @@ public class ConfigurableManager implements AutoCloseable {
         add(Defaultable.class);
     }};
 
+    private static final Set<Class<?>> SNAPSHOT_TYPES = new HashSet<Class<?>>() {{
+        add(Boolean.class);
+        add(Boolean.TYPE);
+        add(Short.class);
+        add(Short.TYPE);
+        add(Integer.class);
+        add(Integer.TYPE);
+        add(Long.class);
+        add(Long.TYPE);
+        add(Float.class);
+        add(Float.TYPE);
+        add(String.class);
+    }};
+
+    private static final ClassValue<Boolean> BLACKLISTED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return (!type.isInterface() && BLACKLISTED_CLASSES.contains(type))
+                    || Arrays.stream(type.getInterfaces()).anyMatch(e -> e.isInterface() && BLACKLISTED_CLASSES.contains(e));
+        }
+    };
+
     private static Logger LOG = Logger.getLogger("org.wildfly.swarm.config");
 
     private final List<ConfigurableHandle> configurables = new ArrayList<>();
 
+    private final Set<ConfigKey> configurableKeys = new HashSet<>();
+
     private final List<Object> deferred = new ArrayList<>();
 
     private final ConfigView configView;
@@ -111,6 +135,55 @@ public class ConfigurableManager implements AutoCloseable {
         return this.configurables;
     }
 
+    /**
+     * @return The values of the scalar configurables which were set, as strings, by key name.
+     */
+    public Map<String, String> snapshot() throws Exception {
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        for (ConfigurableHandle each : this.configurables) {
+            if (!each.isSet() || !(each.type().isEnum() || SNAPSHOT_TYPES.contains(each.type()))) {
+                continue;
+            }
+            Object value = each.currentValue();
+            if (value != null) {
+                snapshot.put(each.key().name(), value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Set the configurables to the values taken by a {@link #snapshot()}.
+     *
+     * @param snapshot The values, by key name.
+     */
+    public void restore(Map<String, String> snapshot) throws Exception {
+        for (ConfigurableHandle each : this.configurables) {
+            String value = snapshot.get(each.key().name());
+            if (value != null) {
+                each.set(fromSnapshot(each.type(), value));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object fromSnapshot(Class<?> type, String value) {
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>) type, value);
+        } else if (type == Boolean.class || type == Boolean.TYPE) {
+            return Boolean.valueOf(value);
+        } else if (type == Short.class || type == Short.TYPE) {
+            return Short.valueOf(value);
+        } else if (type == Integer.class || type == Integer.TYPE) {
+            return Integer.valueOf(value);
+        } else if (type == Long.class || type == Long.TYPE) {
+            return Long.valueOf(value);
+        } else if (type == Float.class || type == Float.TYPE) {
+            return Float.valueOf(value);
+        }
+        return value;
+    }
+
     @SuppressWarnings("unchecked")
     protected <T> boolean configure(ConfigurableHandle configurable) throws Exception {
         if (this.rescanning) {
@@ -257,9 +330,16 @@ public class ConfigurableManager implements AutoCloseable {
             return new SimpleKey(((Keyed) object).getKey());
         }
 
-        Method getKey = findGetKeyMethod(object);
+        MethodHandle getKey = ConfigurableClassMetadata.of(object.getClass()).getKey();
         if (getKey != null) {
-            Object key = getKey.invoke(object);
+            Object key;
+            try {
+                key = getKey.invoke(object);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
             if (key != null) {
                 return new SimpleKey(key.toString());
             }
@@ -268,29 +348,7 @@ public class ConfigurableManager implements AutoCloseable {
     }
 
     protected Method findGetKeyMethod(Object object) {
-        Method[] methods = object.getClass().getMethods();
-
-        for (Method method : methods) {
-            if (!Modifier.isPublic(method.getModifiers())) {
-                continue;
-            }
-
-            if (Modifier.isStatic(method.getModifiers())) {
-                continue;
-            }
-
-            if (!method.getName().equals("getKey")) {
-                continue;
-            }
-
-            if (method.getParameterCount() != 0) {
-                continue;
-            }
-
-            return method;
-        }
-
-        return null;
+        return ConfigurableClassMetadata.of(object.getClass()).noArgMethod("getKey");
     }
 
     protected ConfigKey nameFor(Fraction fraction) throws Exception {
@@ -323,28 +381,27 @@ public class ConfigurableManager implements AutoCloseable {
         if (curClass == null || curClass == Object.class || isBlacklisted(curClass)) {
             return;
         }
-        Field[] fields = curClass.getDeclaredFields();
+        ConfigurableClassMetadata metadata = ConfigurableClassMetadata.of(curClass);
 
-        for (Field field : fields) {
-            if (!Modifier.isStatic(field.getModifiers())) {
-                if (isBlacklisted(field)) {
-                    continue;
-                }
-                if (implicit || field.getAnnotation(Configurable.class) != null || field.getAnnotation(Configurables.class) != null) {
-                    if (isConfigurableType(field.getType())) {
-                        List<ConfigKey> names = namesFor(prefix, field);
+        for (Field field : metadata.fields()) {
+            if (isBlacklisted(field)) {
+                continue;
+            }
+            if (implicit || field.getAnnotation(Configurable.class) != null || field.getAnnotation(Configurables.class) != null) {
+                if (isConfigurableType(field.getType())) {
+                    List<ConfigKey> names = namesFor(prefix, field);
 
-                        boolean configured = false;
+                    boolean configured = false;
 
-                        for (ConfigKey name : names) {
-                            if (!seen(name)) {
-                                ConfigurableHandle configurable = new ObjectBackedConfigurableHandle(name, instance, field);
-                                this.configurables.add(configurable);
-                                configured = configure(configurable);
-                            }
-                            if (configured) {
-                                break;
-                            }
+                    for (ConfigKey name : names) {
+                        if (!seen(name)) {
+                            ConfigurableHandle configurable = new ObjectBackedConfigurableHandle(name, instance, field);
+                            this.configurables.add(configurable);
+                            this.configurableKeys.add(name);
+                            configured = configure(configurable);
+                        }
+                        if (configured) {
+                            break;
                         }
                     }
                 }
@@ -352,32 +409,29 @@ public class ConfigurableManager implements AutoCloseable {
         }
 
         if (!rescanning) {
-            Method[] methods = curClass.getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.isAnnotationPresent(Configurable.class)) {
-                    ConfigKey subPrefix = prefix.append(nameFor(method));
-                    if (method.getParameterCount() == 1) {
-                        // If doesn't exist, only create it if there's some
-                        // configuration keys that imply we want it.
-                        if (this.configView.hasKeyOrSubkeys(subPrefix)) {
-                            Object lambda = createLambda(subPrefix, method);
-                            if (lambda != null) {
-                                method.invoke(instance, lambda);
-                            }
+            for (Method method : metadata.configurableMethods()) {
+                ConfigKey subPrefix = prefix.append(nameFor(method));
+                if (method.getParameterCount() == 1) {
+                    // If doesn't exist, only create it if there's some
+                    // configuration keys that imply we want it.
+                    if (this.configView.hasKeyOrSubkeys(subPrefix)) {
+                        Object lambda = createLambda(subPrefix, method);
+                        if (lambda != null) {
+                            method.invoke(instance, lambda);
                         }
-                    } else if (method.getParameterCount() == 2) {
-                        List<SimpleKey> keysWithConfiguration = this.configView.simpleSubkeys(subPrefix);
-                        if (!keysWithConfiguration.isEmpty()) {
-                            for (SimpleKey key : keysWithConfiguration) {
-                                ConfigKey itemPrefix = subPrefix.append(key);
-                                Object lambda = createLambda(itemPrefix, method);
-                                if (lambda != null) {
-                                    method.invoke(instance, key.name(), lambda);
-                                }
+                    }
+                } else if (method.getParameterCount() == 2) {
+                    List<SimpleKey> keysWithConfiguration = this.configView.simpleSubkeys(subPrefix);
+                    if (!keysWithConfiguration.isEmpty()) {
+                        for (SimpleKey key : keysWithConfiguration) {
+                            ConfigKey itemPrefix = subPrefix.append(key);
+                            Object lambda = createLambda(itemPrefix, method);
+                            if (lambda != null) {
+                                method.invoke(instance, key.name(), lambda);
                             }
                         }
-
                     }
+
                 }
             }
         }
@@ -394,7 +448,7 @@ public class ConfigurableManager implements AutoCloseable {
             // this is a deployment-activated context.
             return false;
         }
-        return this.seenObjects.contains(name) || this.configurables.stream().anyMatch(e -> e.key().equals(name));
+        return this.seenObjects.contains(name) || this.configurableKeys.contains(name);
     }
 
     private boolean isConfigurableType(Class<?> type) {
@@ -402,22 +456,11 @@ public class ConfigurableManager implements AutoCloseable {
     }
 
     private boolean isBlacklisted(Class<?> cls) {
-        return BLACKLISTED_CLASSES.stream().anyMatch((e) -> {
-            if (e.isInterface()) {
-                for (Class<?> each : cls.getInterfaces()) {
-                    if (each == e) {
-                        return true;
-                    }
-                }
-                return false;
-            } else {
-                return e == cls;
-            }
-        });
+        return BLACKLISTED.get(cls);
     }
 
     private boolean isBlacklisted(Field field) {
-        if (BLACKLISTED_FIELDS.stream().anyMatch((e) -> e.equals(field.getName()))) {
+        if (BLACKLISTED_FIELDS.contains(field.getName())) {
             return true;
         }
 
@@ -518,21 +561,25 @@ public class ConfigurableManager implements AutoCloseable {
     }
 
     protected void scanSubresources(ConfigKey prefix, Object instance) throws Exception {
-        Method method = getSubresourcesMethod(instance);
+        MethodHandle method = ConfigurableClassMetadata.of(instance.getClass()).subresources();
 
         if (method == null) {
             return;
         }
 
-        Object subresources = method.invoke(instance);
-
-        Field[] fields = subresources.getClass().getDeclaredFields();
+        Object subresources;
+        try {
+            subresources = method.invoke(instance);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
 
-        for (Field field : fields) {
+        for (Field field : ConfigurableClassMetadata.of(subresources.getClass()).fields()) {
             if (field.getAnnotation(SubresourceInfo.class) == null && List.class.isAssignableFrom(field.getType())) {
                 continue;
             }
-            field.setAccessible(true);
             Object value = field.get(subresources);
             ConfigKey subPrefix = prefix.append(nameFor(field));
             if (seen(subPrefix)) {
@@ -640,20 +687,7 @@ public class ConfigurableManager implements AutoCloseable {
         SubresourceInfo anno = field.getAnnotation(SubresourceInfo.class);
         if (anno != null) {
             String name = anno.value();
-            Method[] methods = instance.getClass().getMethods();
-            for (Method method : methods) {
-                if (!method.getName().equals(name)) {
-                    continue;
-                }
-
-                if (!Modifier.isPublic(method.getModifiers())) {
-                    continue;
-                }
-
-                if (Modifier.isStatic(method.getModifiers())) {
-                    continue;
-                }
-
+            for (Method method : ConfigurableClassMetadata.of(instance.getClass()).publicMethods(name)) {
                 if (method.getParameterCount() != 2) {
                     continue;
                 }
@@ -687,20 +721,7 @@ public class ConfigurableManager implements AutoCloseable {
 
     protected Method getNonKeyedFactoryMethod(Object instance, Field field) {
         String name = field.getName();
-        Method[] methods = instance.getClass().getMethods();
-        for (Method method : methods) {
-            if (!method.getName().equals(name)) {
-                continue;
-            }
-
-            if (!Modifier.isPublic(method.getModifiers())) {
-                continue;
-            }
-
-            if (Modifier.isStatic(method.getModifiers())) {
-                continue;
-            }
-
+        for (Method method : ConfigurableClassMetadata.of(instance.getClass()).publicMethods(name)) {
             if (method.getParameterCount() != 1) {
                 continue;
             }
@@ -728,25 +749,7 @@ public class ConfigurableManager implements AutoCloseable {
     }
 
     protected Method getSubresourcesMethod(Object instance) {
-        Method[] methods = instance.getClass().getMethods();
-        for (Method method : methods) {
-            if (Modifier.isStatic(method.getModifiers())) {
-                continue;
-            }
-
-            if (!method.getName().equals(SUBRESOURCES)) {
-                continue;
-            }
-
-            if (method.getParameterCount() != 0) {
-                continue;
-            }
-
-            return method;
-
-        }
-
-        return null;
+        return ConfigurableClassMetadata.of(instance.getClass()).noArgMethod(SUBRESOURCES);
     }
 
     public void log() {
@@ -802,6 +805,7 @@ public class ConfigurableManager implements AutoCloseable {
     public void close() {
         this.seenObjects.clear();
         this.configurables.clear();
+        this.configurableKeys.clear();
         this.deferred.clear();
     }
 
@@ -72,6 +72,15 @@ public class ObjectBackedConfigurableHandle implements ConfigurableHandle {
         return (T) value;
     }
 
+    @Override
+    public boolean isSet() throws IllegalAccessException {
+        Object value = this.field.get(this.instance);
+        if (value instanceof Defaultable) {
+            return ((Defaultable<?>) value).isExplicit();
+        }
+        return value != null;
+    }
+
     protected boolean isDefaultable() {
         return Defaultable.class.isAssignableFrom(this.field.getType());
     }
@@ -17,7 +17,12 @@ package org.wildfly.swarm.container.runtime;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -50,8 +55,10 @@ import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.ValueService;
 import org.jboss.msc.value.ImmediateValue;
 import org.jboss.shrinkwrap.api.Archive;
+import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
 import org.wildfly.swarm.bootstrap.modules.MavenResolvers;
 import org.wildfly.swarm.bootstrap.performance.Performance;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
 import org.wildfly.swarm.bootstrap.util.JarFileManager;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 import org.wildfly.swarm.container.internal.Deployer;
@@ -64,10 +71,12 @@ import org.wildfly.swarm.container.runtime.wildfly.SwarmContentRepository;
 import org.wildfly.swarm.container.runtime.wildfly.UUIDFactory;
 import org.wildfly.swarm.container.runtime.xmlconfig.BootstrapConfiguration;
 import org.wildfly.swarm.container.runtime.xmlconfig.BootstrapPersister;
+import org.wildfly.swarm.container.runtime.xmlconfig.XMLConfig;
 import org.wildfly.swarm.internal.SwarmMessages;
 import org.wildfly.swarm.internal.wildfly.SelfContainedContainer;
 import org.wildfly.swarm.spi.api.Customizer;
 import org.wildfly.swarm.spi.api.UserSpaceExtensionFactory;
+import org.wildfly.swarm.spi.api.config.ConfigView;
 import org.wildfly.swarm.spi.runtime.annotations.Post;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
 
@@ -116,6 +125,13 @@ public class RuntimeServer implements Server {
     @Inject
     private UsageCreator usageCreator;
 
+    @Inject
+    private ConfigView configView;
+
+    @Inject
+    @XMLConfig
+    private Instance<URL> xmlConfig;
+
     public RuntimeServer() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             if (containerStarted) {
@@ -159,39 +175,90 @@ public class RuntimeServer implements Server {
             }
         });
 
-        try (AutoCloseable handle = Performance.time("pre-customizers")) {
-            for (Customizer each : this.preCustomizers) {
-                SwarmMessages.MESSAGES.callingPreCustomizer(each);
-                each.customize();
+        String modelExport = System.getProperty(BootstrapProperties.BOOTSTRAP_MODEL_EXPORT);
+        BootstrapModel model = null;
+        String modelHash = null;
+        List<Customizer> notPrecomputable = new ArrayList<>();
+        try (AutoCloseable handle = Performance.time("load bootstrap model")) {
+            if (modelExport == null) {
+                model = loadBootstrapModel();
+            }
+            if (model != null || modelExport != null) {
+                modelHash = BootstrapModel.hash(this.configView, this.xmlConfig, ApplicationEnvironment.get().fractionManifests());
+                notPrecomputable.addAll(BootstrapModel.notPrecomputable(this.preCustomizers));
+                notPrecomputable.addAll(BootstrapModel.notPrecomputable(this.postCustomizers));
+            }
+            if (model != null && !model.hash().equals(modelHash)) {
+                SwarmMessages.MESSAGES.bootstrapModelOutOfDate();
+                model = null;
+            }
+            if (model != null && !notPrecomputable.isEmpty()) {
+                SwarmMessages.MESSAGES.bootstrapModelNotApplicable(notPrecomputable);
+                model = null;
             }
         }
 
-        try (AutoCloseable handle = Performance.time("post-customizers")) {
-            for (Customizer each : this.postCustomizers) {
-                SwarmMessages.MESSAGES.callingPostCustomizer(each);
-                each.customize();
+        if (model != null) {
+            SwarmMessages.MESSAGES.bootingFromBootstrapModel();
+            try (AutoCloseable handle = Performance.time("restore bootstrap model")) {
+                this.configurableManager.restore(model.configurables());
+                this.networkConfigurer.configure();
+                this.configurableManager.log();
+                bootstrapOperations.addAll(model.leading());
+                this.dmrMarshaller.marshalProperties(bootstrapOperations);
+                bootstrapOperations.addAll(model.trailing());
+            }
+        } else {
+            try (AutoCloseable handle = Performance.time("pre-customizers")) {
+                for (Customizer each : this.preCustomizers) {
+                    SwarmMessages.MESSAGES.callingPreCustomizer(each);
+                    each.customize();
+                }
             }
-        }
 
-        this.networkConfigurer.configure();
+            try (AutoCloseable handle = Performance.time("post-customizers")) {
+                for (Customizer each : this.postCustomizers) {
+                    SwarmMessages.MESSAGES.callingPostCustomizer(each);
+                    each.customize();
+                }
+            }
 
-        /*
-        this.archivePreparers.forEach(e -> {
-            // Log it to prevent dead-code elimination.
-            //
-            // This is purely to ensure @Configurables are scanned
-            // prior to logging the configurables.
-            SwarmMessages.MESSAGES.registeredArchivePreparer(e.toString());
-        });
-        */
+            this.networkConfigurer.configure();
 
-        try (AutoCloseable handle = Performance.time("configurable-manager rescan")) {
-            this.configurableManager.rescan();
-            this.configurableManager.log();
-        }
+            /*
+            this.archivePreparers.forEach(e -> {
+                // Log it to prevent dead-code elimination.
+                //
+                // This is purely to ensure @Configurables are scanned
+                // prior to logging the configurables.
+                SwarmMessages.MESSAGES.registeredArchivePreparer(e.toString());
+            });
+            */
 
-        try (AutoCloseable handle = Performance.time("marshall DMR")) {
-            this.dmrMarshaller.marshal(bootstrapOperations);
+            try (AutoCloseable handle = Performance.time("configurable-manager rescan")) {
+                this.configurableManager.rescan();
+                this.configurableManager.log();
+            }
+
+            List<ModelNode> leading = new ArrayList<>();
+            List<ModelNode> properties = new ArrayList<>();
+            List<ModelNode> trailing = new ArrayList<>();
+            try (AutoCloseable handle = Performance.time("marshall DMR")) {
+                this.dmrMarshaller.marshal(leading, properties, trailing);
+            }
+            bootstrapOperations.addAll(leading);
+            bootstrapOperations.addAll(properties);
+            bootstrapOperations.addAll(trailing);
+
+            if (modelExport != null && !notPrecomputable.isEmpty()) {
+                SwarmMessages.MESSAGES.bootstrapModelNotExported(notPrecomputable);
+            } else if (modelExport != null) {
+                Path path = Paths.get(modelExport);
+                try (OutputStream out = Files.newOutputStream(path)) {
+                    new BootstrapModel(modelHash, leading, trailing, this.configurableManager.snapshot()).write(out);
+                }
+                SwarmMessages.MESSAGES.wroteBootstrapModel(path.toString());
+            }
         }
 
         SwarmMessages.MESSAGES.wildflyBootstrap(bootstrapOperations.toString());
@@ -272,6 +339,15 @@ public class RuntimeServer implements Server {
         }
     }
 
+    private BootstrapModel loadBootstrapModel() {
+        try {
+            return BootstrapModel.load();
+        } catch (IOException e) {
+            SwarmMessages.MESSAGES.errorReadingBootstrapModel(e);
+            return null;
+        }
+    }
+
     private void configureUserSpaceExtensions() {
         this.userSpaceExtensionFactories.forEach(factory -> {
             try {
@@ -15,6 +15,7 @@
  */
 package org.wildfly.swarm.container.runtime.marshal;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -56,6 +57,22 @@ public class DMRMarshaller implements ConfigurationMarshaller {
 
 
     public void marshal(List<ModelNode> list) {
+        marshal(list, list, list);
+    }
+
+    /**
+     * Marshal the configuration, keeping the system properties of the config view apart from the operations
+     * before and after them, since they depend on the environment the server boots in.
+     *
+     * @param leading The list for the operations preceding the system properties.
+     * @param properties The list for the system properties.
+     * @param trailing The list for the operations following the system properties.
+     */
+    public void marshal(List<ModelNode> leading, List<ModelNode> properties, List<ModelNode> trailing) {
+        // marshalled into a single list, so that each marshaller sees the addresses already configured before it
+        List<ModelNode> list = new ArrayList<>();
+        int propertiesStart;
+        int propertiesEnd;
         try {
             try (AutoCloseable handle = Performance.time("marshal XML")) {
                 this.xmlMarshaller.marshal(list);
@@ -63,9 +80,9 @@ public class DMRMarshaller implements ConfigurationMarshaller {
             try (AutoCloseable handle = Performance.time("marshal extensions")) {
                 this.extensionMarshaller.marshal(list);
             }
-            try (AutoCloseable handle = Performance.time("marshal config-view properties")) {
-                this.configViewPropertyMarshaller.marshal(list);
-            }
+            propertiesStart = list.size();
+            marshalProperties(list);
+            propertiesEnd = list.size();
             try (AutoCloseable handle = Performance.time("marshal subsystems")) {
                 this.subsystemMarshaller.marshal(list);
             }
@@ -81,5 +98,16 @@ public class DMRMarshaller implements ConfigurationMarshaller {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        leading.addAll(list.subList(0, propertiesStart));
+        properties.addAll(list.subList(propertiesStart, propertiesEnd));
+        trailing.addAll(list.subList(propertiesEnd, list.size()));
+    }
+
+    public void marshalProperties(List<ModelNode> list) {
+        try (AutoCloseable handle = Performance.time("marshal config-view properties")) {
+            this.configViewPropertyMarshaller.marshal(list);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 }
@@ -16,7 +16,11 @@
 package org.wildfly.swarm.internal;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
+import org.jboss.shrinkwrap.api.Archive;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -33,4 +37,32 @@ public class ExplodedApplicationArtifactLocator {
         return TempFileManager.INSTANCE.getExplodedApplicationArtifact();
     }
 
+    /**
+     * Import the application artifact into an archive straight from the uberjar, when it is read in place,
+     * so that it never has to be exploded.
+     *
+     * @param archive The archive to import into.
+     * @return <code>true</code> if the artifact was imported, <code>false</code> if it is not read in place.
+     */
+    public static boolean importInPlace(Archive<?> archive) {
+        MappedZipFile app = TempFileManager.INSTANCE.getApplicationArtifactInPlace();
+        if (app == null) {
+            return false;
+        }
+        for (MappedZipFile.Entry each : app.entries()) {
+            if (each.isDirectory()) {
+                archive.addAsDirectory(each.getName());
+                continue;
+            }
+            archive.add(() -> {
+                try {
+                    return app.getInputStream(each);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, each.getName());
+        }
+        return true;
+    }
+
 }
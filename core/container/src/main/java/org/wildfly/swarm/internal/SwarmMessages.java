@@ -153,6 +153,30 @@ public interface SwarmMessages extends BasicLogger {
     @Message(id = 31, value = "Registered archive-preparer: %s")
     void registeredArchivePreparer(String preparer);
 
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 32, value = "Booting from the pre-computed bootstrap model")
+    void bootingFromBootstrapModel();
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 33, value = "The configuration has changed since the bootstrap model was computed, ignoring it")
+    void bootstrapModelOutOfDate();
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 34, value = "Unable to read the pre-computed bootstrap model, ignoring it")
+    void errorReadingBootstrapModel(@Cause Throwable cause);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 35, value = "Wrote the bootstrap model to %s")
+    void wroteBootstrapModel(String path);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 36, value = "Not writing the bootstrap model, since it does not capture the effect of these customizers: %s")
+    void bootstrapModelNotExported(List<Customizer> customizers);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 37, value = "The bootstrap model does not capture the effect of these customizers, ignoring it: %s")
+    void bootstrapModelNotApplicable(List<Customizer> customizers);
+
 
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -16,9 +16,12 @@
 package org.wildfly.swarm.container.config;
 
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
+import org.wildfly.swarm.spi.api.ConfigurationFilter;
 import org.wildfly.swarm.spi.api.config.ConfigKey;
+import org.wildfly.swarm.spi.api.config.SimpleKey;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -122,5 +125,94 @@ public class ConfigResolutionStrategyTest {
         assertThat(props.getProperty("swarm.data-sources.ExampleDS.driver-name")).isEqualTo("cooper");
     }
 
+    @Test
+    public void testSubkeysAreMergedInOrder() {
+        Properties props = new Properties() {{
+            setProperty("swarm.data-sources.ExampleDS.url", "jdbc:otherwise");
+            setProperty("swarm.data-sources.OtherDS.url", "jdbc:other");
+        }};
+
+        ConfigNode config = new ConfigNode() {{
+            recursiveChild("swarm.data-sources.ExampleDS.driver-name", "cooper");
+            recursiveChild("swarm.data-sources.YamlDS.url", "jdbc:yaml");
+            recursiveChild("swarm.logging.[org.example].level", "DEBUG");
+        }};
+
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.add(config);
+        strategy.activate();
+
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.data-sources")))
+                .containsOnly(new SimpleKey("ExampleDS"), new SimpleKey("OtherDS"), new SimpleKey("YamlDS"));
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.data-sources.ExampleDS")))
+                .containsExactly(new SimpleKey("url"), new SimpleKey("driver-name"));
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.logging.[org.example]")))
+                .containsExactly(new SimpleKey("level"));
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.data-sources.ExampleDS.url"))).isEmpty();
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.undertow"))).isEmpty();
+
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.data-sources.YamlDS"))).isTrue();
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.data-sources.ExampleDS.url"))).isTrue();
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.undertow"))).isFalse();
+    }
+
+    @Test
+    public void testKeysAreCaseInsensitive() {
+        Properties props = new Properties() {{
+            setProperty("swarm.data-sources.ExampleDS.url", "jdbc:db");
+        }};
+
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.activate();
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.data-sources.exampleds.url"))).isEqualTo("jdbc:db");
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.DATA-SOURCES"))).isTrue();
+    }
+
+    @Test
+    public void testWithPropertyAfterActivation() {
+        Properties props = new Properties() {{
+            setProperty("swarm.http.port", "8080");
+        }};
+
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.activate();
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.https.port"))).isNull();
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.https"))).isFalse();
+
+        strategy.withProperty("swarm.https.port", "8443");
+        strategy.withProperty("swarm.http.port", "8081");
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.https.port"))).isEqualTo("8443");
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.http.port"))).isEqualTo("8081");
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm"))).containsOnly(new SimpleKey("http"), new SimpleKey("https"));
+    }
+
+    @Test
+    public void testFilteredValuesAreMemoized() {
+        Properties props = new Properties() {{
+            setProperty("swarm.http.port", "8080");
+        }};
+
+        AtomicInteger calls = new AtomicInteger();
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.withFilter(new ConfigurationFilter() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T filter(String key, T value) {
+                calls.incrementAndGet();
+                return key.equals("swarm.http.port") ? (T) "9090" : value;
+            }
+        });
+        strategy.activate();
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.http.port"))).isEqualTo("9090");
+        int afterActivation = calls.get();
+        for (int i = 0; i < 10; ++i) {
+            assertThat(strategy.valueOf(ConfigKey.parse("swarm.http.port"))).isEqualTo("9090");
+        }
+        assertThat(calls.get()).isEqualTo(afterActivation);
+    }
 
 }
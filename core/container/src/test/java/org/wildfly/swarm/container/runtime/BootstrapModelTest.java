@@ -0,0 +1,136 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+import org.wildfly.swarm.container.config.ConfigViewFactory;
+import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BootstrapModelTest {
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        ModelNode extension = new ModelNode();
+        extension.get("operation").set("add");
+        extension.get("address").set("extension", "org.jboss.as.undertow");
+        ModelNode subsystem = new ModelNode();
+        subsystem.get("operation").set("add");
+        subsystem.get("address").set("subsystem", "undertow");
+        Map<String, String> configurables = new LinkedHashMap<>();
+        configurables.put("swarm.http.port", "8081");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BootstrapModel("abc", Collections.singletonList(extension), Collections.singletonList(subsystem), configurables).write(out);
+        BootstrapModel model = BootstrapModel.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(model.hash()).isEqualTo("abc");
+        assertThat(model.leading()).containsExactly(extension);
+        assertThat(model.trailing()).containsExactly(subsystem);
+        assertThat(model.configurables()).isEqualTo(configurables);
+    }
+
+    @Test
+    public void testHashCoversSwarmConfigurationOnly() throws Exception {
+        String hash = hash("swarm.http.port", "8080", "user.dir", "/tmp/a");
+
+        assertThat(hash("swarm.http.port", "8080", "user.dir", "/tmp/b")).isEqualTo(hash);
+        assertThat(hash("swarm.http.port", "8080", BootstrapProperties.BOOTSTRAP_MODEL_EXPORT, "/tmp/model.dmr")).isEqualTo(hash);
+        assertThat(hash("swarm.http.port", "8081", "user.dir", "/tmp/a")).isNotEqualTo(hash);
+    }
+
+    @Test
+    public void testExportAndRuntimeHashesIgnoreUnrelatedEnvironment() throws Exception {
+        Map<String, String> build = new HashMap<>();
+        build.put("SWARM_HTTP_PORT", "8080");
+        build.put("MAVEN_OPTS", "-Xmx1g");
+        build.put("PATH", "/usr/share/maven/bin:/usr/bin");
+        build.put("HOME", "/home/ci");
+        Map<String, String> runtime = new HashMap<>();
+        runtime.put("SWARM_HTTP_PORT", "8080");
+        runtime.put("PATH", "/usr/bin");
+        runtime.put("HOME", "/home/app");
+        runtime.put("HOSTNAME", "app-5d8f7c9b4-x2x7q");
+
+        String hash = hash(build);
+
+        assertThat(hash(runtime)).isEqualTo(hash);
+        runtime.put("SWARM_HTTP_PORT", "8081");
+        assertThat(hash(runtime)).isNotEqualTo(hash);
+    }
+
+    @Test
+    public void testCustomizerProducingTempPathIsNotPrecomputable() throws Exception {
+        Customizer tempPath = new TempPathCustomizer();
+        Customizer socketBinding = new SocketBindingCustomizer();
+        Customizer proxy = new SocketBindingCustomizer() {
+        };
+
+        List<Customizer> notPrecomputable = BootstrapModel.notPrecomputable(Arrays.asList(tempPath, socketBinding, proxy));
+
+        assertThat(notPrecomputable).containsExactly(tempPath);
+    }
+
+    private static String hash(String... properties) throws Exception {
+        Properties props = new Properties();
+        for (int i = 0; i < properties.length; i += 2) {
+            props.setProperty(properties[i], properties[i + 1]);
+        }
+        return hash(props, new HashMap<>());
+    }
+
+    private static String hash(Map<String, String> environment) throws Exception {
+        return hash(new Properties(), environment);
+    }
+
+    private static String hash(Properties properties, Map<String, String> environment) throws Exception {
+        ConfigView configView = new ConfigViewFactory(properties, environment).get(true);
+        return BootstrapModel.hash(configView, Collections.emptyList(), Collections.emptyList());
+    }
+
+    static class TempPathCustomizer implements Customizer {
+        @Override
+        public void customize() throws Exception {
+            Path dir = Files.createTempDirectory("themes");
+            dir.toFile().deleteOnExit();
+            System.setProperty("theme.dir", dir.toString());
+        }
+    }
+
+    @Precomputable
+    static class SocketBindingCustomizer implements Customizer {
+        @Override
+        public void customize() {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.File;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.wildfly.swarm.container.config.ConfigViewFactory;
+import org.wildfly.swarm.container.runtime.cdi.DeploymentContextImpl;
+import org.wildfly.swarm.container.runtime.cdi.configurable.ConfigurableFractionBean;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+
+/**
+ * Times how long {@link ConfigurableManager} takes to scan and rescan every fraction found in a set of fraction jars or class directories.
+ *
+ * <p>
+ * Not run by the build. Each round creates the fractions the way {@link ConfigurableFractionBean} does at boot, defaults applied and scanned, and then
+ * times {@link ConfigurableManager#rescan()}, which is what the {@code configurable-manager rescan} entry of the boot performance report measures.
+ * The first round is cold, later rounds reuse the per-class reflection metadata. Fractions that cannot be loaded or created from the given class path
+ * are skipped. {@code swarm.*} system properties and environment variables are applied as at boot. Run it from the module directory with the test
+ * class path, passing the number of rounds and the fractions, for instance every {@code fractions/*&#47;target/classes}:
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test dependencies&gt; \
+ *     org.wildfly.swarm.container.runtime.ConfigurableManagerBenchmark &lt;rounds&gt; &lt;jar or directory&gt;...
+ * </pre>
+ */
+public final class ConfigurableManagerBenchmark {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private ConfigurableManagerBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: ConfigurableManagerBenchmark <rounds> <jar or directory>...");
+            System.exit(1);
+        }
+        int rounds = Integer.parseInt(args[0]);
+
+        List<URL> urls = new ArrayList<>();
+        List<String> classNames = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            File file = new File(args[i]);
+            urls.add(file.toURI().toURL());
+            classNames.addAll(classNames(file));
+        }
+
+        ClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), ConfigurableManagerBenchmark.class.getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        List<Class<? extends Fraction>> fractions = fractions(loader, classNames);
+
+        ConfigView configView = new ConfigViewFactory(System.getProperties(), System.getenv()).get(true);
+
+        long warmScan = 0;
+        long warmRescan = 0;
+        System.out.printf("%6s %10s %14s %10s %12s%n", "round", "fractions", "configurables", "scan ms", "rescan ms");
+        for (int round = 1; round <= rounds; ++round) {
+            ConfigurableManager manager = new ConfigurableManager(configView, new DeploymentContextImpl());
+            try {
+                long begin = System.nanoTime();
+                List<Class<? extends Fraction>> scanned = new ArrayList<>();
+                for (Class<? extends Fraction> each : fractions) {
+                    try {
+                        create(each, manager);
+                        scanned.add(each);
+                    } catch (Exception | LinkageError e) {
+                        System.err.printf("skipping %s: %s%n", each.getName(), e);
+                    }
+                }
+                long scan = System.nanoTime() - begin;
+
+                begin = System.nanoTime();
+                manager.rescan();
+                long rescan = System.nanoTime() - begin;
+
+                System.out.printf("%6d %10d %14d %10.2f %12.2f%n", round, scanned.size(), manager.configurables().size(), millis(scan), millis(rescan));
+                fractions = scanned;
+                if (round > 1) {
+                    warmScan += scan;
+                    warmRescan += rescan;
+                }
+            } finally {
+                manager.close();
+            }
+        }
+        if (rounds > 1) {
+            System.out.printf("%6s %10s %14s %10.2f %12.2f%n", "warm", "", "", millis(warmScan) / (rounds - 1), millis(warmRescan) / (rounds - 1));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void create(Class<? extends Fraction> fractionClass, ConfigurableManager manager) throws Exception {
+        new ConfigurableFractionBean(fractionClass, manager);
+    }
+
+    private static List<Class<? extends Fraction>> fractions(ClassLoader loader, List<String> classNames) {
+        List<Class<? extends Fraction>> fractions = new ArrayList<>();
+        for (String name : classNames) {
+            try {
+                Class<?> cls = Class.forName(name, false, loader);
+                if (Fraction.class.isAssignableFrom(cls) && !cls.isInterface() && Modifier.isPublic(cls.getModifiers())
+                        && !Modifier.isAbstract(cls.getModifiers()) && hasPublicNoArgConstructor(cls)) {
+                    fractions.add(cls.asSubclass(Fraction.class));
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // not loadable from the given class path, so not a fraction we can boot either
+            }
+        }
+        return fractions;
+    }
+
+    private static boolean hasPublicNoArgConstructor(Class<?> cls) {
+        try {
+            return Modifier.isPublic(cls.getConstructor().getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static List<String> classNames(File file) throws Exception {
+        List<String> names = new ArrayList<>();
+        if (file.isDirectory()) {
+            Path root = file.toPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                names.addAll(paths
+                                     .map(path -> root.relativize(path).toString())
+                                     .filter(path -> path.endsWith(CLASS_SUFFIX))
+                                     .map(path -> toClassName(path.replace(File.separatorChar, '/')))
+                                     .collect(Collectors.toList()));
+            }
+        } else {
+            try (JarFile jar = new JarFile(file)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(CLASS_SUFFIX)) {
+                        names.add(toClassName(name));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String toClassName(String path) {
+        return path.substring(0, path.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -15,7 +15,9 @@
  */
 package org.wildfly.swarm.container.runtime;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -23,10 +25,12 @@ import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.junit.Test;
+import org.wildfly.swarm.config.runtime.SubresourceInfo;
 import org.wildfly.swarm.container.config.ConfigViewFactory;
 import org.wildfly.swarm.container.runtime.cdi.DeploymentContext;
 import org.wildfly.swarm.container.runtime.cdi.DeploymentContextImpl;
 import org.wildfly.swarm.spi.api.Defaultable;
+import org.wildfly.swarm.spi.api.Fraction;
 import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.config.ConfigView;
 
@@ -113,9 +117,88 @@ public class ConfigurableManagerTest {
         }
     }
 
+    @Test
+    public void testManyKeyedSubresources() throws Exception {
+        Properties props = new Properties();
+        Map<String, String> env = new HashMap<>();
+        ConfigViewFactory factory = new ConfigViewFactory(props, env);
+        for (int i = 0; i < 500; i += 2) {
+            factory.withProperty("swarm.many.items.item" + i + ".value", "configured" + i);
+        }
+        ConfigView configView = factory.get(true);
+        ConfigurableManager manager = new ConfigurableManager(configView, new DeploymentContextImpl());
+
+        ManyFraction fraction = new ManyFraction();
+        for (int i = 0; i < 500; ++i) {
+            fraction.subresources().items.add(new Item("item" + i));
+        }
+        manager.scan(fraction);
+
+        for (int i = 0; i < 500; ++i) {
+            Item item = fraction.subresources().items.get(i);
+            assertThat(item.value.get()).isEqualTo(i % 2 == 0 ? "configured" + i : "unconfigured");
+        }
+        assertThat(manager.configurables()).hasSize(500);
+    }
+
     public static class Component {
         @Configurable("swarm.deployment.*.context")
         @Configurable("swarm.http.context")
         public Defaultable<String> context = Defaultable.string("/");
     }
+
+    @Test
+    public void testSnapshotAndRestore() throws Exception {
+        Properties props = new Properties();
+        Map<String, String> env = new HashMap<>();
+        ConfigViewFactory factory = new ConfigViewFactory(props, env);
+        factory.withProperty("swarm.many.items.item0.value", "configured");
+        ConfigurableManager manager = new ConfigurableManager(factory.get(true), new DeploymentContextImpl());
+        ManyFraction fraction = new ManyFraction();
+        fraction.subresources().items.add(new Item("item0"));
+        fraction.subresources().items.add(new Item("item1"));
+        manager.scan(fraction);
+        fraction.subresources().items.get(0).value.set("customized");
+
+        Map<String, String> snapshot = manager.snapshot();
+        assertThat(snapshot).hasSize(1);
+
+        ConfigurableManager restored = new ConfigurableManager(new ConfigViewFactory(new Properties(), env).get(true), new DeploymentContextImpl());
+        ManyFraction other = new ManyFraction();
+        other.subresources().items.add(new Item("item0"));
+        other.subresources().items.add(new Item("item1"));
+        restored.scan(other);
+        restored.restore(snapshot);
+
+        assertThat(other.subresources().items.get(0).value.get()).isEqualTo("customized");
+        assertThat(other.subresources().items.get(1).value.isDefault()).isTrue();
+    }
+
+    @Configurable("swarm.many")
+    public static class ManyFraction implements Fraction<ManyFraction> {
+        private final ManyResources subresources = new ManyResources();
+
+        public ManyResources subresources() {
+            return this.subresources;
+        }
+    }
+
+    public static class ManyResources {
+        @SubresourceInfo("item")
+        private List<Item> items = new ArrayList<>();
+    }
+
+    public static class Item {
+        private final String key;
+
+        private Defaultable<String> value = Defaultable.string("unconfigured");
+
+        public Item(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return this.key;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime.marshal;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.enterprise.inject.Instance;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.annotations.WildFlySubsystem;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DMRMarshallerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSubsystemConfiguredByXmlIsNotAddedTwice() throws Exception {
+        XMLMarshaller xmlMarshaller = mock(XMLMarshaller.class);
+        doAnswer(invocation -> {
+            ((List<ModelNode>) invocation.getArgument(0)).add(add("logging"));
+            return null;
+        }).when(xmlMarshaller).marshal(anyList());
+
+        Instance<Fraction> fractions = mock(Instance.class);
+        when(fractions.iterator()).thenAnswer(invocation -> Collections.<Fraction>singletonList(new LoggingFraction()).iterator());
+        SubsystemMarshaller subsystemMarshaller = new SubsystemMarshaller();
+        inject(subsystemMarshaller, "fractions", fractions);
+
+        DMRMarshaller marshaller = new DMRMarshaller();
+        inject(marshaller, "xmlMarshaller", xmlMarshaller);
+        inject(marshaller, "configViewPropertyMarshaller", mock(ConfigViewPropertyMarshaller.class));
+        inject(marshaller, "extensionMarshaller", mock(ExtensionMarshaller.class));
+        inject(marshaller, "subsystemMarshaller", subsystemMarshaller);
+        inject(marshaller, "customMarshallers", mock(Instance.class));
+        inject(marshaller, "interfaceMarshaller", mock(InterfaceMarshaller.class));
+        inject(marshaller, "socketBindingGroupMarshaller", mock(SocketBindingGroupMarshaller.class));
+
+        List<ModelNode> leading = new ArrayList<>();
+        List<ModelNode> properties = new ArrayList<>();
+        List<ModelNode> trailing = new ArrayList<>();
+        marshaller.marshal(leading, properties, trailing);
+
+        assertThat(leading).containsExactly(add("logging"));
+        assertThat(properties).isEmpty();
+        assertThat(trailing).isEmpty();
+    }
+
+    private static ModelNode add(String subsystem) {
+        ModelNode node = new ModelNode();
+        node.get(OP_ADDR).set(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, subsystem)).toModelNode());
+        node.get(OP).set(ADD);
+        return node;
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @WildFlySubsystem("logging")
+    static class LoggingFraction implements Fraction<LoggingFraction> {
+    }
+}
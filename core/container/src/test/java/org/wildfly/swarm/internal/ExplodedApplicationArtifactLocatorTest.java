@@ -0,0 +1,96 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.util.MappedZipFile;
+import org.wildfly.swarm.bootstrap.util.TempFileManager;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExplodedApplicationArtifactLocatorTest {
+
+    private static final String CLASS_PATH = "WEB-INF/classes/com/example/Thing.class";
+
+    private static final String PAGE_PATH = "index.html";
+
+    @After
+    public void tearDown() {
+        TempFileManager.INSTANCE.setApplicationArtifactInPlace(null);
+        TempFileManager.INSTANCE.setExplodedApplicationArtifact(null);
+    }
+
+    @Test
+    public void testNotReadInPlace() {
+        JavaArchive archive = ShrinkWrap.create(JavaArchive.class);
+
+        assertThat(ExplodedApplicationArtifactLocator.importInPlace(archive)).isFalse();
+        assertThat(archive.getContent()).isEmpty();
+    }
+
+    @Test
+    public void testImportsWithoutExploding() throws Exception {
+        TempFileManager.INSTANCE.setApplicationArtifactInPlace(new MappedZipFile(ByteBuffer.wrap(createWar())));
+        TempFileManager.INSTANCE.deferExplodedApplicationArtifact(() -> {
+            throw new AssertionError("the application artifact should not be exploded");
+        });
+
+        JavaArchive archive = ShrinkWrap.create(JavaArchive.class);
+        assertThat(ExplodedApplicationArtifactLocator.importInPlace(archive)).isTrue();
+
+        assertThat(read(archive, PAGE_PATH)).isEqualTo("<html/>");
+        assertThat(read(archive, CLASS_PATH)).isEqualTo("not really a class");
+        assertThat(archive.get("WEB-INF/lib")).isNotNull();
+    }
+
+    private static String read(JavaArchive archive, String path) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = archive.get(path).getAsset().openStream()) {
+            byte[] buffer = new byte[1024];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, len);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] createWar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry(PAGE_PATH));
+            out.write("<html/>".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("WEB-INF/lib/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry(CLASS_PATH));
+            out.write("not really a class".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.spi.runtime.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Marks a {@link org.wildfly.swarm.spi.api.Customizer} whose only effect is on the fraction configuration.
+ *
+ * <p>Such a customizer reads nothing but the configuration and the fractions, and changes nothing but the
+ * fractions and socket binding groups, so its effect is captured by the pre-computed bootstrap model and it
+ * is not run on boots that use the model. A bootstrap model is neither written nor used while any
+ * customizer without this annotation is installed.</p>
+ *
+ * @apiNote Used by {@code Fraction} authors.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Precomputable {
+}
@@ -24,11 +24,13 @@ import org.wildfly.swarm.config.ee.DefaultBindingsService;
 import org.wildfly.swarm.ee.EEFraction;
 import org.wildfly.swarm.spi.api.Customizer;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
 
 /**
  * @author Bob McWhirter
  */
 @Pre
+@Precomputable
 @ApplicationScoped
 public class DefaultBindingCustomizer implements Customizer {
 
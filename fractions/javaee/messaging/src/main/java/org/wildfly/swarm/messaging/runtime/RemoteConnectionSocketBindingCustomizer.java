@@ -14,6 +14,7 @@ import org.wildfly.swarm.spi.api.Customizer;
 import org.wildfly.swarm.spi.api.OutboundSocketBinding;
 import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.runtime.annotations.Post;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
 
 /**
  * Creates an outbound-socket binding for each RemoteConnection.
@@ -21,6 +22,7 @@ import org.wildfly.swarm.spi.runtime.annotations.Post;
  * @author Bob McWhirter
  */
 @Post
+@Precomputable
 @ApplicationScoped
 public class RemoteConnectionSocketBindingCustomizer implements Customizer {
 
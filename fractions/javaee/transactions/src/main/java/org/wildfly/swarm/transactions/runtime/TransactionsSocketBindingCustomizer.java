@@ -23,12 +23,14 @@ import org.wildfly.swarm.spi.api.Customizer;
 import org.wildfly.swarm.spi.api.SocketBinding;
 import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
 import org.wildfly.swarm.transactions.TransactionsFraction;
 
 /**
  * @author Bob McWhirter
  */
 @Pre
+@Precomputable
 @ApplicationScoped
 public class TransactionsSocketBindingCustomizer implements Customizer {
 
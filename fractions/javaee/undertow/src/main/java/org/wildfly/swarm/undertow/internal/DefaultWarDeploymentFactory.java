@@ -113,6 +113,10 @@ public class DefaultWarDeploymentFactory extends DefaultDeploymentFactory {
 
     @Override
     protected boolean setupUsingAppArtifact(Archive<?> archive) throws IOException {
+        if (ExplodedApplicationArtifactLocator.importInPlace(archive)) {
+            // Use the app artifact read in place from the uberjar
+            return true;
+        }
         File exploded = ExplodedApplicationArtifactLocator.get();
         if (exploded != null && exploded.canRead()) {
             // Use exploded deployment from tmp dir
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.keycloak.deployment;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie over path prefixes, matching a path to the value of its longest prefix.
+ *
+ * <p>Lookups take time proportional to the length of the path.</p>
+ *
+ * @param <T> The value type.
+ */
+final class PathTrie<T> {
+
+    PathTrie(Map<String, T> values) {
+        Builder<T> root = new Builder<>();
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            Builder<T> node = root;
+            for (int i = 0; i < entry.getKey().length(); ++i) {
+                node = node.children.computeIfAbsent(entry.getKey().charAt(i), c -> new Builder<>());
+            }
+            node.value = entry.getValue();
+        }
+        this.root = root.build();
+    }
+
+    /**
+     * @param path The path.
+     * @return The value of the longest prefix of the path, or <code>null</code> if none of the prefixes match.
+     */
+    T match(String path) {
+        Node<T> node = this.root;
+        T value = node.value;
+        for (int i = 0; i < path.length(); ++i) {
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    private final Node<T> root;
+
+    private static final class Node<T> {
+
+        Node(char[] keys, Node<T>[] children, T value) {
+            this.keys = keys;
+            this.children = children;
+            this.value = value;
+        }
+
+        Node<T> child(char c) {
+            // keys are sorted
+            int low = 0;
+            int high = this.keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = this.keys[mid];
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return this.children[mid];
+                }
+            }
+            return null;
+        }
+
+        private final char[] keys;
+
+        private final Node<T>[] children;
+
+        private final T value;
+    }
+
+    private static final class Builder<T> {
+
+        @SuppressWarnings("unchecked")
+        Node<T> build() {
+            char[] keys = new char[this.children.size()];
+            Node<T>[] nodes = new Node[this.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder<T>> entry : this.children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                ++i;
+            }
+            return new Node<>(keys, nodes, this.value);
+        }
+
+        private final Map<Character, Builder<T>> children = new TreeMap<>();
+
+        private T value;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.keycloak.deployment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PathTrieTest {
+
+    @Test
+    public void testMatchesLongestPrefix() {
+        Map<String, String> paths = new HashMap<>();
+        paths.put("/api", "api");
+        paths.put("/api/admin", "admin");
+        paths.put("/api/admin/reports", "reports");
+        PathTrie<String> trie = new PathTrie<>(paths);
+
+        assertThat(trie.match("/api")).isEqualTo("api");
+        assertThat(trie.match("/api/users")).isEqualTo("api");
+        assertThat(trie.match("/api/admin")).isEqualTo("admin");
+        assertThat(trie.match("/api/admin/users")).isEqualTo("admin");
+        assertThat(trie.match("/api/admin/reports/2017")).isEqualTo("reports");
+        assertThat(trie.match("/other")).isNull();
+        assertThat(trie.match("")).isNull();
+    }
+
+    @Test
+    public void testRootPrefixMatchesEverything() {
+        Map<String, String> paths = new HashMap<>();
+        paths.put("", "root");
+        paths.put("/secure", "secure");
+        PathTrie<String> trie = new PathTrie<>(paths);
+
+        assertThat(trie.match("/anything")).isEqualTo("root");
+        assertThat(trie.match("/secure/thing")).isEqualTo("secure");
+    }
+
+    @Test
+    public void testManyContexts() {
+        Map<String, String> paths = new HashMap<>();
+        for (int i = 0; i < 150; ++i) {
+            paths.put("/tenant" + i, "tenant" + i);
+            paths.put("/tenant" + i + "/admin", "admin" + i);
+        }
+        PathTrie<String> trie = new PathTrie<>(paths);
+
+        for (int i = 0; i < 150; ++i) {
+            assertThat(trie.match("/tenant" + i + "/orders")).isEqualTo("tenant" + i);
+            assertThat(trie.match("/tenant" + i + "/admin/users")).isEqualTo("admin" + i);
+        }
+    }
+}
@@ -36,7 +36,15 @@ public class MicroProfileFaultToleranceFraction implements Fraction<MicroProfile
         return synchronousCircuitBreaker.get();
     }
 
+    public String getEngine() {
+        return engine.get();
+    }
+
     @AttributeDocumentation("Enable/disable synchronous circuit breaker functionality. If disabled, `CircuitBreaker#successThreshold()` of value greater than 1 is not supported. Moreover, circuit breaker does not necessarily transition from `CLOSED` to `OPEN` immediately when a fault tolerance operation completes. However, applications are encouraged to disable this feature on high-volume circuits.")
     @Configurable("swarm.microprofile.fault-tolerance.synchronous-circuit-breaker")
     private Defaultable<Boolean> synchronousCircuitBreaker = Defaultable.bool(true);
+
+    @AttributeDocumentation("Fault tolerance execution engine, either `hystrix` or `lightweight`. The `lightweight` engine applies retry, timeout, bulkhead, circuit breaker and fallback directly instead of executing a Hystrix command per attempt.")
+    @Configurable("swarm.microprofile.fault-tolerance.engine")
+    private Defaultable<String> engine = Defaultable.string("hystrix");
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+/**
+ * Registers fault tolerance metrics in the application {@link MetricRegistry}, if there is one.
+ *
+ * <p>
+ * The MicroProfile Metrics API is an optional dependency. It is only accessed through {@link ApplicationRegistry}, which is not loaded unless the API is
+ * available.
+ * </p>
+ */
+@ApplicationScoped
+class FaultToleranceMetrics {
+
+    /**
+     * This config property key can be used to disable the fault tolerance metrics.
+     */
+    static final String METRICS_ENABLED_KEY = "MP_Fault_Tolerance_Metrics_Enabled";
+
+    private static final String METRIC_REGISTRY_CLASS = "org.eclipse.microprofile.metrics.MetricRegistry";
+
+    @Inject
+    Config config;
+
+    @Inject
+    BeanManager beanManager;
+
+    @PostConstruct
+    void init() {
+        if (config.getOptionalValue(METRICS_ENABLED_KEY, Boolean.class).orElse(true) && isMetricsApiAvailable()) {
+            this.registry = ApplicationRegistry.lookup(beanManager);
+        }
+    }
+
+    /**
+     *
+     * @param method
+     * @return the retry metrics of the method or {@code null} if metrics are disabled
+     */
+    RetryMetrics retry(Method method) {
+        ApplicationRegistry registry = this.registry;
+        if (registry == null) {
+            return null;
+        }
+        return retryMetrics.computeIfAbsent(method, registry::retry);
+    }
+
+    private static boolean isMetricsApiAvailable() {
+        try {
+            Class.forName(METRIC_REGISTRY_CLASS, false, FaultToleranceMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private final Map<Method, RetryMetrics> retryMetrics = new ConcurrentHashMap<>();
+
+    private ApplicationRegistry registry;
+
+    private static final class ApplicationRegistry {
+
+        /**
+         * @return the application registry or {@code null} if there is none
+         */
+        static ApplicationRegistry lookup(BeanManager beanManager) {
+            Set<Bean<?>> beans = beanManager.getBeans(MetricRegistry.class, new RegistryTypeLiteral());
+            if (beans.isEmpty()) {
+                return null;
+            }
+            Bean<?> bean = beanManager.resolve(beans);
+            return new ApplicationRegistry((MetricRegistry) beanManager.getReference(bean, MetricRegistry.class, beanManager.createCreationalContext(bean)));
+        }
+
+        private ApplicationRegistry(MetricRegistry registry) {
+            this.registry = registry;
+        }
+
+        RetryMetrics retry(Method method) {
+            return new RetryMetrics(registry, method);
+        }
+
+        private final MetricRegistry registry;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RegistryTypeLiteral extends AnnotationLiteral<RegistryType> implements RegistryType {
+
+        @Override
+        public MetricRegistry.Type type() {
+            return MetricRegistry.Type.APPLICATION;
+        }
+    }
+
+}
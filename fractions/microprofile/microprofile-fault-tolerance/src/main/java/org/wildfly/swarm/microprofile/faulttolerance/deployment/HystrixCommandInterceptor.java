@@ -106,19 +106,49 @@ public class HystrixCommandInterceptor {
      */
     public static final String SYNC_CIRCUIT_BREAKER_KEY = "org_wildfly_swarm_microprofile_faulttolerance_syncCircuitBreaker";
 
+    /**
+     * This config property key can be used to select the execution engine. The default {@value #ENGINE_HYSTRIX} engine executes every attempt as a
+     * {@link HystrixCommand}. The {@value #ENGINE_LIGHTWEIGHT} engine applies the fault tolerance policies directly, see {@link LightweightExecutionEngine}.
+     */
+    public static final String ENGINE_KEY = "org_wildfly_swarm_microprofile_faulttolerance_engine";
+
+    /**
+     * This config property key can be used to set the number of threads the {@value #ENGINE_LIGHTWEIGHT} engine runs {@code @Asynchronous} and
+     * {@code @Timeout} operations on, in addition to the threads reserved for their bulkheads. An execution for which no thread is available is rejected
+     * with a {@link org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException}.
+     */
+    public static final String ENGINE_THREADS_KEY = "org_wildfly_swarm_microprofile_faulttolerance_engine_threads";
+
+    public static final String ENGINE_HYSTRIX = "hystrix";
+
+    public static final String ENGINE_LIGHTWEIGHT = "lightweight";
+
     private static final Logger LOGGER = Logger.getLogger(HystrixCommandInterceptor.class);
 
     @SuppressWarnings("unchecked")
     @Inject
     public HystrixCommandInterceptor(@ConfigProperty(name = "MP_Fault_Tolerance_NonFallback_Enabled", defaultValue = "true") Boolean nonFallBackEnable,
-            Config config, Instance<MicroProfileFaultToleranceFraction> fraction, BeanManager beanManager, @Unbound RequestContext requestContext) {
+            Config config, Instance<MicroProfileFaultToleranceFraction> fraction, BeanManager beanManager, @Unbound RequestContext requestContext,
+            Instance<LightweightExecutionEngine> lightweightEngine, FaultToleranceMetrics metrics) {
         this.nonFallBackEnable = nonFallBackEnable;
+        this.metrics = metrics;
         Optional<Boolean> mpSyncCircuitBreaker = config.getOptionalValue(SYNC_CIRCUIT_BREAKER_KEY, Boolean.class);
         this.syncCircuitBreakerEnabled = mpSyncCircuitBreaker.orElse(fraction.isUnsatisfied() ? true : fraction.get().isSynchronousCircuitBreakerEnabled());
         this.beanManager = beanManager;
         this.extension = beanManager.getExtension(HystrixExtension.class);
         this.commandMetadataMap = new ConcurrentHashMap<>();
         this.requestContext = requestContext;
+        // CompletionStage methods are always executed by the lightweight engine, the bean itself is only created once used
+        this.lightweightEngine = lightweightEngine.get();
+        String engine = config.getOptionalValue(ENGINE_KEY, String.class).orElse(fraction.isUnsatisfied() ? ENGINE_HYSTRIX : fraction.get().getEngine());
+        if (ENGINE_LIGHTWEIGHT.equalsIgnoreCase(engine)) {
+            this.lightweightEngineEnabled = true;
+            this.circuitBreakers = null;
+            return;
+        } else if (!ENGINE_HYSTRIX.equalsIgnoreCase(engine)) {
+            LOGGER.warnf("Unknown fault tolerance engine %s, using %s", engine, ENGINE_HYSTRIX);
+        }
+        this.lightweightEngineEnabled = false;
         // WORKAROUND: Hystrix does not allow to use custom HystrixCircuitBreaker impl
         // See also https://github.com/Netflix/Hystrix/issues/9
         try {
@@ -138,7 +168,12 @@ public class HystrixCommandInterceptor {
         LOGGER.tracef("FT operation intercepted: %s", method);
 
         CommandMetadata metadata = commandMetadataMap.computeIfAbsent(method, CommandMetadata::new);
-        RetryContext retryContext = nonFallBackEnable && metadata.operation.hasRetry() ? new RetryContext(metadata.operation.getRetry()) : null;
+        if (lightweightEngineEnabled || metadata.operation.isCompletionStage()) {
+            // Asynchronous results are already unwrapped
+            return lightweightEngine.execute(metadata.operation, ctx, metadata.getFallback(ctx), nonFallBackEnable);
+        }
+        RetryContext retryContext = nonFallBackEnable && metadata.operation.hasRetry() ? new RetryContext(metadata.operation.getRetry(), metadata.retryMetrics)
+                : null;
         SynchronousCircuitBreaker syncCircuitBreaker = getSynchronousCircuitBreaker(metadata);
         Function<Supplier<Object>, SimpleCommand> commandFactory = (fallback) -> new SimpleCommand(metadata.setter, ctx, fallback, metadata.operation,
                 metadata.operation.isAsync() ? requestContext : null);
@@ -173,10 +208,16 @@ public class HystrixCommandInterceptor {
                         syncCircuitBreaker.executionSucceeded();
                     }
                 }
+                if (retryContext != null) {
+                    retryContext.finished(!command.isFailedExecution() && !command.isResponseFromFallback());
+                }
                 return res;
             } catch (HystrixRuntimeException e) {
                 Exception res = processHystrixRuntimeException(e, retryContext, metadata.operation.getMethod(), syncCircuitBreaker);
                 if (res != null) {
+                    if (retryContext != null) {
+                        retryContext.finished(false);
+                    }
                     throw res;
                 }
             }
@@ -335,6 +376,12 @@ public class HystrixCommandInterceptor {
 
     private final RequestContext requestContext;
 
+    private final LightweightExecutionEngine lightweightEngine;
+
+    private final boolean lightweightEngineEnabled;
+
+    private final FaultToleranceMetrics metrics;
+
     private class CommandMetadata {
 
         public CommandMetadata(Method method) {
@@ -351,10 +398,16 @@ public class HystrixCommandInterceptor {
                 operation.validate();
             }
             this.operation = operation;
+            this.retryMetrics = nonFallBackEnable && operation.hasRetry() ? metrics.retry(method) : null;
 
-            // Initialize Hystrix command setter
-            commandKey = HystrixCommandKey.Factory.asKey(SimpleCommand.getCommandKey(method));
-            setter = initSetter(commandKey, method, operation);
+            if (!lightweightEngineEnabled) {
+                // Initialize Hystrix command setter
+                commandKey = HystrixCommandKey.Factory.asKey(SimpleCommand.getCommandKey(method));
+                setter = initSetter(commandKey, method, operation);
+            } else {
+                commandKey = null;
+                setter = null;
+            }
 
             if (operation.hasFallback()) {
                 FallbackConfig fallbackConfig = operation.getFallback();
@@ -442,6 +495,8 @@ public class HystrixCommandInterceptor {
 
         private final FaultToleranceOperation operation;
 
+        private final RetryMetrics retryMetrics;
+
     }
 
     class AsyncFuture implements Future<Object> {
@@ -68,6 +68,8 @@ public class HystrixExtension implements Extension {
         bbd.addAnnotatedType(bm.createAnnotatedType(HystrixCommandInterceptor.class), HystrixCommandInterceptor.class.getName());
         bbd.addAnnotatedType(bm.createAnnotatedType(HystrixInitializer.class), HystrixInitializer.class.getName());
         bbd.addAnnotatedType(bm.createAnnotatedType(DefaultHystrixConcurrencyStrategy.class), DefaultHystrixConcurrencyStrategy.class.getName());
+        bbd.addAnnotatedType(bm.createAnnotatedType(LightweightExecutionEngine.class), LightweightExecutionEngine.class.getName());
+        bbd.addAnnotatedType(bm.createAnnotatedType(FaultToleranceMetrics.class), FaultToleranceMetrics.class.getName());
     }
 
     /**
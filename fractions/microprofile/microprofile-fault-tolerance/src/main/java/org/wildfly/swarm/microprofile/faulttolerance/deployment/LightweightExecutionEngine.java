@@ -0,0 +1,739 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig.FAIL_ON;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.logging.Logger;
+import org.jboss.weld.context.RequestContext;
+import org.jboss.weld.context.unbound.Unbound;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.BulkheadConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.FaultToleranceOperation;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.TimeoutConfig;
+
+/**
+ * Executes fault tolerance operations without Hystrix.
+ *
+ * <p>
+ * Retry, bulkhead, circuit breaker and fallback are applied directly on the calling thread. Bulkheads are plain semaphores and circuit breakers are
+ * {@link SynchronousCircuitBreaker}s kept per method, so no Hystrix command, metrics stream or thread pool is created per invocation.
+ * </p>
+ * <p>
+ * {@code @Asynchronous} operations and the business method of a synchronous {@code @Timeout} operation run on a single bounded pool of threads from the
+ * managed thread factory. The caller of a synchronous operation waits for the result at most until the timeout elapses, so only a pool thread is ever
+ * interrupted. The pool has {@value HystrixCommandInterceptor#ENGINE_THREADS_KEY} threads, plus one per permit of every bulkhead which limits executions on
+ * the pool, so that an execution admitted by its bulkhead always finds a thread. An execution for which no thread is available fails with a
+ * {@link BulkheadException}.
+ * </p>
+ * <p>
+ * {@code @Asynchronous} operations never hold a thread while waiting, unless the business method returns a {@link Future} which is not a stage. A returned
+ * {@link CompletionStage} is observed through a callback, retries are scheduled on the shared scheduler and attempts over the bulkhead limit are queued
+ * instead of blocking. The returned {@link CompletableFuture} completes with the value of the future or stage returned by the business method, so it can be
+ * used for both {@link Future} and {@link CompletionStage} methods. Note that only a stage which completes exceptionally is considered a failed execution,
+ * as with Hystrix a {@link Future} is not inspected. A bulkhead permit is only released once the returned future or stage is done, even if the attempt timed
+ * out before.
+ * </p>
+ * <p>
+ * The outcome of a failed execution is the one of the Hystrix based execution in {@link HystrixCommandInterceptor}.
+ * </p>
+ *
+ * @see HystrixCommandInterceptor#ENGINE_KEY
+ */
+@ApplicationScoped
+class LightweightExecutionEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(LightweightExecutionEngine.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    @Resource(lookup = "java:comp/DefaultManagedThreadFactory")
+    ManagedThreadFactory threadFactory;
+
+    @Inject
+    @Unbound
+    RequestContext requestContext;
+
+    @Inject
+    FaultToleranceMetrics metrics;
+
+    @Inject
+    @ConfigProperty(name = HystrixCommandInterceptor.ENGINE_THREADS_KEY, defaultValue = "10")
+    Integer threads;
+
+    @PostConstruct
+    void init() {
+        // The managed thread factory is not available outside of a Java EE container
+        ThreadFactory factory = threadFactory != null ? threadFactory : Executors.defaultThreadFactory();
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "fault-tolerance-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        // Threads are only started on demand, an execution which finds all of them busy is rejected
+        this.executor = new ThreadPoolExecutor(0, Math.max(1, threads), KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     *
+     * @param operation
+     * @param ctx
+     * @param fallback The fallback to use once no more attempts are left, may be {@code null}
+     * @param nonFallbackEnabled If {@code false} only the fallback is applied
+     * @return the result of the invocation, a future for {@code @Asynchronous} operations
+     * @throws Exception
+     */
+    Object execute(FaultToleranceOperation operation, ExecutionContextWithInvocationContext ctx, Supplier<Object> fallback, boolean nonFallbackEnabled)
+            throws Exception {
+        OperationState state = states.computeIfAbsent(operation.getMethod(), m -> {
+            OperationState created = new OperationState(operation, nonFallbackEnabled, nonFallbackEnabled && operation.hasRetry() ? metrics.retry(m) : null);
+            reserveThreads(created);
+            return created;
+        });
+        if (operation.isAsync()) {
+            return executeAsync(state, ctx, fallback);
+        }
+        return executeWithRetry(state, ctx, fallback);
+    }
+
+    /**
+     * Attempts are executed on the pool. A returned {@link CompletionStage} is observed through a callback and retries are scheduled on the
+     * shared timer, so that no thread is held while waiting for the downstream result or for the next attempt.
+     */
+    private CompletableFuture<Object> executeAsync(OperationState state, ExecutionContextWithInvocationContext ctx, Supplier<Object> fallback) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        new AsyncExecution(state, ctx, fallback, result).attempt();
+        return result;
+    }
+
+    /**
+     * Grows the pool by the permits of the bulkhead of an operation executed on the pool.
+     */
+    private synchronized void reserveThreads(OperationState state) {
+        if (state.asyncBulkhead != null || (state.bulkhead != null && state.timeoutMillis > 0)) {
+            int permits = state.operation.getBulkhead().get(BulkheadConfig.VALUE);
+            executor.setMaximumPoolSize(executor.getMaximumPoolSize() + permits);
+        }
+    }
+
+    private Object executeWithRetry(OperationState state, ExecutionContextWithInvocationContext ctx, Supplier<Object> fallback) throws Exception {
+        RetryContext retryContext = state.hasRetry ? new RetryContext(state.operation.getRetry(), state.retryMetrics) : null;
+        boolean success = false;
+        try {
+            while (true) {
+                if (retryContext != null) {
+                    LOGGER.debugf("Executing %s with %s", state.operation, retryContext);
+                }
+                Throwable failure;
+                try {
+                    Object result = executeOnce(state, ctx);
+                    success = true;
+                    return result;
+                } catch (FailureNotHandledException e) {
+                    // Command failed but the circuit breaker should not be used at all
+                    failure = e.getCause();
+                    if (failure instanceof Error) {
+                        throw (Error) failure;
+                    }
+                    throw (Exception) failure;
+                } catch (CircuitBreakerOpenException e) {
+                    if (fallback != null && (retryContext == null || retryContext.isLastAttempt())) {
+                        return fallback.get();
+                    }
+                    throw e;
+                } catch (Exception | Error e) {
+                    failure = e;
+                }
+                if (fallback != null && (retryContext == null || retryContext.isLastAttempt())) {
+                    return fallback.get();
+                }
+                if (retryContext != null && retryContext.shouldRetry()) {
+                    Exception res = retryContext.nextRetry(failure);
+                    if (res != null) {
+                        throw res;
+                    }
+                } else if (failure instanceof Error) {
+                    throw (Error) failure;
+                } else {
+                    throw (Exception) failure;
+                }
+            }
+        } finally {
+            if (retryContext != null) {
+                retryContext.finished(success);
+            }
+        }
+    }
+
+    private Object executeOnce(OperationState state, ExecutionContextWithInvocationContext ctx) throws Exception {
+        SynchronousCircuitBreaker breaker = state.breaker;
+        if (breaker != null && !breaker.attemptExecution()) {
+            throw new CircuitBreakerOpenException(state.operation.getMethod().getName());
+        }
+        Object result;
+        try {
+            result = proceed(state, ctx);
+        } catch (BulkheadException | TimeoutException e) {
+            if (breaker != null) {
+                breaker.executionFailed();
+            }
+            throw e;
+        } catch (Exception | Error e) {
+            if (breaker != null) {
+                if (!isFailOn(state, e)) {
+                    throw new FailureNotHandledException(e);
+                }
+                breaker.executionFailed();
+            }
+            throw e;
+        }
+        if (breaker != null) {
+            breaker.executionSucceeded();
+        }
+        return result;
+    }
+
+    private Object proceed(OperationState state, ExecutionContextWithInvocationContext ctx) throws Exception {
+        Semaphore bulkhead = state.bulkhead;
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            throw new BulkheadException("Bulkhead is full: " + state.operation.getMethod().getName());
+        }
+        try {
+            return state.timeoutMillis > 0 ? proceedWithTimeout(state, ctx) : ctx.proceed();
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * Runs the business method on the pool and waits for it until the timeout elapses. Only the pool thread is interrupted, never the caller.
+     */
+    private Object proceedWithTimeout(OperationState state, ExecutionContextWithInvocationContext ctx) throws Exception {
+        FutureTask<Object> task = new FutureTask<>(() -> {
+            requestContext.activate();
+            try {
+                return ctx.proceed();
+            } finally {
+                requestContext.invalidate();
+                requestContext.deactivate();
+            }
+        });
+        if (!submit(task)) {
+            throw new BulkheadException("Unable to submit " + state.operation.getMethod().getName());
+        }
+        try {
+            return task.get(state.timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.TimeoutException e) {
+            task.cancel(true);
+            throw new TimeoutException("Execution exceeded " + state.timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            // The caller gave up waiting, so does the business method
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.debugf(e, "Unable to submit %s", task);
+            return false;
+        }
+    }
+
+    /**
+     * Passes the outcome to the callback once the returned {@link CompletionStage} completes. Only a {@link Future} which is not a stage is waited for.
+     */
+    private static void whenDone(Object returned, BiConsumer<Object, Throwable> callback) {
+        if (returned instanceof CompletionStage) {
+            ((CompletionStage<?>) returned).whenComplete((value, failure) -> callback.accept(value, unwrap(failure)));
+        } else if (returned instanceof Future) {
+            Object value;
+            try {
+                value = ((Future<?>) returned).get();
+            } catch (ExecutionException e) {
+                callback.accept(null, e.getCause());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                callback.accept(null, e);
+                return;
+            }
+            callback.accept(value, null);
+        } else {
+            callback.accept(returned, null);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static boolean isFailOn(OperationState state, Throwable failure) {
+        for (Class<?> exception : state.failOn) {
+            if (exception.isAssignableFrom(failure.getClass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final Map<Method, OperationState> states = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor timer;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Everything about an operation which does not change between invocations.
+     */
+    private static final class OperationState {
+
+        OperationState(FaultToleranceOperation operation, boolean nonFallbackEnabled, RetryMetrics retryMetrics) {
+            this.operation = operation;
+            this.hasRetry = nonFallbackEnabled && operation.hasRetry();
+            this.retryMetrics = retryMetrics;
+            if (nonFallbackEnabled && operation.hasCircuitBreaker()) {
+                this.breaker = new SynchronousCircuitBreaker(operation.getCircuitBreaker());
+                this.failOn = operation.getCircuitBreaker().get(FAIL_ON);
+            } else {
+                this.breaker = null;
+                this.failOn = null;
+            }
+            if (nonFallbackEnabled && operation.hasBulkhead()) {
+                BulkheadConfig config = operation.getBulkhead();
+                int value = config.get(BulkheadConfig.VALUE);
+                if (operation.isAsync()) {
+                    this.bulkhead = null;
+                    this.asyncBulkhead = new AsyncBulkhead(value, config.get(BulkheadConfig.WAITING_TASK_QUEUE));
+                } else {
+                    this.bulkhead = new Semaphore(value);
+                    this.asyncBulkhead = null;
+                }
+            } else {
+                this.bulkhead = null;
+                this.asyncBulkhead = null;
+            }
+            if (nonFallbackEnabled && operation.hasTimeout()) {
+                TimeoutConfig config = operation.getTimeout();
+                this.timeoutMillis = Duration.of(config.get(TimeoutConfig.VALUE), config.get(TimeoutConfig.UNIT)).toMillis();
+            } else {
+                this.timeoutMillis = 0;
+            }
+        }
+
+        private final FaultToleranceOperation operation;
+
+        private final boolean hasRetry;
+
+        private final RetryMetrics retryMetrics;
+
+        private final SynchronousCircuitBreaker breaker;
+
+        private final Class<?>[] failOn;
+
+        private final Semaphore bulkhead;
+
+        private final AsyncBulkhead asyncBulkhead;
+
+        private final long timeoutMillis;
+    }
+
+    /**
+     * A single invocation of an {@code @Asynchronous} operation, possibly consisting of several attempts.
+     */
+    private final class AsyncExecution {
+
+        AsyncExecution(OperationState state, ExecutionContextWithInvocationContext ctx, Supplier<Object> fallback, CompletableFuture<Object> result) {
+            this.state = state;
+            this.ctx = ctx;
+            this.fallback = fallback;
+            this.result = result;
+            this.retryContext = state.hasRetry ? new RetryContext(state.operation.getRetry(), state.retryMetrics) : null;
+            if (retryContext != null) {
+                result.whenComplete((value, failure) -> retryContext.finished(succeeded));
+            }
+        }
+
+        void attempt() {
+            if (retryContext != null) {
+                LOGGER.debugf("Executing %s with %s", state.operation, retryContext);
+            }
+            SynchronousCircuitBreaker breaker = state.breaker;
+            if (breaker != null && !breaker.attemptExecution()) {
+                failed(new CircuitBreakerOpenException(state.operation.getMethod().getName()));
+                return;
+            }
+            Attempt attempt = new Attempt();
+            if (state.asyncBulkhead == null) {
+                attempt.start();
+            } else if (!state.asyncBulkhead.offer(attempt)) {
+                completed(null, new BulkheadException("Bulkhead queue is full: " + state.operation.getMethod().getName()));
+            }
+        }
+
+        private void completed(Object value, Throwable failure) {
+            SynchronousCircuitBreaker breaker = state.breaker;
+            if (failure == null) {
+                if (breaker != null) {
+                    breaker.executionSucceeded();
+                }
+                succeeded = true;
+                if (state.operation.isCompletionStage()) {
+                    result.complete(value);
+                } else {
+                    // The outcome of a returned Future is not a failure of the execution
+                    whenDone(value, this::complete);
+                }
+                return;
+            }
+            if (breaker != null) {
+                if (!(failure instanceof BulkheadException) && !(failure instanceof TimeoutException) && !isFailOn(state, failure)) {
+                    // Execution failed but the circuit breaker should not be used at all
+                    result.completeExceptionally(failure);
+                    return;
+                }
+                breaker.executionFailed();
+            }
+            failed(failure);
+        }
+
+        private void failed(Throwable failure) {
+            if (fallback != null && (retryContext == null || retryContext.isLastAttempt())) {
+                if (!submit(this::applyFallback)) {
+                    result.completeExceptionally(new BulkheadException("Unable to submit fallback of " + state.operation.getMethod().getName(), failure));
+                }
+                return;
+            }
+            if (failure instanceof CircuitBreakerOpenException || retryContext == null || !retryContext.shouldRetry()) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            Exception res;
+            try {
+                res = retryContext.nextScheduledRetry(failure);
+            } catch (Error e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (res != null) {
+                result.completeExceptionally(res);
+                return;
+            }
+            long delay = retryContext.nextDelay();
+            if (delay > 0) {
+                try {
+                    timer.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                }
+            } else {
+                attempt();
+            }
+        }
+
+        private void applyFallback() {
+            Object returned;
+            requestContext.activate();
+            try {
+                returned = fallback.get();
+            } catch (Exception | Error e) {
+                result.completeExceptionally(e);
+                return;
+            } finally {
+                requestContext.invalidate();
+                requestContext.deactivate();
+            }
+            whenDone(returned, this::complete);
+        }
+
+        private void complete(Object value, Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        private final OperationState state;
+
+        private final ExecutionContextWithInvocationContext ctx;
+
+        private final Supplier<Object> fallback;
+
+        private final CompletableFuture<Object> result;
+
+        private final RetryContext retryContext;
+
+        // False if the result is completed by the fallback
+        private volatile boolean succeeded;
+
+        /**
+         * The value is {@code true} once the attempt is finished, either by the business method, its returned stage or the timeout. The bulkhead permit
+         * is held until the business method and the future or stage it returned are done, even if the attempt timed out before.
+         */
+        private final class Attempt extends AtomicBoolean implements Runnable {
+
+            private static final long serialVersionUID = 1L;
+
+            void start() {
+                if (!submit(this)) {
+                    finish(null, new BulkheadException("Unable to submit " + state.operation.getMethod().getName()));
+                    release();
+                }
+            }
+
+            @Override
+            public void run() {
+                Watchdog watchdog = null;
+                if (state.timeoutMillis > 0) {
+                    watchdog = new Watchdog(Thread.currentThread());
+                    this.watchdog = watchdog;
+                    this.timeout = timer.schedule(this::timedOut, state.timeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                Object returned = null;
+                Throwable failure = null;
+                requestContext.activate();
+                try {
+                    returned = ctx.proceed();
+                } catch (Exception | Error e) {
+                    failure = e;
+                } finally {
+                    if (watchdog != null) {
+                        watchdog.finish();
+                    }
+                    requestContext.invalidate();
+                    requestContext.deactivate();
+                }
+                if (failure != null) {
+                    finish(null, failure);
+                    release();
+                    return;
+                }
+                if (state.operation.isCompletionStage()) {
+                    if (!get()) {
+                        whenDone(returned, this::finish);
+                    }
+                } else {
+                    finish(returned, null);
+                }
+                releaseWhenDone(returned);
+            }
+
+            /**
+             * A {@link CompletionStage} is observed through a callback. A {@link Future} which is not a stage can only be waited for, on this thread, so
+             * that the waiting thread is covered by the bulkhead permit.
+             */
+            private void releaseWhenDone(Object returned) {
+                if (returned instanceof CompletionStage) {
+                    ((CompletionStage<?>) returned).whenComplete((value, failure) -> release());
+                    return;
+                }
+                if (returned instanceof Future) {
+                    try {
+                        ((Future<?>) returned).get();
+                    } catch (ExecutionException ignored) {
+                        // The outcome of a returned Future is not a failure of the execution
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                release();
+            }
+
+            private void timedOut() {
+                // Only interrupts the business method, a pending stage is abandoned but keeps the bulkhead permit until it completes
+                watchdog.run();
+                finish(null, new TimeoutException("Execution exceeded " + state.timeoutMillis + "ms"));
+            }
+
+            private void finish(Object value, Throwable failure) {
+                if (!compareAndSet(false, true)) {
+                    return;
+                }
+                ScheduledFuture<?> timeout = this.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                completed(value, failure);
+            }
+
+            private void release() {
+                if (state.asyncBulkhead != null && released.compareAndSet(false, true)) {
+                    state.asyncBulkhead.release();
+                }
+            }
+
+            private final transient AtomicBoolean released = new AtomicBoolean();
+
+            private transient volatile Watchdog watchdog;
+
+            private transient volatile ScheduledFuture<?> timeout;
+        }
+    }
+
+    /**
+     * Limits the number of concurrent asynchronous attempts without blocking. Attempts over the limit wait in a bounded queue and are submitted once a
+     * running attempt finishes.
+     */
+    private static final class AsyncBulkhead {
+
+        AsyncBulkhead(int value, int queue) {
+            this.permits = new Semaphore(value);
+            this.capacity = value + queue;
+        }
+
+        /**
+         * @return {@code false} if the queue is full
+         */
+        boolean offer(AsyncExecution.Attempt attempt) {
+            if (admitted.incrementAndGet() > capacity) {
+                admitted.decrementAndGet();
+                return false;
+            }
+            pending.add(attempt);
+            drain();
+            return true;
+        }
+
+        void release() {
+            admitted.decrementAndGet();
+            permits.release();
+            drain();
+        }
+
+        private void drain() {
+            // Both offer() and release() change their state first and drain afterwards so that no pending attempt is missed
+            while (!pending.isEmpty() && permits.tryAcquire()) {
+                AsyncExecution.Attempt attempt = pending.poll();
+                if (attempt == null) {
+                    permits.release();
+                } else {
+                    attempt.start();
+                }
+            }
+        }
+
+        private final Semaphore permits;
+
+        private final int capacity;
+
+        private final AtomicInteger admitted = new AtomicInteger();
+
+        private final Queue<AsyncExecution.Attempt> pending = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Interrupts the guarded thread unless the execution finished first.
+     */
+    private static final class Watchdog extends AtomicInteger implements Runnable {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int RUNNING = 0;
+
+        private static final int FINISHED = 1;
+
+        private static final int INTERRUPTING = 2;
+
+        private static final int TIMED_OUT = 3;
+
+        Watchdog(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            if (compareAndSet(RUNNING, INTERRUPTING)) {
+                thread.interrupt();
+                set(TIMED_OUT);
+            }
+        }
+
+        /**
+         * @return {@code false} if the execution timed out, in which case the interrupt status of the current thread is cleared
+         */
+        boolean finish() {
+            if (compareAndSet(RUNNING, FINISHED)) {
+                return true;
+            }
+            while (get() == INTERRUPTING) {
+                Thread.yield();
+            }
+            Thread.interrupted();
+            return false;
+        }
+
+        private final transient Thread thread;
+    }
+
+}
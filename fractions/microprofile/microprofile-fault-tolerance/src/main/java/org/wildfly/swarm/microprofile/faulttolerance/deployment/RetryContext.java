@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
 import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig.Backoff;
 
 class RetryContext {
 
@@ -35,12 +36,35 @@ class RetryContext {
 
     private final long delay;
 
+    private final Backoff backoff;
+
+    private final double backoffFactor;
+
+    private final long maxDelay;
+
+    // May be null
+    private final RetryMetrics metrics;
+
+    // Attempts are never executed concurrently but may be executed by different threads
+    private volatile int retries;
+
+    private volatile long previousDelay;
+
     RetryContext(RetryConfig config) {
+        this(config, null);
+    }
+
+    RetryContext(RetryConfig config, RetryMetrics metrics) {
         this.config = config;
+        this.metrics = metrics;
         this.start = System.nanoTime();
         this.remainingAttempts = new AtomicInteger(config.<Integer>get(RetryConfig.MAX_RETRIES) + 1);
         this.maxDuration = Duration.of(config.get(RetryConfig.MAX_DURATION), config.get(RetryConfig.DURATION_UNIT)).toNanos();
         this.delay = Duration.of(config.get(RetryConfig.DELAY), config.get(RetryConfig.DELAY_UNIT)).toMillis();
+        this.backoff = config.getBackoff();
+        this.backoffFactor = config.getBackoffFactor();
+        long maxDelay = config.getMaxDelay();
+        this.maxDelay = maxDelay > 0 ? Duration.of(maxDelay, config.get(RetryConfig.DELAY_UNIT)).toMillis() : TimeUnit.NANOSECONDS.toMillis(maxDuration);
     }
 
     RetryConfig getConfig() {
@@ -54,11 +78,26 @@ class RetryContext {
      * @return an exception to rethrow or null if we should try again
      */
     Exception nextRetry(Throwable throwable) {
+        Exception res = nextScheduledRetry(throwable);
+        return res != null ? res : delayIfNeeded();
+    }
+
+    /**
+     * Unlike {@link #nextRetry(Throwable)} this method does not wait. The next attempt should be scheduled after {@link #nextDelay()} instead.
+     *
+     * @param throwable
+     * @return an exception to rethrow or null if we should try again
+     */
+    Exception nextScheduledRetry(Throwable throwable) {
         // Decrement the retry count for this attempt
         remainingAttempts.decrementAndGet();
         // Check the exception type
         if (shouldRetryOn(throwable, System.nanoTime())) {
-            return delayIfNeeded();
+            retries++;
+            if (metrics != null) {
+                metrics.retried();
+            }
+            return null;
         } else {
             if (throwable instanceof Error) {
                 throw (Error) throwable;
@@ -71,6 +110,17 @@ class RetryContext {
         }
     }
 
+    /**
+     * Records the outcome of an invocation after the last attempt, including an attempt which ended with the fallback.
+     *
+     * @param success {@code false} if the invocation failed or the fallback was used
+     */
+    void finished(boolean success) {
+        if (metrics != null) {
+            metrics.finished(success, retries > 0);
+        }
+    }
+
     boolean shouldRetry() {
         return remainingAttempts.get() > 0;
     }
@@ -107,11 +157,10 @@ class RetryContext {
      * @return an exception to rethrow or null if we should try again
      */
     Exception delayIfNeeded() {
-        if (delay > 0) {
-            long jitterBase = config.getJitter();
-            long jitter = (long) (Math.random() * ((jitterBase * 2) + 1)) - jitterBase; // random number between -jitter and +jitter
+        long nextDelay = nextDelay();
+        if (nextDelay > 0) {
             try {
-                TimeUnit.MILLISECONDS.sleep(delay + Duration.of(jitter, config.getJitterDelayUnit()).toMillis());
+                TimeUnit.MILLISECONDS.sleep(nextDelay);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return e;
@@ -120,9 +169,37 @@ class RetryContext {
         return null;
     }
 
+    /**
+     *
+     * @return the delay before the next attempt in milliseconds, computed by the configured {@link Backoff}
+     */
+    long nextDelay() {
+        if (delay <= 0) {
+            return 0;
+        }
+        switch (backoff) {
+            case EXPONENTIAL:
+                // The first retry is delayed by the configured delay
+                return withJitter((long) Math.min(maxDelay, delay * Math.pow(backoffFactor, retries - 1)));
+            case DECORRELATED_JITTER:
+                long upper = (long) Math.min(maxDelay, Math.max(delay, previousDelay) * backoffFactor);
+                long next = Math.min(maxDelay, delay + (long) (Math.random() * (Math.max(0, upper - delay) + 1)));
+                previousDelay = next;
+                return next;
+            default:
+                return withJitter(delay);
+        }
+    }
+
+    private long withJitter(long delay) {
+        long jitterBase = config.getJitter();
+        long jitter = (long) (Math.random() * ((jitterBase * 2) + 1)) - jitterBase; // random number between -jitter and +jitter
+        return Math.max(0, delay + Duration.of(jitter, config.getJitterDelayUnit()).toMillis());
+    }
+
     @Override
     public String toString() {
-        return "RetryContext [remainingAttempts=" + remainingAttempts + ", start=" + start + "]";
+        return "RetryContext [remainingAttempts=" + remainingAttempts + ", retries=" + retries + ", start=" + start + "]";
     }
 
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+
+/**
+ * Retry counters of a single method. The names follow the MicroProfile Fault Tolerance specification, e.g.
+ * {@code ft.com.acme.Client.call.retry.retries.total}.
+ */
+class RetryMetrics {
+
+    RetryMetrics(MetricRegistry registry, Method method) {
+        String prefix = "ft." + method.getDeclaringClass().getName() + "." + method.getName() + ".retry.";
+        this.callsSucceededNotRetried = counter(registry, prefix + "callsSucceededNotRetried.total",
+                "The number of times the method was called and succeeded without retrying");
+        this.callsSucceededRetried = counter(registry, prefix + "callsSucceededRetried.total",
+                "The number of times the method was called and succeeded after retrying at least once");
+        this.callsFailed = counter(registry, prefix + "callsFailed.total", "The number of times the method was called and ultimately failed after retrying");
+        this.retries = counter(registry, prefix + "retries.total", "The total number of times the method was retried");
+    }
+
+    void retried() {
+        retries.inc();
+    }
+
+    void finished(boolean success, boolean retried) {
+        if (!success) {
+            callsFailed.inc();
+        } else if (retried) {
+            callsSucceededRetried.inc();
+        } else {
+            callsSucceededNotRetried.inc();
+        }
+    }
+
+    private static Counter counter(MetricRegistry registry, String name, String description) {
+        Metadata metadata = new Metadata(name, MetricType.COUNTER);
+        metadata.setDescription(description);
+        return registry.counter(metadata);
+    }
+
+    private final Counter callsSucceededNotRetried;
+
+    private final Counter callsSucceededRetried;
+
+    private final Counter callsFailed;
+
+    private final Counter retries;
+
+}
@@ -22,6 +22,7 @@ import static org.wildfly.swarm.microprofile.faulttolerance.deployment.Synchrono
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -33,6 +34,11 @@ import com.netflix.hystrix.HystrixCircuitBreaker;
 /**
  * This is an implementation of the HystrixCircuitBreaker that is expected to be used synchronously by the HystrixCommand implementation to track the state of
  * the circuit. This is needed for the current TCK tests as monitoring circuit state in a background thread does not work with the TCK expectations.
+ * <p>
+ * The implementation is lock-free. Each state of the circuit is an immutable {@link State} which owns its counters, so a transition is a single CAS and never
+ * has to reset counters that other threads may be updating. While CLOSED, the outcomes of the last {@link CircuitBreakerConfig#REQUEST_VOLUME_THRESHOLD}
+ * executions are kept in a ring buffer, i.e. the failure ratio is computed over a rolling window as described by the specification.
+ * </p>
  *
  * @see HystrixCommandInterceptor#SYNC_CIRCUIT_BREAKER_KEY
  */
@@ -46,12 +52,9 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
 
     SynchronousCircuitBreaker(CircuitBreakerConfig config) {
         this.config = config;
-        this.status = new AtomicReference<>(CLOSED);
-        this.circuitOpenedAt = new AtomicLong(-1);
-        this.successCount = new AtomicInteger(0);
-        this.failureCount = new AtomicInteger(0);
-        this.halfOpenAttempts = new AtomicInteger(0);
         this.id = config.getMethodInfo();
+        this.windowSize = config.get(CircuitBreakerConfig.REQUEST_VOLUME_THRESHOLD, Integer.class);
+        this.state = new AtomicReference<>(State.closed(windowSize));
     }
 
     @Override
@@ -65,83 +68,107 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
     }
 
     @Override
-    public synchronized boolean isOpen() {
-        return circuitOpenedAt.get() >= 0;
+    public boolean isOpen() {
+        return state.get().status != CLOSED;
     }
 
     @Override
-    public synchronized boolean allowRequest() {
+    public boolean allowRequest() {
         // Allow next request if:
         // 1. circuit is CLOSED
         // 2. circuit is OPEN and specified delay passed
         // 3. circuit is HALF_OPEN and next attempt is allowed
-        switch (status.get()) {
+        State current = state.get();
+        switch (current.status) {
             case CLOSED:
                 return true;
             case HALF_OPEN:
-                return isHalfOpenAttemptAllowed();
+                return current.halfOpenAttempts.get() < getSuccessThreshold();
             case OPEN:
-                return isAfterDelay();
+                return isAfterDelay(current);
             default:
                 return false;
         }
     }
 
     @Override
-    public synchronized boolean attemptExecution() {
+    public boolean attemptExecution() {
         // Allow next execution if:
         // 1. circuit is CLOSED
         // 2. circuit is HALF_OPEN and next attempt is allowed
         // 3. circuit is OPEN and specified delay passed - transition to HALF_OPEN
-        switch (status.get()) {
+        while (true) {
+            State current = state.get();
+            switch (current.status) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    return current.tryHalfOpenAttempt(getSuccessThreshold());
+                case OPEN:
+                    if (!isAfterDelay(current)) {
+                        return false;
+                    }
+                    if (transition(current, State.halfOpen())) {
+                        return true;
+                    }
+                    // Another thread changed the state first - look again
+                    break;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    void executionSucceeded() {
+        State current = state.get();
+        switch (current.status) {
             case CLOSED:
-                return true;
+                current.window.record(false);
+                break;
             case HALF_OPEN:
-                if (isHalfOpenAttemptAllowed()) {
-                    halfOpenAttempts.incrementAndGet();
-                    return true;
-                }
-                return false;
-            case OPEN:
-                if (isAfterDelay()) {
-                    LOGGER.debugf("OPEN >> HALF_OPEN [id:%s]", id);
-                    status.set(HALF_OPEN);
-                    halfOpenAttempts.set(1);
-                    resetCounts();
-                    return true;
+                // Transition to CLOSED if successThreshold reached
+                if (current.halfOpenSuccesses.incrementAndGet() >= getSuccessThreshold()) {
+                    transition(current, State.closed(windowSize));
                 }
-                return false;
+                break;
             default:
-                return false;
+                // Completed after the circuit was opened
         }
     }
 
-    synchronized void executionSucceeded() {
-        successCount.incrementAndGet();
-        // Transition to CLOSED if HALF_OPEN and successThreshold reached
-        if (HALF_OPEN == status.get() && isSuccessThresholdReached()) {
-            LOGGER.debugf("HALF_OPEN >> CLOSED [id:%s]", id);
-            status.set(CLOSED);
-            circuitOpenedAt.set(-1);
-            resetCounts();
+    void executionFailed() {
+        State current = state.get();
+        switch (current.status) {
+            case CLOSED:
+                // Transition to OPEN if failure threshold reached
+                current.window.record(true);
+                if (isFailureThresholdReached(current.window)) {
+                    transition(current, State.open(System.currentTimeMillis()));
+                }
+                break;
+            case HALF_OPEN:
+                // Transition to OPEN on any failure
+                transition(current, State.open(System.currentTimeMillis()));
+                break;
+            default:
+                // Completed after the circuit was opened
         }
     }
 
-    synchronized void executionFailed() {
-        failureCount.incrementAndGet();
-        // Transition to OPEN if HALF_OPEN
-        // Transition to OPEN if CLOSED and failure threshold reached
-        Status current = status.get();
-        if (HALF_OPEN == current || (CLOSED == current && isFailureThresholdReached())) {
-            LOGGER.debugf("%s >> OPEN [id:%s]", current, id);
-            status.set(OPEN);
-            circuitOpenedAt.set(System.currentTimeMillis());
-            resetCounts();
+    Status getStatus() {
+        return state.get().status;
+    }
+
+    private boolean transition(State expected, State next) {
+        if (state.compareAndSet(expected, next)) {
+            LOGGER.debugf("%s >> %s [id:%s]", expected.status, next.status, id);
+            return true;
         }
+        return false;
     }
 
-    private boolean isAfterDelay() {
-        long openedAt = circuitOpenedAt.get();
+    private boolean isAfterDelay(State current) {
+        long openedAt = current.openedAt;
         long delay = config.get(CircuitBreakerConfig.DELAY);
         if (delay == 0) {
             return true;
@@ -158,46 +185,121 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
         return elapsed >= delay;
     }
 
-    private boolean isFailureThresholdReached() {
-        int requestCount = getRequestCount();
-        int requestVolumeThreshold = config.get(CircuitBreakerConfig.REQUEST_VOLUME_THRESHOLD);
-        if (requestCount < requestVolumeThreshold) {
+    private boolean isFailureThresholdReached(SlidingWindow window) {
+        if (!window.isFull()) {
             return false;
         }
-        double failureCheck = failureCount.get() / (double) requestCount;
+        double failureCheck = window.getFailures() / (double) window.getSize();
         double failureRatio = config.get(CircuitBreakerConfig.FAILURE_RATIO);
         return (failureCheck >= failureRatio) || (failureRatio <= 0 && failureCheck == 1);
     }
 
-    private boolean isSuccessThresholdReached() {
-        return successCount.get() >= config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
+    private int getSuccessThreshold() {
+        return config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
     }
 
-    private boolean isHalfOpenAttemptAllowed() {
-        return halfOpenAttempts.get() < config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
-    }
+    private final AtomicReference<State> state;
 
-    private int getRequestCount() {
-        return successCount.get() + failureCount.get();
-    }
+    private final CircuitBreakerConfig config;
+
+    private final int windowSize;
+
+    private final String id;
+
+    /**
+     * One state of the circuit, together with the counters that are only meaningful while it lasts.
+     */
+    private static final class State {
+
+        static State closed(int windowSize) {
+            return new State(CLOSED, -1, new SlidingWindow(windowSize));
+        }
 
-    private void resetCounts() {
-        successCount.set(0);
-        failureCount.set(0);
+        static State open(long openedAt) {
+            return new State(OPEN, openedAt, null);
+        }
+
+        static State halfOpen() {
+            State state = new State(HALF_OPEN, -1, null);
+            // The attempt that triggered the transition
+            state.halfOpenAttempts.set(1);
+            return state;
+        }
+
+        private State(Status status, long openedAt, SlidingWindow window) {
+            this.status = status;
+            this.openedAt = openedAt;
+            this.window = window;
+            this.halfOpenAttempts = status == HALF_OPEN ? new AtomicInteger() : null;
+            this.halfOpenSuccesses = status == HALF_OPEN ? new AtomicInteger() : null;
+        }
+
+        boolean tryHalfOpenAttempt(int maxAttempts) {
+            while (true) {
+                int attempts = halfOpenAttempts.get();
+                if (attempts >= maxAttempts) {
+                    return false;
+                }
+                if (halfOpenAttempts.compareAndSet(attempts, attempts + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private final Status status;
+
+        private final long openedAt;
+
+        private final SlidingWindow window;
+
+        private final AtomicInteger halfOpenAttempts;
+
+        private final AtomicInteger halfOpenSuccesses;
     }
 
-    private final AtomicReference<Status> status;
+    /**
+     * Ring buffer of the outcomes of the most recent executions.
+     */
+    static final class SlidingWindow {
 
-    private final AtomicLong circuitOpenedAt;
+        private static final int SUCCESS = 1;
 
-    private final CircuitBreakerConfig config;
+        private static final int FAILURE = 2;
 
-    private final AtomicInteger successCount;
+        SlidingWindow(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+            this.recorded = new AtomicLong();
+            this.failures = new AtomicInteger();
+        }
 
-    private final AtomicInteger failureCount;
+        void record(boolean failure) {
+            int slot = (int) (recorded.getAndIncrement() % outcomes.length());
+            // getAndSet() tells exactly which outcome was evicted, so the failure count stays in line with the buffer
+            int evicted = outcomes.getAndSet(slot, failure ? FAILURE : SUCCESS);
+            if (failure && evicted != FAILURE) {
+                failures.incrementAndGet();
+            } else if (!failure && evicted == FAILURE) {
+                failures.decrementAndGet();
+            }
+        }
 
-    private final AtomicInteger halfOpenAttempts;
+        boolean isFull() {
+            return recorded.get() >= outcomes.length();
+        }
 
-    private final String id;
+        int getSize() {
+            return outcomes.length();
+        }
+
+        int getFailures() {
+            return failures.get();
+        }
+
+        private final AtomicIntegerArray outcomes;
+
+        private final AtomicLong recorded;
+
+        private final AtomicInteger failures;
+    }
 
 }
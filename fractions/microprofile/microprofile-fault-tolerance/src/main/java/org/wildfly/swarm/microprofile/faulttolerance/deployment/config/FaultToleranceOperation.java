@@ -17,6 +17,7 @@ package org.wildfly.swarm.microprofile.faulttolerance.deployment.config;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 
@@ -86,6 +87,14 @@ public class FaultToleranceOperation {
         return async;
     }
 
+    /**
+     *
+     * @return {@code true} if the method returns {@link CompletionStage}
+     */
+    public boolean isCompletionStage() {
+        return CompletionStage.class.equals(method.getReturnType());
+    }
+
     public boolean hasBulkhead() {
         return bulkhead != null;
     }
@@ -138,8 +147,9 @@ public class FaultToleranceOperation {
      * Throws {@link FaultToleranceDefinitionException} if validation fails.
      */
     public boolean validate() {
-        if (async && !Future.class.equals(method.getReturnType())) {
-            throw new FaultToleranceDefinitionException("Invalid @Asynchronous on " + method + " : the return type must be java.util.concurrent.Future");
+        if (async && !Future.class.equals(method.getReturnType()) && !isCompletionStage()) {
+            throw new FaultToleranceDefinitionException(
+                    "Invalid @Asynchronous on " + method + " : the return type must be java.util.concurrent.Future or java.util.concurrent.CompletionStage");
         }
         if (bulkhead != null) {
             bulkhead.validate();
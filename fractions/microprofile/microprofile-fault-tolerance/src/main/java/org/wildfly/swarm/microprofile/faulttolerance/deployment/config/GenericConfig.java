@@ -78,6 +78,23 @@ public abstract class GenericConfig<X extends Annotation> {
         return lookup(key, expectedType);
     }
 
+    /**
+     * Unlike {@link #get(String)} this method is used for parameters which are not members of the annotation and may only be set through MicroProfile
+     * Config.
+     *
+     * @param key
+     * @param defaultValue
+     * @return the configured value or the default value
+     */
+    @SuppressWarnings("unchecked")
+    public <U> U getOrDefault(String key, U defaultValue) {
+        Class<U> expectedType = (Class<U>) getKeysToType().get(key);
+        if (values != null) {
+            return (U) values.computeIfAbsent(key, k -> lookupConfig(k, expectedType).orElse(defaultValue));
+        }
+        return lookupConfig(key, expectedType).orElse(defaultValue);
+    }
+
     /**
      * Note that:
      *
@@ -90,6 +107,12 @@ public abstract class GenericConfig<X extends Annotation> {
      * @return the configured value
      */
     private <U> U lookup(String key, Class<U> expectedType) {
+        Optional<U> value = lookupConfig(key, expectedType);
+        // annotation values
+        return value.isPresent() ? value.get() : getConfigFromAnnotation(key);
+    }
+
+    private <U> Optional<U> lookupConfig(String key, Class<U> expectedType) {
         Config config = getConfig();
         Optional<U> value = null;
         if (ElementType.METHOD.equals(annotationSource)) {
@@ -103,8 +126,7 @@ public abstract class GenericConfig<X extends Annotation> {
             // <annotation>/<parameter>
             value = config.getOptionalValue(getConfigType().getSimpleName() + "/" + key, expectedType);
         }
-        // annotation values
-        return value.isPresent() ? value.get() : getConfigFromAnnotation(key);
+        return value;
     }
 
     public abstract void validate();
@@ -49,6 +49,24 @@ public class RetryConfig extends GenericConfig<Retry> {
 
     public static final String ABORT_ON = "abortOn";
 
+    /**
+     * The backoff policy, see {@link Backoff}. Like the other parameters below it is not a member of {@link Retry} and may only be set through MicroProfile
+     * Config, e.g. {@code com.acme.Client/call/Retry/backoff=exponential}.
+     */
+    public static final String BACKOFF = "backoff";
+
+    /**
+     * The multiplier used by the {@link Backoff#EXPONENTIAL} and {@link Backoff#DECORRELATED_JITTER} policies, {@value #DEFAULT_BACKOFF_FACTOR} by default.
+     */
+    public static final String BACKOFF_FACTOR = "backoffFactor";
+
+    /**
+     * The upper bound of a computed delay in {@link #DELAY_UNIT}, by default the delay is only limited by the max duration.
+     */
+    public static final String MAX_DELAY = "maxDelay";
+
+    public static final double DEFAULT_BACKOFF_FACTOR = 2.0;
+
     public RetryConfig(Method method) {
         super(Retry.class, method);
     }
@@ -74,6 +92,15 @@ public class RetryConfig extends GenericConfig<Retry> {
         if (get(JITTER, Long.class) < 0) {
             throw new FaultToleranceDefinitionException(INVALID_RETRY_ON + getMethodInfo() + " : jitter shouldn't be lower than 0");
         }
+        if (getBackoff() == null) {
+            throw new FaultToleranceDefinitionException(INVALID_RETRY_ON + getMethodInfo() + " : unknown backoff " + getOrDefault(BACKOFF, null));
+        }
+        if (getBackoffFactor() < 1) {
+            throw new FaultToleranceDefinitionException(INVALID_RETRY_ON + getMethodInfo() + " : backoffFactor shouldn't be lower than 1");
+        }
+        if (getMaxDelay() < 0) {
+            throw new FaultToleranceDefinitionException(INVALID_RETRY_ON + getMethodInfo() + " : maxDelay shouldn't be lower than 0");
+        }
     }
 
     @Override
@@ -97,6 +124,22 @@ public class RetryConfig extends GenericConfig<Retry> {
         return get(JITTER_DELAY_UNIT);
     }
 
+    /**
+     *
+     * @return the backoff policy or {@code null} if the configured value is not valid
+     */
+    public Backoff getBackoff() {
+        return Backoff.of(getOrDefault(BACKOFF, Backoff.CONSTANT.toString()));
+    }
+
+    public double getBackoffFactor() {
+        return getOrDefault(BACKOFF_FACTOR, DEFAULT_BACKOFF_FACTOR);
+    }
+
+    public long getMaxDelay() {
+        return getOrDefault(MAX_DELAY, 0L);
+    }
+
     @Override
     protected Map<String, Class<?>> getKeysToType() {
         return keys2Type;
@@ -117,7 +160,50 @@ public class RetryConfig extends GenericConfig<Retry> {
         keys.put(JITTER_DELAY_UNIT, ChronoUnit.class);
         keys.put(RETRY_ON, Class[].class);
         keys.put(ABORT_ON, Class[].class);
+        keys.put(BACKOFF, String.class);
+        keys.put(BACKOFF_FACTOR, Double.class);
+        keys.put(MAX_DELAY, Long.class);
         return Collections.unmodifiableMap(keys);
     }
 
+    /**
+     * Computes the delay before the next retry.
+     */
+    public enum Backoff {
+
+        /**
+         * The delay, plus or minus a random jitter. This is the policy defined by the specification.
+         */
+        CONSTANT,
+        /**
+         * The delay multiplied by the backoff factor after every retry, up to the max delay, plus or minus a random jitter.
+         */
+        EXPONENTIAL,
+        /**
+         * A random value between the delay and the previous delay multiplied by the backoff factor, up to the max delay. The jitter is not applied.
+         */
+        DECORRELATED_JITTER;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase().replace('_', '-');
+        }
+
+        /**
+         *
+         * @param value e.g. {@code exponential} or {@code decorrelated-jitter}
+         * @return the matching policy or {@code null}
+         */
+        static Backoff of(String value) {
+            String normalized = value.trim().replace('-', '_');
+            for (Backoff backoff : values()) {
+                if (backoff.name().equalsIgnoreCase(normalized)) {
+                    return backoff;
+                }
+            }
+            return null;
+        }
+
+    }
+
 }
@@ -0,0 +1,246 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.jboss.weld.context.RequestContext;
+import org.wildfly.swarm.microprofile.faulttolerance.MicroProfileFaultToleranceFraction;
+
+/**
+ * Compares the throughput of the Hystrix and the lightweight execution engines behind {@link HystrixCommandInterceptor}.
+ *
+ * <p>
+ * Not run by the build. The interceptor is created once per engine, outside of CDI, and every thread invokes a trivial business method through it, either
+ * guarded by a {@code @CircuitBreaker} or by a {@code @Timeout}. Invocations rejected by a saturated thread pool or timed out are reported as
+ * failures. Run it from the module directory with the test class path, which needs a MicroProfile Config implementation and the runtime
+ * dependencies of Hystrix:
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test dependencies&gt; \
+ *     org.wildfly.swarm.microprofile.faulttolerance.deployment.ExecutionEngineBenchmark [threads,...] [seconds]
+ * </pre>
+ */
+public final class ExecutionEngineBenchmark {
+
+    private ExecutionEngineBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4,8").split(",");
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+
+        Map<String, HystrixCommandInterceptor> interceptors = new HashMap<>();
+        LightweightExecutionEngine lightweight = lightweightEngine();
+        for (String engine : new String[]{HystrixCommandInterceptor.ENGINE_HYSTRIX, HystrixCommandInterceptor.ENGINE_LIGHTWEIGHT}) {
+            interceptors.put(engine, interceptor(engine, lightweight));
+        }
+
+        System.out.printf("%-16s %-12s %8s %14s %10s%n", "operation", "engine", "threads", "ops/s", "failures");
+        try {
+            for (String operation : new String[]{"circuitBreaker", "timeout"}) {
+                Method method = Service.class.getMethod(operation);
+                for (String each : threadCounts) {
+                    int threads = Integer.parseInt(each.trim());
+                    for (String engine : new String[]{HystrixCommandInterceptor.ENGINE_HYSTRIX, HystrixCommandInterceptor.ENGINE_LIGHTWEIGHT}) {
+                        // warm up, then measure
+                        run(interceptors.get(engine), method, threads, 1);
+                        Result result = run(interceptors.get(engine), method, threads, seconds);
+                        System.out.printf("%-16s %-12s %8d %,14.0f %,10d%n", operation, engine, threads, result.throughput, result.failures);
+                    }
+                }
+            }
+        } finally {
+            lightweight.shutdown();
+        }
+        // Hystrix threads are not daemons
+        System.exit(0);
+    }
+
+    private static Result run(HystrixCommandInterceptor interceptor, Method method, int threads, long seconds) throws Exception {
+        Service service = new Service();
+        LongAdder operations = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        Stop stop = new Stop();
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while (!stop.stopped) {
+                    try {
+                        interceptor.interceptCommand(new Invocation(service, method));
+                        ++count;
+                    } catch (Exception e) {
+                        failures.increment();
+                    }
+                }
+                operations.add(count);
+            }, "engine-benchmark-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        TimeUnit.SECONDS.sleep(seconds);
+        stop.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        return new Result(operations.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed, failures.sum());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HystrixCommandInterceptor interceptor(String engine, LightweightExecutionEngine lightweight) {
+        Config config = mock(Config.class);
+        when(config.getOptionalValue(anyString(), any())).thenReturn(Optional.empty());
+        when(config.getOptionalValue(HystrixCommandInterceptor.ENGINE_KEY, String.class)).thenReturn(Optional.of(engine));
+
+        Instance<MicroProfileFaultToleranceFraction> fraction = mock(Instance.class);
+        when(fraction.isUnsatisfied()).thenReturn(true);
+        Instance<LightweightExecutionEngine> engines = mock(Instance.class);
+        when(engines.get()).thenReturn(lightweight);
+
+        return new HystrixCommandInterceptor(true, config, fraction, mock(BeanManager.class), mock(RequestContext.class), engines,
+                mock(FaultToleranceMetrics.class));
+    }
+
+    private static LightweightExecutionEngine lightweightEngine() {
+        LightweightExecutionEngine engine = new LightweightExecutionEngine();
+        engine.requestContext = mock(RequestContext.class);
+        engine.threads = 10;
+        engine.init();
+        return engine;
+    }
+
+    private static final class Result {
+
+        Result(double throughput, long failures) {
+            this.throughput = throughput;
+            this.failures = failures;
+        }
+
+        private final double throughput;
+
+        private final long failures;
+    }
+
+    private static final class Stop {
+        private volatile boolean stopped;
+    }
+
+    public static class Service {
+
+        @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5)
+        public String circuitBreaker() {
+            return "ok";
+        }
+
+        @Timeout(1000)
+        public String timeout() {
+            return "ok";
+        }
+    }
+
+    /**
+     * A minimal invocation of a method without parameters, a mock would record every invocation.
+     */
+    private static final class Invocation implements InvocationContext {
+
+        Invocation(Object target, Method method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        @Override
+        public Object getTarget() {
+            return this.target;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return this.method;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return NO_PARAMETERS;
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return this.contextData;
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            return this.method.invoke(this.target);
+        }
+
+        private static final Object[] NO_PARAMETERS = new Object[0];
+
+        private final Object target;
+
+        private final Method method;
+
+        private final Map<String, Object> contextData = new HashMap<>();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+
+import io.smallrye.metrics.MetricsRegistryImpl;
+
+public class RetryContextTest {
+
+    @BeforeClass
+    public static void configure() {
+        System.setProperty(key("exponential", RetryConfig.BACKOFF), "exponential");
+        System.setProperty(key("exponential", RetryConfig.MAX_DELAY), "300");
+        System.setProperty(key("decorrelated", RetryConfig.BACKOFF), "decorrelated-jitter");
+        System.setProperty(key("decorrelated", RetryConfig.BACKOFF_FACTOR), "3");
+        System.setProperty(key("decorrelated", RetryConfig.MAX_DELAY), "1000");
+        System.setProperty(key("invalid", RetryConfig.BACKOFF), "fibonacci");
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(Retries.class.getName())) {
+                System.clearProperty(name);
+            }
+        }
+    }
+
+    @Test
+    public void testConstantBackoff() throws NoSuchMethodException {
+        RetryContext retryContext = new RetryContext(config("constant"));
+        for (int i = 0; i < 3; i++) {
+            assertNull(retryContext.nextScheduledRetry(new IllegalStateException()));
+            assertEquals(100, retryContext.nextDelay());
+        }
+    }
+
+    @Test
+    public void testExponentialBackoff() throws NoSuchMethodException {
+        RetryContext retryContext = new RetryContext(config("exponential"));
+        long[] expected = { 100, 200, 300, 300 };
+        for (long delay : expected) {
+            assertNull(retryContext.nextScheduledRetry(new IllegalStateException()));
+            assertEquals(delay, retryContext.nextDelay());
+        }
+    }
+
+    @Test
+    public void testDecorrelatedJitterBackoff() throws NoSuchMethodException {
+        RetryContext retryContext = new RetryContext(config("decorrelated"));
+        long previous = 100;
+        for (int i = 0; i < 10; i++) {
+            assertNull(retryContext.nextScheduledRetry(new IllegalStateException()));
+            long delay = retryContext.nextDelay();
+            assertTrue("Delay " + delay + " out of range", delay >= 100 && delay <= Math.min(1000, previous * 3));
+            previous = delay;
+        }
+    }
+
+    @Test
+    public void testInvalidBackoff() throws NoSuchMethodException {
+        try {
+            config("invalid").validate();
+            fail();
+        } catch (FaultToleranceDefinitionException expected) {
+        }
+    }
+
+    @Test
+    public void testMetrics() throws NoSuchMethodException {
+        MetricRegistry registry = new MetricsRegistryImpl();
+        Method method = Retries.class.getMethod("constant");
+        RetryMetrics metrics = new RetryMetrics(registry, method);
+        String prefix = "ft." + Retries.class.getName() + ".constant.retry.";
+
+        RetryContext retryContext = new RetryContext(new RetryConfig(method), metrics);
+        retryContext.nextScheduledRetry(new IllegalStateException());
+        retryContext.nextScheduledRetry(new IllegalStateException());
+        retryContext.finished(true);
+        new RetryContext(new RetryConfig(method), metrics).finished(true);
+        new RetryContext(new RetryConfig(method), metrics).finished(false);
+
+        assertEquals(2, registry.getCounters().get(prefix + "retries.total").getCount());
+        assertEquals(1, registry.getCounters().get(prefix + "callsSucceededRetried.total").getCount());
+        assertEquals(1, registry.getCounters().get(prefix + "callsSucceededNotRetried.total").getCount());
+        assertEquals(1, registry.getCounters().get(prefix + "callsFailed.total").getCount());
+    }
+
+    private static RetryConfig config(String method) throws NoSuchMethodException {
+        return new RetryConfig(Retries.class.getMethod(method));
+    }
+
+    private static String key(String method, String parameter) {
+        return Retries.class.getName() + "/" + method + "/Retry/" + parameter;
+    }
+
+    static class Retries {
+
+        @Retry(maxRetries = 5, delay = 100, jitter = 0)
+        public void constant() {
+        }
+
+        @Retry(maxRetries = 5, delay = 100, jitter = 0)
+        public void exponential() {
+        }
+
+        @Retry(maxRetries = 20, delay = 100, maxDuration = 60000)
+        public void decorrelated() {
+        }
+
+        @Retry
+        public void invalid() {
+        }
+
+    }
+
+}
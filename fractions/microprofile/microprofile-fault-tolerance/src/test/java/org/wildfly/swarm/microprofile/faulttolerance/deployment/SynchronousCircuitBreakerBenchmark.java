@@ -0,0 +1,135 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig;
+
+/**
+ * Measures the throughput of a single closed {@link SynchronousCircuitBreaker} as the number of threads grows.
+ *
+ * <p>
+ * Not run by the build. Every thread calls {@code attemptExecution()} and then records a success, or a failure for one call in a hundred. The
+ * {@code monitor} mode takes the monitor of the circuit breaker around both calls, as they were {@code synchronized} before the circuit breaker became
+ * lock-free, and serves as the baseline. Run it from the module directory with the test class path:
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test dependencies&gt; \
+ *     org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreakerBenchmark [threads,...] [seconds]
+ * </pre>
+ */
+public final class SynchronousCircuitBreakerBenchmark {
+
+    private static final int FAILURE_EVERY = 100;
+
+    private SynchronousCircuitBreakerBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4,8").split(",");
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+
+        System.out.printf("%-10s %8s %16s%n", "mode", "threads", "ops/s");
+        for (String each : threadCounts) {
+            int threads = Integer.parseInt(each.trim());
+            for (boolean monitor : new boolean[]{false, true}) {
+                // warm up, then measure
+                run(threads, monitor, 1);
+                double throughput = run(threads, monitor, seconds);
+                System.out.printf("%-10s %8d %,16.0f%n", monitor ? "monitor" : "lock-free", threads, throughput);
+            }
+        }
+    }
+
+    private static double run(int threads, boolean monitor, long seconds) throws Exception {
+        SynchronousCircuitBreaker breaker = new SynchronousCircuitBreaker(new CircuitBreakerConfig(Circuits.class.getMethod("circuit")));
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        Stop stop = new Stop();
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while (!stop.stopped) {
+                    boolean failure = ++count % FAILURE_EVERY == 0;
+                    if (monitor) {
+                        boolean attempted;
+                        synchronized (breaker) {
+                            attempted = breaker.attemptExecution();
+                        }
+                        synchronized (breaker) {
+                            record(breaker, attempted, failure);
+                        }
+                    } else {
+                        record(breaker, breaker.attemptExecution(), failure);
+                    }
+                }
+                operations.add(count);
+            }, "circuit-breaker-benchmark-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        TimeUnit.SECONDS.sleep(seconds);
+        stop.stopped = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        if (breaker.getStatus() != SynchronousCircuitBreaker.Status.CLOSED) {
+            throw new IllegalStateException("The circuit opened, the measurement is not comparable");
+        }
+        return operations.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private static void record(SynchronousCircuitBreaker breaker, boolean attempted, boolean failure) {
+        if (!attempted) {
+            return;
+        }
+        if (failure) {
+            breaker.executionFailed();
+        } else {
+            breaker.executionSucceeded();
+        }
+    }
+
+    private static final class Stop {
+        private volatile boolean stopped;
+    }
+
+    static class Circuits {
+
+        @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5)
+        public void circuit() {
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status.CLOSED;
+import static org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status.HALF_OPEN;
+import static org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status.OPEN;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig;
+
+public class SynchronousCircuitBreakerTest {
+
+    @Test
+    public void testFailureRatioIsComputedOverRollingWindow() throws NoSuchMethodException {
+        SynchronousCircuitBreaker breaker = new SynchronousCircuitBreaker(new CircuitBreakerConfig(Circuits.class.getMethod("rolling")));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.attemptExecution());
+            breaker.executionSucceeded();
+        }
+        breaker.executionFailed();
+        breaker.executionFailed();
+        // Cumulative ratio would be 2/5, the last 4 executions are S S F F
+        assertEquals(CLOSED, breaker.getStatus());
+
+        breaker.executionFailed();
+        // Cumulative ratio would be 3/6, the last 4 executions are S F F F
+        assertEquals(OPEN, breaker.getStatus());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.attemptExecution());
+    }
+
+    @Test
+    public void testHalfOpenLimitsAttempts() throws NoSuchMethodException {
+        SynchronousCircuitBreaker breaker = new SynchronousCircuitBreaker(new CircuitBreakerConfig(Circuits.class.getMethod("halfOpen")));
+        breaker.executionFailed();
+        breaker.executionFailed();
+        assertEquals(OPEN, breaker.getStatus());
+
+        // delay is 0
+        assertTrue(breaker.attemptExecution());
+        assertEquals(HALF_OPEN, breaker.getStatus());
+        assertTrue(breaker.attemptExecution());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.attemptExecution());
+
+        breaker.executionSucceeded();
+        assertEquals(HALF_OPEN, breaker.getStatus());
+        breaker.executionSucceeded();
+        assertEquals(CLOSED, breaker.getStatus());
+
+        // The window starts empty again
+        breaker.executionFailed();
+        assertEquals(CLOSED, breaker.getStatus());
+        breaker.executionFailed();
+        assertEquals(OPEN, breaker.getStatus());
+
+        assertTrue(breaker.attemptExecution());
+        breaker.executionFailed();
+        assertEquals(OPEN, breaker.getStatus());
+    }
+
+    @Test
+    public void testSlidingWindowUnderContention() throws Exception {
+        SynchronousCircuitBreaker.SlidingWindow window = new SynchronousCircuitBreaker.SlidingWindow(64);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            record(executor, threads, window, true);
+            assertTrue(window.isFull());
+            assertEquals(64, window.getFailures());
+
+            record(executor, threads, window, false);
+            assertEquals(0, window.getFailures());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void record(ExecutorService executor, int threads, SynchronousCircuitBreaker.SlidingWindow window, boolean failure) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 10000; j++) {
+                    window.record(failure);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    static class Circuits {
+
+        @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.75)
+        public void rolling() {
+        }
+
+        @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1, delay = 0, successThreshold = 2)
+        public void halfOpen() {
+        }
+    }
+
+}
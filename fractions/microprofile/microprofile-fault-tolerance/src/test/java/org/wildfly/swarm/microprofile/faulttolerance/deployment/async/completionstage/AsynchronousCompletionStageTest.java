@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.async.completionstage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.wildfly.swarm.microprofile.faulttolerance.deployment.async.completionstage.CompletionStageService.COUNTER;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.TestArchive;
+
+/**
+ * {@link CompletionStage} methods are executed without Hystrix, even if it is the selected engine.
+ */
+@RunWith(Arquillian.class)
+public class AsynchronousCompletionStageTest {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return TestArchive.createBase(AsynchronousCompletionStageTest.class).addPackage(AsynchronousCompletionStageTest.class.getPackage());
+    }
+
+    @Test
+    public void testRetryOnExceptionalCompletion(CompletionStageService service) throws Exception {
+        COUNTER.set(0);
+        CompletionStage<String> stage = service.retry(2);
+        // Retries are scheduled, the caller is never blocked
+        assertTrue(COUNTER.get() < 3);
+        assertEquals("Hello", stage.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertEquals(3, COUNTER.get());
+
+        COUNTER.set(0);
+        try {
+            service.retry(3).toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+        assertEquals(3, COUNTER.get());
+    }
+
+    @Test
+    public void testFallback(CompletionStageService service) throws Exception {
+        COUNTER.set(0);
+        assertEquals("Fallback", service.retryWithFallback().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertEquals(2, COUNTER.get());
+    }
+
+    @Test
+    public void testTimeout(CompletionStageService service) throws Exception {
+        try {
+            service.neverCompletes().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    public void testTimedOutStageHoldsBulkheadPermit(CompletionStageService service) throws Exception {
+        COUNTER.set(0);
+        CompletionStageService.pending = new CompletableFuture<>();
+        try {
+            service.bulkheadPending().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof TimeoutException);
+        }
+
+        // The timed out stage is still pending, so the next attempt waits in the bulkhead queue
+        CompletableFuture<String> queued = service.bulkheadPending().toCompletableFuture();
+        Thread.sleep(500);
+        assertFalse(queued.isDone());
+        assertEquals(1, COUNTER.get());
+
+        CompletionStageService.pending.complete("Hello");
+        assertEquals("Hello", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, COUNTER.get());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.async.completionstage;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+@ApplicationScoped
+public class CompletionStageService {
+
+    static final AtomicInteger COUNTER = new AtomicInteger(0);
+
+    static volatile CompletableFuture<String> pending = new CompletableFuture<>();
+
+    @Asynchronous
+    @Retry(maxRetries = 2, delay = 100, jitter = 0)
+    public CompletionStage<String> retry(int failures) {
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        if (COUNTER.incrementAndGet() <= failures) {
+            stage.completeExceptionally(new IOException("Simulated IO error"));
+        } else {
+            stage.complete("Hello");
+        }
+        return stage;
+    }
+
+    @Asynchronous
+    @Retry(maxRetries = 1)
+    @Fallback(fallbackMethod = "fallback")
+    public CompletionStage<String> retryWithFallback() throws IOException {
+        COUNTER.incrementAndGet();
+        throw new IOException("Simulated IO error");
+    }
+
+    public CompletionStage<String> fallback() {
+        return completedFuture("Fallback");
+    }
+
+    @Asynchronous
+    @Timeout(200)
+    public CompletionStage<String> neverCompletes() {
+        return new CompletableFuture<>();
+    }
+
+    @Asynchronous
+    @Timeout(200)
+    @Bulkhead(value = 1, waitingTaskQueue = 1)
+    public CompletionStage<String> bulkheadPending() {
+        COUNTER.incrementAndGet();
+        return pending;
+    }
+
+}
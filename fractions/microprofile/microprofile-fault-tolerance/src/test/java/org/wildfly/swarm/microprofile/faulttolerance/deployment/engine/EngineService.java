@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+@ApplicationScoped
+public class EngineService {
+
+    static final AtomicInteger RETRIED = new AtomicInteger();
+
+    static final AtomicReference<Thread> TIMED_OUT_ON = new AtomicReference<>();
+
+    static volatile CountDownLatch started = new CountDownLatch(0);
+
+    static volatile CountDownLatch interrupted = new CountDownLatch(0);
+
+    static volatile CountDownLatch released = new CountDownLatch(0);
+
+    @Retry(maxRetries = 2)
+    @Fallback(fallbackMethod = "fallback")
+    public String retried() {
+        RETRIED.incrementAndGet();
+        throw new IllegalStateException();
+    }
+
+    public String fallback() {
+        return "fallback";
+    }
+
+    @Timeout(200)
+    public String slow() throws InterruptedException {
+        TIMED_OUT_ON.set(Thread.currentThread());
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+        return "slow";
+    }
+
+    @Timeout(5000)
+    public String blocking() throws InterruptedException {
+        hold();
+        return "blocking";
+    }
+
+    @Asynchronous
+    public Future<String> held() throws InterruptedException {
+        hold();
+        return CompletableFuture.completedFuture("held");
+    }
+
+    private static void hold() throws InterruptedException {
+        started.countDown();
+        try {
+            released.await();
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1, delay = 5000)
+    public void failing() {
+        throw new IllegalStateException();
+    }
+
+    @Asynchronous
+    public Future<String> async() {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+}
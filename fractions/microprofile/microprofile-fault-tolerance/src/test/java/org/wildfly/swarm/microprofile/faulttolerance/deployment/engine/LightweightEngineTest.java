@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.TestArchive;
+
+@RunWith(Arquillian.class)
+public class LightweightEngineTest {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return TestArchive.createBase(LightweightEngineTest.class)
+                .addPackage(LightweightEngineTest.class.getPackage())
+                .addAsManifestResource(new StringAsset(HystrixCommandInterceptor.ENGINE_KEY + "=" + HystrixCommandInterceptor.ENGINE_LIGHTWEIGHT + "\n"
+                        + HystrixCommandInterceptor.ENGINE_THREADS_KEY + "=" + THREADS), "microprofile-config.properties");
+    }
+
+    private static final int THREADS = 2;
+
+    @Inject
+    EngineService service;
+
+    @Test
+    public void testRetryAndFallback() {
+        EngineService.RETRIED.set(0);
+        assertEquals("fallback", service.retried());
+        assertEquals(3, EngineService.RETRIED.get());
+    }
+
+    @Test
+    public void testTimeoutInterruptsPoolThread() throws InterruptedException {
+        EngineService.interrupted = new CountDownLatch(1);
+        try {
+            service.slow();
+            fail("No timeout");
+        } catch (TimeoutException expected) {
+        }
+        assertNotEquals(Thread.currentThread(), EngineService.TIMED_OUT_ON.get());
+        assertFalse("The caller must not be interrupted", Thread.currentThread().isInterrupted());
+        assertTrue("The business method must be interrupted", EngineService.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInterruptedCallerCancelsExecution() throws InterruptedException {
+        EngineService.started = new CountDownLatch(1);
+        EngineService.interrupted = new CountDownLatch(1);
+        EngineService.released = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                if (EngineService.started.await(5, TimeUnit.SECONDS)) {
+                    caller.interrupt();
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        interrupter.start();
+        try {
+            service.blocking();
+            fail("Not interrupted");
+        } catch (InterruptedException expected) {
+        } finally {
+            EngineService.released.countDown();
+            interrupter.join();
+        }
+        assertTrue("The business method must be interrupted", EngineService.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRejectedWhenNoThreadIsAvailable() throws Exception {
+        EngineService.started = new CountDownLatch(THREADS);
+        EngineService.released = new CountDownLatch(1);
+        Future<String>[] held = new Future[THREADS];
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                held[i] = service.held();
+            }
+            assertTrue(EngineService.started.await(5, TimeUnit.SECONDS));
+            try {
+                service.held().get(5, TimeUnit.SECONDS);
+                fail("Asynchronous execution not rejected");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof BulkheadException);
+            }
+            try {
+                service.slow();
+                fail("Timeout execution not rejected");
+            } catch (BulkheadException expected) {
+            }
+        } finally {
+            EngineService.released.countDown();
+        }
+        for (Future<String> each : held) {
+            assertEquals("held", each.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.failing();
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        }
+        try {
+            service.failing();
+            fail();
+        } catch (CircuitBreakerOpenException expected) {
+        }
+    }
+
+    @Test
+    public void testAsynchronous() throws Exception {
+        assertNotEquals(Thread.currentThread().getName(), service.async().get());
+    }
+
+}
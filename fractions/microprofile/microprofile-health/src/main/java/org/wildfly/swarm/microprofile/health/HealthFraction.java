@@ -15,6 +15,8 @@
  */
 package org.wildfly.swarm.microprofile.health;
 
+import static org.wildfly.swarm.spi.api.Defaultable.integer;
+import static org.wildfly.swarm.spi.api.Defaultable.longInteger;
 import static org.wildfly.swarm.spi.api.Defaultable.string;
 
 import java.util.Optional;
@@ -41,6 +43,26 @@ public class HealthFraction implements Fraction<HealthFraction> {
     @Configurable("swarm.health.security-realm")
     private Defaultable<String> securityRealm = string("");
 
+    @AttributeDocumentation("Seconds to wait for each health check before reporting it as DOWN")
+    @Configurable("swarm.microprofile.health.probe-timeout")
+    @Configurable("swarm.health.probe-timeout")
+    private Defaultable<Long> probeTimeout = longInteger(10);
+
+    @AttributeDocumentation("Milliseconds for which the aggregated /health result is reused (0 disables caching)")
+    @Configurable("swarm.microprofile.health.probe-cache-ttl")
+    @Configurable("swarm.health.probe-cache-ttl")
+    private Defaultable<Long> probeCacheTtl = longInteger(0);
+
+    @AttributeDocumentation("Size of a dedicated pool for running health checks (0 runs them on the server's worker)")
+    @Configurable("swarm.microprofile.health.probe-threads")
+    @Configurable("swarm.health.probe-threads")
+    private Defaultable<Integer> probeThreads = integer(0);
+
+    @AttributeDocumentation("Milliseconds for which the /node, /heap and /threads responses are reused")
+    @Configurable("swarm.microprofile.health.snapshot-ttl")
+    @Configurable("swarm.health.snapshot-ttl")
+    private Defaultable<Long> snapshotTtl = longInteger(1000);
+
     public HealthFraction securityRealm(String realmName) {
         this.securityRealm.set(realmName);
         return this;
@@ -49,4 +71,40 @@ public class HealthFraction implements Fraction<HealthFraction> {
     public Optional<String> securityRealm() {
         return securityRealm.explicit();
     }
+
+    public HealthFraction probeTimeout(long seconds) {
+        this.probeTimeout.set(seconds);
+        return this;
+    }
+
+    public long probeTimeout() {
+        return probeTimeout.get();
+    }
+
+    public HealthFraction probeCacheTtl(long millis) {
+        this.probeCacheTtl.set(millis);
+        return this;
+    }
+
+    public long probeCacheTtl() {
+        return probeCacheTtl.get();
+    }
+
+    public HealthFraction probeThreads(int threads) {
+        this.probeThreads.set(threads);
+        return this;
+    }
+
+    public int probeThreads() {
+        return probeThreads.get();
+    }
+
+    public HealthFraction snapshotTtl(long millis) {
+        this.snapshotTtl.set(millis);
+        return this;
+    }
+
+    public long snapshotTtl() {
+        return snapshotTtl.get();
+    }
 }
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.health.runtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+/**
+ * Writes the aggregated <code>/health</code> document straight from the {@link HealthCheckResponse}s,
+ * without rendering each check to an intermediate string first.
+ *
+ * <p>Each thread reuses one writer and its buffer, see {@link #get()}.</p>
+ */
+@Vetoed
+final class HealthJsonWriter {
+
+    private static final ThreadLocal<HealthJsonWriter> WRITERS = ThreadLocal.withInitial(HealthJsonWriter::new);
+
+    // don't hold on to the odd huge document for the lifetime of the thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    HealthJsonWriter() {
+    }
+
+    /**
+     * @return The writer of the current thread, emptied.
+     */
+    static HealthJsonWriter get() {
+        HealthJsonWriter writer = WRITERS.get();
+        if (writer.sb.capacity() > MAX_RETAINED_CAPACITY) {
+            writer.sb = new StringBuilder(1024);
+        }
+        writer.sb.setLength(0);
+        writer.first = true;
+        return writer;
+    }
+
+    HealthJsonWriter beginChecks() {
+        this.sb.append("{\"checks\": [\n");
+        return this;
+    }
+
+    HealthJsonWriter endChecks(boolean up) {
+        this.sb.append("],\n");
+        this.sb.append("\"outcome\": \"").append(up ? "UP" : "DOWN").append("\"\n");
+        this.sb.append("}\n");
+        return this;
+    }
+
+    HealthJsonWriter check(HealthCheckResponse status) {
+        separator();
+        this.sb.append("{\"name\":");
+        string(status.getName());
+        this.sb.append(",\"state\":");
+        string(status.getState().name());
+        if (status.getData().isPresent()) {
+            this.sb.append(",\"data\": {");
+            boolean firstEntry = true;
+            for (Map.Entry<String, Object> entry : status.getData().get().entrySet()) {
+                if (!firstEntry) {
+                    this.sb.append(',');
+                }
+                firstEntry = false;
+                string(entry.getKey());
+                this.sb.append(':');
+                value(entry.getValue());
+            }
+            this.sb.append('}');
+        }
+        this.sb.append('}');
+        return this;
+    }
+
+    HealthJsonWriter down(String name, String key, Object value) {
+        separator();
+        this.sb.append("{\"name\":");
+        string(name);
+        this.sb.append(",\"state\":\"DOWN\",\"data\": {");
+        string(key);
+        this.sb.append(':');
+        value(value);
+        this.sb.append("}}");
+        return this;
+    }
+
+    /**
+     * Append a check which is already encoded, such as the payload of a legacy JAX-RS health endpoint.
+     */
+    HealthJsonWriter raw(String json) {
+        separator();
+        this.sb.append(json);
+        return this;
+    }
+
+    byte[] toBytes() {
+        return this.sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return this.sb.toString();
+    }
+
+    private void separator() {
+        if (!this.first) {
+            this.sb.append(",\n");
+        }
+        this.first = false;
+    }
+
+    private void value(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            this.sb.append(value);
+        } else {
+            string(String.valueOf(value));
+        }
+    }
+
+    private void string(String value) {
+        this.sb.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    this.sb.append("\\\"");
+                    break;
+                case '\\':
+                    this.sb.append("\\\\");
+                    break;
+                case '\n':
+                    this.sb.append("\\n");
+                    break;
+                case '\r':
+                    this.sb.append("\\r");
+                    break;
+                case '\t':
+                    this.sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        this.sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        this.sb.append(c);
+                    }
+            }
+        }
+        this.sb.append('"');
+    }
+
+    private StringBuilder sb = new StringBuilder(1024);
+
+    private boolean first = true;
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.health.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * Shares one evaluation of the aggregated health probes between all requests that arrive while it is
+ * in flight and, if a TTL is configured, for that long after it completed.
+ */
+@Vetoed
+class HealthProbeCache<T> {
+
+    HealthProbeCache(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    CompletableFuture<T> get(Supplier<CompletableFuture<T>> evaluation) {
+        Cached<T> cached = this.cached;
+        if (cached != null && cached.expires - System.nanoTime() > 0) {
+            return CompletableFuture.completedFuture(cached.value);
+        }
+
+        CompletableFuture<T> pending = new CompletableFuture<>();
+        while (!this.inFlight.compareAndSet(null, pending)) {
+            CompletableFuture<T> current = this.inFlight.get();
+            if (current != null) {
+                return current;
+            }
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = evaluation.get();
+        } catch (Throwable t) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(t);
+        }
+
+        result.whenComplete((value, error) -> {
+            if (error == null && this.ttlNanos > 0) {
+                this.cached = new Cached<>(value, System.nanoTime() + this.ttlNanos);
+            }
+            this.inFlight.set(null);
+            if (error != null) {
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(value);
+            }
+        });
+        return pending;
+    }
+
+    private final long ttlNanos;
+
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+
+    private volatile Cached<T> cached;
+
+    private static final class Cached<T> {
+        Cached(T value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        private final T value;
+
+        private final long expires;
+    }
+}
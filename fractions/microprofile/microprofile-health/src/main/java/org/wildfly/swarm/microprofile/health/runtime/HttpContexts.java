@@ -15,25 +15,40 @@
  */
 package org.wildfly.swarm.microprofile.health.runtime;
 
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.enterprise.inject.Vetoed;
 import javax.naming.NamingException;
 
+import io.undertow.server.Connectors;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.server.ServerConnection;
+import io.undertow.server.protocol.http.HttpServerConnection;
 import io.undertow.util.AttachmentKey;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
+import io.undertow.util.Protocols;
+import io.undertow.util.SameThreadExecutor;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.health.HealthMetaData;
 import org.wildfly.swarm.microprofile.health.api.Monitor;
+import org.xnio.IoUtils;
+import org.xnio.XnioExecutor;
+import org.xnio.XnioWorker;
 
 /**
  * The actual monitoring HTTP endpoints. These are wrapped by {@link SecureHttpContexts}.
@@ -56,6 +71,8 @@ public class HttpContexts implements HttpHandler {
         } catch (NamingException e) {
             throw new RuntimeException("Failed to lookup monitor", e);
         }
+
+        this.probes = new HealthProbeCache<>(monitor.getProbeCacheTtlMillis());
     }
 
     @Override
@@ -70,63 +87,165 @@ public class HttpContexts implements HttpHandler {
             threads(exchange);
             return;
         } else if (HEALTH.equals(exchange.getRequestPath())) {
-            proxyRequestsCDI(exchange);
+            proxyRequests(exchange);
             return;
         }
 
         next.handleRequest(exchange);
     }
 
-    private void proxyRequestsCDI(HttpServerExchange exchange) {
+    private void proxyRequests(HttpServerExchange exchange) {
 
         Set<Object> procedures = monitor.getHealthDelegates();
+        List<HealthMetaData> endpoints = monitor.getHealthURIs();
 
-        if (procedures.isEmpty()) {
+        if (procedures.isEmpty() && endpoints.isEmpty()) {
             noHealthEndpoints(exchange);
             return;
         }
 
-        List<org.eclipse.microprofile.health.HealthCheckResponse> responses = new ArrayList<>();
+        final ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        // the server's own worker, see tasks()
+        if (this.worker == null) {
+            this.worker = exchange.getConnection().getWorker();
+        }
+
+        final String host = exchange.getRequestHeaders().getFirst(Headers.HOST);
+        final int port = exchange.getConnection().getLocalAddress(InetSocketAddress.class).getPort();
+        final HttpHandler rootHandler = ((HttpServerConnection) exchange.getConnection()).getRootHandler();
+
+        // checks run on the worker, never on the IO thread; the response is sent once all of them are in
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> {
+            this.probes.get(() -> probeAll(procedures, endpoints, tccl, rootHandler, host, port)).whenComplete((result, t) -> {
+                if (t != null) {
+                    LOG.error("Health check failed", t);
+                    if (!exchange.isResponseStarted()) {
+                        exchange.setStatusCode(500);
+                    }
+                    exchange.endExchange();
+                    return;
+                }
+
+                // send a response
+                if (!result.isUp()) {
+                    exchange.setStatusCode(503);
+                }
+
+                responseHeaders(exchange);
+                exchange.getResponseSender().send(ByteBuffer.wrap(result.getPayload()));
+            });
+        });
+    }
+
+    private CompletableFuture<ProbeResult> probeAll(Set<Object> procedures, List<HealthMetaData> endpoints, ClassLoader tccl,
+                                                    HttpHandler rootHandler, String host, int port) {
+        List<CompletableFuture<CheckResult>> results = new ArrayList<>(procedures.size() + endpoints.size());
 
+        // CDI health beans are called directly
         for (Object procedure : procedures) {
-            org.eclipse.microprofile.health.HealthCheckResponse status = ((HealthCheck)procedure).call();
-            responses.add(status);
+            String name = procedure.getClass().getName();
+            results.add(withTimeout(name, result -> {
+                ClassLoader previous = Thread.currentThread().getContextClassLoader();
+                Thread.currentThread().setContextClassLoader(tccl);
+                try {
+                    HealthCheckResponse status = ((HealthCheck) procedure).call();
+                    result.complete(new CheckResult(status.getState() == HealthCheckResponse.State.UP, w -> w.check(status)));
+                } catch (Throwable t) {
+                    LOG.error("Health check failed", t);
+                    result.complete(CheckResult.down(name, "exception", t.getClass().getName()));
+                } finally {
+                    Thread.currentThread().setContextClassLoader(previous);
+                }
+            }));
         }
 
-        StringBuilder sb = new StringBuilder(LCURL);
-        sb.append("\"checks\": [\n");
+        // legacy @Health JAX-RS endpoints still need an exchange
+        for (HealthMetaData endpoint : endpoints) {
+            results.add(withTimeout(endpoint.getWebContext(), result -> invokeHealthInVM(rootHandler, host, port, endpoint, result)));
+        }
 
-        int i = 0;
-        boolean failed = false;
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[results.size()]))
+                .thenApply(v -> aggregate(results));
+    }
 
-        for (org.eclipse.microprofile.health.HealthCheckResponse resp : responses) {
+    private CompletableFuture<CheckResult> withTimeout(String name, Consumer<CompletableFuture<CheckResult>> check) {
+        CompletableFuture<CheckResult> result = new CompletableFuture<>();
+        XnioExecutor.Key timeout = worker.getIoThread().executeAfter(
+                () -> result.complete(CheckResult.down(name, "timeout", true)),
+                monitor.getProbeTimeoutSeconds(), TimeUnit.SECONDS
+        );
+        result.whenComplete((r, t) -> timeout.remove());
+        try {
+            tasks().execute(() -> check.accept(result));
+        } catch (RejectedExecutionException e) {
+            result.complete(CheckResult.down(name, "rejected", true));
+        }
+        return result;
+    }
 
-            sb.append(toJson(resp));
+    /**
+     * Health checks run on the server's worker unless a dedicated probe pool has been configured.
+     */
+    private Executor tasks() {
+        Executor probeExecutor = monitor.getProbeExecutor();
+        if (probeExecutor != null) {
+            return probeExecutor;
+        }
+        return this.worker;
+    }
 
-            if (!failed) {
-                failed = resp.getState() != HealthCheckResponse.State.UP;
-            }
+    private static ProbeResult aggregate(List<CompletableFuture<CheckResult>> results) {
+        HealthJsonWriter writer = HealthJsonWriter.get().beginChecks();
 
-            if (i < responses.size() - 1) {
-                sb.append(",\n");
-            }
-            i++;
+        boolean up = true;
+        for (CompletableFuture<CheckResult> each : results) {
+            CheckResult result = each.join();
+            result.writeTo(writer);
+            up &= result.isUp();
         }
-        sb.append("],\n");
 
-        String outcome = failed ? "DOWN" : "UP";
-        sb.append("\"outcome\": \"" + outcome + "\"\n");
-        sb.append("}\n");
+        return new ProbeResult(up, writer.endChecks(up).toBytes());
+    }
 
-        // send a response
-        if (failed) {
-            exchange.setStatusCode(503);
-        }
+    private void invokeHealthInVM(HttpHandler rootHandler, String host, int port, HealthMetaData healthCheck, CompletableFuture<CheckResult> result) {
+        try {
 
-        responseHeaders(exchange);
-        exchange.getResponseSender().send(sb.toString());
-        exchange.endExchange();
+            String delegateContext = healthCheck.getWebContext();
+
+            final InVMConnection connection = new InVMConnection(worker, port);
+            final HttpServerExchange mockExchange = new HttpServerExchange(connection);
+            mockExchange.setRequestScheme("http");
+            mockExchange.setRequestMethod(new HttpString("GET"));
+            mockExchange.setProtocol(Protocols.HTTP_1_0);
+            mockExchange.setRequestURI(delegateContext);
+            mockExchange.setRequestPath(delegateContext);
+            mockExchange.setRelativePath(delegateContext);
+            mockExchange.getRequestHeaders().add(Headers.HOST, host);
+            mockExchange.putAttachment(TOKEN, EPHEMERAL_TOKEN);
+            connection.addCloseListener(new ServerConnection.CloseListener() {
+                @Override
+                public void closed(ServerConnection connection) {
+                    StringBuffer sb = new StringBuffer();
+                    ((InVMConnection) connection).flushTo(sb);
+                    int status = mockExchange.getStatusCode();
+                    if ("application/json".equals(mockExchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE))) {
+                        String payload = sb.toString();
+                        result.complete(new CheckResult(status == 200, w -> w.raw(payload)));
+                    } else {
+                        result.complete(CheckResult.down(mockExchange.getRelativePath(), "status-code", status));
+                    }
+
+                    IoUtils.safeClose(connection);
+                }
+            });
+
+            mockExchange.startBlocking();
+            Connectors.executeRootHandler(rootHandler, mockExchange);
 
+        } catch (Throwable t) {
+            LOG.error("Health check failed", t);
+            result.complete(CheckResult.down(healthCheck.getWebContext(), "status-code", 500));
+        }
     }
 
     private void responseHeaders(HttpServerExchange exchange) {
@@ -147,55 +266,23 @@ public class HttpContexts implements HttpHandler {
 
     private void nodeInfo(HttpServerExchange exchange) {
         responseHeaders(exchange);
-        exchange.getResponseSender().send(monitor.getNodeInfo().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.getNodeInfoJSON()));
     }
 
     private void heap(HttpServerExchange exchange) {
         responseHeaders(exchange);
-        exchange.getResponseSender().send(monitor.heap().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.heapJSON()));
     }
 
     private void threads(HttpServerExchange exchange) {
         responseHeaders(exchange);
-        exchange.getResponseSender().send(monitor.threads().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.threadsJSON()));
     }
 
     public static String toJson(HealthCheckResponse status) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(LCURL);
-        sb.append(QUOTE).append("name").append("\":\"").append(status.getName()).append("\",");
-        sb.append(QUOTE).append("state").append("\":\"").append(status.getState().name()).append(QUOTE);
-        if (status.getData().isPresent()) {
-            sb.append(",");
-            sb.append(QUOTE).append(DATA).append("\": {");
-            Map<String, Object> atts = status.getData().get();
-            int i = 0;
-            for (String key : atts.keySet()) {
-                sb.append(QUOTE).append(key).append("\":").append(encode(atts.get(key)));
-                if (i < atts.keySet().size() - 1) {
-                    sb.append(",");
-                }
-                i++;
-            }
-            sb.append(RCURL);
-        }
-
-        sb.append(RCURL);
-        return sb.toString();
+        return new HealthJsonWriter().check(status).toString();
     }
 
-    private static String encode(Object o) {
-        String res = null;
-        if (o instanceof String) {
-            res = "\"" + o.toString() + "\"";
-        } else {
-            res = o.toString();
-        }
-
-        return res;
-    }
-
-
     public static List<String> getDefaultContextNames() {
         return Arrays.asList(NODE, HEAP, HEALTH, THREADS);
     }
@@ -216,8 +303,52 @@ public class HttpContexts implements HttpHandler {
 
     private final HttpHandler next;
 
-    private static final String DATA = "data";
+    private final HealthProbeCache<ProbeResult> probes;
+
+    private volatile XnioWorker worker;
 
     public static final String QUOTE = "\"";
 
+    static class ProbeResult {
+        private final boolean up;
+
+        private final byte[] payload;
+
+        ProbeResult(boolean up, byte[] payload) {
+            this.up = up;
+            this.payload = payload;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    static class CheckResult {
+        private final boolean up;
+
+        private final Consumer<HealthJsonWriter> body;
+
+        CheckResult(boolean up, Consumer<HealthJsonWriter> body) {
+            this.up = up;
+            this.body = body;
+        }
+
+        static CheckResult down(String name, String key, Object value) {
+            return new CheckResult(false, w -> w.down(name, key, value));
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        void writeTo(HealthJsonWriter writer) {
+            body.accept(writer);
+        }
+    }
+
 }
@@ -15,22 +15,24 @@
  */
 package org.wildfly.swarm.microprofile.health.runtime;
 
-import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 import javax.enterprise.inject.Vetoed;
 
-import org.jboss.as.controller.ModelController;
-import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.ControlledProcessStateService;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.suspend.SuspendController;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.msc.inject.Injector;
@@ -44,13 +46,6 @@ import org.wildfly.swarm.SwarmInfo;
 import org.wildfly.swarm.microprofile.health.api.Monitor;
 import org.wildfly.swarm.microprofile.health.HealthMetaData;
 
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADDRESS;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
-
 /**
  * @author Heiko Braun
  * @since 19/02/16
@@ -60,34 +55,55 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     private static Logger LOG = Logger.getLogger("org.wildfly.swarm.microprofile.health");
 
-    private static final String SELECT = "select";
-
     public static final ServiceName SERVICE_NAME = ServiceName.of("swarm", "health");
 
     public MonitorService(Optional<String> securityRealm) {
+        this(securityRealm, DEFAULT_PROBE_TIMEOUT_SECONDS, 0, 0, DEFAULT_SNAPSHOT_TTL_MILLIS);
+    }
+
+    public MonitorService(Optional<String> securityRealm, long probeTimeoutSeconds, long probeCacheTtlMillis, int probeThreads, long snapshotTtlMillis) {
         this.securityRealm = securityRealm;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+        this.probeCacheTtlMillis = probeCacheTtlMillis;
+        this.probeThreads = probeThreads;
+        this.nodeInfo = new JsonSnapshot(snapshotTtlMillis, this::readNodeInfo);
+        this.heap = new JsonSnapshot(snapshotTtlMillis, MonitorService::readHeap);
+        this.threads = new JsonSnapshot(snapshotTtlMillis, MonitorService::readThreads);
     }
 
     @Override
     public long getProbeTimeoutSeconds() {
-        return DEFAULT_PROBE_TIMEOUT_SECONDS;
+        return this.probeTimeoutSeconds;
+    }
+
+    @Override
+    public long getProbeCacheTtlMillis() {
+        return this.probeCacheTtlMillis;
+    }
+
+    @Override
+    public Executor getProbeExecutor() {
+        return this.probeExecutor;
     }
 
     @Override
     public void start(StartContext startContext) throws StartException {
-        executorService = Executors.newSingleThreadExecutor();
         serverEnvironment = serverEnvironmentValue.getValue();
-        controllerClient = modelControllerValue.getValue().createClient(executorService);
 
         if (!securityRealm.isPresent()) {
             LOG.warn("You are running the monitoring endpoints without any security realm configuration!");
         }
+
+        if (this.probeThreads > 0) {
+            this.probeExecutor = new ProbeExecutor(this.probeThreads);
+        }
     }
 
     @Override
     public void stop(StopContext stopContext) {
-        if (executorService != null) {
-            executorService.shutdownNow();
+        if (this.probeExecutor != null) {
+            this.probeExecutor.shutdown();
+            this.probeExecutor = null;
         }
     }
 
@@ -98,68 +114,72 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     @Override
     public ModelNode getNodeInfo() {
-
-        ModelNode op = new ModelNode();
-        op.get(ADDRESS).setEmptyList();
-        op.get(OP).set("query");
-        op.get(SELECT).add("name");
-        op.get(SELECT).add("server-state");
-        op.get(SELECT).add("suspend-state");
-        op.get(SELECT).add("running-mode");
-        op.get(SELECT).add("uuid");
-
-        try {
-            ModelNode response = controllerClient.execute(op);
-            ModelNode unwrapped = unwrap(response);
-            unwrapped.get("swarm-version").set(SwarmInfo.VERSION);
-            return unwrapped;
-        } catch (IOException e) {
-            return new ModelNode().get(FAILURE_DESCRIPTION).set(e.getMessage());
-        }
-
+        return this.nodeInfo.model();
     }
 
     @Override
     public ModelNode heap() {
+        return this.heap.model();
+    }
 
-        // /core-service=platform-mbean/type=memory:read-resource(include-runtime=true)
+    @Override
+    public ModelNode threads() {
+        return this.threads.model();
+    }
 
-        ModelNode op = new ModelNode();
-        op.get(ADDRESS).add("core-service", "platform-mbean");
-        op.get(ADDRESS).add("type", "memory");
-        op.get(OP).set("query");
-        op.get(SELECT).add("heap-memory-usage");
-        op.get(SELECT).add("non-heap-memory-usage");
+    @Override
+    public byte[] getNodeInfoJSON() {
+        return this.nodeInfo.json();
+    }
 
-        try {
-            ModelNode response = controllerClient.execute(op);
-            return unwrap(response);
-        } catch (IOException e) {
-            return new ModelNode().get(FAILURE_DESCRIPTION).set(e.getMessage());
-        }
+    @Override
+    public byte[] heapJSON() {
+        return this.heap.json();
     }
 
     @Override
-    public ModelNode threads() {
+    public byte[] threadsJSON() {
+        return this.threads.json();
+    }
 
-        // /core-service=platform-mbean/type=threading:read-resource(include-runtime=true)
-
-        ModelNode op = new ModelNode();
-        op.get(ADDRESS).add("core-service", "platform-mbean");
-        op.get(ADDRESS).add("type", "threading");
-        op.get(OP).set("query");
-        op.get(SELECT).add("thread-count");
-        op.get(SELECT).add("peak-thread-count");
-        op.get(SELECT).add("total-started-thread-count");
-        op.get(SELECT).add("current-thread-cpu-time");
-        op.get(SELECT).add("current-thread-user-time");
-
-        try {
-            ModelNode response = controllerClient.execute(op);
-            return unwrap(response);
-        } catch (IOException e) {
-            return new ModelNode().get(FAILURE_DESCRIPTION).set(e.getMessage());
-        }
+    // same attributes as a query on the root resource
+    private ModelNode readNodeInfo() {
+        ModelNode node = new ModelNode();
+        node.get("name").set(serverEnvironment.getServerName());
+        node.get("server-state").set(processStateValue.getValue().getCurrentState().toString());
+        node.get("suspend-state").set(suspendControllerValue.getValue().getState().name());
+        node.get("running-mode").set(serverEnvironment.getRunningModeControl().getRunningMode().name());
+        node.get("uuid").set(serverEnvironment.getInstanceUuid().toString());
+        node.get("swarm-version").set(SwarmInfo.VERSION);
+        return node;
+    }
+
+    // same attributes as /core-service=platform-mbean/type=memory
+    private static ModelNode readHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ModelNode node = new ModelNode();
+        setUsage(node.get("heap-memory-usage"), memory.getHeapMemoryUsage());
+        setUsage(node.get("non-heap-memory-usage"), memory.getNonHeapMemoryUsage());
+        return node;
+    }
+
+    private static void setUsage(ModelNode node, MemoryUsage usage) {
+        node.get("init").set(usage.getInit());
+        node.get("used").set(usage.getUsed());
+        node.get("committed").set(usage.getCommitted());
+        node.get("max").set(usage.getMax());
+    }
+
+    // same attributes as /core-service=platform-mbean/type=threading
+    private static ModelNode readThreads() {
+        ThreadMXBean threading = ManagementFactory.getThreadMXBean();
+        ModelNode node = new ModelNode();
+        node.get("thread-count").set(threading.getThreadCount());
+        node.get("peak-thread-count").set(threading.getPeakThreadCount());
+        node.get("total-started-thread-count").set(threading.getTotalStartedThreadCount());
+        node.get("current-thread-cpu-time").set(threading.getCurrentThreadCpuTime());
+        node.get("current-thread-user-time").set(threading.getCurrentThreadUserTime());
+        return node;
     }
 
     @Override
@@ -203,41 +223,51 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     }
 
-    private static ModelNode unwrap(ModelNode response) {
-        if (response.get(OUTCOME).asString().equals(SUCCESS)) {
-            return response.get(RESULT);
-        } else {
-            return response;
-        }
-    }
-
     public Injector<ServerEnvironment> getServerEnvironmentInjector() {
         return this.serverEnvironmentValue;
     }
 
-    public Injector<ModelController> getModelControllerInjector() {
-        return this.modelControllerValue;
+    public Injector<ControlledProcessStateService> getProcessStateInjector() {
+        return this.processStateValue;
+    }
+
+    public Injector<SuspendController> getSuspendControllerInjector() {
+        return this.suspendControllerValue;
     }
 
     public Injector<SecurityRealm> getSecurityRealmInjector() {
         return this.securityRealmServiceValue;
     }
 
-    private static final long DEFAULT_PROBE_TIMEOUT_SECONDS = 2;
+    static final long DEFAULT_PROBE_TIMEOUT_SECONDS = 10;
+
+    static final long DEFAULT_SNAPSHOT_TTL_MILLIS = 1000;
 
     private final InjectedValue<ServerEnvironment> serverEnvironmentValue = new InjectedValue<ServerEnvironment>();
 
-    private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
+    private final InjectedValue<ControlledProcessStateService> processStateValue = new InjectedValue<ControlledProcessStateService>();
+
+    private final InjectedValue<SuspendController> suspendControllerValue = new InjectedValue<SuspendController>();
 
     private final InjectedValue<SecurityRealm> securityRealmServiceValue = new InjectedValue<SecurityRealm>();
 
     private final Optional<String> securityRealm;
 
-    private ExecutorService executorService;
+    private final long probeTimeoutSeconds;
 
-    private ServerEnvironment serverEnvironment;
+    private final long probeCacheTtlMillis;
+
+    private final int probeThreads;
 
-    private ModelControllerClient controllerClient;
+    private volatile ProbeExecutor probeExecutor;
+
+    private final JsonSnapshot nodeInfo;
+
+    private final JsonSnapshot heap;
+
+    private final JsonSnapshot threads;
+
+    private ServerEnvironment serverEnvironment;
 
     private CopyOnWriteArrayList<HealthMetaData> endpoints = new CopyOnWriteArrayList<HealthMetaData>();
 
@@ -95,4 +95,19 @@ public class ParserTest {
         String s = HttpContexts.toJson(healthStatus);
         System.out.println(s);
     }
+
+    @Test
+    public void testJsonEscaping() {
+        org.eclipse.microprofile.health.HealthCheckResponse healthStatus = org.eclipse.microprofile.health.HealthCheckResponse
+                .named("quoted \"test\"")
+                .withData("path", "C:\\data")
+                .withData("count", 3)
+                .down()
+                .build();
+
+        String s = HttpContexts.toJson(healthStatus);
+        Assert.assertTrue(s, s.startsWith("{\"name\":\"quoted \\\"test\\\"\",\"state\":\"DOWN\",\"data\": {"));
+        Assert.assertTrue(s, s.contains("\"path\":\"C:\\\\data\""));
+        Assert.assertTrue(s, s.contains("\"count\":3"));
+    }
 }
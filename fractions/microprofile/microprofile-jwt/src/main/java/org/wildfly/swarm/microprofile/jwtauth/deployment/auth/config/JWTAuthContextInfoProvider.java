@@ -51,6 +51,9 @@ public class JWTAuthContextInfoProvider {
     @Inject
     @ConfigProperty(name = "mpjwt.jwksRefreshInterval", defaultValue = "60")
     private Optional<Integer> jwksRefreshInterval;
+    @Inject
+    @ConfigProperty(name = "mpjwt.tokenCacheSize", defaultValue = "1000")
+    private Optional<Integer> tokenCacheSize;
 
     @PostConstruct
     void init() {
@@ -87,6 +90,9 @@ public class JWTAuthContextInfoProvider {
         if (jwksRefreshInterval.isPresent()) {
             contextInfo.setJwksRefreshInterval(jwksRefreshInterval.get());
         }
+        if (tokenCacheSize.isPresent()) {
+            contextInfo.setTokenCacheSize(tokenCacheSize.get());
+        }
 
         return Optional.of(contextInfo);
     }
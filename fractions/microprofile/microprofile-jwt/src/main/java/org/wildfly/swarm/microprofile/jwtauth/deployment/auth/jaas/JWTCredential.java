@@ -29,6 +29,13 @@ import org.jose4j.jwt.consumer.JwtContext;
  * needed for validation of the token.
  */
 public class JWTCredential implements Credential {
+    // Doesn't check signatures or do any validation, it is basically just used to parse the JWT into a JwtContext object.
+    private static final JwtConsumer FIRST_PASS_JWT_CONSUMER = new JwtConsumerBuilder()
+            .setSkipAllValidators()
+            .setDisableRequireSignature()
+            .setSkipSignatureVerification()
+            .build();
+
     private JWTAuthContextInfo authContextInfo;
 
     private String bearerToken;
@@ -62,15 +69,7 @@ public class JWTCredential implements Credential {
         if (name == null) {
             name = "INVALID_TOKEN_NAME";
             try {
-                // Build a JwtConsumer that doesn't check signatures or do any validation.
-                JwtConsumer firstPassJwtConsumer = new JwtConsumerBuilder()
-                        .setSkipAllValidators()
-                        .setDisableRequireSignature()
-                        .setSkipSignatureVerification()
-                        .build();
-
-                //The first JwtConsumer is basically just used to parse the JWT into a JwtContext object.
-                JwtContext jwtContext = firstPassJwtConsumer.process(bearerToken);
+                JwtContext jwtContext = FIRST_PASS_JWT_CONSUMER.process(bearerToken);
                 JwtClaims claimsSet = jwtContext.getJwtClaims();
                 // We have to determine the unique name to use as the principal name. It comes from upn, preferred_username, sub in that order
                 name = claimsSet.getClaimValue("upn", String.class);
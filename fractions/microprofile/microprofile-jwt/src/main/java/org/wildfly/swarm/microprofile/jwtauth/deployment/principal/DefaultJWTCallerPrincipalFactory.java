@@ -17,18 +17,10 @@
 package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
 
 import org.eclipse.microprofile.jwt.Claims;
-import org.jose4j.jwa.AlgorithmConstraints;
-import org.jose4j.jwk.JsonWebKey;
-import org.jose4j.jws.AlgorithmIdentifiers;
 import org.jose4j.jwt.JwtClaims;
 import org.jose4j.jwt.MalformedClaimException;
-import org.jose4j.jwt.NumericDate;
 import org.jose4j.jwt.consumer.InvalidJwtException;
-import org.jose4j.jwt.consumer.JwtConsumer;
-import org.jose4j.jwt.consumer.JwtConsumerBuilder;
 import org.jose4j.jwt.consumer.JwtContext;
-import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
-import java.util.List;
 
 /**
  * A default implementation of the abstract JWTCallerPrincipalFactory that uses the Keycloak token parsing classes.
@@ -43,37 +35,18 @@ public class DefaultJWTCallerPrincipalFactory extends JWTCallerPrincipalFactory
 
     @Override
     public JWTCallerPrincipal parse(final String token, final JWTAuthContextInfo authContextInfo) throws ParseException {
-        JWTCallerPrincipal principal;
+        TokenVerifier verifier = authContextInfo.getTokenVerifier();
+        JWTCallerPrincipal principal = verifier.getCached(token);
+        if (principal != null) {
+            return principal;
+        }
 
         try {
-            JwtConsumerBuilder builder = new JwtConsumerBuilder()
-                    .setRequireExpirationTime()
-                    .setRequireSubject()
-                    .setSkipDefaultAudienceValidation()
-                    .setExpectedIssuer(authContextInfo.getIssuedBy())
-                    .setJwsAlgorithmConstraints(
-                            new AlgorithmConstraints(AlgorithmConstraints.ConstraintType.WHITELIST,
-                                    AlgorithmIdentifiers.RSA_USING_SHA256));
-
-            if (authContextInfo.getSignerKey() != null) {
-                builder.setVerificationKey(authContextInfo.getSignerKey());
-            } else {
-                final List<JsonWebKey> jsonWebKeys = authContextInfo.loadJsonWebKeys();
-                builder.setVerificationKeyResolver(new JwksVerificationKeyResolver(jsonWebKeys));
-            }
-
-            if (authContextInfo.getExpGracePeriodSecs() > 0) {
-                builder.setAllowedClockSkewInSeconds(authContextInfo.getExpGracePeriodSecs());
-            } else {
-                builder.setEvaluationTime(NumericDate.fromSeconds(0));
-            }
-
-            JwtConsumer jwtConsumer = builder.build();
-            JwtContext jwtContext = jwtConsumer.process(token);
-            String type = jwtContext.getJoseObjects().get(0).getHeader("typ");
             //  Validate the JWT and process it to the Claims
-            jwtConsumer.processContext(jwtContext);
+            JwtContext jwtContext = verifier.getJwtConsumer().process(token);
+            String type = jwtContext.getJoseObjects().get(0).getHeader("typ");
             JwtClaims claimsSet = jwtContext.getJwtClaims();
+            long exp = claimsSet.getExpirationTime().getValue();
 
             // We have to determine the unique name to use as the principal name. It comes from upn, preferred_username, sub in that order
             String principalName = claimsSet.getClaimValue("upn", String.class);
@@ -85,6 +58,7 @@ public class DefaultJWTCallerPrincipalFactory extends JWTCallerPrincipalFactory
             }
             claimsSet.setClaim(Claims.raw_token.name(), token);
             principal = new DefaultJWTCallerPrincipal(token, type, claimsSet, principalName);
+            verifier.cache(token, principal, exp);
         } catch (InvalidJwtException e) {
             throw new ParseException("Failed to verify token", e);
         } catch (MalformedClaimException e) {
@@ -16,14 +16,11 @@
  */
 package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
 
-import java.io.IOException;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import org.jose4j.jwk.HttpsJwks;
+import java.util.concurrent.TimeUnit;
 import org.jose4j.jwk.JsonWebKey;
-import org.jose4j.lang.JoseException;
 
 /**
  * The public key and expected issuer needed to validate a token.
@@ -34,7 +31,9 @@ public class JWTAuthContextInfo {
     private int expGracePeriodSecs = 60;
     private String jwksUri;
     private Integer jwksRefreshInterval;
-    private HttpsJwks httpsJwks;
+    private volatile JsonWebKeyStore jsonWebKeyStore;
+    private int tokenCacheSize = 1000;
+    private volatile TokenVerifier tokenVerifier;
 
     public JWTAuthContextInfo() {
     }
@@ -50,38 +49,45 @@ public class JWTAuthContextInfo {
         this.expGracePeriodSecs = orig.expGracePeriodSecs;
         this.jwksUri = orig.jwksUri;
         this.jwksRefreshInterval = orig.jwksRefreshInterval;
+        this.tokenCacheSize = orig.tokenCacheSize;
     }
 
     public RSAPublicKey getSignerKey() {
         return signerKey;
     }
 
+    /**
+     * @return the RS256 signing keys published at the JWKS URI, or an empty list if there is none
+     */
     public List<JsonWebKey> loadJsonWebKeys() {
-        synchronized (this) {
-            if (jwksUri == null) {
-                return Collections.emptyList();
-            }
-
-            if (httpsJwks == null) {
-                httpsJwks = new HttpsJwks(jwksUri);
-                httpsJwks.setDefaultCacheDuration(jwksRefreshInterval.longValue() * 60L);
-            }
+        JsonWebKeyStore store = getJsonWebKeyStore();
+        if (store == null) {
+            return Collections.emptyList();
         }
+        return store.getJsonWebKeys();
+    }
 
-        try {
-            return httpsJwks.getJsonWebKeys().stream()
-                    .filter(jsonWebKey -> "sig".equals(jsonWebKey.getUse())) // only signing keys are relevant
-                    .filter(jsonWebKey -> "RS256".equals(jsonWebKey.getAlgorithm())) // MP-JWT dictates RS256 only
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new IllegalStateException(String.format("Unable to fetch JWKS from %s.", jwksUri), e);
-        } catch (JoseException e) {
-            throw new IllegalStateException(String.format("Unable to parse JWKS from %s.", jwksUri), e);
+    /**
+     * @return the key store for the JWKS URI, created on first use, or null if there is no JWKS URI
+     */
+    public JsonWebKeyStore getJsonWebKeyStore() {
+        JsonWebKeyStore store = jsonWebKeyStore;
+        if (store == null && jwksUri != null) {
+            synchronized (this) {
+                store = jsonWebKeyStore;
+                if (store == null && jwksUri != null) {
+                    long refreshIntervalMins = jwksRefreshInterval != null ? jwksRefreshInterval : 60;
+                    store = new JsonWebKeyStore(jwksUri, TimeUnit.MINUTES.toMillis(refreshIntervalMins));
+                    jsonWebKeyStore = store;
+                }
+            }
         }
+        return store;
     }
 
     public void setSignerKey(RSAPublicKey signerKey) {
         this.signerKey = signerKey;
+        this.tokenVerifier = null;
     }
 
     public String getIssuedBy() {
@@ -90,6 +96,7 @@ public class JWTAuthContextInfo {
 
     public void setIssuedBy(String issuedBy) {
         this.issuedBy = issuedBy;
+        this.tokenVerifier = null;
     }
 
     public int getExpGracePeriodSecs() {
@@ -98,6 +105,7 @@ public class JWTAuthContextInfo {
 
     public void setExpGracePeriodSecs(int expGracePeriodSecs) {
         this.expGracePeriodSecs = expGracePeriodSecs;
+        this.tokenVerifier = null;
     }
 
     public String getJwksUri() {
@@ -106,6 +114,8 @@ public class JWTAuthContextInfo {
 
     public void setJwksUri(String jwksUri) {
         this.jwksUri = jwksUri;
+        this.jsonWebKeyStore = null;
+        this.tokenVerifier = null;
     }
 
     public Integer getJwksRefreshInterval() {
@@ -114,5 +124,36 @@ public class JWTAuthContextInfo {
 
     public void setJwksRefreshInterval(Integer jwksRefreshInterval) {
         this.jwksRefreshInterval = jwksRefreshInterval;
+        this.jsonWebKeyStore = null;
+        this.tokenVerifier = null;
+    }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    /**
+     * @param tokenCacheSize - the maximum number of verified tokens to cache, or 0 to verify every token
+     */
+    public void setTokenCacheSize(int tokenCacheSize) {
+        this.tokenCacheSize = tokenCacheSize;
+        this.tokenVerifier = null;
+    }
+
+    /**
+     * @return the verifier for the current settings, built on first use
+     */
+    TokenVerifier getTokenVerifier() {
+        TokenVerifier verifier = tokenVerifier;
+        if (verifier == null) {
+            synchronized (this) {
+                verifier = tokenVerifier;
+                if (verifier == null) {
+                    verifier = new TokenVerifier(this);
+                    tokenVerifier = verifier;
+                }
+            }
+        }
+        return verifier;
     }
 }
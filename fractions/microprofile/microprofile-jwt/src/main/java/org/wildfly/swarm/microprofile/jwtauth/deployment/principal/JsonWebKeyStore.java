@@ -0,0 +1,259 @@
+/**
+ *
+ *   Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.jose4j.http.Get;
+import org.jose4j.http.SimpleGet;
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwx.JsonWebStructure;
+import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
+import org.jose4j.keys.resolvers.VerificationKeyResolver;
+import org.jose4j.lang.JoseException;
+import org.jose4j.lang.UnresolvableKeyException;
+
+/**
+ * The RS256 signing keys published at a JWKS URI, indexed by key id.
+ *
+ * Only the first load blocks the caller. Afterwards the keys are refreshed in the background once they are due,
+ * while the current keys keep being served. A token signed with an unknown key id forces a refresh, but at most
+ * once per forced refresh interval, so that a key rotation or a flood of bogus tokens cannot overload the JWKS
+ * endpoint.
+ */
+public class JsonWebKeyStore implements VerificationKeyResolver {
+    private static Logger logger = Logger.getLogger(JsonWebKeyStore.class.getName());
+
+    /**
+     * The minimum time between two refreshes forced by an unknown key id.
+     */
+    public static final long DEFAULT_FORCED_REFRESH_INTERVAL_MILLIS = 30_000L;
+
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String jwksUri;
+
+    private final long refreshIntervalMillis;
+
+    private final long forcedRefreshIntervalMillis;
+
+    private final SimpleGet simpleGet;
+
+    private volatile Keys keys;
+
+    private final AtomicReference<CompletableFuture<Keys>> refreshing = new AtomicReference<>();
+
+    private final AtomicLong lastForcedRefresh = new AtomicLong(Long.MIN_VALUE / 2);
+
+    /**
+     * @param jwksUri               - the location of the JWKS
+     * @param refreshIntervalMillis - how long fetched keys are used before they are refreshed
+     */
+    public JsonWebKeyStore(String jwksUri, long refreshIntervalMillis) {
+        this(jwksUri, refreshIntervalMillis, DEFAULT_FORCED_REFRESH_INTERVAL_MILLIS, new Get());
+    }
+
+    JsonWebKeyStore(String jwksUri, long refreshIntervalMillis, long forcedRefreshIntervalMillis, SimpleGet simpleGet) {
+        this.jwksUri = jwksUri;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.forcedRefreshIntervalMillis = forcedRefreshIntervalMillis;
+        this.simpleGet = simpleGet;
+    }
+
+    /**
+     * @return the current signing keys, fetching them if this is the first call
+     * @throws IllegalStateException if the keys have never been fetched and cannot be
+     */
+    public List<JsonWebKey> getJsonWebKeys() {
+        return currentKeys().all;
+    }
+
+    @Override
+    public Key resolveKey(JsonWebSignature jws, List<JsonWebStructure> nestingContext) throws UnresolvableKeyException {
+        Keys current;
+        try {
+            current = currentKeys();
+        } catch (IllegalStateException e) {
+            throw new UnresolvableKeyException(e.getMessage(), e);
+        }
+
+        String kid = jws.getKeyIdHeaderValue();
+        JwksVerificationKeyResolver resolver = current.resolverFor(kid);
+        if (resolver == null) {
+            current = forceRefresh(current);
+            resolver = current.resolverFor(kid);
+            if (resolver == null) {
+                throw new UnresolvableKeyException(String.format("No RS256 signing key with kid %s is published at %s.", kid, jwksUri));
+            }
+        }
+        return resolver.resolveKey(jws, nestingContext);
+    }
+
+    /**
+     * @return the current keys, triggering a background refresh if they are due for one
+     */
+    private Keys currentKeys() {
+        Keys current = keys;
+        if (current == null) {
+            return await(refresh());
+        }
+        if (System.currentTimeMillis() >= current.refreshAt) {
+            refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Wait for a refresh after a token referenced an unknown key id. A refresh that is already in progress is
+     * joined, otherwise a new one is only started if the last forced one is long enough ago.
+     */
+    private Keys forceRefresh(Keys current) {
+        CompletableFuture<Keys> inProgress = refreshing.get();
+        if (inProgress == null) {
+            long now = System.currentTimeMillis();
+            long last = lastForcedRefresh.get();
+            if (now - last < forcedRefreshIntervalMillis || !lastForcedRefresh.compareAndSet(last, now)) {
+                return current;
+            }
+            inProgress = refresh();
+        }
+        try {
+            return await(inProgress);
+        } catch (IllegalStateException e) {
+            return current;
+        }
+    }
+
+    /**
+     * @return the refresh in progress, starting one if there is none
+     */
+    private CompletableFuture<Keys> refresh() {
+        CompletableFuture<Keys> future = new CompletableFuture<>();
+        if (!refreshing.compareAndSet(null, future)) {
+            CompletableFuture<Keys> inProgress = refreshing.get();
+            if (inProgress != null) {
+                return inProgress;
+            }
+            return refresh();
+        }
+        REFRESH_EXECUTOR.execute(() -> {
+            try {
+                Keys fetched = fetch();
+                keys = fetched;
+                future.complete(fetched);
+            } catch (Exception e) {
+                Keys stale = keys;
+                if (stale != null) {
+                    // keep serving the keys we have, and try again once the forced refresh interval has passed
+                    logger.log(Level.WARNING, "Unable to refresh JWKS from " + jwksUri + ", keeping the current keys", e);
+                    keys = new Keys(stale, System.currentTimeMillis() + forcedRefreshIntervalMillis);
+                }
+                future.completeExceptionally(e);
+            } finally {
+                refreshing.set(null);
+            }
+        });
+        return future;
+    }
+
+    private Keys fetch() throws IOException, JoseException {
+        String body = simpleGet.get(jwksUri).getBody();
+        List<JsonWebKey> signingKeys = new JsonWebKeySet(body).getJsonWebKeys().stream()
+                .filter(jsonWebKey -> "sig".equals(jsonWebKey.getUse())) // only signing keys are relevant
+                .filter(jsonWebKey -> "RS256".equals(jsonWebKey.getAlgorithm())) // MP-JWT dictates RS256 only
+                .collect(Collectors.toList());
+        return new Keys(signingKeys, System.currentTimeMillis() + refreshIntervalMillis);
+    }
+
+    private Keys await(CompletableFuture<Keys> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof JoseException) {
+                throw new IllegalStateException(String.format("Unable to parse JWKS from %s.", jwksUri), cause);
+            }
+            throw new IllegalStateException(String.format("Unable to fetch JWKS from %s.", jwksUri), cause);
+        }
+    }
+
+    /**
+     * An immutable snapshot of the fetched keys.
+     */
+    private static final class Keys {
+        private final List<JsonWebKey> all;
+
+        private final JwksVerificationKeyResolver allResolver;
+
+        private final Map<String, JwksVerificationKeyResolver> resolversByKid;
+
+        private final long refreshAt;
+
+        Keys(List<JsonWebKey> all, long refreshAt) {
+            this.all = Collections.unmodifiableList(all);
+            this.allResolver = new JwksVerificationKeyResolver(this.all);
+            Map<String, List<JsonWebKey>> byKid = new HashMap<>();
+            for (JsonWebKey key : all) {
+                if (key.getKeyId() != null) {
+                    byKid.computeIfAbsent(key.getKeyId(), k -> new ArrayList<>()).add(key);
+                }
+            }
+            Map<String, JwksVerificationKeyResolver> resolversByKid = new HashMap<>();
+            byKid.forEach((kid, keys) -> resolversByKid.put(kid, new JwksVerificationKeyResolver(keys)));
+            this.resolversByKid = resolversByKid;
+            this.refreshAt = refreshAt;
+        }
+
+        Keys(Keys keys, long refreshAt) {
+            this.all = keys.all;
+            this.allResolver = keys.allResolver;
+            this.resolversByKid = keys.resolversByKid;
+            this.refreshAt = refreshAt;
+        }
+
+        /**
+         * @return the resolver over the keys with the given id, over all keys if there is no id, or null if no key has it
+         */
+        JwksVerificationKeyResolver resolverFor(String kid) {
+            if (kid == null) {
+                return all.isEmpty() ? null : allResolver;
+            }
+            return resolversByKid.get(kid);
+        }
+    }
+}
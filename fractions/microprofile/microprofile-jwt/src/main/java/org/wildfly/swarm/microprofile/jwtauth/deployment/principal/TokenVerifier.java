@@ -0,0 +1,157 @@
+/**
+ *
+ *   Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jose4j.jwa.AlgorithmConstraints;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jwt.NumericDate;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
+
+/**
+ * The JwtConsumer built from a JWTAuthContextInfo, along with a bounded cache of the principals it has verified.
+ * Cached principals are keyed by the SHA-256 hash of the token and are evicted once the token expires.
+ */
+class TokenVerifier {
+    private final JwtConsumer jwtConsumer;
+
+    private final long gracePeriodMillis;
+
+    private final int maxCacheSize;
+
+    private final Map<String, CachedPrincipal> cache = new ConcurrentHashMap<>();
+
+    TokenVerifier(JWTAuthContextInfo authContextInfo) {
+        JwtConsumerBuilder builder = new JwtConsumerBuilder()
+                .setRequireExpirationTime()
+                .setRequireSubject()
+                .setSkipDefaultAudienceValidation()
+                .setExpectedIssuer(authContextInfo.getIssuedBy())
+                .setJwsAlgorithmConstraints(
+                        new AlgorithmConstraints(AlgorithmConstraints.ConstraintType.WHITELIST,
+                                AlgorithmIdentifiers.RSA_USING_SHA256));
+
+        if (authContextInfo.getSignerKey() != null) {
+            builder.setVerificationKey(authContextInfo.getSignerKey());
+        } else if (authContextInfo.getJsonWebKeyStore() != null) {
+            builder.setVerificationKeyResolver(authContextInfo.getJsonWebKeyStore());
+        } else {
+            builder.setVerificationKeyResolver(new JwksVerificationKeyResolver(Collections.emptyList()));
+        }
+
+        if (authContextInfo.getExpGracePeriodSecs() > 0) {
+            builder.setAllowedClockSkewInSeconds(authContextInfo.getExpGracePeriodSecs());
+            this.gracePeriodMillis = authContextInfo.getExpGracePeriodSecs() * 1000L;
+        } else {
+            builder.setEvaluationTime(NumericDate.fromSeconds(0));
+            this.gracePeriodMillis = 0;
+        }
+
+        this.jwtConsumer = builder.build();
+        this.maxCacheSize = authContextInfo.getTokenCacheSize();
+    }
+
+    JwtConsumer getJwtConsumer() {
+        return jwtConsumer;
+    }
+
+    /**
+     * @param token - the bearer token
+     * @return the principal previously verified for the token, or null if there is none or the token has since expired
+     */
+    JWTCallerPrincipal getCached(String token) {
+        if (maxCacheSize <= 0) {
+            return null;
+        }
+        String key = hash(token);
+        CachedPrincipal cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            cache.remove(key, cached);
+            return null;
+        }
+        if (!token.equals(cached.principal.getRawToken())) {
+            return null;
+        }
+        return cached.principal;
+    }
+
+    /**
+     * @param token     - the bearer token
+     * @param principal - the principal verified for the token
+     * @param exp       - the token expiration time, in seconds since the epoch
+     */
+    void cache(String token, JWTCallerPrincipal principal, long exp) {
+        if (maxCacheSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = exp * 1000L + gracePeriodMillis;
+        if (expiresAt <= now) {
+            return;
+        }
+        if (cache.size() >= maxCacheSize) {
+            evict(now);
+        }
+        cache.put(hash(token), new CachedPrincipal(principal, expiresAt));
+    }
+
+    /**
+     * Drop the expired entries, and if that does not free up enough room, an arbitrary tenth of the cache.
+     */
+    private void evict(long now) {
+        cache.values().removeIf(cached -> cached.expiresAt <= now);
+        int excess = cache.size() - maxCacheSize + Math.max(1, maxCacheSize / 10);
+        Iterator<Map.Entry<String, CachedPrincipal>> entries = cache.entrySet().iterator();
+        while (excess-- > 0 && entries.hasNext()) {
+            entries.next();
+            entries.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final JWTCallerPrincipal principal;
+
+        private final long expiresAt;
+
+        CachedPrincipal(JWTCallerPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
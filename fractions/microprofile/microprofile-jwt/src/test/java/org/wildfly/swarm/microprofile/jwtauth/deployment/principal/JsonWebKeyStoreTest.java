@@ -0,0 +1,166 @@
+/**
+ *
+ *   Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jose4j.http.Get;
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jwk.RsaJsonWebKey;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.lang.UnresolvableKeyException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class JsonWebKeyStoreTest {
+    private HttpServer server;
+
+    private String jwksUri;
+
+    private final AtomicReference<String> jwks = new AtomicReference<>();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/jwks", exchange -> {
+            fetches.incrementAndGet();
+            String body = jwks.get();
+            if (body == null) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        jwksUri = "http://localhost:" + server.getAddress().getPort() + "/jwks";
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testIndexesSigningKeysByKid() throws Exception {
+        RsaJsonWebKey encryptionKey = key("enc");
+        encryptionKey.setUse("enc");
+        jwks.set(new JsonWebKeySet(key("k1"), key("k2"), encryptionKey).toJson());
+        JsonWebKeyStore store = new JsonWebKeyStore(jwksUri, 60_000, 60_000, get());
+
+        assertThat(store.getJsonWebKeys()).hasSize(2);
+        assertThat(store.resolveKey(jws("k2"), null)).isNotNull();
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnknownKidForcesRateLimitedRefresh() throws Exception {
+        jwks.set(new JsonWebKeySet(key("k1")).toJson());
+        JsonWebKeyStore store = new JsonWebKeyStore(jwksUri, 60_000, 60_000, get());
+        store.getJsonWebKeys();
+
+        jwks.set(new JsonWebKeySet(key("k1"), key("k2")).toJson());
+        assertThat(store.resolveKey(jws("k2"), null)).isNotNull();
+        assertThat(fetches.get()).isEqualTo(2);
+
+        for (int i = 0; i < 10; ++i) {
+            try {
+                store.resolveKey(jws("bogus"), null);
+                fail("resolved a key for an unknown kid");
+            } catch (UnresolvableKeyException e) {
+                // expected
+            }
+        }
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testServesCurrentKeysWhileRefreshing() throws Exception {
+        jwks.set(new JsonWebKeySet(key("k1")).toJson());
+        JsonWebKeyStore store = new JsonWebKeyStore(jwksUri, 0, 60_000, get());
+        assertThat(store.getJsonWebKeys().get(0).getKeyId()).isEqualTo("k1");
+
+        jwks.set(new JsonWebKeySet(key("k2")).toJson());
+        assertThat(store.getJsonWebKeys().get(0).getKeyId()).isEqualTo("k1");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"k2".equals(store.getJsonWebKeys().get(0).getKeyId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getJsonWebKeys().get(0).getKeyId()).isEqualTo("k2");
+    }
+
+    @Test
+    public void testKeepsCurrentKeysWhenRefreshFails() throws Exception {
+        jwks.set(new JsonWebKeySet(key("k1")).toJson());
+        JsonWebKeyStore store = new JsonWebKeyStore(jwksUri, 0, 60_000, get());
+        store.getJsonWebKeys();
+
+        jwks.set(null);
+        for (int i = 0; i < 10; ++i) {
+            assertThat(store.resolveKey(jws("k1"), null)).isNotNull();
+            Thread.sleep(10);
+        }
+        assertThat(fetches.get()).isLessThan(10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailsWithoutKeys() {
+        new JsonWebKeyStore(jwksUri, 60_000, 60_000, get()).getJsonWebKeys();
+    }
+
+    private static Get get() {
+        Get get = new Get();
+        get.setRetries(0);
+        return get;
+    }
+
+    private static RsaJsonWebKey key(String kid) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        RsaJsonWebKey key = new RsaJsonWebKey((RSAPublicKey) generator.generateKeyPair().getPublic());
+        key.setKeyId(kid);
+        key.setUse("sig");
+        key.setAlgorithm(AlgorithmIdentifiers.RSA_USING_SHA256);
+        return key;
+    }
+
+    private static JsonWebSignature jws(String kid) {
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.RSA_USING_SHA256);
+        jws.setKeyIdHeaderValue(kid);
+        return jws;
+    }
+}
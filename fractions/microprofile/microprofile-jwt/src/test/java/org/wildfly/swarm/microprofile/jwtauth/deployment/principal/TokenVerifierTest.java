@@ -0,0 +1,152 @@
+/**
+ *
+ *   Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.jwtauth.deployment.principal;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+
+import org.eclipse.microprofile.jwt.Claims;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.NumericDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TokenVerifierTest {
+    private static final String ISSUER = "https://server.example.com";
+
+    private KeyPair keyPair;
+
+    @Before
+    public void generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    public void testParsesTokenOnlyOnce() throws Exception {
+        JWTAuthContextInfo authContextInfo = new JWTAuthContextInfo((RSAPublicKey) keyPair.getPublic(), ISSUER);
+        authContextInfo.setExpGracePeriodSecs(60);
+        String token = sign("jdoe", expiresIn(300));
+        DefaultJWTCallerPrincipalFactory factory = new DefaultJWTCallerPrincipalFactory();
+
+        JWTCallerPrincipal first = factory.parse(token, authContextInfo);
+        assertThat(first.getName()).isEqualTo("jdoe");
+        assertThat(factory.parse(token, authContextInfo)).isSameAs(first);
+        assertThat(factory.parse(sign("jdoe", expiresIn(300)), authContextInfo)).isNotSameAs(first);
+    }
+
+    @Test
+    public void testDoesNotCacheWhenDisabled() throws Exception {
+        TokenVerifier verifier = verifier(0);
+        verifier.cache("t1", principal("t1"), expiresIn(300));
+
+        assertThat(verifier.getCached("t1")).isNull();
+    }
+
+    @Test
+    public void testExpiredTokensAreNotServed() throws Exception {
+        TokenVerifier verifier = verifier(10);
+        verifier.cache("expired", principal("expired"), expiresIn(-1));
+        long exp = expiresIn(1);
+        verifier.cache("expiring", principal("expiring"), exp);
+        assertThat(verifier.getCached("expired")).isNull();
+        assertThat(verifier.getCached("expiring")).isNotNull();
+
+        waitUntilExpired(exp);
+        assertThat(verifier.getCached("expiring")).isNull();
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        TokenVerifier verifier = verifier(10);
+        for (int i = 0; i < 100; ++i) {
+            verifier.cache("t" + i, principal("t" + i), expiresIn(300));
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 100; ++i) {
+            if (verifier.getCached("t" + i) != null) {
+                ++cached;
+            }
+        }
+        assertThat(cached).isGreaterThan(0);
+        assertThat(cached).isLessThanOrEqualTo(10);
+        assertThat(verifier.getCached("t99")).isNotNull();
+    }
+
+    @Test
+    public void testEvictsExpiredTokensFirst() throws Exception {
+        TokenVerifier verifier = verifier(4);
+        long shortLived = expiresIn(1);
+        verifier.cache("s1", principal("s1"), shortLived);
+        verifier.cache("s2", principal("s2"), shortLived);
+        verifier.cache("l1", principal("l1"), expiresIn(300));
+        verifier.cache("l2", principal("l2"), expiresIn(300));
+
+        waitUntilExpired(shortLived);
+        verifier.cache("l3", principal("l3"), expiresIn(300));
+
+        assertThat(verifier.getCached("l1")).isNotNull();
+        assertThat(verifier.getCached("l2")).isNotNull();
+        assertThat(verifier.getCached("l3")).isNotNull();
+    }
+
+    private static TokenVerifier verifier(int cacheSize) {
+        JWTAuthContextInfo authContextInfo = new JWTAuthContextInfo();
+        authContextInfo.setIssuedBy(ISSUER);
+        authContextInfo.setExpGracePeriodSecs(0);
+        authContextInfo.setTokenCacheSize(cacheSize);
+        return new TokenVerifier(authContextInfo);
+    }
+
+    private static JWTCallerPrincipal principal(String token) {
+        JwtClaims claims = new JwtClaims();
+        claims.setSubject("jdoe");
+        claims.setClaim(Claims.raw_token.name(), token);
+        return new DefaultJWTCallerPrincipal(token, "JWT", claims, "jdoe");
+    }
+
+    private String sign(String subject, long exp) throws Exception {
+        JwtClaims claims = new JwtClaims();
+        claims.setIssuer(ISSUER);
+        claims.setSubject(subject);
+        claims.setGeneratedJwtId();
+        claims.setExpirationTime(NumericDate.fromSeconds(exp));
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setPayload(claims.toJson());
+        jws.setKey(keyPair.getPrivate());
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.RSA_USING_SHA256);
+        jws.setHeader("typ", "JWT");
+        return jws.getCompactSerialization();
+    }
+
+    private static long expiresIn(long seconds) {
+        return System.currentTimeMillis() / 1000 + seconds;
+    }
+
+    private static void waitUntilExpired(long exp) throws InterruptedException {
+        while (System.currentTimeMillis() <= exp * 1000) {
+            Thread.sleep(10);
+        }
+    }
+}
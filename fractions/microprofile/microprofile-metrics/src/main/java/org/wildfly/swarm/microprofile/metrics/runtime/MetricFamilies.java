@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import io.smallrye.metrics.exporters.PrometheusUnit;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the pre-rendered Prometheus text of each metric, i.e. everything but the sample values.
+ *
+ * <p>The layout is the one of smallrye's <code>PrometheusExporter</code>. A family is rendered once per
+ * {@link Metadata} instance and re-rendered only if the metric is re-registered.</p>
+ */
+final class MetricFamilies {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\w]+");
+    private static final Pattern CAMEL_CASE = Pattern.compile("(.)(\\p{Upper})");
+
+    private static final String LF = "\n";
+    private static final String SPACE = " ";
+    private static final String USCORE = "_";
+    private static final String GAUGE = "gauge";
+    private static final String COUNTER = "counter";
+    private static final String SUMMARY = "summary";
+    private static final String QUANTILE = "quantile";
+
+    private static final String[] QUANTILES = {"0.5", "0.75", "0.95", "0.98", "0.99", "0.999"};
+
+    private final boolean helpLines;
+
+    private final Map<MetricRegistry.Type, Map<String, MetricFamily>> families = new EnumMap<>(MetricRegistry.Type.class);
+
+    MetricFamilies(boolean helpLines) {
+        this.helpLines = helpLines;
+        for (MetricRegistry.Type scope : MetricRegistry.Type.values()) {
+            this.families.put(scope, new ConcurrentHashMap<>());
+        }
+    }
+
+    MetricFamily get(MetricRegistry.Type scope, String key, Metadata md) {
+        Map<String, MetricFamily> scoped = this.families.get(scope);
+        MetricFamily family = scoped.get(key);
+        if (family == null || family.metadata != md) {
+            family = render(scope, key, md);
+            scoped.put(key, family);
+        }
+        return family;
+    }
+
+    /**
+     * Drop the families of metrics which are no longer registered in a scope.
+     */
+    void retain(MetricRegistry.Type scope, Set<String> keys) {
+        this.families.get(scope).keySet().retainAll(keys);
+    }
+
+    private MetricFamily render(MetricRegistry.Type scope, String key, Metadata md) {
+        Renderer r = new Renderer(scope, md);
+        String unit = PrometheusUnit.getBaseUnitAsPrometheusString(md.getUnit());
+        String theUnit = unit.equals("none") ? "" : USCORE + unit;
+
+        switch (md.getTypeRaw()) {
+            case GAUGE:
+            case COUNTER:
+                String name = prometheusName(key);
+                String suffix = md.getUnit().equals(MetricUnits.NONE) ? null : USCORE + unit;
+                r.helpLine(name, suffix);
+                r.typeLine(name, suffix, null);
+                r.simpleValueLine(name, suffix);
+                break;
+            case METERED:
+                r.helpLine(md.getName(), "_total");
+                r.typeAndValue("_total", COUNTER);
+                r.rates();
+                break;
+            case TIMER:
+                r.rates();
+                r.snapshotBasics(theUnit);
+                r.helpLine(md.getName(), USCORE + unit);
+                r.typeLine(md.getName(), USCORE + unit, SUMMARY);
+                r.valueLine(USCORE + unit + "_count", null);
+                r.quantiles(theUnit);
+                break;
+            case HISTOGRAM:
+                r.helpLine(md.getName(), SUMMARY);
+                r.snapshotBasics(theUnit);
+                r.typeLine(md.getName(), theUnit, SUMMARY);
+                r.valueLine(theUnit + "_count", null);
+                r.quantiles(theUnit);
+                break;
+            default:
+                throw new IllegalArgumentException("Not supported: " + key);
+        }
+        return new MetricFamily(md, r.prefixes.toArray(new byte[r.prefixes.size()][]));
+    }
+
+    static String prometheusName(String name) {
+        String out = NON_WORD.matcher(name).replaceAll(USCORE);
+        out = CAMEL_CASE.matcher(out).replaceAll("$1_$2").toLowerCase();
+        out = out.replace("__", USCORE);
+        out = out.replace(":_", ":");
+        return out;
+    }
+
+    /**
+     * The rendered text of one metric, cut in front of each sample value.
+     */
+    static final class MetricFamily {
+
+        private final Metadata metadata;
+
+        private final byte[][] prefixes;
+
+        private MetricFamily(Metadata metadata, byte[][] prefixes) {
+            this.metadata = metadata;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * @return Any HELP and TYPE lines preceding the sample, followed by the sample name, its labels and a space.
+         */
+        byte[] prefix(int sample) {
+            return this.prefixes[sample];
+        }
+    }
+
+    private final class Renderer {
+
+        private final MetricRegistry.Type scope;
+
+        private final Metadata md;
+
+        private final StringBuilder sb = new StringBuilder();
+
+        private final List<byte[]> prefixes = new ArrayList<>();
+
+        Renderer(MetricRegistry.Type scope, Metadata md) {
+            this.scope = scope;
+            this.md = md;
+        }
+
+        void helpLine(String key, String suffix) {
+            if (helpLines && this.md.getDescription() != null) {
+                this.sb.append("# HELP ");
+                this.sb.append(this.scope.getName().toLowerCase());
+                this.sb.append(':').append(prometheusName(key));
+                if (suffix != null) {
+                    this.sb.append(suffix);
+                }
+                this.sb.append(SPACE).append(this.md.getDescription()).append(LF);
+            }
+        }
+
+        void typeLine(String key, String suffix, String typeOverride) {
+            this.sb.append("# TYPE ");
+            this.sb.append(this.scope.getName().toLowerCase());
+            this.sb.append(':').append(prometheusName(key));
+            if (suffix != null) {
+                this.sb.append(suffix);
+            }
+            this.sb.append(SPACE);
+            if (typeOverride != null) {
+                this.sb.append(typeOverride);
+            } else if (this.md.getTypeRaw().equals(MetricType.TIMER)) {
+                this.sb.append(SUMMARY);
+            } else if (this.md.getTypeRaw().equals(MetricType.METERED)) {
+                this.sb.append(COUNTER);
+            } else {
+                this.sb.append(this.md.getType());
+            }
+            this.sb.append(LF);
+        }
+
+        void simpleValueLine(String name, String suffix) {
+            baseName(name);
+            if (suffix != null) {
+                this.sb.append(suffix);
+            }
+            String tags = this.md.getTagsAsString();
+            if (tags != null && !tags.isEmpty()) {
+                this.sb.append('{').append(tags).append('}');
+            }
+            cut();
+        }
+
+        void valueLine(String suffix, String quantile) {
+            baseName(prometheusName(this.md.getName()));
+            if (suffix != null) {
+                this.sb.append(suffix);
+            }
+            Map<String, String> tags = new HashMap<>(this.md.getTags());
+            if (quantile != null) {
+                tags.put(QUANTILE, quantile);
+            }
+            if (!tags.isEmpty()) {
+                this.sb.append('{');
+                Iterator<Map.Entry<String, String>> iter = tags.entrySet().iterator();
+                while (iter.hasNext()) {
+                    Map.Entry<String, String> tag = iter.next();
+                    this.sb.append(tag.getKey()).append("=\"").append(tag.getValue()).append('"');
+                    if (iter.hasNext()) {
+                        this.sb.append(',');
+                    }
+                }
+                this.sb.append('}');
+            }
+            cut();
+        }
+
+        void typeAndValue(String suffix, String type) {
+            typeLine(this.md.getName(), suffix, type);
+            valueLine(suffix, null);
+        }
+
+        void rates() {
+            typeAndValue("_rate_per_second", GAUGE);
+            typeAndValue("_one_min_rate_per_second", GAUGE);
+            typeAndValue("_five_min_rate_per_second", GAUGE);
+            typeAndValue("_fifteen_min_rate_per_second", GAUGE);
+        }
+
+        void snapshotBasics(String unit) {
+            typeAndValue("_min" + unit, GAUGE);
+            typeAndValue("_max" + unit, GAUGE);
+            typeAndValue("_mean" + unit, GAUGE);
+            typeAndValue("_stddev" + unit, GAUGE);
+        }
+
+        void quantiles(String unit) {
+            for (String quantile : QUANTILES) {
+                valueLine(unit, quantile);
+            }
+        }
+
+        private void baseName(String name) {
+            this.sb.append(this.scope.getName().toLowerCase()).append(':').append(name);
+        }
+
+        private void cut() {
+            this.sb.append(SPACE);
+            this.prefixes.add(this.sb.toString().getBytes(StandardCharsets.UTF_8));
+            this.sb.setLength(0);
+        }
+    }
+}
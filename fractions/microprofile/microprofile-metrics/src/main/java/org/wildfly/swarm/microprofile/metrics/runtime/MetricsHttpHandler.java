@@ -16,27 +16,54 @@
  */
 package org.wildfly.swarm.microprofile.metrics.runtime;
 
+import io.smallrye.metrics.MetricRegistries;
 import io.smallrye.metrics.MetricsRequestHandler;
+import io.undertow.connector.PooledByteBuffer;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.jboss.logging.Logger;
 
-import java.util.concurrent.CountDownLatch;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Serves <code>/metrics</code>.
+ *
+ * <p>Prometheus scrapes are streamed by a {@link PrometheusWriter}, gzipped if the client accepts it. JSON and
+ * OPTIONS requests, as well as unknown scopes and metrics, are still answered by smallrye's
+ * {@link MetricsRequestHandler}.</p>
+ *
  * @author hrupp
  */
 @SuppressWarnings("unused")
 public class MetricsHttpHandler implements HttpHandler {
 
     private static Logger LOG = Logger.getLogger("org.wildfly.swarm.microprofile.metrics");
-    private ThreadLocal<CountDownLatch> dispatched = new ThreadLocal<>();
+
+    // This allows to suppress the (noisy) # HELP line
+    private static final String MICROPROFILE_METRICS_OMIT_HELP_LINE = "microprofile.metrics.omitHelpLine";
+
+    private static final String[][] CORS_HEADERS = {
+            {"Access-Control-Max-Age", "1209600"},
+            {"Access-Control-Allow-Origin", "*"},
+            {"Access-Control-Allow-Headers", "origin, content-type, accept, authorization"},
+            {"Access-Control-Allow-Credentials", "true"},
+            {"Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, HEAD"},
+    };
+
+    private static final String GZIP = "gzip";
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
 
     private HttpHandler next;
     private final MetricsRequestHandler metricsHandler = new MetricsRequestHandler();
+    private volatile MetricFamilies families;
 
     public MetricsHttpHandler(HttpHandler next) {
         this.next = next;
@@ -47,20 +74,24 @@ public class MetricsHttpHandler implements HttpHandler {
 
         String requestPath = exchange.getRequestPath();
 
-        if (dispatched.get() != null && dispatched.get().getCount() == 1) {
+        if (!requestPath.startsWith("/metrics")) {
             next.handleRequest(exchange);
-            dispatched.set(null);
             return;
         }
 
-        if (!requestPath.startsWith("/metrics")) {
-            next.handleRequest(exchange);
+        // gauges may block, e.g. on JMX
+        if (exchange.isInIoThread()) {
+            exchange.dispatch(this);
+            return;
+        }
+
+        if (isPrometheusScrape(exchange) && stream(exchange, scopePath(requestPath))) {
             return;
         }
 
         String method = exchange.getRequestMethod().toString();
         HeaderValues acceptHeaders = exchange.getRequestHeaders().get(Headers.ACCEPT);
-        metricsHandler.handleRequest(requestPath, method, acceptHeaders.stream(), (status, message, headers) -> {
+        metricsHandler.handleRequest(requestPath, method, acceptHeaders == null ? null : acceptHeaders.stream(), (status, message, headers) -> {
             exchange.setStatusCode(status);
             headers.forEach(
                     (key, value) -> exchange.getResponseHeaders().put(new HttpString(key), value)
@@ -69,4 +100,114 @@ public class MetricsHttpHandler implements HttpHandler {
         });
 
     }
+
+    /**
+     * Mirrors the exporter selection of {@link MetricsRequestHandler}, which only looks at the first Accept header.
+     */
+    private static boolean isPrometheusScrape(HttpServerExchange exchange) {
+        if (!Methods.GET.equals(exchange.getRequestMethod())) {
+            return false;
+        }
+        String accept = exchange.getRequestHeaders().getFirst(Headers.ACCEPT);
+        return accept == null || !accept.startsWith("application/json");
+    }
+
+    /**
+     * @return <code>false</code> if the scope or metric does not exist, leaving the response to smallrye.
+     */
+    private boolean stream(HttpServerExchange exchange, String scopePath) throws Exception {
+        MetricRegistry.Type scope = null;
+        String metric = null;
+        if (!scopePath.isEmpty()) {
+            int slash = scopePath.indexOf('/');
+            scope = scope(slash < 0 ? scopePath : scopePath.substring(0, slash));
+            if (scope == null) {
+                return false;
+            }
+            if (slash < 0) {
+                if (MetricRegistries.get(scope).getMetadata().isEmpty()) {
+                    return false;
+                }
+            } else {
+                metric = scopePath.substring(slash + 1);
+                if (!MetricRegistries.get(scope).getMetrics().containsKey(metric)) {
+                    return false;
+                }
+            }
+        }
+
+        exchange.setStatusCode(200);
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
+        for (String[] header : CORS_HEADERS) {
+            exchange.getResponseHeaders().put(new HttpString(header[0]), header[1]);
+        }
+        exchange.getResponseHeaders().put(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        boolean gzip = acceptsGzip(exchange);
+        if (gzip) {
+            exchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, GZIP);
+        }
+
+        exchange.startBlocking();
+        try (PooledByteBuffer pooled = exchange.getConnection().getByteBufferPool().getArrayBackedPool().allocate();
+             OutputStream out = gzip ? new GZIPOutputStream(exchange.getOutputStream(), GZIP_BUFFER_SIZE) : exchange.getOutputStream()) {
+            PrometheusWriter writer = new PrometheusWriter(families(), pooled.getBuffer(), out);
+            if (scope == null) {
+                writer.writeAllScopes();
+            } else if (metric == null) {
+                writer.writeScope(scope);
+            } else {
+                writer.writeOneMetric(scope, metric);
+            }
+            writer.flush();
+        }
+        return true;
+    }
+
+    private MetricFamilies families() {
+        MetricFamilies families = this.families;
+        if (families == null) {
+            boolean omitHelpLine = ConfigProvider.getConfig()
+                    .getOptionalValue(MICROPROFILE_METRICS_OMIT_HELP_LINE, Boolean.class)
+                    .orElse(false);
+            families = new MetricFamilies(!omitHelpLine);
+            this.families = families;
+        }
+        return families;
+    }
+
+    private static String scopePath(String requestPath) {
+        String scopePath = requestPath.substring(8);
+        if (scopePath.startsWith("/")) {
+            scopePath = scopePath.substring(1);
+        }
+        if (scopePath.endsWith("/")) {
+            scopePath = scopePath.substring(0, scopePath.length() - 1);
+        }
+        return scopePath;
+    }
+
+    private static MetricRegistry.Type scope(String name) {
+        try {
+            return MetricRegistry.Type.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static boolean acceptsGzip(HttpServerExchange exchange) {
+        HeaderValues encodings = exchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING);
+        if (encodings == null) {
+            return false;
+        }
+        for (String header : encodings) {
+            for (String encoding : header.split(",")) {
+                int semi = encoding.indexOf(';');
+                String coding = (semi < 0 ? encoding : encoding.substring(0, semi)).trim();
+                if (coding.equalsIgnoreCase(GZIP) || coding.equals("*")) {
+                    return semi < 0 || !encoding.substring(semi + 1).replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
 }
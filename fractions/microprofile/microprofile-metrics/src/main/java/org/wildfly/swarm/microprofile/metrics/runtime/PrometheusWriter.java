@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import io.smallrye.metrics.MetricRegistries;
+import io.smallrye.metrics.exporters.PrometheusUnit;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metered;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Streams the Prometheus text exposition of the metric registries.
+ *
+ * <p>Only the sample values are formatted per scrape; everything else is copied from the pre-rendered
+ * {@link MetricFamilies}. Output is collected in an array-backed buffer (usually borrowed from the
+ * connection's buffer pool) and written out whenever it fills up.</p>
+ */
+final class PrometheusWriter {
+
+    private static final byte LF = '\n';
+
+    private final MetricFamilies families;
+
+    private final ByteBuffer buffer;
+
+    private final OutputStream out;
+
+    PrometheusWriter(MetricFamilies families, ByteBuffer buffer, OutputStream out) {
+        this.families = families;
+        this.buffer = buffer;
+        this.out = out;
+        buffer.clear();
+    }
+
+    void writeAllScopes() throws IOException {
+        for (MetricRegistry.Type scope : MetricRegistry.Type.values()) {
+            writeScope(scope);
+        }
+    }
+
+    void writeScope(MetricRegistry.Type scope) throws IOException {
+        MetricRegistry registry = MetricRegistries.get(scope);
+        Map<String, Metadata> metadata = registry.getMetadata();
+        Map<String, Metric> metrics = registry.getMetrics();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            write(scope, entry.getKey(), metadata.get(entry.getKey()), entry.getValue());
+        }
+        this.families.retain(scope, metrics.keySet());
+    }
+
+    void writeOneMetric(MetricRegistry.Type scope, String key) throws IOException {
+        MetricRegistry registry = MetricRegistries.get(scope);
+        write(scope, key, registry.getMetadata().get(key), registry.getMetrics().get(key));
+    }
+
+    /**
+     * Write out anything still buffered. The stream itself is left open.
+     */
+    void flush() throws IOException {
+        if (this.buffer.position() > 0) {
+            this.out.write(this.buffer.array(), this.buffer.arrayOffset(), this.buffer.position());
+            this.buffer.clear();
+        }
+    }
+
+    private void write(MetricRegistry.Type scope, String key, Metadata md, Metric metric) throws IOException {
+        if (md == null || metric == null) {
+            // unregistered while we were looking
+            return;
+        }
+        MetricFamilies.MetricFamily family = this.families.get(scope, key, md);
+        String unit = md.getUnit();
+        switch (md.getTypeRaw()) {
+            case GAUGE:
+                Number value = (Number) ((Gauge) metric).getValue();
+                if (value == null) {
+                    throw new IllegalStateException("Value must not be null for " + key);
+                }
+                sample(family, 0, PrometheusUnit.scaleToBase(unit, value.doubleValue()));
+                break;
+            case COUNTER:
+                sample(family, 0, PrometheusUnit.scaleToBase(unit, (double) ((Counter) metric).getCount()));
+                break;
+            case METERED:
+                Metered meter = (Metered) metric;
+                sample(family, 0, PrometheusUnit.scaleToBase(unit, (double) meter.getCount()));
+                rates(family, 1, meter, unit);
+                break;
+            case TIMER:
+                Timer timer = (Timer) metric;
+                Snapshot timings = timer.getSnapshot();
+                rates(family, 0, timer, unit);
+                snapshotBasics(family, 4, timings, unit);
+                sample(family, 8, timer.getCount());
+                quantiles(family, 9, timings, unit);
+                break;
+            case HISTOGRAM:
+                Histogram histogram = (Histogram) metric;
+                Snapshot values = histogram.getSnapshot();
+                snapshotBasics(family, 0, values, unit);
+                sample(family, 4, histogram.getCount());
+                quantiles(family, 5, values, unit);
+                break;
+            default:
+                throw new IllegalArgumentException("Not supported: " + key);
+        }
+    }
+
+    private void rates(MetricFamilies.MetricFamily family, int first, Metered meter, String unit) throws IOException {
+        sample(family, first, PrometheusUnit.scaleToBase(unit, meter.getMeanRate()));
+        sample(family, first + 1, PrometheusUnit.scaleToBase(unit, meter.getOneMinuteRate()));
+        sample(family, first + 2, PrometheusUnit.scaleToBase(unit, meter.getFiveMinuteRate()));
+        sample(family, first + 3, PrometheusUnit.scaleToBase(unit, meter.getFifteenMinuteRate()));
+    }
+
+    private void snapshotBasics(MetricFamilies.MetricFamily family, int first, Snapshot snapshot, String unit) throws IOException {
+        sample(family, first, PrometheusUnit.scaleToBase(unit, (double) snapshot.getMin()));
+        sample(family, first + 1, PrometheusUnit.scaleToBase(unit, (double) snapshot.getMax()));
+        sample(family, first + 2, PrometheusUnit.scaleToBase(unit, snapshot.getMean()));
+        sample(family, first + 3, PrometheusUnit.scaleToBase(unit, snapshot.getStdDev()));
+    }
+
+    private void quantiles(MetricFamilies.MetricFamily family, int first, Snapshot snapshot, String unit) throws IOException {
+        sample(family, first, PrometheusUnit.scaleToBase(unit, snapshot.getMedian()));
+        sample(family, first + 1, PrometheusUnit.scaleToBase(unit, snapshot.get75thPercentile()));
+        sample(family, first + 2, PrometheusUnit.scaleToBase(unit, snapshot.get95thPercentile()));
+        sample(family, first + 3, PrometheusUnit.scaleToBase(unit, snapshot.get98thPercentile()));
+        sample(family, first + 4, PrometheusUnit.scaleToBase(unit, snapshot.get99thPercentile()));
+        sample(family, first + 5, PrometheusUnit.scaleToBase(unit, snapshot.get999thPercentile()));
+    }
+
+    private void sample(MetricFamilies.MetricFamily family, int sample, double value) throws IOException {
+        write(family.prefix(sample));
+        String formatted = Double.toString(value);
+        int len = formatted.length();
+        if (this.buffer.remaining() < len + 1) {
+            flush();
+        }
+        // Double.toString() only ever yields ASCII
+        byte[] array = this.buffer.array();
+        int pos = this.buffer.arrayOffset() + this.buffer.position();
+        for (int i = 0; i < len; ++i) {
+            array[pos + i] = (byte) formatted.charAt(i);
+        }
+        array[pos + len] = LF;
+        this.buffer.position(this.buffer.position() + len + 1);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (this.buffer.remaining() < bytes.length) {
+            flush();
+            if (this.buffer.remaining() < bytes.length) {
+                this.out.write(bytes);
+                return;
+            }
+        }
+        this.buffer.put(bytes);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import io.smallrye.metrics.MetricRegistries;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class PrometheusWriterTest {
+
+    private final MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+
+    @After
+    public void removeMetrics() {
+        registry.removeMatching((name, metric) -> true);
+    }
+
+    @Test
+    public void testCounterAndGauge() throws Exception {
+        registry.counter(new Metadata("requestCount", "Requests", "Number of requests", MetricType.COUNTER, MetricUnits.NONE, "app=shop")).inc(3);
+        registry.register(new Metadata("heap", "Heap", null, MetricType.GAUGE, MetricUnits.KILOBYTES), (Gauge<Long>) () -> 2L);
+
+        String text = scrape(new MetricFamilies(true), 4096, MetricRegistry.Type.APPLICATION);
+
+        Assert.assertTrue(text, text.contains("# HELP application:request_count Number of requests\n"
+                                                      + "# TYPE application:request_count counter\n"
+                                                      + "application:request_count{app=\"shop\"} 3.0\n"));
+        Assert.assertTrue(text, text.contains("# TYPE application:heap_bytes gauge\n"
+                                                      + "application:heap_bytes 2000.0\n"));
+        Assert.assertFalse(text, text.contains("# HELP application:heap"));
+    }
+
+    @Test
+    public void testHistogram() throws Exception {
+        Histogram histogram = registry.histogram(new Metadata("sizes", MetricType.HISTOGRAM));
+        histogram.update(4);
+
+        String text = scrape(new MetricFamilies(false), 4096, MetricRegistry.Type.APPLICATION);
+
+        Assert.assertEquals(text, 11, Arrays.stream(text.split("\n")).filter(line -> !line.startsWith("#")).count());
+        Assert.assertTrue(text, text.contains("# TYPE application:sizes summary\napplication:sizes_count 1.0\n"));
+        Assert.assertTrue(text, text.contains("application:sizes{quantile=\"0.999\"} 4.0\n"));
+    }
+
+    @Test
+    public void testOutputIndependentOfBufferSize() throws Exception {
+        for (int i = 0; i < 20; ++i) {
+            registry.counter(new Metadata("counter" + i, "Counter", "A counter with a rather long description #" + i, MetricType.COUNTER, MetricUnits.NONE)).inc(i);
+        }
+        MetricFamilies families = new MetricFamilies(true);
+
+        Assert.assertEquals(scrape(families, 4096, MetricRegistry.Type.APPLICATION),
+                            scrape(families, 32, MetricRegistry.Type.APPLICATION));
+    }
+
+    @Test
+    public void testFamiliesAreReusedUntilRemoved() throws Exception {
+        registry.counter(new Metadata("kept", MetricType.COUNTER));
+        registry.counter(new Metadata("removed", MetricType.COUNTER));
+        MetricFamilies families = new MetricFamilies(true);
+        scrape(families, 4096, MetricRegistry.Type.APPLICATION);
+
+        MetricFamilies.MetricFamily kept = families.get(MetricRegistry.Type.APPLICATION, "kept", registry.getMetadata().get("kept"));
+        MetricFamilies.MetricFamily removed = families.get(MetricRegistry.Type.APPLICATION, "removed", registry.getMetadata().get("removed"));
+        Metadata metadata = registry.getMetadata().get("removed");
+        registry.remove("removed");
+        scrape(families, 4096, MetricRegistry.Type.APPLICATION);
+
+        Assert.assertSame(kept, families.get(MetricRegistry.Type.APPLICATION, "kept", registry.getMetadata().get("kept")));
+        Assert.assertNotSame(removed, families.get(MetricRegistry.Type.APPLICATION, "removed", metadata));
+    }
+
+    private static String scrape(MetricFamilies families, int bufferSize, MetricRegistry.Type scope) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrometheusWriter writer = new PrometheusWriter(families, ByteBuffer.allocate(bufferSize), out);
+        writer.writeScope(scope);
+        writer.flush();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -17,9 +17,15 @@ package org.wildfly.swarm.monitor;
 
 import java.util.Optional;
 
+import org.wildfly.swarm.config.runtime.AttributeDocumentation;
+import org.wildfly.swarm.spi.api.Defaultable;
 import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
 
+import static org.wildfly.swarm.spi.api.Defaultable.integer;
+import static org.wildfly.swarm.spi.api.Defaultable.longInteger;
+
 /**
  * @author Heiko Braun
  */
@@ -30,6 +36,22 @@ public class MonitorFraction implements Fraction<MonitorFraction> {
 
     private Optional<String> securityRealm = Optional.empty();
 
+    @AttributeDocumentation("Seconds to wait for each health check before reporting it as DOWN")
+    @Configurable("swarm.monitor.probe-timeout")
+    private Defaultable<Long> probeTimeout = longInteger(10);
+
+    @AttributeDocumentation("Milliseconds for which the aggregated /health result is reused (0 disables caching)")
+    @Configurable("swarm.monitor.probe-cache-ttl")
+    private Defaultable<Long> probeCacheTtl = longInteger(0);
+
+    @AttributeDocumentation("Size of a dedicated pool for running health checks (0 runs them on the server's worker)")
+    @Configurable("swarm.monitor.probe-threads")
+    private Defaultable<Integer> probeThreads = integer(0);
+
+    @AttributeDocumentation("Milliseconds for which the /node, /heap and /threads responses are reused")
+    @Configurable("swarm.monitor.snapshot-ttl")
+    private Defaultable<Long> snapshotTtl = longInteger(1000);
+
     public MonitorFraction securityRealm(String realmName) {
         this.securityRealm = Optional.of(realmName);
         return this;
@@ -38,4 +60,40 @@ public class MonitorFraction implements Fraction<MonitorFraction> {
     public Optional<String> securityRealm() {
         return this.securityRealm;
     }
+
+    public MonitorFraction probeTimeout(long seconds) {
+        this.probeTimeout.set(seconds);
+        return this;
+    }
+
+    public long probeTimeout() {
+        return this.probeTimeout.get();
+    }
+
+    public MonitorFraction probeCacheTtl(long millis) {
+        this.probeCacheTtl.set(millis);
+        return this;
+    }
+
+    public long probeCacheTtl() {
+        return this.probeCacheTtl.get();
+    }
+
+    public MonitorFraction probeThreads(int threads) {
+        this.probeThreads.set(threads);
+        return this;
+    }
+
+    public int probeThreads() {
+        return this.probeThreads.get();
+    }
+
+    public MonitorFraction snapshotTtl(long millis) {
+        this.snapshotTtl.set(millis);
+        return this;
+    }
+
+    public long snapshotTtl() {
+        return this.snapshotTtl.get();
+    }
 }
@@ -17,11 +17,15 @@ package org.wildfly.swarm.monitor.runtime;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.inject.Vetoed;
@@ -39,14 +43,13 @@ import io.undertow.util.AttachmentKey;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
 import io.undertow.util.Protocols;
+import io.undertow.util.SameThreadExecutor;
 import io.undertow.util.StringReadChannelListener;
 import org.jboss.logging.Logger;
 import org.wildfly.swarm.monitor.HealthMetaData;
 import org.xnio.ChannelListeners;
 import org.xnio.IoUtils;
-import org.xnio.OptionMap;
-import org.xnio.Options;
-import org.xnio.Xnio;
+import org.xnio.XnioExecutor;
 import org.xnio.XnioWorker;
 import org.xnio.channels.StreamSinkChannel;
 
@@ -58,27 +61,9 @@ import org.xnio.channels.StreamSinkChannel;
 @Vetoed
 class HttpContexts implements HttpHandler {
 
-    protected ThreadLocal<CountDownLatch> dispatched = new ThreadLocal<>();
-
-    private AttachmentKey<List> RESPONSES = AttachmentKey.create(List.class);
-
     static AttachmentKey<String> TOKEN = AttachmentKey.create(String.class);
 
     public HttpContexts(HttpHandler next) {
-
-        try {
-            this.worker = Xnio.getInstance().createWorker(
-                    OptionMap.builder()
-                            .set(Options.WORKER_IO_THREADS, 5)
-                            .set(Options.WORKER_TASK_CORE_THREADS, 5)
-                            .set(Options.WORKER_TASK_MAX_THREADS, 10)
-                            .set(Options.TCP_NODELAY, true)
-                            .getMap()
-            );
-
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to create worker pool");
-        }
         this.next = next;
 
         try {
@@ -87,19 +72,11 @@ class HttpContexts implements HttpHandler {
             throw new RuntimeException("Failed to lookup monitor", e);
         }
 
+        this.probes = new HealthProbeCache<>(monitor.getProbeCacheTtlMillis());
     }
 
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
-
-        //System.out.println(exchange.getRequestPath() +" on "+Thread.currentThread());
-
-        if (dispatched.get() != null && dispatched.get().getCount() == 1) {
-            next.handleRequest(exchange);
-            dispatched.set(null);
-            return;
-        }
-
         if (NODE.equals(exchange.getRequestPath())) {
             nodeInfo(exchange);
             return;
@@ -121,92 +98,119 @@ class HttpContexts implements HttpHandler {
 
         if (monitor.getHealthURIs().isEmpty()) {
             noHealthEndpoints(exchange);
-        } else {
+            return;
+        }
 
-            try {
-                final List<InVMResponse> responses = new CopyOnWriteArrayList<>();
-                CountDownLatch latch = new CountDownLatch(monitor.getHealthURIs().size());
-                dispatched.set(latch);
+        // the server's own worker, see tasks()
+        if (this.worker == null) {
+            this.worker = exchange.getConnection().getWorker();
+        }
 
-                for (HealthMetaData healthCheck : monitor.getHealthURIs()) {
-                    invokeHealthInVM(exchange, healthCheck, responses, latch);
+        final String host = exchange.getRequestHeaders().getFirst(Headers.HOST);
+        final int port = exchange.getConnection().getLocalAddress(InetSocketAddress.class).getPort();
+        final HttpHandler rootHandler = ((HttpServerConnection) exchange.getConnection()).getRootHandler();
+
+        // probes run on the worker, never on the IO thread; the response is sent once all of them are in
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> {
+            this.probes.get(() -> probeAll(rootHandler, host, port)).whenComplete((result, t) -> {
+                if (t != null) {
+                    LOG.error("Health check failed", t);
+                    if (!exchange.isResponseStarted()) {
+                        exchange.setStatusCode(500);
+                    }
+                    exchange.endExchange();
+                    return;
                 }
 
-                latch.await(10, TimeUnit.SECONDS);
-
-                if (latch.getCount() > 0) {
-                    throw new Exception("Probe timed out");
+                if (result.getStatus() != 200) {
+                    exchange.setStatusCode(result.getStatus());
                 }
+                exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+                exchange.getResponseSender().send(result.getPayload());
+            });
+        });
+    }
 
+    private CompletableFuture<InVMResponse> probeAll(HttpHandler rootHandler, String host, int port) {
+        List<HealthMetaData> healthChecks = monitor.getHealthURIs();
+        List<CompletableFuture<InVMResponse>> responses = new ArrayList<>(healthChecks.size());
 
-                boolean failed = false;
-                if (!responses.isEmpty()) {
-
-                    if (responses.size() != monitor.getHealthURIs().size()) {
-                        throw new RuntimeException("The number of responses does not match!");
-                    }
-
-                    StringBuffer sb = new StringBuffer("{");
-                    sb.append("\"checks\": [\n");
-
-                    int i = 0;
-                    for (InVMResponse resp : responses) {
-
-                        sb.append(resp.getPayload());
-
-                        if (!failed) {
-                            failed = resp.getStatus() != 200;
-                        }
-
-                        if (i < responses.size() - 1) {
-                            sb.append(",\n");
-                        }
-                        i++;
-                    }
-                    sb.append("],\n");
-
-                    String outcome = failed ? "DOWN" : "UP"; // we don't have policies yet, so keep it simple
-                    sb.append("\"outcome\": \"" + outcome + "\"\n");
-                    sb.append("}\n");
-
-                    // send a response
-                    if (failed) {
-                        exchange.setStatusCode(503);
-                    }
+        for (HealthMetaData healthCheck : healthChecks) {
+            CompletableFuture<InVMResponse> response = new CompletableFuture<>();
+            XnioExecutor.Key timeout = worker.getIoThread().executeAfter(
+                    () -> response.complete(downResponse(healthCheck.getWebContext(), "timeout", "true", 503)),
+                    monitor.getProbeTimeoutSeconds(), TimeUnit.SECONDS
+            );
+            response.whenComplete((r, t) -> timeout.remove());
+            try {
+                tasks().execute(() -> invokeHealthInVM(rootHandler, host, port, healthCheck, response));
+            } catch (RejectedExecutionException e) {
+                response.complete(downResponse(healthCheck.getWebContext(), "rejected", "true", 503));
+            }
+            responses.add(response);
+        }
 
-                    exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
-                    exchange.getResponseSender().send(sb.toString());
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture[responses.size()]))
+                .thenApply(v -> aggregate(responses));
+    }
 
-                } else {
-                    new RuntimeException("Responses should not be empty").printStackTrace();
-                    exchange.setStatusCode(500);
-                }
+    /**
+     * Health checks run on the server's worker unless a dedicated probe pool has been configured.
+     */
+    private Executor tasks() {
+        Executor probeExecutor = monitor.getProbeExecutor();
+        if (probeExecutor != null) {
+            return probeExecutor;
+        }
+        return this.worker;
+    }
 
-                exchange.endExchange();
+    private static InVMResponse aggregate(List<CompletableFuture<InVMResponse>> responses) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"checks\": [\n");
 
+        boolean failed = false;
+        int i = 0;
+        for (CompletableFuture<InVMResponse> each : responses) {
+            InVMResponse resp = each.join();
 
-            } catch (Throwable t) {
-                LOG.error("Health check failed", t);
+            sb.append(resp.getPayload());
 
-                if (!exchange.isResponseStarted()) {
-                    exchange.setStatusCode(500);
-                }
-                exchange.endExchange();
+            if (!failed) {
+                failed = resp.getStatus() != 200;
             }
 
+            if (i < responses.size() - 1) {
+                sb.append(",\n");
+            }
+            i++;
         }
+        sb.append("],\n");
+
+        String outcome = failed ? "DOWN" : "UP"; // we don't have policies yet, so keep it simple
+        sb.append("\"outcome\": \"" + outcome + "\"\n");
+        sb.append("}\n");
 
+        return new InVMResponse(failed ? 503 : 200, sb.toString());
     }
 
-    private void invokeHealthInVM(final HttpServerExchange exchange, HealthMetaData healthCheck, List<InVMResponse> responses, CountDownLatch latch) {
+    private static InVMResponse downResponse(String id, String key, String value, int status) {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"id\"").append(":\"").append(id).append("\",");
+        json.append("\"result\"").append(":\"").append("DOWN").append("\",");
+            json.append("\"data\"").append(":").append("{");
+                json.append("\"").append(key).append("\"").append(":").append(value);
+            json.append("}");
+        json.append("}");
+        return new InVMResponse(status, json.toString());
+    }
+
+    private void invokeHealthInVM(HttpHandler rootHandler, String host, int port, HealthMetaData healthCheck, CompletableFuture<InVMResponse> response) {
         try {
 
             String delegateContext = healthCheck.getWebContext();
 
-            final InVMConnection connection = new InVMConnection(
-                    worker,
-                    exchange.getConnection().getLocalAddress(InetSocketAddress.class).getPort()
-            );
+            final InVMConnection connection = new InVMConnection(worker, port);
             final HttpServerExchange mockExchange = new HttpServerExchange(connection);
             mockExchange.setRequestScheme("http");
             mockExchange.setRequestMethod(new HttpString("GET"));
@@ -214,9 +218,8 @@ class HttpContexts implements HttpHandler {
             mockExchange.setRequestURI(delegateContext);
             mockExchange.setRequestPath(delegateContext);
             mockExchange.setRelativePath(delegateContext);
-            mockExchange.getRequestHeaders().add(Headers.HOST, exchange.getRequestHeaders().get(Headers.HOST).getFirst());
+            mockExchange.getRequestHeaders().add(Headers.HOST, host);
             mockExchange.putAttachment(TOKEN, EPHEMERAL_TOKEN);
-            mockExchange.putAttachment(RESPONSES, responses);
             connection.addCloseListener(new ServerConnection.CloseListener() {
                 @Override
                 public void closed(ServerConnection connection) {
@@ -225,33 +228,22 @@ class HttpContexts implements HttpHandler {
                     ((InVMConnection) connection).flushTo(sb);
                     LOG.trace("Response payload: " + sb.toString());
                     if ("application/json".equals(mockExchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE))) {
-                        responses.add(new InVMResponse(mockExchange.getStatusCode(), sb.toString()));
+                        response.complete(new InVMResponse(mockExchange.getStatusCode(), sb.toString()));
                     } else {
-                        StringBuffer json = new StringBuffer("{");
-                        json.append("\"id\"").append(":\"").append(mockExchange.getRelativePath()).append("\",");
-                        json.append("\"result\"").append(":\"").append("DOWN").append("\",");
-                            json.append("\"data\"").append(":").append("{");
-                                json.append("\"status-code\"").append(":").append(mockExchange.getStatusCode());
-                            json.append("}");
-                        json.append("}");
-
-                        responses.add(new InVMResponse(mockExchange.getStatusCode(), json.toString()));
+                        response.complete(downResponse(mockExchange.getRelativePath(), "status-code", String.valueOf(mockExchange.getStatusCode()), mockExchange.getStatusCode()));
                     }
 
-                    mockExchange.removeAttachment(RESPONSES);
                     IoUtils.safeClose(connection);
-                    latch.countDown();
                 }
             });
 
-            HttpServerConnection httpConnection = (HttpServerConnection) exchange.getConnection();
             mockExchange.startBlocking();
-            Connectors.executeRootHandler(httpConnection.getRootHandler(), mockExchange);
+            Connectors.executeRootHandler(rootHandler, mockExchange);
 
 
         } catch (Throwable t) {
             LOG.error("Health check failed", t);
-            latch.countDown();
+            response.complete(downResponse(healthCheck.getWebContext(), "status-code", "500", 500));
         }
     }
 
@@ -316,15 +308,15 @@ class HttpContexts implements HttpHandler {
     }
 
     private void nodeInfo(HttpServerExchange exchange) {
-        exchange.getResponseSender().send(monitor.getNodeInfo().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.getNodeInfoJSON()));
     }
 
     private void heap(HttpServerExchange exchange) {
-        exchange.getResponseSender().send(monitor.heap().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.heapJSON()));
     }
 
     private void threads(HttpServerExchange exchange) {
-        exchange.getResponseSender().send(monitor.threads().toJSONString(false));
+        exchange.getResponseSender().send(ByteBuffer.wrap(monitor.threadsJSON()));
     }
 
     public static List<String> getDefaultContextNames() {
@@ -347,9 +339,11 @@ class HttpContexts implements HttpHandler {
 
     private final HttpHandler next;
 
-    private XnioWorker worker;
+    private final HealthProbeCache<InVMResponse> probes;
+
+    private volatile XnioWorker worker;
 
-    class InVMResponse {
+    static class InVMResponse {
         private int status;
 
         private String payload;
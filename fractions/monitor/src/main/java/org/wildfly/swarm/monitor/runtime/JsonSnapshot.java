@@ -0,0 +1,80 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A value read by one of the monitoring endpoints, together with its JSON encoding, reused until it is older
+ * than the TTL.
+ */
+@Vetoed
+final class JsonSnapshot {
+
+    JsonSnapshot(long ttlMillis, Supplier<ModelNode> reader) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.reader = reader;
+    }
+
+    ModelNode model() {
+        return current().model.clone();
+    }
+
+    /**
+     * @return The encoded value; callers must not modify it.
+     */
+    byte[] json() {
+        return current().json;
+    }
+
+    private Entry current() {
+        Entry entry = this.current;
+        long now = System.nanoTime();
+        if (entry == null || now - entry.expires >= 0) {
+            // concurrent readers may both refresh, which is harmless
+            ModelNode model = this.reader.get();
+            entry = new Entry(model, model.toJSONString(false).getBytes(StandardCharsets.UTF_8), now + this.ttlNanos);
+            this.current = entry;
+        }
+        return entry;
+    }
+
+    private final long ttlNanos;
+
+    private final Supplier<ModelNode> reader;
+
+    private volatile Entry current;
+
+    private static final class Entry {
+        Entry(ModelNode model, byte[] json, long expires) {
+            this.model = model;
+            this.json = json;
+            this.expires = expires;
+        }
+
+        private final ModelNode model;
+
+        private final byte[] json;
+
+        private final long expires;
+    }
+}
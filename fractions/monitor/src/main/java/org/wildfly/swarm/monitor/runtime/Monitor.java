@@ -17,6 +17,7 @@ package org.wildfly.swarm.monitor.runtime;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
@@ -46,6 +47,21 @@ public interface Monitor {
 
     ModelNode threads();
 
+    /**
+     * The JSON encoding of {@link #getNodeInfo()}, shared between callers, which must not modify it.
+     */
+    byte[] getNodeInfoJSON();
+
+    /**
+     * The JSON encoding of {@link #heap()}, shared between callers, which must not modify it.
+     */
+    byte[] heapJSON();
+
+    /**
+     * The JSON encoding of {@link #threads()}, shared between callers, which must not modify it.
+     */
+    byte[] threadsJSON();
+
     void registerHealth(HealthMetaData metaData);
 
     List<HealthMetaData> getHealthURIs();
@@ -57,4 +73,16 @@ public interface Monitor {
      * @return
      */
     long getProbeTimeoutSeconds();
+
+    /**
+     * How long an aggregated health result is reused for, in milliseconds. Zero disables the cache.
+     * @return
+     */
+    long getProbeCacheTtlMillis();
+
+    /**
+     * The dedicated pool health checks run on, owned by the monitor service from its start to its stop.
+     * @return The pool, or <code>null</code> to run health checks on the server's worker.
+     */
+    Executor getProbeExecutor();
 }
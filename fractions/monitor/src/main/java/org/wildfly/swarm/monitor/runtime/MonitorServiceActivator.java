@@ -22,7 +22,7 @@ import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
-import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.ControlledProcessStateService;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.naming.ImmediateManagedReferenceFactory;
 import org.jboss.as.naming.ServiceBasedNamingStore;
@@ -30,7 +30,7 @@ import org.jboss.as.naming.deployment.ContextNames;
 import org.jboss.as.naming.service.BinderService;
 import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.ServerEnvironmentService;
-import org.jboss.as.server.Services;
+import org.jboss.as.server.suspend.SuspendController;
 import org.jboss.msc.service.ServiceActivator;
 import org.jboss.msc.service.ServiceActivatorContext;
 import org.jboss.msc.service.ServiceBuilder;
@@ -57,20 +57,29 @@ public class MonitorServiceActivator implements ServiceActivator {
     @Override
     public void activate(ServiceActivatorContext context) throws ServiceRegistryException {
         Optional<String> securityRealm = Optional.empty();
+        long probeTimeout = MonitorService.DEFAULT_PROBE_TIMEOUT_SECONDS;
+        long probeCacheTtl = 0;
+        int probeThreads = 0;
+        long snapshotTtl = MonitorService.DEFAULT_SNAPSHOT_TTL_MILLIS;
 
         if (!monitorFractionInstance.isUnsatisfied()) {
             securityRealm = monitorFractionInstance.get().securityRealm();
+            probeTimeout = monitorFractionInstance.get().probeTimeout();
+            probeCacheTtl = monitorFractionInstance.get().probeCacheTtl();
+            probeThreads = monitorFractionInstance.get().probeThreads();
+            snapshotTtl = monitorFractionInstance.get().snapshotTtl();
         }
 
         ServiceTarget target = context.getServiceTarget();
 
-        MonitorService service = new MonitorService(securityRealm);
+        MonitorService service = new MonitorService(securityRealm, probeTimeout, probeCacheTtl, probeThreads, snapshotTtl);
 
         ServiceBuilder<MonitorService> monitorServiceServiceBuilder = target.addService(MonitorService.SERVICE_NAME, service);
 
         ServiceBuilder<MonitorService> serviceBuilder = monitorServiceServiceBuilder
                 .addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, service.getServerEnvironmentInjector())
-                .addDependency(Services.JBOSS_SERVER_CONTROLLER, ModelController.class, service.getModelControllerInjector());
+                .addDependency(ControlledProcessStateService.SERVICE_NAME, ControlledProcessStateService.class, service.getProcessStateInjector())
+                .addDependency(SuspendController.SERVICE_NAME, SuspendController.class, service.getSuspendControllerInjector());
 
         if (securityRealm.isPresent()) { // configured through the fraction interface
             serviceBuilder.addDependency(
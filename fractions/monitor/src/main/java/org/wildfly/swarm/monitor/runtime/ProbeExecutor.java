@@ -0,0 +1,148 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.inject.Vetoed;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Bounded pool for running health checks when they should not share the server's worker.
+ *
+ * <p>The monitor service creates the pool when it starts and shuts it down when it stops; all endpoints of the
+ * fraction share it. Its threads exit again when idle. Pool and queue statistics are registered as
+ * <code>{@value #OBJECT_NAME}</code> for as long as the pool is running.</p>
+ */
+@Vetoed
+final class ProbeExecutor implements Executor, ProbeExecutorMXBean {
+
+    static final String OBJECT_NAME = "org.wildfly.swarm.monitor:type=ProbeExecutor";
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    ProbeExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                           new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                                           r -> {
+                                               Thread thread = new Thread(r, "monitor-probe-" + counter.incrementAndGet());
+                                               thread.setDaemon(true);
+                                               return thread;
+                                           });
+        this.pool.allowCoreThreadTimeOut(true);
+        register();
+    }
+
+    /**
+     * Stop accepting health checks and unregister the statistics. Checks already running are left to finish.
+     */
+    void shutdown() {
+        this.pool.shutdown();
+        unregister();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            this.pool.execute(command);
+        } catch (RejectedExecutionException e) {
+            this.rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return this.pool.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return this.pool.getPoolSize();
+    }
+
+    @Override
+    public int getLargestPoolSize() {
+        return this.pool.getLargestPoolSize();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return this.pool.getActiveCount();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return this.pool.getQueue().size();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return this.pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return this.rejected.get();
+    }
+
+    private void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                this.registered = true;
+            }
+        } catch (JMException e) {
+            LOG.warn("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+
+    private void unregister() {
+        if (!this.registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            LOG.warn("Failed to unregister " + OBJECT_NAME, e);
+        }
+        this.registered = false;
+    }
+
+    private static Logger LOG = Logger.getLogger(ProbeExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private boolean registered;
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HealthProbeCacheTest {
+
+    @Test
+    public void testConcurrentRequestsShareEvaluation() {
+        HealthProbeCache<String> cache = new HealthProbeCache<>(0);
+        AtomicInteger evaluations = new AtomicInteger();
+        CompletableFuture<String> evaluation = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get(() -> {
+            evaluations.incrementAndGet();
+            return evaluation;
+        });
+        CompletableFuture<String> second = cache.get(() -> {
+            evaluations.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        evaluation.complete("UP");
+
+        Assert.assertEquals("UP", first.join());
+        Assert.assertEquals("UP", second.join());
+        Assert.assertEquals(1, evaluations.get());
+
+        // without a TTL the next request evaluates again
+        Assert.assertEquals("again", cache.get(() -> CompletableFuture.completedFuture("again")).join());
+    }
+
+    @Test
+    public void testResultReusedWithinTtl() {
+        HealthProbeCache<String> cache = new HealthProbeCache<>(60_000);
+        AtomicInteger evaluations = new AtomicInteger();
+
+        for (int i = 0; i < 10; ++i) {
+            String result = cache.get(() -> CompletableFuture.completedFuture("UP-" + evaluations.incrementAndGet())).join();
+            Assert.assertEquals("UP-1", result);
+        }
+        Assert.assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        HealthProbeCache<String> cache = new HealthProbeCache<>(60_000);
+
+        CompletableFuture<String> failed = cache.get(() -> {
+            throw new IllegalStateException("boom");
+        });
+        Assert.assertTrue(failed.isCompletedExceptionally());
+
+        Assert.assertEquals("UP", cache.get(() -> CompletableFuture.completedFuture("UP")).join());
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonSnapshotTest {
+
+    @Test
+    public void testReadOncePerTtl() {
+        AtomicInteger reads = new AtomicInteger();
+        JsonSnapshot snapshot = new JsonSnapshot(60_000, () -> {
+            ModelNode node = new ModelNode();
+            node.get("reads").set(reads.incrementAndGet());
+            return node;
+        });
+
+        byte[] json = snapshot.json();
+        Assert.assertSame(json, snapshot.json());
+        Assert.assertEquals(1, snapshot.model().get("reads").asInt());
+        Assert.assertEquals(1, reads.get());
+        Assert.assertEquals(new String(json, StandardCharsets.UTF_8), snapshot.model().toJSONString(false));
+    }
+
+    @Test
+    public void testModelIsACopy() {
+        JsonSnapshot snapshot = new JsonSnapshot(60_000, () -> new ModelNode().set("a", 1));
+        snapshot.model().get("a").set(2);
+        Assert.assertEquals(1, snapshot.model().get("a").asInt());
+    }
+
+    @Test
+    public void testZeroTtlAlwaysReads() {
+        AtomicInteger reads = new AtomicInteger();
+        JsonSnapshot snapshot = new JsonSnapshot(0, () -> new ModelNode().set("reads", reads.incrementAndGet()));
+        snapshot.json();
+        snapshot.json();
+        Assert.assertEquals(2, reads.get());
+    }
+}
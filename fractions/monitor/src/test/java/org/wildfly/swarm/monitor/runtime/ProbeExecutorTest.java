@@ -0,0 +1,72 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProbeExecutorTest {
+
+    @Test
+    public void testEachExecutorHasItsOwnSize() {
+        ProbeExecutor small = new ProbeExecutor(1);
+        small.shutdown();
+        ProbeExecutor large = new ProbeExecutor(4);
+        try {
+            Assert.assertEquals(1, small.getMaxPoolSize());
+            Assert.assertEquals(4, large.getMaxPoolSize());
+        } finally {
+            large.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownUnregistersStatistics() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ProbeExecutor.OBJECT_NAME);
+
+        ProbeExecutor executor = new ProbeExecutor(2);
+        Assert.assertTrue(server.isRegistered(name));
+        Assert.assertEquals(2, server.getAttribute(name, "MaxPoolSize"));
+
+        executor.shutdown();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testShutdownRejectsNewChecks() throws Exception {
+        ProbeExecutor executor = new ProbeExecutor(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.execute(ran::countDown);
+        Assert.assertTrue(ran.await(5, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        try {
+            executor.execute(() -> { });
+            Assert.fail("Expected the check to be rejected");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, executor.getRejectedTaskCount());
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.wildfly.swarm.netflix.ribbon.runtime;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -37,23 +38,45 @@ public class TopologyServerList extends AbstractServerList<Server> {
 
     @Override
     public List<Server> getInitialListOfServers() {
-        String tag = (this.isSecure ? "https" : "http");
-        return TopologyManager.INSTANCE.registrationsForService(this.appName, tag)
-                .stream()
-                .map(reg -> new Server(reg.getAddress(), reg.getPort()))
-                .collect(Collectors.toList());
+        return servers();
     }
 
     @Override
     public List<Server> getUpdatedListOfServers() {
-        String tag = (this.isSecure ? "https" : "http");
-        return TopologyManager.INSTANCE.registrationsForService(this.appName, tag)
-                .stream()
-                .map(reg -> new Server(reg.getAddress(), reg.getPort()))
-                .collect(Collectors.toList());
+        return servers();
+    }
+
+    private List<Server> servers() {
+        // the list only changes when the topology does, so re-use it until then
+        ServerSnapshot snapshot = this.snapshot;
+        long version = TopologyManager.INSTANCE.getVersion();
+        if (snapshot == null || snapshot.version != version) {
+            String tag = (this.isSecure ? "https" : "http");
+            List<Server> servers = TopologyManager.INSTANCE.registrationsForService(this.appName, tag)
+                    .stream()
+                    .map(reg -> new Server(reg.getAddress(), reg.getPort()))
+                    .collect(Collectors.toList());
+            snapshot = new ServerSnapshot(version, servers);
+            this.snapshot = snapshot;
+        }
+        return new ArrayList<>(snapshot.servers);
     }
 
     private String appName;
 
     private Boolean isSecure;
+
+    private volatile ServerSnapshot snapshot;
+
+    private static final class ServerSnapshot {
+
+        ServerSnapshot(long version, List<Server> servers) {
+            this.version = version;
+            this.servers = servers;
+        }
+
+        private final long version;
+
+        private final List<Server> servers;
+    }
 }
@@ -89,6 +89,26 @@ public class ConsulTopologyFraction implements Fraction<ConsulTopologyFraction>
         return this.url.get();
     }
 
+    /**
+     * Set the maximum number of threads and pooled HTTP connections shared by all Consul watchers.
+     *
+     * @param maxConnections The maximum number of connections.
+     * @return this fraction.
+     */
+    public ConsulTopologyFraction maxConnections(int maxConnections) {
+        this.maxConnections.set(maxConnections);
+        return this;
+    }
+
+    /**
+     * Retrieve the maximum number of threads and pooled HTTP connections shared by all Consul watchers.
+     *
+     * @return The maximum number of connections.
+     */
+    public int maxConnections() {
+        return this.maxConnections.get();
+    }
+
     /**
      * The default consul Agent URL (http://localhost:8500/)
      */
@@ -107,4 +127,7 @@ public class ConsulTopologyFraction implements Fraction<ConsulTopologyFraction>
     @AttributeDocumentation("URL of the Consul server")
     private Defaultable<URL> url = Defaultable.url(DEFAULT_URL);
 
+    @AttributeDocumentation("Maximum number of threads and pooled HTTP connections shared by all Consul watchers")
+    private Defaultable<Integer> maxConnections = Defaultable.integer(20);
+
 }
@@ -29,7 +29,7 @@ public class AgentActivator implements ServiceActivator {
 
         ServiceTarget target = context.getServiceTarget();
 
-        ConsulService consul = new ConsulService(this.fraction.url());
+        ConsulService consul = new ConsulService(this.fraction.url(), this.fraction.maxConnections());
         target.addService(ConsulService.SERVICE_NAME, consul)
                 .install();
 
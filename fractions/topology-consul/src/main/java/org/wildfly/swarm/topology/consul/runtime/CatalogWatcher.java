@@ -16,10 +16,10 @@
 package org.wildfly.swarm.topology.consul.runtime;
 
 import java.math.BigInteger;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.orbitz.consul.CatalogClient;
 import com.orbitz.consul.HealthClient;
@@ -70,7 +70,8 @@ public class CatalogWatcher implements Service<CatalogWatcher>, Runnable {
 
     @Override
     public void start(StartContext startContext) throws StartException {
-        this.thread = new Thread(this);
+        this.thread = new Thread(this, "consul-catalog-watcher");
+        this.thread.setDaemon(true);
         this.thread.start();
     }
 
@@ -78,13 +79,7 @@ public class CatalogWatcher implements Service<CatalogWatcher>, Runnable {
     public void stop(StopContext stopContext) {
         this.thread.interrupt();
 
-        this.watchers.entrySet().forEach(e -> {
-            try {
-                e.getValue().stop();
-            } catch (Exception ex) {
-                ConsulTopologyMessages.MESSAGES.errorStoppingCatalogWatcher(e.getKey(), ex);
-            }
-        });
+        new HashSet<>(this.watchers.keySet()).forEach(this::stopWatcher);
     }
 
     @Override
@@ -116,6 +111,14 @@ public class CatalogWatcher implements Service<CatalogWatcher>, Runnable {
 
                 Map<String, List<String>> response = services.getResponse();
 
+                // services no longer in the catalog lose their watcher and registrations
+                new HashSet<>(this.watchers.keySet()).stream()
+                        .filter(e -> !response.containsKey(e))
+                        .forEach(e -> {
+                            stopWatcher(e);
+                            this.topologyManagerInjector.getValue().unregisterAll("consul", e);
+                        });
+
                 response.keySet().forEach(e -> {
                     setupWatcher(e);
                 });
@@ -148,16 +151,28 @@ public class CatalogWatcher implements Service<CatalogWatcher>, Runnable {
         );
 
 
+        // the cache populates itself asynchronously; its listener registers the entries once they arrive
         try {
             healthCache.addListener(new ServiceCacheListener(serviceName, this.topologyManagerInjector.getValue()));
             healthCache.start();
-            healthCache.awaitInitialized(1, TimeUnit.SECONDS);
             this.watchers.put(serviceName, healthCache);
         } catch (Exception e) {
             ConsulTopologyMessages.MESSAGES.errorSettingUpCatalogWatcher(serviceName, e);
         }
     }
 
+    private void stopWatcher(String serviceName) {
+        ServiceHealthCache healthCache = this.watchers.remove(serviceName);
+        if (healthCache == null) {
+            return;
+        }
+        try {
+            healthCache.stop();
+        } catch (Exception ex) {
+            ConsulTopologyMessages.MESSAGES.errorStoppingCatalogWatcher(serviceName, ex);
+        }
+    }
+
     private InjectedValue<CatalogClient> catalogClientInjector = new InjectedValue<>();
 
     private InjectedValue<HealthClient> healthClientInjector = new InjectedValue<>();
@@ -166,5 +181,5 @@ public class CatalogWatcher implements Service<CatalogWatcher>, Runnable {
 
     private Thread thread;
 
-    private Map<String, ServiceHealthCache> watchers = new HashMap<>();
+    private Map<String, ServiceHealthCache> watchers = new ConcurrentHashMap<>();
 }
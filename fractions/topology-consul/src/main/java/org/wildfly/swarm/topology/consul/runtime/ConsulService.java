@@ -16,6 +16,10 @@
 package org.wildfly.swarm.topology.consul.runtime;
 
 import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.orbitz.consul.Consul;
 import org.jboss.logging.Logger;
@@ -39,7 +43,12 @@ public class ConsulService implements Service<Consul> {
     public static final ServiceName SERVICE_NAME = ServiceName.of("swarm.topology.consul");
 
     public ConsulService(URL url) {
+        this(url, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public ConsulService(URL url, int maxConnections) {
         this.url = url;
+        this.maxConnections = maxConnections;
     }
 
     @Override
@@ -48,9 +57,23 @@ public class ConsulService implements Service<Consul> {
         Consul.Builder builder = Consul.builder();
 
 
-        // pool because of multiple threads.
+        // every health watcher long-polls through this client, so bound both
+        // the connections and the threads running the asynchronous requests.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(this.maxConnections, this.maxConnections,
+                                                             60, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(),
+                                                             r -> {
+                                                                 Thread thread = new Thread(r, "consul-client");
+                                                                 thread.setDaemon(true);
+                                                                 return thread;
+                                                             });
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+
         ResteasyClientBuilder clientBuilder = new ResteasyClientBuilder();
-        clientBuilder = clientBuilder.connectionPoolSize(20);
+        clientBuilder = clientBuilder.connectionPoolSize(this.maxConnections)
+                .maxPooledPerRoute(this.maxConnections)
+                .asyncExecutor(executor, true);
 
         builder.withClientBuilder(clientBuilder);
         builder.withUrl(this.url);
@@ -64,7 +87,10 @@ public class ConsulService implements Service<Consul> {
 
     @Override
     public void stop(StopContext stopContext) {
-
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
     }
 
     @Override
@@ -72,7 +98,13 @@ public class ConsulService implements Service<Consul> {
         return this.consul;
     }
 
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+
     private final URL url;
 
+    private final int maxConnections;
+
+    private ExecutorService executor;
+
     private Consul consul;
 }
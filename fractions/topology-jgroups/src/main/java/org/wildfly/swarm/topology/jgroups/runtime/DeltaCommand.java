@@ -0,0 +1,51 @@
+/**
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.jgroups.runtime;
+
+import java.util.List;
+
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.swarm.topology.runtime.Registration;
+
+/**
+ * Carries the registrations a node added and removed between two versions.
+ */
+public class DeltaCommand implements Command<Void, JGroupsTopologyConnector> {
+
+    public DeltaCommand(String sourceKey, long previousVersion, RegistrationDigest digest, List<Registration> added, List<Registration> removed) {
+        this.sourceKey = sourceKey;
+        this.previousVersion = previousVersion;
+        this.digest = digest;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    @Override
+    public Void execute(JGroupsTopologyConnector context) throws Exception {
+        context.deltaReceived(this.sourceKey, this.previousVersion, this.digest, this.added, this.removed);
+        return null;
+    }
+
+    private final String sourceKey;
+
+    private final long previousVersion;
+
+    private final RegistrationDigest digest;
+
+    private final List<Registration> added;
+
+    private final List<Registration> removed;
+}
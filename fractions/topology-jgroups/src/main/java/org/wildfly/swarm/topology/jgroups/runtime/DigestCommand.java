@@ -0,0 +1,39 @@
+/**
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.jgroups.runtime;
+
+import org.wildfly.clustering.dispatcher.Command;
+
+/**
+ * Announces the digest of a node's registrations; receivers which know an older or different state fetch it.
+ */
+public class DigestCommand implements Command<Void, JGroupsTopologyConnector> {
+
+    public DigestCommand(String sourceKey, RegistrationDigest digest) {
+        this.sourceKey = sourceKey;
+        this.digest = digest;
+    }
+
+    @Override
+    public Void execute(JGroupsTopologyConnector context) throws Exception {
+        context.digestReceived(this.sourceKey, this.digest);
+        return null;
+    }
+
+    private final String sourceKey;
+
+    private final RegistrationDigest digest;
+}
@@ -16,9 +16,16 @@
 package org.wildfly.swarm.topology.jgroups.runtime;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.network.SocketBinding;
 import org.jboss.msc.inject.Injector;
@@ -37,10 +44,19 @@ import org.wildfly.swarm.topology.runtime.Registration;
 import org.wildfly.swarm.topology.runtime.TopologyManager;
 
 /**
+ * Gossips registrations between cluster members.
+ *
+ * <p>Each node announces a single {@link RegistrationDigest} of its own registrations when the membership changes.
+ * Receivers which already hold that digest do nothing; the others fetch the full state of that node once. Local
+ * changes are then sent as versioned deltas, which receivers apply only on top of the version they hold, falling
+ * back to a fetch when they have missed one.</p>
+ *
  * @author Bob McWhirter
  */
 public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnector>, Group.Listener, TopologyConnector {
 
+    private static final long FETCH_TIMEOUT = 10;
+
     public JGroupsTopologyConnector() {
     }
 
@@ -54,11 +70,16 @@ public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnecto
 
     @Override
     public void start(StartContext startContext) throws StartException {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "topology-jgroups-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.commandDispatcherFactoryInjector.getValue().getGroup().addListener(this);
         this.dispatcher = this.commandDispatcherFactoryInjector.getValue().createCommandDispatcher("netflix.runtime.manager", this);
         this.node = this.commandDispatcherFactoryInjector.getValue().getGroup().getLocalNode();
         try {
-            requestAdvertisements();
+            requestDigests();
         } catch (Exception e) {
             throw new StartException(e);
         }
@@ -67,6 +88,7 @@ public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnecto
     @Override
     public void stop(StopContext stopContext) {
         this.dispatcher.close();
+        this.executor.shutdownNow();
     }
 
     @Override
@@ -76,17 +98,31 @@ public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnecto
 
     @Override
     public void membershipChanged(List<Node> previousMembers, List<Node> members, boolean merged) {
-        try {
-            advertiseAll();
-        } catch (Exception e) {
-            TopologyMessages.MESSAGES.errorStartingAdvertisement(e);
-        }
         List<Node> removed = new ArrayList<>();
         removed.addAll(previousMembers);
         removed.removeAll(members);
         removed.forEach((e) -> {
-            this.topologyManagerInjector.getValue().unregisterAll(sourceKey(e));
+            String sourceKey = sourceKey(e);
+            synchronized (this.known) {
+                this.known.remove(sourceKey);
+                this.topologyManagerInjector.getValue().unregisterAll(sourceKey);
+            }
         });
+
+        // after a merge both partitions may hold stale views of each other
+        List<Node> joined = new ArrayList<>(members);
+        if (!merged) {
+            joined.removeAll(previousMembers);
+        }
+        joined.remove(this.node);
+        if (joined.isEmpty()) {
+            return;
+        }
+        try {
+            advertiseDigest(joined);
+        } catch (Exception e) {
+            TopologyMessages.MESSAGES.errorStartingAdvertisement(e);
+        }
     }
 
     public synchronized void advertise(String name, SocketBinding binding, String... tags) throws Exception {
@@ -97,29 +133,146 @@ public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnecto
     }
 
     public synchronized void advertise(Registration registration) throws Exception {
+        if (this.topologyManagerInjector.getValue().registrationsForSourceKey(sourceKey(this.node)).contains(registration)) {
+            return;
+        }
         this.topologyManagerInjector.getValue().register(registration);
-        doAdvertise(registration);
+        publishDelta(Collections.singletonList(registration), Collections.emptyList());
     }
 
     public synchronized void unadvertise(String appName, SocketBinding binding) throws Exception {
         Registration registration = this.registrations.remove(appName + ":" + binding.getName());
         if (registration != null) {
-            this.dispatcher.submitOnCluster(new UnadvertiseCommand(registration));
+            this.topologyManagerInjector.getValue().unregister(registration);
+            publishDelta(Collections.emptyList(), Collections.singletonList(registration));
         }
     }
 
-    protected void requestAdvertisements() throws Exception {
-        this.dispatcher.submitOnCluster(new RequestAdvertisementsCommand(), this.node);
+    protected void requestDigests() throws Exception {
+        Map<Node, Future<RegistrationDigest>> digests = this.dispatcher.submitOnCluster(new RequestDigestCommand(), this.node);
+        this.executor.execute(() -> {
+            for (Map.Entry<Node, Future<RegistrationDigest>> each : digests.entrySet()) {
+                try {
+                    RegistrationDigest digest = each.getValue().get(FETCH_TIMEOUT, TimeUnit.SECONDS);
+                    if (digest != null) {
+                        digestReceived(sourceKey(each.getKey()), digest);
+                    }
+                } catch (Exception e) {
+                    TopologyMessages.MESSAGES.errorFetchingRegistrations(sourceKey(each.getKey()), e);
+                }
+            }
+        });
     }
 
-    protected synchronized void advertiseAll() throws Exception {
-        for (Registration each : this.topologyManagerInjector.getValue().registrationsForSourceKey(sourceKey(this.node))) {
-            doAdvertise(each);
+    /**
+     * Announce our digest to every other member.
+     */
+    protected void advertiseAll() throws Exception {
+        List<Node> others = new ArrayList<>(this.commandDispatcherFactoryInjector.getValue().getGroup().getNodes());
+        others.remove(this.node);
+        advertiseDigest(others);
+    }
+
+    protected void advertiseDigest(List<Node> nodes) throws Exception {
+        DigestCommand command = new DigestCommand(sourceKey(this.node), localDigest());
+        for (Node each : nodes) {
+            this.dispatcher.submitOnNode(command, each);
         }
     }
 
-    protected void doAdvertise(Registration registration) throws Exception {
-        this.dispatcher.submitOnCluster(new AdvertiseCommand(registration));
+    protected void publishDelta(List<Registration> added, List<Registration> removed) throws Exception {
+        long previousVersion = this.version++;
+        this.dispatcher.submitOnCluster(new DeltaCommand(sourceKey(this.node), previousVersion, localDigest(), added, removed), this.node);
+    }
+
+    synchronized RegistrationDigest localDigest() {
+        return new RegistrationDigest(this.version, RegistrationDigest.hash(this.topologyManagerInjector.getValue().registrationsForSourceKey(sourceKey(this.node))));
+    }
+
+    synchronized RegistrationState localState() {
+        List<Registration> registrations = new ArrayList<>(this.topologyManagerInjector.getValue().registrationsForSourceKey(sourceKey(this.node)));
+        return new RegistrationState(new RegistrationDigest(this.version, RegistrationDigest.hash(registrations)), registrations);
+    }
+
+    void digestReceived(String sourceKey, RegistrationDigest digest) {
+        if (digest.equals(this.known.getOrDefault(sourceKey, RegistrationDigest.EMPTY))) {
+            return;
+        }
+        fetchState(sourceKey);
+    }
+
+    void deltaReceived(String sourceKey, long previousVersion, RegistrationDigest digest, List<Registration> added, List<Registration> removed) {
+        synchronized (this.known) {
+            if (!isMember(sourceKey)) {
+                return;
+            }
+            // a node we have not heard of yet starts out empty at version 0
+            long knownVersion = this.known.getOrDefault(sourceKey, RegistrationDigest.EMPTY).getVersion();
+            if (digest.getVersion() <= knownVersion) {
+                // already covered by a later delta or state
+                return;
+            }
+            if (knownVersion == previousVersion) {
+                removed.forEach(this::unregister);
+                added.forEach(this::register);
+                this.known.put(sourceKey, digest);
+                return;
+            }
+        }
+        fetchState(sourceKey);
+    }
+
+    void fetchState(String sourceKey) {
+        if (!this.pendingFetches.add(sourceKey)) {
+            return;
+        }
+        this.executor.execute(() -> {
+            this.pendingFetches.remove(sourceKey);
+            Node origin = member(sourceKey);
+            if (origin == null) {
+                return;
+            }
+            try {
+                RegistrationState state = this.dispatcher.submitOnNode(new FetchStateCommand(), origin).get(FETCH_TIMEOUT, TimeUnit.SECONDS);
+                if (state != null) {
+                    applyState(sourceKey, state);
+                }
+            } catch (Exception e) {
+                TopologyMessages.MESSAGES.errorFetchingRegistrations(sourceKey, e);
+            }
+        });
+    }
+
+    void applyState(String sourceKey, RegistrationState state) {
+        synchronized (this.known) {
+            // the node may have left while its state was in flight
+            if (!isMember(sourceKey)) {
+                return;
+            }
+            // a delta or another fetch may have overtaken this one
+            RegistrationDigest known = this.known.get(sourceKey);
+            if (known != null && state.getDigest().getVersion() <= known.getVersion()) {
+                return;
+            }
+            Set<Registration> current = new HashSet<>(this.topologyManagerInjector.getValue().registrationsForSourceKey(sourceKey));
+            current.removeAll(state.getRegistrations());
+            current.forEach(this::unregister);
+            state.getRegistrations().forEach(this::register);
+            this.known.put(sourceKey, state.getDigest());
+        }
+    }
+
+    private Node member(String sourceKey) {
+        for (Node each : this.commandDispatcherFactoryInjector.getValue().getGroup().getNodes()) {
+            if (sourceKey(each).equals(sourceKey)) {
+                return each;
+            }
+        }
+        return null;
+    }
+
+    private boolean isMember(String sourceKey) {
+        return member(sourceKey) != null;
     }
 
     void register(Registration registration) {
@@ -141,8 +294,18 @@ public class JGroupsTopologyConnector implements Service<JGroupsTopologyConnecto
 
     private CommandDispatcher<JGroupsTopologyConnector> dispatcher;
 
+    private ExecutorService executor;
+
     private Node node;
 
     private Map<String, Registration> registrations = new ConcurrentHashMap<>();
 
+    // guarded by this
+    private long version;
+
+    // last digest applied per remote node, guarded by itself for updates
+    private final Map<String, RegistrationDigest> known = new ConcurrentHashMap<>();
+
+    private final Set<String> pendingFetches = ConcurrentHashMap.newKeySet();
+
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.jgroups.runtime;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.wildfly.swarm.topology.runtime.Registration;
+
+/**
+ * Summary of the registrations advertised by one node: a version, incremented on every local change,
+ * and a hash of the registrations themselves.
+ */
+public class RegistrationDigest implements Serializable {
+
+    public static final RegistrationDigest EMPTY = new RegistrationDigest(0, 0);
+
+    public RegistrationDigest(long version, int hash) {
+        this.version = version;
+        this.hash = hash;
+    }
+
+    public static int hash(Collection<Registration> registrations) {
+        // order-independent, and stable across JVMs
+        int hash = 0;
+        for (Registration each : registrations) {
+            hash += 31 * each.hashCode() + each.getTags().hashCode();
+        }
+        return hash;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int getHash() {
+        return this.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.version) + this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RegistrationDigest)) {
+            return false;
+        }
+        RegistrationDigest that = (RegistrationDigest) obj;
+        return this.version == that.version && this.hash == that.hash;
+    }
+
+    public String toString() {
+        return "[RegistrationDigest: version=" + this.version + "; hash=" + this.hash + "]";
+    }
+
+    private final long version;
+
+    private final int hash;
+}
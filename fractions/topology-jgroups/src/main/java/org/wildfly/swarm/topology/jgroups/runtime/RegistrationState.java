@@ -0,0 +1,44 @@
+/**
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.jgroups.runtime;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.wildfly.swarm.topology.runtime.Registration;
+
+/**
+ * Every registration advertised by one node, as of a given digest.
+ */
+public class RegistrationState implements Serializable {
+
+    public RegistrationState(RegistrationDigest digest, List<Registration> registrations) {
+        this.digest = digest;
+        this.registrations = registrations;
+    }
+
+    public RegistrationDigest getDigest() {
+        return this.digest;
+    }
+
+    public List<Registration> getRegistrations() {
+        return this.registrations;
+    }
+
+    private final RegistrationDigest digest;
+
+    private final List<Registration> registrations;
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.jgroups.runtime;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.dispatcher.CommandDispatcher;
+import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
+import org.wildfly.clustering.group.Group;
+import org.wildfly.clustering.group.Node;
+import org.wildfly.swarm.topology.runtime.Registration;
+import org.wildfly.swarm.topology.runtime.TopologyManager;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JGroupsTopologyConnectorTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private TopologyManager manager;
+
+    private CommandDispatcher<JGroupsTopologyConnector> dispatcher;
+
+    private JGroupsTopologyConnector connector;
+
+    private Node local;
+
+    private Node remote;
+
+    private String remoteKey;
+
+    private final List<Node> members = new CopyOnWriteArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        this.local = node("local", 7600);
+        this.remote = node("remote", 7601);
+        this.members.addAll(Arrays.asList(this.local, this.remote));
+
+        Group group = mock(Group.class);
+        when(group.getLocalNode()).thenReturn(this.local);
+        when(group.getNodes()).thenAnswer(invocation -> new ArrayList<>(this.members));
+
+        this.dispatcher = mock(CommandDispatcher.class);
+        CommandDispatcherFactory factory = mock(CommandDispatcherFactory.class);
+        when(factory.getGroup()).thenReturn(group);
+        doReturn(this.dispatcher).when(factory).createCommandDispatcher(anyString(), any());
+
+        this.manager = new TopologyManager();
+        this.connector = new JGroupsTopologyConnector();
+        this.connector.getCommandDispatcherFactoryInjector().inject(factory);
+        this.connector.getTopologyManagerInjector().inject(this.manager);
+        this.connector.start(null);
+
+        this.remoteKey = this.connector.sourceKey(this.remote);
+    }
+
+    @After
+    public void tearDown() {
+        this.connector.stop(null);
+    }
+
+    @Test
+    public void testDeltasInOrder() throws Exception {
+        Registration one = registration("one");
+        Registration two = registration("two");
+
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+        this.connector.deltaReceived(this.remoteKey, 1, digest(2, two), list(two), list(one));
+
+        assertThat(registrations()).containsOnly(two);
+        verify(this.dispatcher, never()).submitOnNode(any(), any());
+    }
+
+    @Test
+    public void testLateDeltaIsDropped() throws Exception {
+        Registration one = registration("one");
+        Registration two = registration("two");
+
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+        this.connector.deltaReceived(this.remoteKey, 1, digest(2, two), list(two), list(one));
+        // redelivered after the newer one
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+
+        assertThat(registrations()).containsOnly(two);
+        verify(this.dispatcher, never()).submitOnNode(any(), any());
+    }
+
+    @Test
+    public void testStateAtOrBelowKnownVersionIsDropped() throws Exception {
+        Registration one = registration("one");
+        Registration two = registration("two");
+        Registration three = registration("three");
+
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+        this.connector.deltaReceived(this.remoteKey, 1, digest(2, two), list(two), list(one));
+
+        this.connector.applyState(this.remoteKey, state(1, one));
+        assertThat(registrations()).containsOnly(two);
+
+        this.connector.applyState(this.remoteKey, state(2, one));
+        assertThat(registrations()).containsOnly(two);
+
+        this.connector.applyState(this.remoteKey, state(3, three));
+        assertThat(registrations()).containsOnly(three);
+    }
+
+    @Test
+    public void testDeltaAfterStateAppliesOnTop() throws Exception {
+        Registration one = registration("one");
+        Registration two = registration("two");
+
+        this.connector.applyState(this.remoteKey, state(5, one));
+        this.connector.deltaReceived(this.remoteKey, 4, digest(5, one), list(one), list());
+        this.connector.deltaReceived(this.remoteKey, 5, digest(6, one, two), list(two), list());
+
+        assertThat(registrations()).containsOnly(one, two);
+        verify(this.dispatcher, never()).submitOnNode(any(), any());
+    }
+
+    @Test
+    public void testNodeLeave() throws Exception {
+        Registration one = registration("one");
+
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+        assertThat(registrations()).containsOnly(one);
+
+        this.members.remove(this.remote);
+        this.connector.membershipChanged(Arrays.asList(this.local, this.remote), Collections.singletonList(this.local), false);
+        assertThat(registrations()).isEmpty();
+
+        // anything from the departed node still in flight must not bring it back
+        this.connector.applyState(this.remoteKey, state(2, one));
+        this.connector.deltaReceived(this.remoteKey, 1, digest(2, one), list(one), list());
+        assertThat(registrations()).isEmpty();
+    }
+
+    @Test
+    public void testResyncAfterMissedDelta() throws Exception {
+        Registration one = registration("one");
+        Registration two = registration("two");
+        Registration three = registration("three");
+
+        doReturn(CompletableFuture.completedFuture(state(3, one, three)))
+                .when(this.dispatcher).submitOnNode(any(FetchStateCommand.class), eq(this.remote));
+
+        this.connector.deltaReceived(this.remoteKey, 0, digest(1, one), list(one), list());
+        // the delta from version 1 to 2, adding two, went missing
+        this.connector.deltaReceived(this.remoteKey, 2, digest(3, one, three), list(three), list(two));
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!registrations().equals(Arrays.asList(one, three)) && !registrations().equals(Arrays.asList(three, one))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(registrations()).containsOnly(one, three);
+
+        // back in step, the next delta applies directly
+        this.connector.deltaReceived(this.remoteKey, 3, digest(4, three), list(), list(one));
+        assertThat(registrations()).containsOnly(three);
+    }
+
+    private List<Registration> registrations() {
+        return new ArrayList<>(this.manager.registrationsForSourceKey(this.remoteKey));
+    }
+
+    private Registration registration(String name) {
+        return new Registration(this.remoteKey, name, "10.0.0.2", 8080);
+    }
+
+    private static RegistrationDigest digest(long version, Registration... registrations) {
+        return new RegistrationDigest(version, RegistrationDigest.hash(Arrays.asList(registrations)));
+    }
+
+    private static RegistrationState state(long version, Registration... registrations) {
+        return new RegistrationState(digest(version, registrations), list(registrations));
+    }
+
+    private static List<Registration> list(Registration... registrations) {
+        return Arrays.asList(registrations);
+    }
+
+    private static Node node(String name, int port) {
+        Node node = mock(Node.class);
+        when(node.getName()).thenReturn(name);
+        when(node.getSocketAddress()).thenReturn(new InetSocketAddress("127.0.0.1", port));
+        return node;
+    }
+}
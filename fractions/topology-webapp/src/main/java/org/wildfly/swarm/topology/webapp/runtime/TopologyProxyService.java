@@ -17,7 +17,6 @@ package org.wildfly.swarm.topology.webapp.runtime;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,10 +39,11 @@ import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.undertow.deployment.GlobalRequestControllerHandler;
 import org.wildfly.swarm.topology.Topology;
-import org.wildfly.swarm.topology.TopologyListener;
+import org.wildfly.swarm.topology.TopologyChange;
+import org.wildfly.swarm.topology.TopologyChangeListener;
 import org.wildfly.swarm.topology.webapp.TopologyWebAppFraction;
 
-public class TopologyProxyService implements Service<TopologyProxyService>, TopologyListener {
+public class TopologyProxyService implements Service<TopologyProxyService>, TopologyChangeListener {
 
     public static final ServiceName SERVICE_NAME = ServiceName.parse("swarm.topology.proxy");
 
@@ -60,7 +60,7 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
     public void start(StartContext context) throws StartException {
         try {
             Topology topology = Topology.lookup();
-            topology.addListener(this);
+            topology.addChangeListener(this);
         } catch (NamingException ex) {
             throw new StartException(ex);
         }
@@ -69,7 +69,7 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
     @Override
     public void stop(StopContext context) {
         try {
-            Topology.lookup().removeListener(this);
+            Topology.lookup().removeChangeListener(this);
         } catch (NamingException e) {
             // Swallow, as we're closing anyway
         }
@@ -81,14 +81,12 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
     }
 
     @Override
-    public void onChange(Topology topology) {
-        Map<String, List<Topology.Entry>> topologyMap = topology.asMap();
-        for (String serviceName : serviceNames) {
-            if (topologyMap.containsKey(serviceName)) {
-                updateProxyHosts(serviceName, topologyMap.get(serviceName));
-            } else {
-                // All instances of this service went away
-                updateProxyHosts(serviceName, Collections.emptyList());
+    public void onChange(TopologyChange change) {
+        for (String serviceName : change.getServices()) {
+            if (serviceNames.contains(serviceName)) {
+                updateProxyHosts(serviceName,
+                                 change.getAdded().getOrDefault(serviceName, Collections.emptyList()),
+                                 change.getRemoved().getOrDefault(serviceName, Collections.emptyList()));
             }
         }
     }
@@ -102,7 +100,7 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
         return injector;
     }
 
-    private void updateProxyHosts(String serviceName, List<Topology.Entry> entries) {
+    private void updateProxyHosts(String serviceName, List<Topology.Entry> entriesToAdd, List<Topology.Entry> entriesToRemove) {
         HttpHandler proxyHandler = proxyHandlerMap.get(serviceName).getOptionalValue();
 
         if (proxyHandler == null) {
@@ -123,23 +121,6 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
             proxyClient = (LoadBalancingProxyClient) ((ProxyHandler) proxyHandler).getProxyClient();
         }
 
-        List<Topology.Entry> oldEntries = proxyEntries.get(serviceName);
-        List<Topology.Entry> entriesToRemove = new ArrayList<>();
-        List<Topology.Entry> entriesToAdd = new ArrayList<>();
-        if (oldEntries == null) {
-            entriesToAdd.addAll(entries);
-        } else {
-            for (Topology.Entry oldEntry : oldEntries) {
-                if (!entries.contains(oldEntry)) {
-                    entriesToRemove.add(oldEntry);
-                }
-            }
-            for (Topology.Entry entry : entries) {
-                if (!oldEntries.contains(entry)) {
-                    entriesToAdd.add(entry);
-                }
-            }
-        }
         for (Topology.Entry entry : entriesToRemove) {
             try {
                 proxyClient.removeHost(entryToURI(entry));
@@ -154,7 +135,6 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
                 log.log(Level.WARNING, "Error converting topology entry to URI", ex);
             }
         }
-        proxyEntries.put(serviceName, entries);
     }
 
     private URI entryToURI(Topology.Entry entry) throws URISyntaxException {
@@ -171,6 +151,4 @@ public class TopologyProxyService implements Service<TopologyProxyService>, Topo
     private final Set<String> serviceNames;
 
     private Map<String, InjectedValue<HttpHandler>> proxyHandlerMap = new HashMap<>();
-
-    private Map<String, List<Topology.Entry>> proxyEntries = new HashMap<>();
 }
@@ -16,17 +16,19 @@
 package org.wildfly.swarm.topology.webapp.runtime;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.inject.Vetoed;
@@ -36,34 +38,80 @@ import javax.servlet.AsyncEvent;
 import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.wildfly.swarm.topology.Topology;
-import org.wildfly.swarm.topology.TopologyListener;
+import org.wildfly.swarm.topology.TopologyChangeListener;
 
 
 /**
+ * Streams the topology to browsers as server-sent events.
+ *
+ * <p>Each topology version is serialized once and the same frame is shared by every subscriber.
+ * Frames are written without blocking; a frame which has not been sent yet is replaced by a newer one,
+ * and a subscriber which stays unwritable for too long is disconnected.</p>
+ *
  * @author Bob McWhirter
  */
 @Vetoed
 @WebServlet(urlPatterns = {"/system/stream"}, asyncSupported = true)
 public class TopologySSEServlet extends HttpServlet {
 
-    @Override
-    public void init(ServletConfig config) throws ServletException {
+    private static final byte[] KEEP_ALIVE = ":\n\n".getBytes(StandardCharsets.UTF_8);
 
-        super.init(config);
+    private static final long KEEP_ALIVE_INTERVAL = TimeUnit.SECONDS.toMillis(15);
+
+    private static final long SLOW_CONSUMER_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    private static final long ADDRESS_CACHE_TTL = TimeUnit.SECONDS.toMillis(60);
 
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        Topology topology;
         try {
-            this.topology = Topology.lookup();
+            topology = Topology.lookup();
         } catch (NamingException e) {
             throw new ServletException(e);
         }
+        init(config, topology);
+    }
+
+    void init(ServletConfig config, Topology topology) throws ServletException {
+
+        super.init(config);
+
+        this.topology = topology;
 
-        this.keepAliveExecutor = Executors.newScheduledThreadPool(2);
+        this.keepAliveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "topology-sse-keepalive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.keepAliveExecutor.scheduleAtFixedRate(this::keepAlive, KEEP_ALIVE_INTERVAL, KEEP_ALIVE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        this.topologyListener = change -> {
+            Frames frames = new Frames(change.getVersion(), change.getTopology());
+            this.current = frames;
+            for (Client client : this.clients) {
+                client.send(frames);
+            }
+        };
+        this.topology.addChangeListener(this.topologyListener);
+    }
+
+    @Override
+    public void destroy() {
+        this.topology.removeChangeListener(this.topologyListener);
+        this.keepAliveExecutor.shutdownNow();
+        for (Client client : this.clients) {
+            client.close();
+        }
+        super.destroy();
     }
 
     @Override
@@ -73,34 +121,38 @@ public class TopologySSEServlet extends HttpServlet {
         resp.setCharacterEncoding("UTF-8");
 
         AsyncContext asyncContext = req.startAsync();
-        PrintWriter writer = resp.getWriter();
-
-        TopologyListener topologyListener = new SSETopologyListener(writer, req.isSecure());
-
-        ScheduledFuture keepAlive = this.keepAliveExecutor.scheduleAtFixedRate(
-                new KeepAliveRunnable(writer, topologyListener),
-                10,
-                15,
-                TimeUnit.SECONDS);
         asyncContext.setTimeout(0);
-        asyncContext.addListener(new TopologyAsyncListener(topology, topologyListener, keepAlive));
 
+        Client client = new Client(asyncContext, resp.getOutputStream(), req.isSecure());
+        asyncContext.addListener(new TopologyAsyncListener(client));
+        this.clients.add(client);
+
+        // until the first change arrives, the topology as of now stands in as version 0
+        Frames frames = this.current;
+        if (frames == null) {
+            frames = new Frames(0, this.topology.asMap());
+        }
+        client.send(frames);
 
-        this.topology.addListener(topologyListener);
-        String json = topologyToJson(req.isSecure());
-        writer.write("event: topologyChange\n");
-        writer.write("data: " + json);
-        writer.flush();
+        resp.getOutputStream().setWriteListener(client);
+    }
 
+    private void keepAlive() {
+        long now = System.currentTimeMillis();
+        for (Client client : this.clients) {
+            if (client.isStalled(now)) {
+                client.close();
+            } else {
+                client.keepAlive();
+            }
+        }
     }
 
-    private String topologyToJson(boolean secure) {
+    private String topologyToJson(Map<String, List<Topology.Entry>> map, boolean secure) {
         StringBuilder json = new StringBuilder();
 
         json.append("{");
 
-        Map<String, List<Topology.Entry>> map = this.topology.asMap();
-
         Set<String> keys = map.keySet();
         Iterator<String> keyIter = keys.iterator();
 
@@ -122,13 +174,7 @@ public class TopologySSEServlet extends HttpServlet {
                 while (listIter.hasNext()) {
                     Topology.Entry server = listIter.next();
 
-                    boolean invalidServerAddress = false;
-                    try {
-                        //noinspection ResultOfMethodCallIgnored
-                        InetAddress.getByName(server.getAddress());
-                    } catch (UnknownHostException e) {
-                        invalidServerAddress = true;
-                    }
+                    boolean invalidServerAddress = !isValidAddress(server.getAddress());
 
                     String endpoint = (!invalidServerAddress ? (server.getTags().contains("https") ? "https" : "http") + "://" : "")
                             + formatMaybeIpv6(server.getAddress()) + ":" + server.getPort();
@@ -164,6 +210,24 @@ public class TopologySSEServlet extends HttpServlet {
         json.append("}");
     }
 
+    /** Resolving can block on DNS, so the outcome is remembered for a while. */
+    private boolean isValidAddress(String address) {
+        long now = System.currentTimeMillis();
+        AddressValidity validity = this.addressValidity.get(address);
+        if (validity == null || validity.expires < now) {
+            boolean valid = true;
+            try {
+                //noinspection ResultOfMethodCallIgnored
+                InetAddress.getByName(address);
+            } catch (UnknownHostException e) {
+                valid = false;
+            }
+            validity = new AddressValidity(valid, now + ADDRESS_CACHE_TTL);
+            this.addressValidity.put(address, validity);
+        }
+        return validity.valid;
+    }
+
     /** This isn't very precise; org.jboss.as.network.NetworkUtils has better implementation, but that's in a private module. */
     private String formatMaybeIpv6(String address) {
         String openBracket = "[";
@@ -178,100 +242,203 @@ public class TopologySSEServlet extends HttpServlet {
 
     private Topology topology;
 
+    private TopologyChangeListener topologyListener;
+
     private ScheduledExecutorService keepAliveExecutor;
 
-    private class KeepAliveRunnable implements Runnable {
-        private final PrintWriter writer;
+    private volatile Frames current;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, AddressValidity> addressValidity = new ConcurrentHashMap<>();
 
-        private final TopologyListener topologyListener;
+    private class TopologyAsyncListener implements AsyncListener {
 
-        public KeepAliveRunnable(PrintWriter writer, TopologyListener topologyListener) {
-            this.writer = writer;
-            this.topologyListener = topologyListener;
+        TopologyAsyncListener(Client client) {
+            this.client = client;
         }
 
         @Override
-        public void run() {
-            try {
-                writer.write(":\n\n");
-                writer.flush();
-            } catch (Throwable t) {
-                TopologySSEServlet.this.topology.removeListener(topologyListener);
-                throw t;
-            }
+        public void onComplete(AsyncEvent asyncEvent) throws IOException {
+            clients.remove(this.client);
+        }
 
+        @Override
+        public void onTimeout(AsyncEvent asyncEvent) throws IOException {
+            this.client.close();
+        }
+
+        @Override
+        public void onError(AsyncEvent asyncEvent) throws IOException {
+            this.client.close();
         }
+
+        @Override
+        public void onStartAsync(AsyncEvent asyncEvent) throws IOException {
+        }
+
+        private final Client client;
     }
 
-    public static class TopologyAsyncListener implements AsyncListener {
-        private final ScheduledFuture keepAlive;
+    /**
+     * The serialized form of one topology version, in its plain and secure variants.
+     */
+    private class Frames {
 
-        private final TopologyListener topologyListener;
+        Frames(long version, Map<String, List<Topology.Entry>> topology) {
+            this.version = version;
+            this.topology = topology;
+        }
+
+        byte[] get(boolean secure) {
+            byte[] frame = secure ? this.secure : this.plain;
+            if (frame == null) {
+                frame = ("event: topologyChange\ndata: " + topologyToJson(this.topology, secure)).getBytes(StandardCharsets.UTF_8);
+                if (secure) {
+                    this.secure = frame;
+                } else {
+                    this.plain = frame;
+                }
+            }
+            return frame;
+        }
+
+        private final long version;
+
+        private final Map<String, List<Topology.Entry>> topology;
 
-        private final Topology topology;
+        private volatile byte[] plain;
 
-        public TopologyAsyncListener() {
-            // Do Nothing
-            this.topology = null;
-            this.topologyListener = null;
-            this.keepAlive = null;
+        private volatile byte[] secure;
+    }
+
+    private static class AddressValidity {
+
+        AddressValidity(boolean valid, long expires) {
+            this.valid = valid;
+            this.expires = expires;
         }
 
-        public TopologyAsyncListener(Topology topology, TopologyListener topologyListener, ScheduledFuture scheduledFuture) {
-            this.topology = topology;
-            this.topologyListener = topologyListener;
-            this.keepAlive = scheduledFuture;
+        private final boolean valid;
+
+        private final long expires;
+    }
+
+    private class Client implements WriteListener {
+
+        Client(AsyncContext asyncContext, ServletOutputStream out, boolean secure) {
+            this.asyncContext = asyncContext;
+            this.out = out;
+            this.secure = secure;
         }
 
-        @Override
-        public void onComplete(AsyncEvent asyncEvent) throws IOException {
-            if (topology != null) {
-                topology.removeListener(topologyListener);
-                keepAlive.cancel(true);
+        void send(Frames frames) {
+            synchronized (this) {
+                if (this.closed || frames.version <= this.version) {
+                    return;
+                }
+                this.version = frames.version;
+                // an unsent topology frame is superseded by the newer one
+                if (this.pendingTopology != null) {
+                    this.pending.remove(this.pendingTopology);
+                }
+                this.pendingTopology = frames.get(this.secure);
+                enqueue(this.pendingTopology);
             }
+            write();
         }
 
-        @Override
-        public void onTimeout(AsyncEvent asyncEvent) throws IOException {
-            if (topology != null) {
-                topology.removeListener(topologyListener);
-                keepAlive.cancel(true);
+        void keepAlive() {
+            synchronized (this) {
+                if (this.closed || !this.pending.isEmpty()) {
+                    return;
+                }
+                enqueue(KEEP_ALIVE);
             }
+            write();
+        }
+
+        synchronized boolean isStalled(long now) {
+            return this.stalledSince > 0 && now - this.stalledSince > SLOW_CONSUMER_TIMEOUT;
         }
 
         @Override
-        public void onError(AsyncEvent asyncEvent) throws IOException {
-            if (topology != null) {
-                topology.removeListener(topologyListener);
-                keepAlive.cancel(true);
+        public void onWritePossible() {
+            synchronized (this) {
+                this.writable = true;
             }
+            write();
         }
 
         @Override
-        public void onStartAsync(AsyncEvent asyncEvent) throws IOException {
+        public void onError(Throwable t) {
+            close();
         }
-    }
-
-    private class SSETopologyListener implements TopologyListener {
-        Object writeLock = new Object();
 
-        final PrintWriter writer;
-
-        final boolean secure;
+        void close() {
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                this.pending.clear();
+            }
+            clients.remove(this);
+            try {
+                this.asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // already completed
+            }
+        }
 
-        private SSETopologyListener(PrintWriter writer, boolean secure) {
-            this.writer = writer;
-            this.secure = secure;
+        private void enqueue(byte[] frame) {
+            if (this.pending.isEmpty()) {
+                this.stalledSince = System.currentTimeMillis();
+            }
+            this.pending.add(frame);
         }
 
-        @Override
-        public void onChange(Topology topology) {
-            String json = topologyToJson(secure);
-            synchronized (writeLock) {
-                writer.write("event: topologyChange\n");
-                writer.write("data: " + json);
-                writer.flush();
+        private synchronized void write() {
+            // nothing may be written before the container first reports the stream as ready
+            if (this.closed || !this.writable) {
+                return;
+            }
+            try {
+                while (!this.pending.isEmpty()) {
+                    if (!this.out.isReady()) {
+                        return;
+                    }
+                    byte[] frame = this.pending.poll();
+                    if (frame == this.pendingTopology) {
+                        this.pendingTopology = null;
+                    }
+                    this.out.write(frame);
+                    this.stalledSince = this.pending.isEmpty() ? 0 : System.currentTimeMillis();
+                }
+                if (this.out.isReady()) {
+                    this.out.flush();
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
             }
         }
+
+        private final AsyncContext asyncContext;
+
+        private final ServletOutputStream out;
+
+        private final boolean secure;
+
+        private final Deque<byte[]> pending = new ArrayDeque<>();
+
+        private byte[] pendingTopology;
+
+        private long version = -1;
+
+        private long stalledSince;
+
+        private boolean writable;
+
+        private boolean closed;
     }
 }
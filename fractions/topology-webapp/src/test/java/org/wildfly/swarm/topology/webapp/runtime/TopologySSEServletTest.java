@@ -0,0 +1,202 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.webapp.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.swarm.topology.Topology;
+import org.wildfly.swarm.topology.TopologyChange;
+import org.wildfly.swarm.topology.TopologyChangeListener;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TopologySSEServletTest {
+
+    private Topology topology;
+
+    private TopologySSEServlet servlet;
+
+    private TopologyChangeListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        Map<String, List<Topology.Entry>> initial = topology("initial", 8080);
+        this.topology = mock(Topology.class);
+        when(this.topology.asMap()).thenReturn(initial);
+
+        ServletConfig config = mock(ServletConfig.class);
+        when(config.getServletContext()).thenReturn(mock(ServletContext.class));
+
+        this.servlet = new TopologySSEServlet();
+        this.servlet.init(config, this.topology);
+
+        ArgumentCaptor<TopologyChangeListener> captor = ArgumentCaptor.forClass(TopologyChangeListener.class);
+        verify(this.topology).addChangeListener(captor.capture());
+        this.listener = captor.getValue();
+    }
+
+    @After
+    public void tearDown() {
+        this.servlet.destroy();
+        verify(this.topology).removeChangeListener(this.listener);
+    }
+
+    @Test
+    public void testSubscriberReceivesCurrentTopology() throws Exception {
+        FakeOutputStream out = subscribe();
+
+        out.becomeReady();
+
+        assertThat(out.frames()).hasSize(1);
+        assertThat(out.text()).startsWith("event: topologyChange\ndata: {");
+        assertThat(out.text()).contains("\"initial\"");
+        assertThat(out.text()).contains("\"endpoint\": \"http://127.0.0.1:8080\"");
+    }
+
+    @Test
+    public void testUnsentFrameIsReplacedByNewerOne() throws Exception {
+        FakeOutputStream out = subscribe();
+
+        this.listener.onChange(change(1, topology("first", 8081)));
+        this.listener.onChange(change(2, topology("second", 8082)));
+        out.becomeReady();
+
+        assertThat(out.frames()).hasSize(1);
+        assertThat(out.text()).contains("\"second\"");
+        assertThat(out.text()).excludes("\"first\"");
+        assertThat(out.text()).excludes("\"initial\"");
+    }
+
+    @Test
+    public void testOlderVersionIsIgnored() throws Exception {
+        FakeOutputStream out = subscribe();
+        out.becomeReady();
+
+        this.listener.onChange(change(2, topology("second", 8082)));
+        this.listener.onChange(change(1, topology("first", 8081)));
+
+        assertThat(out.frames()).hasSize(2);
+        assertThat(out.text()).contains("\"second\"");
+        assertThat(out.text()).excludes("\"first\"");
+    }
+
+    @Test
+    public void testSubscribersShareFrames() throws Exception {
+        FakeOutputStream one = subscribe();
+        FakeOutputStream two = subscribe();
+        one.becomeReady();
+        two.becomeReady();
+
+        this.listener.onChange(change(1, topology("changed", 8081)));
+
+        assertThat(one.frames()).hasSize(2);
+        assertThat(two.frames()).hasSize(2);
+        assertThat(one.frames().get(1)).isSameAs(two.frames().get(1));
+    }
+
+    private FakeOutputStream subscribe() throws Exception {
+        FakeOutputStream out = new FakeOutputStream();
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.startAsync()).thenReturn(mock(AsyncContext.class));
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        when(resp.getOutputStream()).thenReturn(out);
+
+        this.servlet.doGet(req, resp);
+        return out;
+    }
+
+    private static TopologyChange change(long version, Map<String, List<Topology.Entry>> topology) {
+        TopologyChange change = mock(TopologyChange.class);
+        when(change.getVersion()).thenReturn(version);
+        when(change.getTopology()).thenReturn(topology);
+        return change;
+    }
+
+    private static Map<String, List<Topology.Entry>> topology(String service, int port) {
+        Topology.Entry entry = mock(Topology.Entry.class);
+        when(entry.getAddress()).thenReturn("127.0.0.1");
+        when(entry.getPort()).thenReturn(port);
+        when(entry.getTags()).thenReturn(Collections.emptyList());
+        return Collections.singletonMap(service, Collections.singletonList(entry));
+    }
+
+    private static class FakeOutputStream extends ServletOutputStream {
+
+        void becomeReady() throws IOException {
+            this.ready = true;
+            this.listener.onWritePossible();
+        }
+
+        List<byte[]> frames() {
+            return this.frames;
+        }
+
+        String text() {
+            return new String(this.bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            this.frames.add(b);
+            this.bytes.write(b);
+        }
+
+        @Override
+        public void write(int b) {
+            this.bytes.write(b);
+        }
+
+        private final List<byte[]> frames = new ArrayList<>();
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private WriteListener listener;
+
+        private boolean ready;
+    }
+}
@@ -36,6 +36,10 @@ public interface Topology {
 
     void removeListener(TopologyListener listener);
 
+    void addChangeListener(TopologyChangeListener listener);
+
+    void removeChangeListener(TopologyChangeListener listener);
+
     AdvertisementHandle advertise(String name, String... tags);
 
     Map<String, List<Entry>> asMap();
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The difference between two versions of the topology.
+ */
+public interface TopologyChange {
+
+    /**
+     * @return The version of the topology after this change.
+     */
+    long getVersion();
+
+    /**
+     * @return The version of the topology this change was computed against, <code>0</code> for the first change seen by a listener.
+     */
+    long getPreviousVersion();
+
+    /**
+     * @return The names of the services with added or removed entries.
+     */
+    Set<String> getServices();
+
+    /**
+     * @return The entries added since the previous version, by service name.
+     */
+    Map<String, List<Topology.Entry>> getAdded();
+
+    /**
+     * @return The entries removed since the previous version, by service name.
+     */
+    Map<String, List<Topology.Entry>> getRemoved();
+
+    /**
+     * @return The complete topology as of {@link #getVersion()}.
+     */
+    Map<String, List<Topology.Entry>> getTopology();
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology;
+
+/**
+ * Receives the added and removed entries of the topology.
+ *
+ * <p>Changes arriving within the debounce window are coalesced into one. Each listener sees changes
+ * in version order, and the first change it receives describes the whole topology at that time.</p>
+ */
+public interface TopologyChangeListener {
+    void onChange(TopologyChange change);
+}
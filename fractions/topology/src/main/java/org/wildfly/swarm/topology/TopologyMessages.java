@@ -49,4 +49,8 @@ public interface TopologyMessages extends BasicLogger {
     @LogMessage(level = Logger.Level.ERROR)
     @Message(id = 5, value = "Error sending check for %s.")
     void errorOnCheck(String clientId, @Cause Throwable cause);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 6, value = "Error fetching registrations of %s.")
+    void errorFetchingRegistrations(String sourceKey, @Cause Throwable cause);
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.runtime;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import org.wildfly.swarm.topology.TopologyChangeListener;
+
+/**
+ * Delivers changes to a single listener, one at a time and in version order.
+ *
+ * <p>Changes published while the listener is still busy are merged, so a slow listener receives fewer,
+ * larger changes rather than falling further behind.</p>
+ */
+class ChangeListenerQueue implements Runnable {
+
+    ChangeListenerQueue(TopologyChangeListener listener, RegistrationIndex delivered, Executor executor,
+                        BiConsumer<ChangeListenerQueue, Throwable> errorHandler) {
+        this.listener = listener;
+        this.delivered = delivered;
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    void publish(RegistrationIndex index, Collection<String> services) {
+        synchronized (this) {
+            if (this.closed || services.isEmpty()) {
+                return;
+            }
+            this.target = index;
+            this.pending.addAll(services);
+            if (this.scheduled) {
+                return;
+            }
+            this.scheduled = true;
+        }
+        this.executor.execute(this);
+    }
+
+    synchronized void close() {
+        this.closed = true;
+        this.pending.clear();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            RegistrationIndex from;
+            RegistrationIndex to;
+            Set<String> services;
+            synchronized (this) {
+                if (this.closed || this.pending.isEmpty()) {
+                    this.scheduled = false;
+                    return;
+                }
+                from = this.delivered;
+                to = this.target;
+                services = new HashSet<>(this.pending);
+                this.pending.clear();
+                this.delivered = to;
+            }
+
+            TopologyChangeImpl change = TopologyChangeImpl.between(from, to, services);
+            if (change.getServices().isEmpty()) {
+                continue;
+            }
+            try {
+                this.listener.onChange(change);
+            } catch (Throwable t) {
+                close();
+                synchronized (this) {
+                    this.scheduled = false;
+                }
+                this.errorHandler.accept(this, t);
+                return;
+            }
+        }
+    }
+
+    private final TopologyChangeListener listener;
+
+    private final Executor executor;
+
+    private final BiConsumer<ChangeListenerQueue, Throwable> errorHandler;
+
+    private final Set<String> pending = new HashSet<>();
+
+    private RegistrationIndex delivered;
+
+    private RegistrationIndex target;
+
+    private boolean scheduled;
+
+    private boolean closed;
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.wildfly.swarm.topology.Topology;
+
+/**
+ * Immutable, versioned snapshot of all registrations, indexed by service name, tag and source key.
+ *
+ * <p>Every change produces a new snapshot which shares the indexes of all services it did not touch,
+ * so readers never need to lock.</p>
+ */
+final class RegistrationIndex {
+
+    static final RegistrationIndex EMPTY = new RegistrationIndex(0, Collections.emptyMap(), Collections.emptyMap());
+
+    private RegistrationIndex(long version, Map<String, ServiceRegistrations> services, Map<String, Set<Registration>> sources) {
+        this.version = version;
+        this.services = services;
+        this.sources = sources;
+
+        Map<String, List<Topology.Entry>> map = new HashMap<>();
+        for (Map.Entry<String, ServiceRegistrations> each : services.entrySet()) {
+            map.put(each.getKey(), each.getValue().entries);
+        }
+        this.map = Collections.unmodifiableMap(map);
+    }
+
+    long getVersion() {
+        return this.version;
+    }
+
+    boolean contains(Registration registration) {
+        return forService(registration.getName()).contains(registration);
+    }
+
+    Set<Registration> forService(String name) {
+        ServiceRegistrations service = this.services.get(name);
+        if (service == null) {
+            return Collections.emptySet();
+        }
+        return service.all;
+    }
+
+    Set<Registration> forService(String name, String tag) {
+        ServiceRegistrations service = this.services.get(name);
+        if (service == null) {
+            return Collections.emptySet();
+        }
+        return service.byTag.getOrDefault(tag, Collections.emptySet());
+    }
+
+    Set<String> services() {
+        return this.services.keySet();
+    }
+
+    Set<Registration> forSourceKey(String sourceKey) {
+        return this.sources.getOrDefault(sourceKey, Collections.emptySet());
+    }
+
+    Map<String, List<Topology.Entry>> asMap() {
+        return this.map;
+    }
+
+    /**
+     * @return A snapshot including the registration, or this snapshot if it is already present.
+     */
+    RegistrationIndex with(Registration registration) {
+        if (contains(registration)) {
+            return this;
+        }
+
+        Map<String, ServiceRegistrations> services = new HashMap<>(this.services);
+        Set<Registration> all = new LinkedHashSet<>(forService(registration.getName()));
+        all.add(registration);
+        services.put(registration.getName(), new ServiceRegistrations(all));
+
+        Map<String, Set<Registration>> sources = new HashMap<>(this.sources);
+        Set<Registration> fromSource = new LinkedHashSet<>(forSourceKey(registration.getSourceKey()));
+        fromSource.add(registration);
+        sources.put(registration.getSourceKey(), Collections.unmodifiableSet(fromSource));
+
+        return new RegistrationIndex(this.version + 1, Collections.unmodifiableMap(services), Collections.unmodifiableMap(sources));
+    }
+
+    /**
+     * @return A snapshot excluding the registrations, or this snapshot if none of them are present.
+     */
+    RegistrationIndex without(Collection<Registration> registrations) {
+        Map<String, Set<Registration>> removedByService = new LinkedHashMap<>();
+        Map<String, Set<Registration>> removedBySource = new LinkedHashMap<>();
+        for (Registration each : registrations) {
+            if (contains(each)) {
+                removedByService.computeIfAbsent(each.getName(), k -> new LinkedHashSet<>()).add(each);
+                removedBySource.computeIfAbsent(each.getSourceKey(), k -> new LinkedHashSet<>()).add(each);
+            }
+        }
+        if (removedByService.isEmpty()) {
+            return this;
+        }
+
+        Map<String, ServiceRegistrations> services = new HashMap<>(this.services);
+        for (Map.Entry<String, Set<Registration>> each : removedByService.entrySet()) {
+            Set<Registration> all = new LinkedHashSet<>(forService(each.getKey()));
+            all.removeAll(each.getValue());
+            if (all.isEmpty()) {
+                services.remove(each.getKey());
+            } else {
+                services.put(each.getKey(), new ServiceRegistrations(all));
+            }
+        }
+
+        Map<String, Set<Registration>> sources = new HashMap<>(this.sources);
+        for (Map.Entry<String, Set<Registration>> each : removedBySource.entrySet()) {
+            Set<Registration> fromSource = new LinkedHashSet<>(forSourceKey(each.getKey()));
+            fromSource.removeAll(each.getValue());
+            if (fromSource.isEmpty()) {
+                sources.remove(each.getKey());
+            } else {
+                sources.put(each.getKey(), Collections.unmodifiableSet(fromSource));
+            }
+        }
+
+        return new RegistrationIndex(this.version + 1, Collections.unmodifiableMap(services), Collections.unmodifiableMap(sources));
+    }
+
+    private final long version;
+
+    private final Map<String, ServiceRegistrations> services;
+
+    private final Map<String, Set<Registration>> sources;
+
+    private final Map<String, List<Topology.Entry>> map;
+
+    private static final class ServiceRegistrations {
+
+        ServiceRegistrations(Set<Registration> all) {
+            this.all = Collections.unmodifiableSet(all);
+
+            Map<String, Set<Registration>> byTag = new HashMap<>();
+            for (Registration registration : all) {
+                for (String tag : registration.getTags()) {
+                    byTag.computeIfAbsent(tag, k -> new LinkedHashSet<>()).add(registration);
+                }
+            }
+            byTag.replaceAll((tag, registrations) -> Collections.unmodifiableSet(registrations));
+            this.byTag = byTag;
+
+            this.entries = Collections.unmodifiableList(new ArrayList<>(all));
+        }
+
+        private final Set<Registration> all;
+
+        private final Map<String, Set<Registration>> byTag;
+
+        private final List<Topology.Entry> entries;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.wildfly.swarm.topology.Topology;
+import org.wildfly.swarm.topology.TopologyChange;
+
+public class TopologyChangeImpl implements TopologyChange {
+
+    private TopologyChangeImpl(long version, long previousVersion, Map<String, List<Topology.Entry>> added,
+                               Map<String, List<Topology.Entry>> removed, Map<String, List<Topology.Entry>> topology) {
+        this.version = version;
+        this.previousVersion = previousVersion;
+        this.added = Collections.unmodifiableMap(added);
+        this.removed = Collections.unmodifiableMap(removed);
+        this.topology = topology;
+
+        Set<String> services = new LinkedHashSet<>(added.keySet());
+        services.addAll(removed.keySet());
+        this.services = Collections.unmodifiableSet(services);
+    }
+
+    /**
+     * Compute the change between two snapshots, limited to the services which may have changed.
+     */
+    static TopologyChangeImpl between(RegistrationIndex from, RegistrationIndex to, Collection<String> services) {
+        Map<String, List<Topology.Entry>> added = new HashMap<>();
+        Map<String, List<Topology.Entry>> removed = new HashMap<>();
+        for (String service : services) {
+            Set<Registration> before = from.forService(service);
+            Set<Registration> after = to.forService(service);
+            List<Topology.Entry> serviceAdded = difference(after, before);
+            if (!serviceAdded.isEmpty()) {
+                added.put(service, serviceAdded);
+            }
+            List<Topology.Entry> serviceRemoved = difference(before, after);
+            if (!serviceRemoved.isEmpty()) {
+                removed.put(service, serviceRemoved);
+            }
+        }
+        return new TopologyChangeImpl(to.getVersion(), from.getVersion(), added, removed, to.asMap());
+    }
+
+    private static List<Topology.Entry> difference(Set<Registration> left, Set<Registration> right) {
+        List<Topology.Entry> result = new ArrayList<>();
+        for (Registration each : left) {
+            if (!right.contains(each)) {
+                result.add(each);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public long getVersion() {
+        return this.version;
+    }
+
+    @Override
+    public long getPreviousVersion() {
+        return this.previousVersion;
+    }
+
+    @Override
+    public Set<String> getServices() {
+        return this.services;
+    }
+
+    @Override
+    public Map<String, List<Topology.Entry>> getAdded() {
+        return this.added;
+    }
+
+    @Override
+    public Map<String, List<Topology.Entry>> getRemoved() {
+        return this.removed;
+    }
+
+    @Override
+    public Map<String, List<Topology.Entry>> getTopology() {
+        return this.topology;
+    }
+
+    public String toString() {
+        return "[TopologyChange: " + this.previousVersion + " -> " + this.version + "; added=" + this.added + "; removed=" + this.removed + "]";
+    }
+
+    private final long version;
+
+    private final long previousVersion;
+
+    private final Set<String> services;
+
+    private final Map<String, List<Topology.Entry>> added;
+
+    private final Map<String, List<Topology.Entry>> removed;
+
+    private final Map<String, List<Topology.Entry>> topology;
+}
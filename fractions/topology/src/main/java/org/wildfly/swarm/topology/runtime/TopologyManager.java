@@ -15,21 +15,25 @@
  */
 package org.wildfly.swarm.topology.runtime;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.swarm.topology.AdvertisementHandle;
 import org.wildfly.swarm.topology.Topology;
+import org.wildfly.swarm.topology.TopologyChangeListener;
 import org.wildfly.swarm.topology.TopologyListener;
 import org.wildfly.swarm.topology.TopologyMessages;
 import org.wildfly.swarm.topology.deployment.RegistrationAdvertiser;
@@ -39,18 +43,47 @@ import org.wildfly.swarm.topology.deployment.RegistrationAdvertiser;
  */
 public class TopologyManager implements Topology {
 
+    /**
+     * Milliseconds over which changes are coalesced before listeners are notified.
+     */
+    public static final String DEBOUNCE_PROPERTY = "swarm.topology.debounce";
+
+    private static final long DEFAULT_DEBOUNCE = 100;
+
     public static final TopologyManager INSTANCE = new TopologyManager();
 
+    public TopologyManager() {
+        this(Long.getLong(DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE));
+    }
+
+    TopologyManager(long debounce) {
+        this.debounce = debounce;
+    }
+
     public void setServiceTarget(ServiceTarget serviceTarget) {
         this.serviceTarget = serviceTarget;
     }
 
+    @Override
     public synchronized void addListener(TopologyListener listener) {
-        this.listeners.add(listener);
+        // legacy listeners only hear about changes made after they were added
+        addQueue(listener, change -> listener.onChange(this), this.index);
     }
 
+    @Override
     public synchronized void removeListener(TopologyListener listener) {
-        this.listeners.remove(listener);
+        removeQueue(listener);
+    }
+
+    @Override
+    public synchronized void addChangeListener(TopologyChangeListener listener) {
+        ChangeListenerQueue queue = addQueue(listener, listener, RegistrationIndex.EMPTY);
+        queue.publish(this.index, this.index.services());
+    }
+
+    @Override
+    public synchronized void removeChangeListener(TopologyChangeListener listener) {
+        removeQueue(listener);
     }
 
     @Override
@@ -62,99 +95,123 @@ public class TopologyManager implements Topology {
         return new AdvertisementHandleImpl(httpAdvert, httpsAdvert);
     }
 
-    public synchronized Set<Registration> registrationsForSourceKey(String sourceKey) {
-        Set<Registration> result = Collections.unmodifiableSet(
-                this.registrations.stream()
-                        .filter(e -> e.getSourceKey().equals(sourceKey))
-                        .collect(Collectors.toSet())
-        );
-        return result;
+    public Set<Registration> registrationsForSourceKey(String sourceKey) {
+        return this.index.forSourceKey(sourceKey);
     }
 
-    public synchronized Set<Registration> registrationsForService(String name) {
-        Set<Registration> result = Collections.unmodifiableSet(
-                this.registrations.stream()
-                        .filter(e -> e.getName().equals(name))
-                        .collect(Collectors.toSet())
-        );
-
-        return result;
+    public Set<Registration> registrationsForService(String name) {
+        return this.index.forService(name);
     }
 
-    public synchronized Set<Registration> registrationsForService(String name, String tag) {
-        Set<Registration> result = Collections.unmodifiableSet(
-                this.registrations.stream()
-                        .filter(e -> e.getName().equals(name) && e.hasTag(tag))
-                        .collect(Collectors.toSet())
-        );
+    public Set<Registration> registrationsForService(String name, String tag) {
+        return this.index.forService(name, tag);
+    }
 
-        return result;
+    /**
+     * Version of the current registrations, incremented by every change.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.index.getVersion();
     }
 
     public synchronized void register(Registration registration) {
-        if (!this.registrations.contains(registration)) {
-            this.registrations.add(registration);
-            fireListeners();
-        }
+        update(this.index.with(registration), Collections.singleton(registration));
     }
 
     public synchronized void unregister(Registration registration) {
-        boolean removed = this.registrations.removeIf(e -> e.equals(registration));
-        if (removed) {
-            fireListeners();
-        }
+        update(this.index.without(Collections.singleton(registration)), Collections.singleton(registration));
     }
 
     public synchronized void unregisterAll(String sourceKey) {
-        boolean removed = this.registrations.removeIf(e -> e.getSourceKey().equals(sourceKey));
-        if (removed) {
-            fireListeners();
-        }
+        Set<Registration> removed = this.index.forSourceKey(sourceKey);
+        update(this.index.without(removed), removed);
     }
 
     public synchronized void unregisterAll(String sourceKey, String name) {
-        boolean removed = this.registrations.removeIf(e -> e.getSourceKey().equals(sourceKey) && e.getName().equals(name));
-        if (removed) {
-            fireListeners();
-        }
+        List<Registration> removed = this.index.forSourceKey(sourceKey).stream()
+                .filter(e -> e.getName().equals(name))
+                .collect(Collectors.toList());
+        update(this.index.without(removed), removed);
     }
 
     @Override
-    public synchronized Map<String, List<Entry>> asMap() {
-        Map<String, List<Entry>> map = new HashMap<>();
-
-        for (Registration registration : this.registrations) {
-            List<Entry> list = map.get(registration.getName());
-            if (list == null) {
-                list = new ArrayList<>();
-                map.put(registration.getName(), list);
-            }
-            list.add(registration);
+    public Map<String, List<Entry>> asMap() {
+        return this.index.asMap();
+    }
+
+    private void update(RegistrationIndex index, Collection<Registration> changed) {
+        if (index == this.index) {
+            return;
+        }
+        this.index = index;
+        for (Registration each : changed) {
+            this.pendingServices.add(each.getName());
         }
+        if (this.flushScheduled) {
+            return;
+        }
+        this.flushScheduled = true;
+        if (this.debounce > 0) {
+            SCHEDULER.schedule(this::flush, this.debounce, TimeUnit.MILLISECONDS);
+        } else {
+            flush();
+        }
+    }
 
-        return map;
-    }
-
-    private void fireListeners() {
-        List<TopologyListener> currentListeners = new ArrayList<>();
-        currentListeners.addAll(this.listeners);
-        currentListeners.forEach((e) -> {
-            executor.execute(() -> {
-                try {
-                    e.onChange(this);
-                } catch (Throwable t) {
-                    TopologyMessages.MESSAGES.errorFiringEvent(e.getClass().getName(), t);
-                    removeListener(e);
-                }
-            });
+    private synchronized void flush() {
+        this.flushScheduled = false;
+        if (this.pendingServices.isEmpty()) {
+            return;
+        }
+        Set<String> services = new HashSet<>(this.pendingServices);
+        this.pendingServices.clear();
+        for (ChangeListenerQueue each : this.listeners.values()) {
+            each.publish(this.index, services);
+        }
+    }
+
+    private ChangeListenerQueue addQueue(Object key, TopologyChangeListener listener, RegistrationIndex delivered) {
+        ChangeListenerQueue queue = new ChangeListenerQueue(listener, delivered, EXECUTOR, (q, t) -> {
+            TopologyMessages.MESSAGES.errorFiringEvent(key.getClass().getName(), t);
+            synchronized (this) {
+                this.listeners.remove(key, q);
+            }
         });
+        ChangeListenerQueue previous = this.listeners.put(key, queue);
+        if (previous != null) {
+            previous.close();
+        }
+        return queue;
+    }
+
+    private void removeQueue(Object key) {
+        ChangeListenerQueue queue = this.listeners.remove(key);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    private static Thread eventThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "topology-events");
+        thread.setDaemon(true);
+        return thread;
     }
 
-    private List<TopologyListener> listeners = new ArrayList<>();
+    private static final Executor EXECUTOR = Executors.newFixedThreadPool(2, TopologyManager::eventThread);
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(TopologyManager::eventThread);
+
+    private final long debounce;
+
+    private final Map<Object, ChangeListenerQueue> listeners = new LinkedHashMap<>();
+
+    private final Set<String> pendingServices = new HashSet<>();
 
-    private List<Registration> registrations = new ArrayList<>();
+    private boolean flushScheduled;
 
-    private Executor executor = Executors.newFixedThreadPool(2);
+    private volatile RegistrationIndex index = RegistrationIndex.EMPTY;
 
     private ServiceTarget serviceTarget;
 
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.topology.runtime;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.wildfly.swarm.topology.Topology;
+import org.wildfly.swarm.topology.TopologyChange;
+
+import static org.fest.assertions.Assertions.*;
+
+public class TopologyManagerTest {
+
+    @Test
+    public void testIndexesByServiceAndTag() {
+        TopologyManager manager = new TopologyManager();
+        Registration http = new Registration("node1", "orders", "10.0.0.1", 8080, "http");
+        Registration https = new Registration("node1", "orders", "10.0.0.1", 8443, "https");
+        Registration other = new Registration("node2", "billing", "10.0.0.2", 8080, "http");
+
+        manager.register(http);
+        manager.register(https);
+        manager.register(other);
+
+        assertThat(manager.registrationsForService("orders")).containsOnly(http, https);
+        assertThat(manager.registrationsForService("orders", "http")).containsOnly(http);
+        assertThat(manager.registrationsForService("orders", "https")).containsOnly(https);
+        assertThat(manager.registrationsForService("orders", "ajp")).isEmpty();
+        assertThat(manager.registrationsForService("unknown", "http")).isEmpty();
+        assertThat(manager.registrationsForSourceKey("node1")).containsOnly(http, https);
+    }
+
+    @Test
+    public void testDuplicateRegistrationDoesNotChangeVersion() {
+        TopologyManager manager = new TopologyManager();
+        manager.register(new Registration("node1", "orders", "10.0.0.1", 8080, "http"));
+        long version = manager.getVersion();
+
+        manager.register(new Registration("node1", "orders", "10.0.0.1", 8080, "http"));
+        manager.unregister(new Registration("node1", "orders", "10.0.0.9", 8080, "http"));
+
+        assertThat(manager.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    public void testSnapshotsAreUnaffectedByLaterChanges() {
+        TopologyManager manager = new TopologyManager();
+        Registration first = new Registration("node1", "orders", "10.0.0.1", 8080, "http");
+        Registration second = new Registration("node2", "orders", "10.0.0.2", 8080, "http");
+        manager.register(first);
+
+        Map<String, List<Topology.Entry>> before = manager.asMap();
+        Set<Registration> tagged = manager.registrationsForService("orders", "http");
+        assertThat(manager.asMap()).isSameAs(before);
+
+        manager.register(second);
+
+        assertThat(before.get("orders")).containsOnly(first);
+        assertThat(tagged).containsOnly(first);
+        assertThat(manager.asMap().get("orders")).containsOnly(first, second);
+    }
+
+    @Test
+    public void testUnregisterAll() {
+        TopologyManager manager = new TopologyManager();
+        Registration orders = new Registration("node1", "orders", "10.0.0.1", 8080, "http");
+        Registration billing = new Registration("node1", "billing", "10.0.0.1", 8081, "http");
+        Registration remote = new Registration("node2", "orders", "10.0.0.2", 8080, "http");
+        manager.register(orders);
+        manager.register(billing);
+        manager.register(remote);
+
+        manager.unregisterAll("node1", "orders");
+        assertThat(manager.registrationsForService("orders")).containsOnly(remote);
+        assertThat(manager.registrationsForSourceKey("node1")).containsOnly(billing);
+
+        manager.unregisterAll("node1");
+        assertThat(manager.registrationsForSourceKey("node1")).isEmpty();
+        assertThat(manager.asMap().keySet()).containsOnly("orders");
+    }
+
+    @Test
+    public void testChangeListenerReceivesInitialStateAndDeltas() throws Exception {
+        TopologyManager manager = new TopologyManager(0);
+        Registration first = new Registration("node1", "orders", "10.0.0.1", 8080, "http");
+        Registration second = new Registration("node2", "orders", "10.0.0.2", 8080, "http");
+        manager.register(first);
+
+        BlockingQueue<TopologyChange> changes = new LinkedBlockingQueue<>();
+        manager.addChangeListener(changes::add);
+
+        TopologyChange initial = changes.poll(5, TimeUnit.SECONDS);
+        assertThat(initial.getPreviousVersion()).isEqualTo(0);
+        assertThat(initial.getVersion()).isEqualTo(manager.getVersion());
+        assertThat(initial.getAdded().get("orders")).containsOnly(first);
+        assertThat(initial.getRemoved()).isEmpty();
+
+        manager.register(second);
+        manager.unregister(first);
+
+        // the two changes may arrive separately or coalesced, but always in order
+        Set<Topology.Entry> present = new HashSet<>(initial.getAdded().get("orders"));
+        long version = initial.getVersion();
+        while (version < manager.getVersion()) {
+            TopologyChange change = changes.poll(5, TimeUnit.SECONDS);
+            assertThat(change.getPreviousVersion()).isEqualTo(version);
+            present.removeAll(change.getRemoved().getOrDefault("orders", Collections.emptyList()));
+            present.addAll(change.getAdded().getOrDefault("orders", Collections.emptyList()));
+            version = change.getVersion();
+        }
+        assertThat(present).containsOnly(second);
+    }
+
+    @Test
+    public void testChangesAreCoalescedWithinDebounceWindow() throws Exception {
+        TopologyManager manager = new TopologyManager(200);
+        BlockingQueue<TopologyChange> changes = new LinkedBlockingQueue<>();
+        manager.addChangeListener(changes::add);
+
+        for (int i = 0; i < 50; ++i) {
+            manager.register(new Registration("node" + i, "orders", "10.0.0." + i, 8080, "http"));
+        }
+        manager.unregisterAll("node0");
+
+        TopologyChange change = changes.poll(5, TimeUnit.SECONDS);
+        assertThat(change.getVersion()).isEqualTo(manager.getVersion());
+        assertThat(change.getAdded().get("orders")).hasSize(49);
+        assertThat(change.getRemoved()).isEmpty();
+        assertThat(changes.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void testSlowListenerDoesNotDelayOthers() throws Exception {
+        TopologyManager manager = new TopologyManager(0);
+        CountDownLatch release = new CountDownLatch(1);
+        manager.addChangeListener(change -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        BlockingQueue<TopologyChange> changes = new LinkedBlockingQueue<>();
+        manager.addChangeListener(changes::add);
+
+        manager.register(new Registration("node1", "orders", "10.0.0.1", 8080, "http"));
+
+        assertThat(changes.poll(5, TimeUnit.SECONDS)).isNotNull();
+        release.countDown();
+    }
+}
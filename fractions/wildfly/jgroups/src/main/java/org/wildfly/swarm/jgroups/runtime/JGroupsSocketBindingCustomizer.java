@@ -25,11 +25,13 @@ import org.wildfly.swarm.spi.api.Customizer;
 import org.wildfly.swarm.spi.api.SocketBinding;
 import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
 
 /**
  * @author Bob McWhirter
  */
 @Pre
+@Precomputable
 @ApplicationScoped
 public class JGroupsSocketBindingCustomizer implements Customizer {
 
@@ -28,6 +28,7 @@ import org.wildfly.swarm.spi.api.SocketBinding;
 import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
+import org.wildfly.swarm.spi.runtime.annotations.Precomputable;
 
 import static org.wildfly.swarm.spi.api.Defaultable.string;
 
@@ -35,6 +36,7 @@ import static org.wildfly.swarm.spi.api.Defaultable.string;
  * @author Bob McWhirter
  */
 @Pre
+@Precomputable
 @ApplicationScoped
 public class ManagementSocketBindingsCustomizer implements Customizer {
 
@@ -109,6 +109,9 @@ public class PackageTask extends DefaultTask {
                 .properties(PropertiesUtil.filteredSystemProperties(propertiesFromExtension, false))
                 .fractionDetectionMode(getSwarmExtension().getFractionDetectMode())
                 .hollow(getHollow())
+                .uncompressedRepository(getUncompressedRepository())
+                .classDataSharing(getClassDataSharing())
+                .bootstrapModel(getBootstrapModel())
                 .additionalModules(moduleDirs.stream()
                                            .filter(File::exists)
                                            .map(File::getAbsolutePath)
@@ -254,6 +257,24 @@ public class PackageTask extends DefaultTask {
         return getSwarmExtension().getHollow();
     }
 
+    @Input
+    @Optional
+    private Boolean getUncompressedRepository() {
+        return getSwarmExtension().getUncompressedRepository();
+    }
+
+    @Input
+    @Optional
+    private Boolean getClassDataSharing() {
+        return getSwarmExtension().getClassDataSharing();
+    }
+
+    @Input
+    @Optional
+    private Boolean getBootstrapModel() {
+        return getSwarmExtension().getBootstrapModel();
+    }
+
     @Input
     private boolean getExecutable() {
         return getSwarmExtension().getExecutable();
@@ -53,6 +53,12 @@ public class SwarmExtension {
 
     private Boolean hollow = false;
 
+    private Boolean uncompressedRepository = false;
+
+    private Boolean classDataSharing = false;
+
+    private Boolean bootstrapModel = false;
+
     public SwarmExtension(Project project) {
         this.project = project;
     }
@@ -141,4 +147,28 @@ public class SwarmExtension {
     public Boolean getHollow() {
         return hollow;
     }
+
+    public void setUncompressedRepository(Boolean uncompressedRepository) {
+        this.uncompressedRepository = uncompressedRepository;
+    }
+
+    public Boolean getUncompressedRepository() {
+        return uncompressedRepository;
+    }
+
+    public void setClassDataSharing(Boolean classDataSharing) {
+        this.classDataSharing = classDataSharing;
+    }
+
+    public Boolean getClassDataSharing() {
+        return classDataSharing;
+    }
+
+    public void setBootstrapModel(Boolean bootstrapModel) {
+        this.bootstrapModel = bootstrapModel;
+    }
+
+    public Boolean getBootstrapModel() {
+        return bootstrapModel;
+    }
 }
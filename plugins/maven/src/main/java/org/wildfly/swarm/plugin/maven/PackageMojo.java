@@ -73,6 +73,24 @@ public class PackageMojo extends AbstractSwarmMojo {
     @Parameter(alias = "hollow", defaultValue = "false", property = "swarm.hollow")
     protected boolean hollow;
 
+    /**
+     * Store the bundled dependencies uncompressed, so they can be loaded in place without being copied out of the uberjar.
+     */
+    @Parameter(alias = "uncompressedRepository", defaultValue = "false", property = "swarm.uncompressedRepository")
+    protected boolean uncompressedRepository;
+
+    /**
+     * Boot the uberjar once after packaging to train a class-data sharing archive (<code>.jsa</code>) shipped next to it.
+     */
+    @Parameter(alias = "classDataSharing", defaultValue = "false", property = "swarm.classDataSharing")
+    protected boolean classDataSharing;
+
+    /**
+     * Boot the uberjar once after packaging to compute its bootstrap model, packaged into the uberjar.
+     */
+    @Parameter(alias = "bootstrapModel", defaultValue = "false", property = "swarm.bootstrapModel")
+    protected boolean bootstrapModel;
+
     @Parameter(property = "finalName")
     public String finalName;
 
@@ -142,6 +160,9 @@ public class PackageMojo extends AbstractSwarmMojo {
                 .executableScript(executableScript)
                 .fractionDetectionMode(fractionDetectMode)
                 .hollow(hollow)
+                .uncompressedRepository(uncompressedRepository)
+                .classDataSharing(classDataSharing)
+                .bootstrapModel(bootstrapModel)
                 .logger(new SimpleLogger() {
                     @Override
                     public void debug(String msg) {
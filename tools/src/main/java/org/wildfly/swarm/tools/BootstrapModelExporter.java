@@ -0,0 +1,100 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+import org.wildfly.swarm.spi.meta.SimpleLogger;
+import org.wildfly.swarm.tools.exec.SwarmExecutor;
+import org.wildfly.swarm.tools.exec.SwarmProcess;
+
+/**
+ * Computes the bootstrap model of an uberjar.
+ *
+ * <p>The uberjar is booted once with {@link BootstrapProperties#BOOTSTRAP_MODEL_EXPORT} set, which makes it
+ * write the bootstrap operations and configurable values it computed, along with the hash of the configuration
+ * they were computed from, and exit as soon as the application has started. Packaged at {@link #CLASSPATH_LOCATION},
+ * the model lets later boots with the same configuration skip the customizers, rescan and marshalling.</p>
+ */
+final class BootstrapModelExporter {
+
+    // must match org.wildfly.swarm.container.runtime.BootstrapModel
+    static final String CLASSPATH_LOCATION = "META-INF/wildfly-swarm-bootstrap-model.dmr";
+
+    /**
+     * Maximum number of seconds to wait for the export boot.
+     */
+    static final String EXPORT_TIMEOUT_PROPERTY = "swarm.bootstrap.model.timeout";
+
+    private static final long DEFAULT_EXPORT_TIMEOUT = 300;
+
+    BootstrapModelExporter(SimpleLogger log) {
+        this.log = log;
+    }
+
+    /**
+     * Boot the uberjar and read the bootstrap model it computed.
+     *
+     * @param jar The uberjar.
+     * @return The serialized model, or <code>null</code> if the uberjar installs customizers whose effect the
+     * model cannot capture.
+     * @throws IOException If the export boot fails.
+     */
+    byte[] exportModel(File jar) throws IOException {
+        Path model = Files.createTempFile("swarm-bootstrap-model-", ".dmr");
+        try {
+            Files.delete(model);
+
+            long timeout = Long.getLong(EXPORT_TIMEOUT_PROPERTY, DEFAULT_EXPORT_TIMEOUT);
+            this.log.info("Computing bootstrap model: " + jar);
+
+            SwarmProcess process = new SwarmExecutor()
+                    .withExecutableJar(jar.toPath())
+                    .withWorkingDirectory(jar.getAbsoluteFile().getParentFile().toPath())
+                    .withProperty(BootstrapProperties.BOOTSTRAP_MODEL_EXPORT, model.toAbsolutePath().toString())
+                    .execute();
+
+            try {
+                if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                    process.stop();
+                    throw new IOException("Export boot did not complete within " + timeout + "s");
+                }
+                if (process.exitValue() != 0) {
+                    throw new IOException("Export boot failed with exit code " + process.exitValue());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+                throw new IOException(e);
+            }
+
+            if (!Files.exists(model)) {
+                this.log.info("Not packaging a bootstrap model: the export boot did not write one, see its log for the customizers it cannot capture");
+                return null;
+            }
+            return Files.readAllBytes(model);
+        } finally {
+            Files.deleteIfExists(model);
+        }
+    }
+
+    private final SimpleLogger log;
+}
@@ -182,6 +182,34 @@ public class BuildTool {
         return this;
     }
 
+    /**
+     * Store the bundled <code>m2repo/</code> artifacts and the application archive uncompressed, allowing them
+     * to be read in place at boot instead of being copied out of the uberjar.
+     */
+    public BuildTool uncompressedRepository(boolean uncompressedRepository) {
+        this.uncompressedRepository = uncompressedRepository;
+        return this;
+    }
+
+    /**
+     * Boot the built uberjar once to train a class-data sharing archive, written next to it with a
+     * <code>.jsa</code> extension. The launch script uses the archive when it is present.
+     */
+    public BuildTool classDataSharing(boolean classDataSharing) {
+        this.classDataSharing = classDataSharing;
+        return this;
+    }
+
+    /**
+     * Boot the built uberjar once to compute its bootstrap model, and package the model into the uberjar.
+     * Boots with the same configuration then load the model instead of running the customizers and marshalling
+     * the configuration.
+     */
+    public BuildTool bootstrapModel(boolean bootstrapModel) {
+        this.bootstrapModel = bootstrapModel;
+        return this;
+    }
+
     public BuildTool uberjarResourcesDirectory(Path dir) {
         this.uberjarResourcesDirectory = dir;
         return this;
@@ -189,7 +217,18 @@ public class BuildTool {
 
     public File build(String baseName, Path dir) throws Exception {
         build();
-        return createJar(baseName, dir);
+        File jar = createJar(baseName, dir);
+        if (this.bootstrapModel) {
+            byte[] model = new BootstrapModelExporter(this.log).exportModel(jar);
+            if (model != null) {
+                this.archive.add(new ByteArrayAsset(model), BootstrapModelExporter.CLASSPATH_LOCATION);
+                jar = createJar(baseName, dir);
+            }
+        }
+        if (this.classDataSharing) {
+            new ClassDataSharingArchiver(this.log).createArchive(jar);
+        }
+        return jar;
     }
 
 
@@ -462,7 +501,11 @@ public class BuildTool {
                     IOUtil.copy(is, fos);
                 }
             }
-            exporter.exportTo(fos);
+            if (this.uncompressedRepository) {
+                UncompressedRepositoryExporter.exportTo(this.archive, fos);
+            } else {
+                exporter.exportTo(fos);
+            }
         }
         if (executable) {
             if (!out.setExecutable(true)) {
@@ -592,6 +635,12 @@ public class BuildTool {
 
     private boolean executable;
 
+    private boolean uncompressedRepository;
+
+    private boolean classDataSharing;
+
+    private boolean bootstrapModel;
+
     private File executableScript;
 
     private DependencyManager dependencyManager;
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+import org.wildfly.swarm.spi.meta.SimpleLogger;
+import org.wildfly.swarm.tools.exec.SwarmExecutor;
+import org.wildfly.swarm.tools.exec.SwarmProcess;
+
+/**
+ * Trains a class-data sharing archive for an uberjar.
+ *
+ * <p>The uberjar is booted once with {@link BootstrapProperties#CDS_TRAINING} set, which makes it exit as soon
+ * as the application has started. This is a real boot of the application at build time: its <code>main</code>
+ * runs, deployments are deployed and anything they do on startup, such as connecting to a database, happens
+ * during the build. The JVM then writes the classes it was able to archive to a dynamic archive next to the
+ * uberjar, where the launch script picks it up.</p>
+ *
+ * <p>The JVM does not archive every class it loaded: depending on its version, classes that jboss-modules
+ * defines from the uberjar may be left out. The training boot therefore runs with <code>-Xlog:class+load</code>
+ * and <code>-Xlog:cds+class</code>, and the classes loaded from outside the base archive but missing from the
+ * new archive are reported.</p>
+ */
+final class ClassDataSharingArchiver {
+
+    static final String ARCHIVE_EXTENSION = ".jsa";
+
+    /**
+     * Maximum number of seconds to wait for the training boot.
+     */
+    static final String TRAINING_TIMEOUT_PROPERTY = "swarm.cds.training.timeout";
+
+    private static final long DEFAULT_TRAINING_TIMEOUT = 300;
+
+    // dynamic archives (-XX:ArchiveClassesAtExit) first appeared in JDK 13
+    private static final int MIN_JAVA_VERSION = 13;
+
+    ClassDataSharingArchiver(SimpleLogger log) {
+        this.log = log;
+    }
+
+    static File archiveFor(File jar) {
+        String name = jar.getName();
+        int dotLoc = name.lastIndexOf('.');
+        if (dotLoc > 0) {
+            name = name.substring(0, dotLoc);
+        }
+        return new File(jar.getAbsoluteFile().getParentFile(), name + ARCHIVE_EXTENSION);
+    }
+
+    /**
+     * Boot the uberjar and write its class-data sharing archive.
+     *
+     * @param jar The uberjar.
+     * @return The archive, or <code>null</code> if the running JVM cannot create one.
+     * @throws IOException If the training boot fails.
+     */
+    File createArchive(File jar) throws IOException {
+        int javaVersion = javaVersion();
+        if (javaVersion < MIN_JAVA_VERSION) {
+            this.log.info("Class-data sharing archives require Java " + MIN_JAVA_VERSION + " or later, skipping (running " + javaVersion + ")");
+            return null;
+        }
+
+        File archive = archiveFor(jar);
+        Files.deleteIfExists(archive.toPath());
+
+        long timeout = Long.getLong(TRAINING_TIMEOUT_PROPERTY, DEFAULT_TRAINING_TIMEOUT);
+        this.log.info("Training class-data sharing archive, booting the application: " + archive);
+
+        // relative to the working directory, as -Xlog cannot take a path with a drive letter
+        Path trainingLog = archive.getParentFile().toPath().resolve(archive.getName() + ".log");
+        try {
+            SwarmProcess process = new SwarmExecutor()
+                    .withExecutableJar(jar.toPath())
+                    .withWorkingDirectory(archive.getParentFile().toPath())
+                    .withJVMArgument("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath())
+                    .withJVMArgument("-Xlog:class+load=info,cds+class=debug:file=" + trainingLog.getFileName() + ":none")
+                    .withProperty(BootstrapProperties.CDS_TRAINING, "true")
+                    .execute();
+
+            try {
+                if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+                    process.stop();
+                    throw new IOException("Training boot did not complete within " + timeout + "s");
+                }
+                if (process.exitValue() != 0) {
+                    throw new IOException("Training boot failed with exit code " + process.exitValue());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+                throw new IOException(e);
+            }
+
+            if (!archive.exists()) {
+                throw new IOException("Training boot did not produce " + archive);
+            }
+
+            TrainingLog contents = TrainingLog.parse(Files.readAllLines(trainingLog, StandardCharsets.UTF_8));
+            if (contents.archived().isEmpty()) {
+                throw new IOException("Training boot archived no classes in " + archive);
+            }
+            this.log.info("Created class-data sharing archive: " + archive + " (" + contents.archived().size() + " classes, "
+                                  + contents.notArchived().size() + " loaded classes not archived)");
+            contents.notArchived().forEach(e -> this.log.debug("Not archived: " + e));
+            return archive;
+        } finally {
+            Files.deleteIfExists(trainingLog);
+        }
+    }
+
+    private static int javaVersion() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private final SimpleLogger log;
+
+    /**
+     * The classes a training boot loaded and archived, read from its <code>class+load</code> and
+     * <code>cds+class</code> log.
+     */
+    static final class TrainingLog {
+
+        private static final String SOURCE = " source: ";
+
+        private static final String SHARED_SOURCE = "shared objects file";
+
+        private static final String ARCHIVED = "klasses[";
+
+        private TrainingLog(Set<String> loaded, Set<String> archived) {
+            this.loaded = loaded;
+            this.archived = archived;
+        }
+
+        static TrainingLog parse(List<String> lines) {
+            Set<String> loaded = new TreeSet<>();
+            Set<String> archived = new TreeSet<>();
+            for (String line : lines) {
+                int sourceLoc = line.indexOf(SOURCE);
+                if (line.startsWith(ARCHIVED)) {
+                    // klasses[  13] = 0x0000000800bd1040 [app|unreg] com.example.Thing
+                    archived.add(line.substring(line.lastIndexOf(' ') + 1));
+                } else if (sourceLoc > 0 && !line.startsWith(SHARED_SOURCE, sourceLoc + SOURCE.length())) {
+                    // com.example.Thing source: file:/path/to/classes/
+                    loaded.add(line.substring(0, sourceLoc));
+                }
+            }
+            // lambda proxies and other hidden classes get a new name on each boot
+            loaded.removeIf(e -> e.contains("/0x") || e.contains("$$Lambda$"));
+            archived.removeIf(e -> e.contains("/0x") || e.contains("$$Lambda$"));
+            return new TrainingLog(loaded, archived);
+        }
+
+        Set<String> archived() {
+            return this.archived;
+        }
+
+        /**
+         * @return The classes loaded from outside the base archive which are missing from the new archive.
+         */
+        Set<String> notArchived() {
+            Set<String> notArchived = new TreeSet<>(this.loaded);
+            notArchived.removeAll(this.archived);
+            return notArchived;
+        }
+
+        private final Set<String> loaded;
+
+        private final Set<String> archived;
+    }
+}
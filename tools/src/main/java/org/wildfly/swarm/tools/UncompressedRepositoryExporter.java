@@ -0,0 +1,105 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Exports an uberjar with the entries of its <code>m2repo/</code> and the application archive stored
+ * uncompressed, so that the bootstrap can read them in place instead of copying them out to temporary files.
+ */
+final class UncompressedRepositoryExporter {
+
+    static final String REPOSITORY_PREFIX = "m2repo/";
+
+    private static final String MANIFEST_DIR = "META-INF/";
+
+    private UncompressedRepositoryExporter() {
+    }
+
+    static void exportTo(Archive<?> archive, OutputStream out) throws IOException {
+        List<Node> nodes = new ArrayList<>(archive.getContent().values());
+        nodes.sort(Comparator.comparing(UncompressedRepositoryExporter::sortKey));
+
+        byte[] buf = new byte[64 * 1024];
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Node node : nodes) {
+            String name = node.getPath().get().substring(1);
+            if (name.isEmpty()) {
+                continue;
+            }
+            Asset asset = node.getAsset();
+            if (asset == null) {
+                zip.putNextEntry(new ZipEntry(name + "/"));
+                zip.closeEntry();
+                continue;
+            }
+
+            ZipEntry entry = new ZipEntry(name);
+            if (name.startsWith(REPOSITORY_PREFIX) || name.startsWith(ProjectAsset.PREFIX)) {
+                // stored entries must declare size and checksum up front
+                CRC32 crc = new CRC32();
+                long size = 0;
+                try (InputStream in = asset.openStream()) {
+                    int len;
+                    while ((len = in.read(buf)) >= 0) {
+                        crc.update(buf, 0, len);
+                        size += len;
+                    }
+                }
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(crc.getValue());
+            }
+
+            zip.putNextEntry(entry);
+            try (InputStream in = asset.openStream()) {
+                int len;
+                while ((len = in.read(buf)) >= 0) {
+                    zip.write(buf, 0, len);
+                }
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    private static String sortKey(Node node) {
+        String name = node.getPath().get().substring(1);
+        // keep the manifest up front for the benefit of JarInputStream
+        if (name.equals(MANIFEST_DIR.substring(0, MANIFEST_DIR.length() - 1))) {
+            return "0";
+        }
+        if (name.equals(JarFile.MANIFEST_NAME)) {
+            return "1";
+        }
+        return "2" + name;
+    }
+}
@@ -42,6 +42,7 @@ configfile="$(basename "${jarfile%.*}.conf")"
 # Set up defaults
 [[ -z "$MODE" ]] && MODE="${mode:-auto}" # modes are "auto", "service" or "run"
 [[ -z "$USE_START_STOP_DAEMON" ]] && USE_START_STOP_DAEMON="${useStartStopDaemon:-true}"
+[[ -z "$USE_CDS" ]] && USE_CDS="${useCds:-true}"
 
 # Create an identity for log/pid files
 if [[ -z "$identity" ]]; then
@@ -114,6 +115,12 @@ else
     exit 1
 fi
 
+# Use the class-data sharing archive trained at build time, if there is one
+cds_archive="${jarfile%.*}.jsa"
+if [[ "$USE_CDS" == "true" ]] && [[ -r "$cds_archive" ]]; then
+  JAVA_OPTS="-XX:SharedArchiveFile=$cds_archive -Xshare:auto $JAVA_OPTS"
+fi
+
 # Build actual command to execute
 command="$javaexe -Dsun.misc.URLClassPath.disableJarChecking=true $JAVA_OPTS -jar $jarfile $RUN_ARGS $*"
 
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ClassDataSharingArchiverTest {
+
+    @Test
+    public void testArchiveIsNextToTheJar() {
+        File jar = new File("target" + File.separator + "myapp-thorntail.jar");
+
+        assertThat(ClassDataSharingArchiver.archiveFor(jar))
+                .isEqualTo(new File(jar.getAbsoluteFile().getParentFile(), "myapp-thorntail.jsa"));
+    }
+
+    @Test
+    public void testTrainingLog() {
+        ClassDataSharingArchiver.TrainingLog log = ClassDataSharingArchiver.TrainingLog.parse(Arrays.asList(
+                "java.lang.Object source: shared objects file",
+                "org.jboss.modules.Main source: file:/tmp/myapp-thorntail.jar",
+                "com.example.Endpoint source: jar:file:/tmp/myapp-thorntail.jar!/_bootstrap/myapp.war",
+                "com.example.Endpoint$$Lambda$12/0x0000000800c1a440 source: com.example.Endpoint",
+                "java.net.URLClassLoader source: jrt:/java.base",
+                "klasses[   0] = 0x0000000800bc6008 java.net.URLClassLoader",
+                "klasses[   1] = 0x0000000800bc6b58 app   org.jboss.modules.Main",
+                "klasses[   2] = 0x0000000800bc6fb0 com.example.Endpoint$$Lambda$3/0x00007f4631043b80"
+        ));
+
+        assertThat(log.archived()).containsOnly("java.net.URLClassLoader", "org.jboss.modules.Main");
+        assertThat(log.notArchived()).containsOnly("com.example.Endpoint");
+    }
+
+    @Test
+    public void testEverythingArchived() {
+        ClassDataSharingArchiver.TrainingLog log = ClassDataSharingArchiver.TrainingLog.parse(Arrays.asList(
+                "com.example.Endpoint source: file:/tmp/classes/",
+                "klasses[  17] = 0x0000000800cbbb08 unreg com.example.Endpoint"
+        ));
+
+        assertThat(log.archived()).containsOnly("com.example.Endpoint");
+        assertThat(log.notArchived()).isEmpty();
+    }
+}